@@ -1,15 +1,26 @@
 package me.adilfulara.autoledger;
 
+import me.adilfulara.autoledger.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.jdbc.repository.config.EnableJdbcAuditing;
 
 @SpringBootApplication
 @EnableJdbcAuditing
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class AutoLedgerApplication {
 
+    /**
+     * Startup steps kept for {@code /actuator/startup}; later steps are dropped once it is full.
+     */
+    private static final int STARTUP_STEP_CAPACITY = 4096;
+
     public static void main(String[] args) {
-        SpringApplication.run(AutoLedgerApplication.class, args);
+        SpringApplication application = new SpringApplication(AutoLedgerApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        application.run(args);
     }
 
 }
@@ -0,0 +1,91 @@
+package me.adilfulara.autoledger.anomaly;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for flagging suspicious fillups.
+ *
+ * <p>Maps to {@code anomaly.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * anomaly:
+ *   enabled: true
+ *   threshold: 3.5
+ *   min-samples: 8
+ *   min-relative-deviation: 0.25
+ *   exclude-from-averages: false
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "anomaly")
+public class AnomalyProperties {
+
+    /**
+     * Whether fillups are checked against their car's baseline when written.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Standard deviations from the car's mean beyond which a value is an outlier.
+     */
+    private double threshold = 3.5;
+
+    /**
+     * Values a baseline needs before it flags anything; young baselines only learn.
+     */
+    private int minSamples = 8;
+
+    /**
+     * Smallest deviation, as a fraction of the mean, that can be flagged. Keeps a car that always
+     * fills the same volume from flagging ordinary variation once its deviation is near zero.
+     */
+    private double minRelativeDeviation = 0.25;
+
+    /**
+     * Whether flagged fillups are left out of a car's average, best and worst MPG, compacted
+     * history included.
+     */
+    private boolean excludeFromAverages = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public double getMinRelativeDeviation() {
+        return minRelativeDeviation;
+    }
+
+    public void setMinRelativeDeviation(double minRelativeDeviation) {
+        this.minRelativeDeviation = minRelativeDeviation;
+    }
+
+    public boolean isExcludeFromAverages() {
+        return excludeFromAverages;
+    }
+
+    public void setExcludeFromAverages(boolean excludeFromAverages) {
+        this.excludeFromAverages = excludeFromAverages;
+    }
+}
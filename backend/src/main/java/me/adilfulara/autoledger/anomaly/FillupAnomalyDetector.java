@@ -0,0 +1,156 @@
+package me.adilfulara.autoledger.anomaly;
+
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupAnomaly;
+import me.adilfulara.autoledger.domain.model.FillupBaseline;
+import me.adilfulara.autoledger.domain.repository.FillupBaselineRepository;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Flags fillups whose fuel volume or segment MPG is far from their car's usual values.
+ * <p>
+ * Each car has a persisted baseline: Welford running statistics of its unflagged fuel volumes and
+ * MPGs. Written fillups are compared against it and new ones are folded in, at the cost of one
+ * primary-key read and one upsert per car, however long the history. The upsert merges what this
+ * write learned into the stored row, so concurrent writers need no lock. Flagged values are not
+ * learned, so a typo cannot widen the baseline that should catch the next one.
+ * <p>
+ * A car without a baseline (written before detection existed) gets one from its history on its
+ * next write. Edits and deletes are not subtracted; their weight fades as history grows.
+ */
+@Component
+public class FillupAnomalyDetector {
+
+    private final FillupBaselineRepository baselineRepository;
+    private final AnomalyProperties properties;
+
+    public FillupAnomalyDetector(FillupBaselineRepository baselineRepository, AnomalyProperties properties) {
+        this.baselineRepository = baselineRepository;
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * A fillup as seen by the detector.
+     *
+     * @param mpg     the fillup's segment MPG, or null if it has none
+     * @param anomaly the fillup's current flag; flagged history is not learned
+     */
+    public record Sample(UUID fillupId, BigDecimal fuelVolume, boolean partial, BigDecimal mpg,
+                         FillupAnomaly anomaly) {
+
+        public static Sample of(Fillup fillup, BigDecimal mpg) {
+            return new Sample(fillup.getId(), fillup.getFuelVolume(), Boolean.TRUE.equals(fillup.getIsPartial()),
+                    mpg, fillup.getAnomaly());
+        }
+    }
+
+    /**
+     * Check one car's written fillups against its baseline. Created fillups are then learned in
+     * order, unless flagged; updated ones are only checked, since they were learned when created.
+     *
+     * @param carId   the car
+     * @param created new fillups, in odometer order
+     * @param updated changed fillups
+     * @param history the car's other fillups; only read if the car has no baseline yet, whether the
+     *                write creates or only updates fillups
+     * @return the anomaly of each created or updated fillup that was flagged
+     */
+    public Map<UUID, FillupAnomaly> detect(UUID carId, List<Sample> created, List<Sample> updated,
+                                           Supplier<List<Sample>> history) {
+        Map<UUID, FillupAnomaly> flagged = new HashMap<>();
+        if (!properties.isEnabled() || (created.isEmpty() && updated.isEmpty())) {
+            return flagged;
+        }
+
+        Optional<FillupBaseline> stored = baselineRepository.findById(carId);
+        Baseline baseline = stored.map(Baseline::of).orElseGet(() -> Baseline.EMPTY.learnAll(history.get()));
+        // Only what this write learned is merged into a stored row; a new row takes everything
+        Baseline learned = stored.isPresent() ? Baseline.EMPTY : baseline;
+
+        for (Sample sample : updated) {
+            FillupAnomaly anomaly = baseline.classify(sample, properties);
+            if (anomaly != null) {
+                flagged.put(sample.fillupId(), anomaly);
+            }
+        }
+        for (Sample sample : created) {
+            FillupAnomaly anomaly = baseline.classify(sample, properties);
+            if (anomaly != null) {
+                flagged.put(sample.fillupId(), anomaly);
+            }
+            baseline = baseline.learn(sample, anomaly);
+            learned = learned.learn(sample, anomaly);
+        }
+
+        // Nothing learned (e.g. only updates on a car without history) leaves the car without a row,
+        // so its next write still bootstraps from history
+        if (!learned.equals(Baseline.EMPTY)) {
+            baselineRepository.merge(carId,
+                    learned.fuelVolume().count(), learned.fuelVolume().mean(), learned.fuelVolume().m2(),
+                    learned.mpg().count(), learned.mpg().mean(), learned.mpg().m2());
+        }
+        return flagged;
+    }
+
+    /**
+     * A car's running statistics.
+     */
+    record Baseline(RunningStats fuelVolume, RunningStats mpg) {
+
+        static final Baseline EMPTY = new Baseline(RunningStats.EMPTY, RunningStats.EMPTY);
+
+        static Baseline of(FillupBaseline row) {
+            return new Baseline(
+                    new RunningStats(row.getFuelVolumeCount(), row.getFuelVolumeMean(), row.getFuelVolumeM2()),
+                    new RunningStats(row.getMpgCount(), row.getMpgMean(), row.getMpgM2()));
+        }
+
+        /**
+         * Why a sample is an outlier, or null if it is not. A wrong volume also skews the
+         * segment's MPG, so the volume is reported first.
+         */
+        FillupAnomaly classify(Sample sample, AnomalyProperties properties) {
+            if (!sample.partial() && fuelVolume.isOutlier(sample.fuelVolume().doubleValue(), properties)) {
+                return FillupAnomaly.FUEL_VOLUME;
+            }
+            if (sample.mpg() != null && mpg.isOutlier(sample.mpg().doubleValue(), properties)) {
+                return FillupAnomaly.MPG;
+            }
+            return null;
+        }
+
+        /**
+         * Fold in a sample's values, except flagged ones. Partial fills say nothing about the
+         * usual fill, so their volume is skipped.
+         */
+        Baseline learn(Sample sample, FillupAnomaly anomaly) {
+            RunningStats volumes = sample.partial() || anomaly == FillupAnomaly.FUEL_VOLUME
+                    ? fuelVolume
+                    : fuelVolume.add(sample.fuelVolume().doubleValue());
+            RunningStats mpgs = sample.mpg() == null || anomaly != null
+                    ? mpg
+                    : mpg.add(sample.mpg().doubleValue());
+            return new Baseline(volumes, mpgs);
+        }
+
+        Baseline learnAll(List<Sample> samples) {
+            Baseline result = this;
+            for (Sample sample : samples) {
+                result = result.learn(sample, sample.anomaly());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package me.adilfulara.autoledger.anomaly;
+
+/**
+ * Welford's running mean and variance, updated one value at a time in O(1).
+ *
+ * @param count number of values seen
+ * @param mean  mean of the values
+ * @param m2    sum of squared deviations from the mean
+ */
+record RunningStats(long count, double mean, double m2) {
+
+    static final RunningStats EMPTY = new RunningStats(0, 0, 0);
+
+    /**
+     * Fold in one value.
+     */
+    RunningStats add(double value) {
+        long n = count + 1;
+        double delta = value - mean;
+        double newMean = mean + delta / n;
+        return new RunningStats(n, newMean, m2 + delta * (value - newMean));
+    }
+
+    /**
+     * Combine with statistics over other values (Chan's parallel formula), as if every value had
+     * been added to one instance. Matches {@code FillupBaselineRepository.merge}.
+     */
+    RunningStats merge(RunningStats other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            return other;
+        }
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        return new RunningStats(n,
+                mean + delta * other.count / n,
+                m2 + other.m2 + delta * delta * count * other.count / n);
+    }
+
+    /**
+     * Sample standard deviation; 0 with fewer than two values.
+     */
+    double standardDeviation() {
+        return count < 2 ? 0 : Math.sqrt(m2 / (count - 1));
+    }
+
+    /**
+     * Whether a value lies further from the mean than both {@code threshold} standard deviations
+     * and {@code minRelativeDeviation} of the mean. Never true before {@code minSamples} values.
+     */
+    boolean isOutlier(double value, AnomalyProperties properties) {
+        if (count < properties.getMinSamples()) {
+            return false;
+        }
+        double tolerance = Math.max(properties.getThreshold() * standardDeviation(),
+                properties.getMinRelativeDeviation() * Math.abs(mean));
+        return Math.abs(value - mean) > tolerance;
+    }
+}
@@ -1,18 +1,24 @@
 package me.adilfulara.autoledger.api.controller;
 
 import jakarta.validation.Valid;
+import me.adilfulara.autoledger.api.dto.CarDeletionResponse;
+import me.adilfulara.autoledger.api.dto.CarDistributionResponse;
 import me.adilfulara.autoledger.api.dto.CarResponse;
 import me.adilfulara.autoledger.api.dto.CarStatsResponse;
 import me.adilfulara.autoledger.api.dto.CreateCarRequest;
 import me.adilfulara.autoledger.api.dto.UpdateCarRequest;
 import me.adilfulara.autoledger.auth.AuthenticatedUser;
 import me.adilfulara.autoledger.auth.CurrentUser;
+import me.adilfulara.autoledger.deletion.CarDeletionService;
+import me.adilfulara.autoledger.distribution.FillupDistributionService;
 import me.adilfulara.autoledger.domain.model.Car;
 import me.adilfulara.autoledger.service.CarService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,10 +29,17 @@ import java.util.UUID;
 @RequestMapping("/api/cars")
 public class CarController {
 
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final CarService carService;
+    private final CarDeletionService deletionService;
+    private final FillupDistributionService distributionService;
 
-    public CarController(CarService carService) {
+    public CarController(CarService carService, CarDeletionService deletionService,
+                         FillupDistributionService distributionService) {
         this.carService = carService;
+        this.deletionService = deletionService;
+        this.distributionService = distributionService;
     }
 
     /**
@@ -74,11 +87,34 @@ public class CarController {
 
     /**
      * Delete a car.
+     * <p>
+     * With {@code Prefer: respond-async} the car is hidden immediately and its fillups are deleted
+     * in the background (202, status at the Location URL); otherwise everything is deleted before
+     * responding (204).
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteCar(@PathVariable UUID id) {
+    public ResponseEntity<CarDeletionResponse> deleteCar(
+            @PathVariable UUID id,
+            @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (prefer != null && prefer.contains(RESPOND_ASYNC)) {
+            CarDeletionResponse deletion = deletionService.requestDeletion(id);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/cars/" + id + "/deletion"))
+                    .header("Preference-Applied", RESPOND_ASYNC)
+                    .body(deletion);
+        }
         carService.deleteCar(id);
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.noContent().<CarDeletionResponse>build();
+    }
+
+    /**
+     * Get the status of an asynchronous car deletion.
+     */
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<CarDeletionResponse> getCarDeletion(
+            @CurrentUser AuthenticatedUser user,
+            @PathVariable UUID id) {
+        return ResponseEntity.ok(deletionService.getStatus(user.userId(), id));
     }
 
     /**
@@ -89,4 +125,17 @@ public class CarController {
         CarStatsResponse stats = carService.getCarStats(id);
         return ResponseEntity.ok(stats);
     }
+
+    /**
+     * Get the median, p10/p90 and a histogram of a car's MPG and price per unit, optionally for
+     * a range of months ({@code from} and {@code to} inclusive, e.g. {@code 2024-07}).
+     */
+    @GetMapping("/{id}/stats/distribution")
+    public ResponseEntity<CarDistributionResponse> getCarDistribution(
+            @PathVariable UUID id,
+            @RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to,
+            @RequestParam(defaultValue = "10") int bins) {
+        return ResponseEntity.ok(distributionService.getDistribution(id, from, to, bins));
+    }
 }
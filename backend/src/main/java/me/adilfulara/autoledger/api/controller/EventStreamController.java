@@ -0,0 +1,33 @@
+package me.adilfulara.autoledger.api.controller;
+
+import me.adilfulara.autoledger.auth.AuthenticatedUser;
+import me.adilfulara.autoledger.auth.CurrentUser;
+import me.adilfulara.autoledger.events.ChangeStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events stream of the current user's car and fillup changes.
+ */
+@RestController
+@RequestMapping("/api/events")
+public class EventStreamController {
+
+    private final ChangeStreamService changeStreamService;
+
+    public EventStreamController(ChangeStreamService changeStreamService) {
+        this.changeStreamService = changeStreamService;
+    }
+
+    /**
+     * Subscribe to change notifications (car_created, car_updated, car_deleted, fillup_added,
+     * fillup_updated, fillup_deleted, stats_updated, resync).
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@CurrentUser AuthenticatedUser user) {
+        return changeStreamService.subscribe(user.userId());
+    }
+}
@@ -1,21 +1,32 @@
 package me.adilfulara.autoledger.api.controller;
 
 import jakarta.validation.Valid;
+import me.adilfulara.autoledger.api.dto.BatchFillupRequest;
+import me.adilfulara.autoledger.api.dto.BatchFillupResponse;
 import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.dto.FillupColumnsResponse;
+import me.adilfulara.autoledger.api.dto.FillupRangeResponse;
 import me.adilfulara.autoledger.api.dto.FillupResponse;
 import me.adilfulara.autoledger.api.dto.UpdateFillupRequest;
-import me.adilfulara.autoledger.api.exception.InvalidOdometerException;
 import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.auth.AuthenticatedUser;
+import me.adilfulara.autoledger.auth.CurrentUser;
 import me.adilfulara.autoledger.domain.model.Fillup;
 import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupArchiveRepository;
 import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.idempotency.IdempotencyService;
+import me.adilfulara.autoledger.service.FillupBatchService;
+import me.adilfulara.autoledger.service.FillupRangeService;
 import me.adilfulara.autoledger.service.FillupService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -26,15 +37,28 @@ import java.util.UUID;
 @RequestMapping("/api")
 public class FillupController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final FillupRepository fillupRepository;
     private final CarRepository carRepository;
+    private final FillupArchiveRepository archiveRepository;
     private final FillupService fillupService;
+    private final FillupBatchService fillupBatchService;
+    private final FillupRangeService fillupRangeService;
+    private final IdempotencyService idempotencyService;
 
     public FillupController(FillupRepository fillupRepository, CarRepository carRepository,
-                            FillupService fillupService) {
+                            FillupArchiveRepository archiveRepository, FillupService fillupService,
+                            FillupBatchService fillupBatchService, FillupRangeService fillupRangeService,
+                            IdempotencyService idempotencyService) {
         this.fillupRepository = fillupRepository;
         this.carRepository = carRepository;
+        this.archiveRepository = archiveRepository;
         this.fillupService = fillupService;
+        this.fillupBatchService = fillupBatchService;
+        this.fillupRangeService = fillupRangeService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
@@ -43,6 +67,7 @@ public class FillupController {
     @GetMapping("/fillups/{id}")
     public ResponseEntity<FillupResponse> getFillup(@PathVariable UUID id) {
         Fillup fillup = fillupRepository.findById(id)
+                .filter(f -> carRepository.existsActiveById(f.getCarId()))
                 .orElseThrow(() -> new ResourceNotFoundException("Fillup", id));
         Optional<BigDecimal> mpg = fillupService.calculateMPG(fillup);
         return ResponseEntity.ok(FillupResponse.from(fillup, mpg.orElse(null)));
@@ -50,34 +75,46 @@ public class FillupController {
 
     /**
      * Create a new fillup.
+     * With an {@code Idempotency-Key} header, a retry returns the original response instead of
+     * creating another fillup, marked with {@code Idempotent-Replayed: true}.
      */
     @PostMapping("/fillups")
-    public ResponseEntity<FillupResponse> createFillup(@Valid @RequestBody CreateFillupRequest request) {
-        // Verify car exists
-        if (!carRepository.existsById(request.carId())) {
-            throw new ResourceNotFoundException("Car", request.carId());
+    public ResponseEntity<FillupResponse> createFillup(
+            @CurrentUser AuthenticatedUser user,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateFillupRequest request) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(create(request));
         }
+        IdempotencyService.Result<FillupResponse> result = idempotencyService.execute(
+                user.userId(), idempotencyKey, request, FillupResponse.class, () -> create(request));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.body());
+    }
 
-        // Validate odometer is greater than previous
-        Optional<Fillup> mostRecent = fillupRepository.findMostRecentByCarId(request.carId());
-        if (mostRecent.isPresent() && request.odometer() <= mostRecent.get().getOdometer()) {
-            throw new InvalidOdometerException(request.odometer(), mostRecent.get().getOdometer());
-        }
+    /**
+     * Apply a batch of fillup creates, updates and deletes, all or nothing.
+     */
+    @PostMapping("/fillups/batch")
+    public ResponseEntity<BatchFillupResponse> applyFillupBatch(@Valid @RequestBody BatchFillupRequest request) {
+        return ResponseEntity.ok(fillupBatchService.apply(request));
+    }
 
-        Fillup fillup = new Fillup(
-                request.carId(),
-                request.date(),
-                request.odometer(),
-                request.fuelVolume(),
-                request.pricePerUnit(),
-                request.totalCost(),
-                request.isPartialOrDefault(),
-                request.isMissedOrDefault()
-        );
-
-        Fillup saved = fillupRepository.save(fillup);
-        Optional<BigDecimal> mpg = fillupService.calculateMPG(saved);
-        return ResponseEntity.status(HttpStatus.CREATED).body(FillupResponse.from(saved, mpg.orElse(null)));
+    /**
+     * Get the fillups of all of the user's cars in a date range, with per-car aggregates.
+     */
+    @GetMapping("/fillups/range")
+    public ResponseEntity<FillupRangeResponse> getUserFillupsInRange(
+            @CurrentUser AuthenticatedUser user,
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam(required = false) Boolean partial,
+            @RequestParam(required = false) Boolean missed,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice) {
+        FillupRangeService.Filter filter = new FillupRangeService.Filter(from, to, partial, missed, minPrice, maxPrice);
+        return ResponseEntity.ok(fillupRangeService.getUserFillups(user.userId(), filter));
     }
 
     /**
@@ -87,32 +124,7 @@ public class FillupController {
     public ResponseEntity<FillupResponse> updateFillup(
             @PathVariable UUID id,
             @Valid @RequestBody UpdateFillupRequest request) {
-        Fillup fillup = fillupRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Fillup", id));
-
-        if (request.date() != null) {
-            fillup.setDate(request.date());
-        }
-        if (request.odometer() != null) {
-            fillup.setOdometer(request.odometer());
-        }
-        if (request.fuelVolume() != null) {
-            fillup.setFuelVolume(request.fuelVolume());
-        }
-        if (request.pricePerUnit() != null) {
-            fillup.setPricePerUnit(request.pricePerUnit());
-        }
-        if (request.totalCost() != null) {
-            fillup.setTotalCost(request.totalCost());
-        }
-        if (request.isPartial() != null) {
-            fillup.setIsPartial(request.isPartial());
-        }
-        if (request.isMissed() != null) {
-            fillup.setIsMissed(request.isMissed());
-        }
-
-        Fillup saved = fillupRepository.save(fillup);
+        Fillup saved = fillupService.updateFillup(id, request);
         Optional<BigDecimal> mpg = fillupService.calculateMPG(saved);
         return ResponseEntity.ok(FillupResponse.from(saved, mpg.orElse(null)));
     }
@@ -122,10 +134,7 @@ public class FillupController {
      */
     @DeleteMapping("/fillups/{id}")
     public ResponseEntity<Void> deleteFillup(@PathVariable UUID id) {
-        if (!fillupRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Fillup", id);
-        }
-        fillupRepository.deleteById(id);
+        fillupService.deleteFillup(id);
         return ResponseEntity.noContent().build();
     }
 
@@ -134,17 +143,27 @@ public class FillupController {
      */
     @GetMapping("/cars/{carId}/fillups")
     public ResponseEntity<List<FillupResponse>> getFillupsByCarId(@PathVariable UUID carId) {
-        if (!carRepository.existsById(carId)) {
+        if (!carRepository.existsActiveById(carId)) {
             throw new ResourceNotFoundException("Car", carId);
         }
         List<Fillup> fillups = fillupRepository.findByCarIdOrderByDateDesc(carId);
-        List<FillupResponse> response = fillups.stream()
-                .map(f -> {
-                    Optional<BigDecimal> mpg = fillupService.calculateMPG(f);
-                    return FillupResponse.from(f, mpg.orElse(null));
-                })
-                .toList();
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(toResponses(fillups));
+    }
+
+    /**
+     * Get all fillups for a specific car as parallel columns
+     * ({@code Accept: application/vnd.autoledger.fillups.columnar+json}).
+     */
+    @GetMapping(value = "/cars/{carId}/fillups", produces = FillupColumnsResponse.MEDIA_TYPE)
+    public ResponseEntity<FillupColumnsResponse> getFillupColumnsByCarId(
+            @PathVariable UUID carId,
+            @RequestParam(defaultValue = "false") boolean includeIds) {
+        if (!carRepository.existsActiveById(carId)) {
+            throw new ResourceNotFoundException("Car", carId);
+        }
+        List<Fillup> fillups = fillupRepository.findByCarIdOrderByOdometerAsc(carId);
+        Map<UUID, BigDecimal> mpgById = fillupService.calculateMPGs(fillups);
+        return ResponseEntity.ok(FillupColumnsResponse.from(carId, fillups, mpgById, includeIds));
     }
 
     /**
@@ -154,16 +173,73 @@ public class FillupController {
     public ResponseEntity<List<FillupResponse>> getRecentFillups(
             @PathVariable UUID carId,
             @RequestParam(defaultValue = "50") int limit) {
-        if (!carRepository.existsById(carId)) {
+        if (!carRepository.existsActiveById(carId)) {
             throw new ResourceNotFoundException("Car", carId);
         }
         List<Fillup> fillups = fillupRepository.findRecentByCarId(carId, Math.min(limit, 50));
-        List<FillupResponse> response = fillups.stream()
-                .map(f -> {
-                    Optional<BigDecimal> mpg = fillupService.calculateMPG(f);
-                    return FillupResponse.from(f, mpg.orElse(null));
-                })
+        return ResponseEntity.ok(toResponses(fillups));
+    }
+
+    /**
+     * Get a car's fillups flagged as outliers when written, newest first.
+     * Flagged fillups are rare and not contiguous, so MPG is calculated per fillup.
+     */
+    @GetMapping("/cars/{carId}/fillups/flagged")
+    public ResponseEntity<List<FillupResponse>> getFlaggedFillups(@PathVariable UUID carId) {
+        if (!carRepository.existsActiveById(carId)) {
+            throw new ResourceNotFoundException("Car", carId);
+        }
+        List<FillupResponse> response = fillupRepository.findFlaggedByCarId(carId).stream()
+                .map(f -> FillupResponse.from(f, fillupService.calculateMPG(f).orElse(null)))
+                .toList();
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get a car's fillups in a date range ({@code from} inclusive, {@code to} exclusive), including
+     * compacted history, with aggregates. Optional filters: {@code partial}, {@code missed},
+     * {@code minPrice} and {@code maxPrice} (price per unit, inclusive).
+     */
+    @GetMapping("/cars/{carId}/fillups/range")
+    public ResponseEntity<FillupRangeResponse> getFillupsInRange(
+            @PathVariable UUID carId,
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam(required = false) Boolean partial,
+            @RequestParam(required = false) Boolean missed,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice) {
+        FillupRangeService.Filter filter = new FillupRangeService.Filter(from, to, partial, missed, minPrice, maxPrice);
+        return ResponseEntity.ok(fillupRangeService.getCarFillups(carId, filter));
+    }
+
+    /**
+     * Export a car's archived (compacted) fillups, with the MPG they had when archived.
+     */
+    @GetMapping("/cars/{carId}/fillups/archive")
+    public ResponseEntity<List<FillupResponse>> getArchivedFillups(@PathVariable UUID carId) {
+        if (!carRepository.existsActiveById(carId)) {
+            throw new ResourceNotFoundException("Car", carId);
+        }
+        List<FillupResponse> response = archiveRepository.findByCarIdOrderByDateDesc(carId).stream()
+                .map(FillupResponse::from)
                 .toList();
         return ResponseEntity.ok(response);
     }
+
+    private FillupResponse create(CreateFillupRequest request) {
+        Fillup saved = fillupService.createFillup(request);
+        Optional<BigDecimal> mpg = fillupService.calculateMPG(saved);
+        return FillupResponse.from(saved, mpg.orElse(null));
+    }
+
+    /**
+     * Map fillups to responses, computing MPG for the whole list in one pass.
+     */
+    private List<FillupResponse> toResponses(List<Fillup> fillups) {
+        Map<UUID, BigDecimal> mpgById = fillupService.calculateMPGs(fillups);
+        return fillups.stream()
+                .map(f -> FillupResponse.from(f, mpgById.get(f.getId())))
+                .toList();
+    }
 }
@@ -0,0 +1,36 @@
+package me.adilfulara.autoledger.api.controller;
+
+import me.adilfulara.autoledger.api.dto.FleetSummaryResponse;
+import me.adilfulara.autoledger.auth.AuthenticatedUser;
+import me.adilfulara.autoledger.auth.CurrentUser;
+import me.adilfulara.autoledger.fleet.FleetService;
+import me.adilfulara.autoledger.fleet.FleetUnits;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for fleet-level views over all of the current user's cars.
+ */
+@RestController
+@RequestMapping("/api/fleet")
+public class FleetController {
+
+    private final FleetService fleetService;
+
+    public FleetController(FleetService fleetService) {
+        this.fleetService = fleetService;
+    }
+
+    /**
+     * Get fleet totals and per-car rankings, converted to {@code units} ({@code US} or {@code METRIC}).
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<FleetSummaryResponse> getSummary(
+            @CurrentUser AuthenticatedUser user,
+            @RequestParam(defaultValue = "US") FleetUnits units) {
+        return ResponseEntity.ok(fleetService.getFleetSummary(user.userId(), units));
+    }
+}
@@ -0,0 +1,35 @@
+package me.adilfulara.autoledger.api.controller;
+
+import me.adilfulara.autoledger.api.dto.SyncResponse;
+import me.adilfulara.autoledger.auth.AuthenticatedUser;
+import me.adilfulara.autoledger.auth.CurrentUser;
+import me.adilfulara.autoledger.sync.SyncService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for delta sync of the current user's cars and fillups.
+ */
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    /**
+     * Get changes since a token from a previous sync; without a token, a full snapshot.
+     */
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(
+            @CurrentUser AuthenticatedUser user,
+            @RequestParam(required = false) String token) {
+        return ResponseEntity.ok(syncService.changesSince(user.userId(), token));
+    }
+}
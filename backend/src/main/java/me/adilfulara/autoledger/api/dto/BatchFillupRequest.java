@@ -0,0 +1,51 @@
+package me.adilfulara.autoledger.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for a batch of fillup writes, possibly across several cars.
+ * The batch is applied all-or-nothing; omitted lists are treated as empty.
+ *
+ * @param create fillups to create (same rules as {@code POST /api/fillups})
+ * @param update fillups to update (same rules as {@code PUT /api/fillups/{id}})
+ * @param delete IDs of fillups to delete
+ */
+public record BatchFillupRequest(
+        @Size(max = MAX_OPERATIONS, message = "At most " + MAX_OPERATIONS + " creates per batch")
+        List<@NotNull @Valid CreateFillupRequest> create,
+
+        @Size(max = MAX_OPERATIONS, message = "At most " + MAX_OPERATIONS + " updates per batch")
+        List<@NotNull @Valid Update> update,
+
+        @Size(max = MAX_OPERATIONS, message = "At most " + MAX_OPERATIONS + " deletes per batch")
+        List<@NotNull UUID> delete
+) {
+
+    public static final int MAX_OPERATIONS = 1000;
+
+    public BatchFillupRequest {
+        create = create != null ? create : List.of();
+        update = update != null ? update : List.of();
+        delete = delete != null ? delete : List.of();
+    }
+
+    /**
+     * Update of one fillup.
+     *
+     * @param id      the fillup to update
+     * @param changes fields to change; null fields are left unchanged
+     */
+    public record Update(
+            @NotNull(message = "Fillup ID is required")
+            UUID id,
+
+            @NotNull(message = "Changes are required")
+            @Valid
+            UpdateFillupRequest changes
+    ) {}
+}
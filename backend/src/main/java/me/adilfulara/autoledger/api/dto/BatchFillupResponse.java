@@ -0,0 +1,17 @@
+package me.adilfulara.autoledger.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for an applied fillup batch.
+ *
+ * @param created the created fillups, in request order
+ * @param updated the updated fillups, in request order
+ * @param deleted IDs of the deleted fillups
+ */
+public record BatchFillupResponse(
+        List<FillupResponse> created,
+        List<FillupResponse> updated,
+        List<UUID> deleted
+) {}
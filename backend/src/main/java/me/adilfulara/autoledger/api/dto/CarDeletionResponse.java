@@ -0,0 +1,28 @@
+package me.adilfulara.autoledger.api.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Status of an asynchronous car deletion ({@code GET /api/cars/{id}/deletion}).
+ *
+ * @param carId       the car being deleted
+ * @param status      {@code deleting} while fillups are being removed, then {@code deleted}
+ * @param requestedAt when deletion was requested, or null once the car is gone
+ */
+public record CarDeletionResponse(
+        UUID carId,
+        String status,
+        Instant requestedAt
+) {
+    public static final String DELETING = "deleting";
+    public static final String DELETED = "deleted";
+
+    public static CarDeletionResponse deleting(UUID carId, Instant requestedAt) {
+        return new CarDeletionResponse(carId, DELETING, requestedAt);
+    }
+
+    public static CarDeletionResponse deleted(UUID carId) {
+        return new CarDeletionResponse(carId, DELETED, null);
+    }
+}
@@ -0,0 +1,46 @@
+package me.adilfulara.autoledger.api.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for the distribution of a car's MPG and price per unit over a range of months.
+ * Quantiles are accurate to 1% of their value.
+ *
+ * @param from         first month covered (inclusive), or null for the car's first
+ * @param to           last month covered (inclusive), or null for the car's latest
+ * @param mpg          distribution of per-fillup MPG (scale 2)
+ * @param pricePerUnit distribution of price per unit (scale 3)
+ */
+public record CarDistributionResponse(
+        UUID carId,
+        YearMonth from,
+        YearMonth to,
+        Distribution mpg,
+        Distribution pricePerUnit
+) {
+
+    /**
+     * Quantiles and a histogram of one figure.
+     *
+     * @param count     number of values
+     * @param p10       10th percentile, or null without values
+     * @param median    50th percentile, or null without values
+     * @param p90       90th percentile, or null without values
+     * @param histogram equal-width bins from the lowest to the highest value; empty without values
+     */
+    public record Distribution(
+            long count,
+            BigDecimal p10,
+            BigDecimal median,
+            BigDecimal p90,
+            List<Bin> histogram
+    ) {}
+
+    /**
+     * Number of values between {@code lower} and {@code upper}.
+     */
+    public record Bin(BigDecimal lower, BigDecimal upper, long count) {}
+}
@@ -0,0 +1,41 @@
+package me.adilfulara.autoledger.api.dto;
+
+import me.adilfulara.autoledger.domain.model.ChangeType;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Compact change notification pushed over the event stream.
+ * Clients refetch what they display; the notification only says what changed.
+ *
+ * @param type        event name, e.g. {@code fillup_added}, {@code stats_updated} or {@code resync}
+ * @param carId       the affected car (null for {@code resync})
+ * @param entityId    the changed car or fillup (null for {@code stats_updated} and {@code resync})
+ * @param dataVersion the car's data version after the change (null for {@code resync})
+ */
+public record ChangeNotification(
+        String type,
+        UUID carId,
+        UUID entityId,
+        Long dataVersion
+) {
+
+    public static final String STATS_UPDATED = "stats_updated";
+    public static final String RESYNC = "resync";
+
+    public static ChangeNotification of(ChangeType type, UUID carId, UUID entityId, long dataVersion) {
+        return new ChangeNotification(type.name().toLowerCase(Locale.ROOT), carId, entityId, dataVersion);
+    }
+
+    public static ChangeNotification statsUpdated(UUID carId, long dataVersion) {
+        return new ChangeNotification(STATS_UPDATED, carId, null, dataVersion);
+    }
+
+    /**
+     * Sent instead of the backlog when a subscriber fell behind: refetch everything.
+     */
+    public static ChangeNotification resync() {
+        return new ChangeNotification(RESYNC, null, null, null);
+    }
+}
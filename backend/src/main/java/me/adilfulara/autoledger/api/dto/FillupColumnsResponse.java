@@ -0,0 +1,99 @@
+package me.adilfulara.autoledger.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import me.adilfulara.autoledger.domain.model.Fillup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Columnar response DTO for a car's fillup history, for chart-rendering clients.
+ *
+ * <p>Served for {@code Accept: application/vnd.autoledger.fillups.columnar+json}. Row {@code i}
+ * of the history is the {@code i}-th entry of every column; rows are in odometer (chronological)
+ * order. Compared with a list of {@link FillupResponse}, field names and the car ID appear once,
+ * odometers are delta-encoded and dates are epoch-second offsets, which shrinks large histories
+ * several-fold:
+ * <ul>
+ *   <li>{@code dates[i]} = seconds between {@code dateBase} (epoch seconds) and the fillup date</li>
+ *   <li>{@code odometerDeltas[i]} = odometer minus the previous row's (the first is relative to
+ *       {@code odometerBase})</li>
+ *   <li>{@code mpg[i]} is null where MPG cannot be calculated</li>
+ *   <li>{@code partialRows} / {@code missedRows} list the indexes of partial / missed fillups</li>
+ *   <li>{@code ids} is only present when requested with {@code includeIds=true}</li>
+ * </ul>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FillupColumnsResponse(
+        UUID carId,
+        int count,
+        long dateBase,
+        long odometerBase,
+        long[] dates,
+        long[] odometerDeltas,
+        List<BigDecimal> fuelVolumes,
+        List<BigDecimal> pricesPerUnit,
+        List<BigDecimal> totalCosts,
+        List<BigDecimal> mpg,
+        List<Integer> partialRows,
+        List<Integer> missedRows,
+        List<UUID> ids
+) {
+    public static final String MEDIA_TYPE = "application/vnd.autoledger.fillups.columnar+json";
+
+    /**
+     * Factory method to build the columns from a car's fillups.
+     *
+     * @param carId      the car's UUID
+     * @param fillups    the car's fillups, in any order
+     * @param mpgById    MPG values keyed by fillup ID (absent where not calculable)
+     * @param includeIds whether to include the fillup IDs column
+     */
+    public static FillupColumnsResponse from(UUID carId, List<Fillup> fillups, Map<UUID, BigDecimal> mpgById,
+                                             boolean includeIds) {
+        List<Fillup> rows = fillups.stream()
+                .sorted(Comparator.comparing(Fillup::getOdometer).thenComparing(Fillup::getDate))
+                .toList();
+        int count = rows.size();
+        long dateBase = count > 0 ? rows.getFirst().getDate().getEpochSecond() : 0;
+        long odometerBase = count > 0 ? rows.getFirst().getOdometer() : 0;
+
+        long[] dates = new long[count];
+        long[] odometerDeltas = new long[count];
+        List<BigDecimal> fuelVolumes = new ArrayList<>(count);
+        List<BigDecimal> pricesPerUnit = new ArrayList<>(count);
+        List<BigDecimal> totalCosts = new ArrayList<>(count);
+        List<BigDecimal> mpg = new ArrayList<>(count);
+        List<Integer> partialRows = new ArrayList<>();
+        List<Integer> missedRows = new ArrayList<>();
+        List<UUID> ids = includeIds ? new ArrayList<>(count) : null;
+
+        long previousOdometer = odometerBase;
+        for (int i = 0; i < count; i++) {
+            Fillup fillup = rows.get(i);
+            dates[i] = fillup.getDate().getEpochSecond() - dateBase;
+            odometerDeltas[i] = fillup.getOdometer() - previousOdometer;
+            previousOdometer = fillup.getOdometer();
+            fuelVolumes.add(fillup.getFuelVolume());
+            pricesPerUnit.add(fillup.getPricePerUnit());
+            totalCosts.add(fillup.getTotalCost());
+            mpg.add(mpgById.get(fillup.getId()));
+            if (Boolean.TRUE.equals(fillup.getIsPartial())) {
+                partialRows.add(i);
+            }
+            if (Boolean.TRUE.equals(fillup.getIsMissed())) {
+                missedRows.add(i);
+            }
+            if (ids != null) {
+                ids.add(fillup.getId());
+            }
+        }
+
+        return new FillupColumnsResponse(carId, count, dateBase, odometerBase, dates, odometerDeltas,
+                fuelVolumes, pricesPerUnit, totalCosts, mpg, partialRows, missedRows, ids);
+    }
+}
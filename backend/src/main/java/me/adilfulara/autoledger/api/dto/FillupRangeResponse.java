@@ -0,0 +1,44 @@
+package me.adilfulara.autoledger.api.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a date-range fillup query.
+ *
+ * @param from        start of the range (inclusive)
+ * @param to          end of the range (exclusive)
+ * @param fillupCount number of matching fillups
+ * @param totalCost   total cost of the matching fillups
+ * @param cars        per-car aggregates, for cars with at least one matching fillup; fuel and
+ *                    price are only summed per car because cars may use different fuel units
+ * @param fillups     the matching fillups (hot and archived), newest first, with MPG
+ */
+public record FillupRangeResponse(
+        Instant from,
+        Instant to,
+        long fillupCount,
+        BigDecimal totalCost,
+        List<CarTotals> cars,
+        List<FillupResponse> fillups
+) {
+
+    /**
+     * Aggregates over one car's matching fillups.
+     *
+     * @param averagePricePerUnit mean price per unit over the fillups (scale 3), as in car stats
+     * @param averageMpg          mean of the fillups' MPG values (scale 2), or null if none has MPG
+     */
+    public record CarTotals(
+            UUID carId,
+            long fillupCount,
+            BigDecimal totalFuel,
+            BigDecimal totalCost,
+            BigDecimal averagePricePerUnit,
+            BigDecimal minPricePerUnit,
+            BigDecimal maxPricePerUnit,
+            BigDecimal averageMpg
+    ) {}
+}
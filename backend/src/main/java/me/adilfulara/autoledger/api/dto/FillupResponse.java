@@ -1,6 +1,8 @@
 package me.adilfulara.autoledger.api.dto;
 
+import me.adilfulara.autoledger.domain.model.ArchivedFillup;
 import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupAnomaly;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -8,7 +10,7 @@ import java.util.UUID;
 
 /**
  * Response DTO for fillup data.
- * Includes calculated MPG when available.
+ * Includes calculated MPG when available, and why the fillup was flagged as an outlier if it was.
  */
 public record FillupResponse(
         UUID id,
@@ -21,6 +23,7 @@ public record FillupResponse(
         Boolean isPartial,
         Boolean isMissed,
         BigDecimal mpg,
+        FillupAnomaly anomaly,
         Instant createdAt,
         Instant updatedAt
 ) {
@@ -46,6 +49,28 @@ public record FillupResponse(
                 fillup.getIsPartial(),
                 fillup.getIsMissed(),
                 mpg,
+                fillup.getAnomaly(),
+                fillup.getCreatedAt(),
+                fillup.getUpdatedAt()
+        );
+    }
+
+    /**
+     * Factory method to create response from an archived fillup, using the MPG stored at archive time.
+     */
+    public static FillupResponse from(ArchivedFillup fillup) {
+        return new FillupResponse(
+                fillup.getId(),
+                fillup.getCarId(),
+                fillup.getDate(),
+                fillup.getOdometer(),
+                fillup.getFuelVolume(),
+                fillup.getPricePerUnit(),
+                fillup.getTotalCost(),
+                fillup.getIsPartial(),
+                fillup.getIsMissed(),
+                fillup.getMpg(),
+                fillup.getAnomaly(),
                 fillup.getCreatedAt(),
                 fillup.getUpdatedAt()
         );
@@ -0,0 +1,62 @@
+package me.adilfulara.autoledger.api.dto;
+
+import me.adilfulara.autoledger.domain.model.DistanceUnit;
+import me.adilfulara.autoledger.domain.model.FuelUnit;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a fleet summary: totals and rankings over all of a user's cars, with every
+ * figure converted to one unit system.
+ *
+ * @param distanceUnit unit of every distance (and of efficiency's numerator)
+ * @param fuelUnit     unit of every fuel volume (and of efficiency's denominator)
+ * @param totals       fleet-wide totals
+ * @param vehicles     per-car figures, best efficiency first; cars without MPG come last
+ */
+public record FleetSummaryResponse(
+        DistanceUnit distanceUnit,
+        FuelUnit fuelUnit,
+        Totals totals,
+        List<Vehicle> vehicles
+) {
+
+    /**
+     * Fleet-wide totals.
+     *
+     * @param averageEfficiency mean of the cars' average efficiency (scale 2), over cars with MPG
+     * @param costPerDistance   total spent divided by total distance (scale 4), or null without distance
+     */
+    public record Totals(
+            int carCount,
+            long totalFillups,
+            BigDecimal totalDistance,
+            BigDecimal totalFuel,
+            BigDecimal totalSpent,
+            BigDecimal averageEfficiency,
+            BigDecimal costPerDistance
+    ) {}
+
+    /**
+     * One car's figures and its rank in the fleet.
+     *
+     * @param averageEfficiency   the car's average MPG converted to the fleet's units (scale 2)
+     * @param costPerDistance     total spent divided by distance driven (scale 4)
+     * @param efficiencyRank      1 for the most efficient car; null without MPG
+     * @param costPerDistanceRank 1 for the cheapest car to run; null without distance
+     */
+    public record Vehicle(
+            UUID carId,
+            String name,
+            long totalFillups,
+            BigDecimal totalDistance,
+            BigDecimal totalFuel,
+            BigDecimal totalSpent,
+            BigDecimal averageEfficiency,
+            BigDecimal costPerDistance,
+            Integer efficiencyRank,
+            Integer costPerDistanceRank
+    ) {}
+}
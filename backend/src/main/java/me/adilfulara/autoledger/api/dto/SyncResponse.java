@@ -0,0 +1,42 @@
+package me.adilfulara.autoledger.api.dto;
+
+import me.adilfulara.autoledger.domain.model.ChangeType;
+import me.adilfulara.autoledger.domain.model.SyncTombstone;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a delta sync.
+ *
+ * @param token   opaque token to pass to the next sync
+ * @param reset   true if this is a full snapshot: the client must replace its local copy
+ * @param cars    cars created or updated since the previous token (or all cars on reset)
+ * @param fillups fillups created or updated since the previous token (or all fillups on reset),
+ *                without MPG, which depends on neighbouring fillups
+ * @param deleted cars and fillups deleted since the previous token; a deleted car's fillups are
+ *                not listed separately
+ */
+public record SyncResponse(
+        String token,
+        boolean reset,
+        List<CarResponse> cars,
+        List<FillupResponse> fillups,
+        List<Deletion> deleted
+) {
+
+    /**
+     * A deleted car or fillup.
+     *
+     * @param type  {@code car} or {@code fillup}
+     * @param id    ID of the deleted car or fillup
+     * @param carId the car (same as {@code id} for cars)
+     */
+    public record Deletion(String type, UUID id, UUID carId) {
+
+        public static Deletion from(SyncTombstone tombstone) {
+            String type = tombstone.getChangeType() == ChangeType.CAR_DELETED ? "car" : "fillup";
+            return new Deletion(type, tombstone.getEntityId(), tombstone.getCarId());
+        }
+    }
+}
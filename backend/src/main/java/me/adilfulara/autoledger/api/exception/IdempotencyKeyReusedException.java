@@ -0,0 +1,11 @@
+package me.adilfulara.autoledger.api.exception;
+
+/**
+ * Exception thrown when an Idempotency-Key is sent again with a different request body.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String key) {
+        super(String.format("Idempotency-Key '%s' was already used with a different request", key));
+    }
+}
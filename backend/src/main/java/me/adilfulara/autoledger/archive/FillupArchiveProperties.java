@@ -0,0 +1,64 @@
+package me.adilfulara.autoledger.archive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for cold-history compaction.
+ *
+ * <p>Maps to {@code archive.fillups.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * archive:
+ *   fillups:
+ *     enabled: true
+ *     retention: 730d
+ *     cron: "0 30 3 * * *"
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "archive.fillups")
+public class FillupArchiveProperties {
+
+    /**
+     * Whether the scheduled compaction job runs.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Fillups older than this are moved to the archive.
+     */
+    private Duration retention = Duration.ofDays(730);
+
+    /**
+     * When the compaction job runs (Spring cron expression).
+     */
+    private String cron = "0 30 3 * * *";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public String getCron() {
+        return cron;
+    }
+
+    public void setCron(String cron) {
+        this.cron = cron;
+    }
+}
@@ -0,0 +1,48 @@
+package me.adilfulara.autoledger.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Scheduled job that compacts cold fillup history.
+ *
+ * <p>Opt-in: only registered when {@code archive.fillups.enabled=true}. Each car is compacted in
+ * its own transaction, so a failure on one car does not roll back the others.
+ */
+@Component
+@ConditionalOnProperty(prefix = "archive.fillups", name = "enabled", havingValue = "true")
+public class FillupCompactionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(FillupCompactionJob.class);
+
+    private final FillupCompactionService compactionService;
+    private final FillupArchiveProperties properties;
+
+    public FillupCompactionJob(FillupCompactionService compactionService, FillupArchiveProperties properties) {
+        this.compactionService = compactionService;
+        this.properties = properties;
+    }
+
+    /**
+     * Archive fillups older than the configured retention for every car.
+     */
+    @Scheduled(cron = "${archive.fillups.cron:0 30 3 * * *}")
+    public void run() {
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+        int archived = 0;
+        for (UUID carId : compactionService.findCandidates(cutoff)) {
+            try {
+                archived += compactionService.compactCar(carId, cutoff);
+            } catch (RuntimeException e) {
+                logger.error("Failed to compact fillups for car {}", carId, e);
+            }
+        }
+        logger.info("Fillup compaction archived {} fillups older than {}", archived, cutoff);
+    }
+}
@@ -0,0 +1,122 @@
+package me.adilfulara.autoledger.archive;
+
+import me.adilfulara.autoledger.domain.model.ArchivedFillup;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupSegment;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupArchiveRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.FillupSegmentRepository;
+import me.adilfulara.autoledger.service.FillupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Moves old fillups out of the hot fillups table.
+ *
+ * <p>For each car, the oldest fillups (dated before the cutoff) are copied to the archive with
+ * the MPG they currently have, rolled up into monthly {@link FillupSegment}s, and deleted from
+ * the hot table, all in one transaction. Car stats add the segments back in, and MPG anchor
+ * lookups also search the archive, so stats and per-fillup MPG are unchanged by compaction.
+ *
+ * <p>The car's most recent fillup is never archived, so odometer validation for new fillups
+ * keeps working against the hot table.
+ */
+@Service
+public class FillupCompactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FillupCompactionService.class);
+
+    private final CarRepository carRepository;
+    private final FillupRepository fillupRepository;
+    private final FillupArchiveRepository archiveRepository;
+    private final FillupSegmentRepository segmentRepository;
+    private final FillupService fillupService;
+
+    public FillupCompactionService(CarRepository carRepository, FillupRepository fillupRepository,
+                                   FillupArchiveRepository archiveRepository,
+                                   FillupSegmentRepository segmentRepository, FillupService fillupService) {
+        this.carRepository = carRepository;
+        this.fillupRepository = fillupRepository;
+        this.archiveRepository = archiveRepository;
+        this.segmentRepository = segmentRepository;
+        this.fillupService = fillupService;
+    }
+
+    /**
+     * Find cars with fillups older than the cutoff.
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> findCandidates(Instant cutoff) {
+        return carRepository.findIdsWithFillupsBefore(cutoff);
+    }
+
+    /**
+     * Archive a car's fillups dated before the cutoff.
+     *
+     * @param carId  the car to compact
+     * @param cutoff fillups dated before this instant are archived
+     * @return number of fillups archived
+     */
+    @Transactional
+    public int compactCar(UUID carId, Instant cutoff) {
+        List<Fillup> history = fillupRepository.findByCarIdOrderByOdometerAsc(carId);
+        List<Fillup> archivable = selectArchivable(history, cutoff);
+        if (archivable.isEmpty()) {
+            return 0;
+        }
+
+        // MPG must be computed before the rows leave the hot table
+        Map<UUID, BigDecimal> mpgById = fillupService.calculateMPGs(archivable);
+        Instant archivedAt = Instant.now();
+        List<ArchivedFillup> archived = archivable.stream()
+                .map(f -> ArchivedFillup.from(f, mpgById.get(f.getId()), archivedAt))
+                .toList();
+        archiveRepository.saveAll(archived);
+
+        for (FillupSegment segment : FillupSegment.summarize(carId, archived)) {
+            segmentRepository.findByCarIdAndPeriodStart(carId, segment.getPeriodStart())
+                    .ifPresentOrElse(existing -> {
+                        existing.merge(segment);
+                        segmentRepository.save(existing);
+                    }, () -> segmentRepository.save(segment));
+        }
+
+        long throughOdometer = archivable.getLast().getOdometer();
+        fillupRepository.deleteByCarIdThroughOdometer(carId, throughOdometer);
+        carRepository.markArchivedThrough(carId, throughOdometer);
+
+        logger.info("Archived {} fillups for car {} (through odometer {})", archived.size(), carId, throughOdometer);
+        return archived.size();
+    }
+
+    /**
+     * Select the leading run of fillups dated before the cutoff.
+     * <p>
+     * Stops at the first fillup on or after the cutoff, always keeps the latest fillup, and never
+     * splits fillups that share an odometer reading between the archive and the hot table.
+     *
+     * @param history the car's fillups ordered by odometer ascending
+     * @param cutoff  fillups dated before this instant are eligible
+     * @return the fillups to archive, in odometer order
+     */
+    static List<Fillup> selectArchivable(List<Fillup> history, Instant cutoff) {
+        int limit = 0;
+        while (limit < history.size() - 1 && history.get(limit).getDate().isBefore(cutoff)) {
+            limit++;
+        }
+        while (limit > 0 && limit < history.size()
+                && history.get(limit - 1).getOdometer().equals(history.get(limit).getOdometer())) {
+            limit--;
+        }
+        return history.subList(0, limit);
+    }
+}
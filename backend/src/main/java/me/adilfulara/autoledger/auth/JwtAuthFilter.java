@@ -8,6 +8,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import me.adilfulara.autoledger.domain.model.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -27,14 +29,19 @@ import java.util.UUID;
  *
  * <p>If authentication is disabled (local dev), the filter passes through.
  * If JWT is missing or invalid, the filter returns 401 Unauthorized.
+ *
+ * <p>Ordered after the framework filters but ahead of filters that need the authenticated user
+ * (e.g. {@code ResponseCacheFilter}).
  */
 @Component
+@Order(JwtAuthFilter.ORDER)
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthFilter.class);
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
     public static final String AUTHENTICATED_USER_ATTRIBUTE = "authenticatedUser";
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
 
     private final AuthProperties authProperties;
     private final JwtService jwtService;
@@ -15,6 +15,7 @@ import java.net.URL;
 import java.text.ParseException;
 import java.util.Date;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service for validating JWTs using JWKS (JSON Web Key Set).
@@ -32,6 +33,7 @@ public class JwtService {
 
     // Cache JWKS by issuer URI to avoid repeated HTTP calls
     private final ConcurrentHashMap<String, JWKSet> jwksCache = new ConcurrentHashMap<>();
+    private final ReentrantLock jwksLoadLock = new ReentrantLock();
 
     public JwtService(AuthProperties authProperties) {
         this.authProperties = authProperties;
@@ -90,23 +92,67 @@ public class JwtService {
         }
     }
 
+    /**
+     * Fetch and cache the configured issuer's JWKS ahead of the first authenticated request.
+     *
+     * @return true if the keys are cached, false if auth is disabled or no issuer is configured
+     * @throws JwtValidationException if the JWKS cannot be fetched
+     */
+    public boolean prefetchJwks() {
+        String issuerUri = authProperties.getIssuerUri();
+        if (!authProperties.isEnabled() || issuerUri == null || issuerUri.isBlank()) {
+            return false;
+        }
+        getJwkSet(issuerUri);
+        return true;
+    }
+
     /**
      * Fetch JWKS from the issuer's /.well-known/jwks.json endpoint.
      * Results are cached to avoid repeated HTTP calls.
      *
+     * <p>The fetch runs under a {@link ReentrantLock} rather than inside
+     * {@code ConcurrentHashMap.computeIfAbsent}, which holds a monitor for the duration of the HTTP
+     * call and would pin the carrier thread when requests run on virtual threads.
+     *
      * @param issuerUri the OIDC issuer URI
      * @return the JWKSet containing public keys
      */
     protected JWKSet getJwkSet(String issuerUri) {
-        return jwksCache.computeIfAbsent(issuerUri, uri -> {
-            try {
-                String jwksUri = uri + "/.well-known/jwks.json";
-                logger.info("Fetching JWKS from: {}", jwksUri);
-                return JWKSet.load(new URL(jwksUri));
-            } catch (Exception e) {
-                throw new JwtValidationException("Failed to fetch JWKS from " + uri, e);
+        JWKSet cached = jwksCache.get(issuerUri);
+        if (cached != null) {
+            return cached;
+        }
+
+        jwksLoadLock.lock();
+        try {
+            cached = jwksCache.get(issuerUri);
+            if (cached != null) {
+                return cached;
             }
-        });
+            String jwksUri = issuerUri + "/.well-known/jwks.json";
+            logger.info("Fetching JWKS from: {}", jwksUri);
+            JWKSet jwkSet = loadJwkSet(jwksUri);
+            jwksCache.put(issuerUri, jwkSet);
+            return jwkSet;
+        } catch (JwtValidationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JwtValidationException("Failed to fetch JWKS from " + issuerUri, e);
+        } finally {
+            jwksLoadLock.unlock();
+        }
+    }
+
+    /**
+     * Load a JWKSet over HTTP.
+     *
+     * @param jwksUri the full JWKS endpoint URL
+     * @return the loaded JWKSet
+     * @throws Exception if the endpoint cannot be reached or parsed
+     */
+    protected JWKSet loadJwkSet(String jwksUri) throws Exception {
+        return JWKSet.load(new URL(jwksUri));
     }
 
     /**
@@ -0,0 +1,110 @@
+package me.adilfulara.autoledger.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Servlet filter that rate limits each authenticated user with token buckets.
+ *
+ * <p>Requests are charged to one of three budgets: expensive aggregate endpoints (car statistics
+ * and distributions, and the fleet summary, which may compute the stats of every car of the
+ * account) to {@code stats}, other GETs to {@code reads}, everything else to
+ * {@code writes}. A request over budget gets {@code 429 Too Many Requests} with
+ * {@code Retry-After} in seconds.
+ *
+ * <p>Runs right after {@link JwtAuthFilter}, whose authenticated user it needs, and ahead of
+ * {@code ResponseCacheFilter}. Requests without a user (health checks) are not limited.
+ * Only active when {@code rate-limit.enabled} is true.
+ */
+@Component
+@Order(JwtAuthFilter.ORDER + 5)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    static final String METRIC_NAME = "autoledger.ratelimit.rejected";
+
+    private static final Pattern STATS =
+            Pattern.compile("/api/cars/[0-9a-fA-F-]{36}/stats(/distribution)?|/api/fleet/summary");
+
+    private final RateLimitProperties properties;
+    private final TokenBucketLimiter limiter;
+    private final Map<TokenBucketLimiter.Budget, Counter> rejected = new EnumMap<>(TokenBucketLimiter.Budget.class);
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.limiter = new TokenBucketLimiter(properties, clock);
+        for (TokenBucketLimiter.Budget budget : TokenBucketLimiter.Budget.values()) {
+            rejected.put(budget, Counter.builder(METRIC_NAME)
+                    .description("Requests rejected by the per-user rate limiter")
+                    .tag("budget", budget.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("autoledger.ratelimit.users", limiter, TokenBucketLimiter::trackedUsers)
+                .description("Users with tracked rate limiter state")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || request.getRequestURI().startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!(request.getAttribute(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE) instanceof AuthenticatedUser user)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TokenBucketLimiter.Budget budget = budget(request);
+        long waitNanos = limiter.tryAcquire(user.userId(), budget);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejected.get(budget).increment();
+        long retryAfterSeconds = Math.ceilDiv(waitNanos, TimeUnit.SECONDS.toNanos(1));
+        logger.debug("Rate limited user {} ({} budget), retry after {}s", user.userId(), budget, retryAfterSeconds);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\": \"Too many requests\"}");
+    }
+
+    static TokenBucketLimiter.Budget budget(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (STATS.matcher(path).matches()) {
+            return TokenBucketLimiter.Budget.STATS;
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method)
+                ? TokenBucketLimiter.Budget.READ
+                : TokenBucketLimiter.Budget.WRITE;
+    }
+}
@@ -0,0 +1,131 @@
+package me.adilfulara.autoledger.auth;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for per-user rate limiting.
+ *
+ * <p>Maps to {@code rate-limit.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * rate-limit:
+ *   enabled: true
+ *   max-users: 100000
+ *   reads:
+ *     capacity: 300
+ *     period: 1m
+ *   writes:
+ *     capacity: 60
+ *     period: 1m
+ *   stats:
+ *     capacity: 30
+ *     period: 1m
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether requests are rate limited.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum users with tracked limiter state; idle users are dropped first.
+     */
+    private int maxUsers = 100_000;
+
+    /**
+     * Budget for GET requests.
+     */
+    private Budget reads = new Budget(300, Duration.ofMinutes(1));
+
+    /**
+     * Budget for POST, PUT, PATCH and DELETE requests.
+     */
+    private Budget writes = new Budget(60, Duration.ofMinutes(1));
+
+    /**
+     * Budget for expensive aggregate endpoints such as car statistics.
+     */
+    private Budget stats = new Budget(30, Duration.ofMinutes(1));
+
+    /**
+     * A token bucket: up to {@code capacity} requests at once, refilled at
+     * {@code capacity} requests per {@code period}.
+     */
+    public static class Budget {
+
+        private int capacity;
+        private Duration period;
+
+        public Budget() {
+        }
+
+        public Budget(int capacity, Duration period) {
+            this.capacity = capacity;
+            this.period = period;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxUsers() {
+        return maxUsers;
+    }
+
+    public void setMaxUsers(int maxUsers) {
+        this.maxUsers = maxUsers;
+    }
+
+    public Budget getReads() {
+        return reads;
+    }
+
+    public void setReads(Budget reads) {
+        this.reads = reads;
+    }
+
+    public Budget getWrites() {
+        return writes;
+    }
+
+    public void setWrites(Budget writes) {
+        this.writes = writes;
+    }
+
+    public Budget getStats() {
+        return stats;
+    }
+
+    public void setStats(Budget stats) {
+        this.stats = stats;
+    }
+}
@@ -0,0 +1,134 @@
+package me.adilfulara.autoledger.auth;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-user token buckets with separate budgets for reads, writes and stats, updated lock-free.
+ *
+ * <p>Each bucket is stored as its "theoretical arrival time" (the GCRA formulation of a token
+ * bucket): the instant at which the bucket would be full again. Taking a token advances that
+ * instant by one refill interval, and a request is allowed while it stays within
+ * {@code capacity} intervals of now. That is a single {@code long} per budget, so a check is one
+ * map lookup plus one compare-and-set, with no lock and no refill bookkeeping.
+ *
+ * <p>State is kept in a fixed number of stripes, each capped at {@code maxUsers / STRIPES} users.
+ * When a stripe is full, users whose buckets have refilled completely are dropped (their state is
+ * indistinguishable from a new bucket); if every user in the stripe is active, arbitrary users are
+ * dropped and simply start over with a full bucket. Striping keeps that sweep short.
+ */
+final class TokenBucketLimiter {
+
+    enum Budget { READ, WRITE, STATS }
+
+    private static final int STRIPES = 16;
+
+    private final long[] intervalNanos = new long[Budget.values().length];
+    private final long[] burstNanos = new long[Budget.values().length];
+    private final int maxUsersPerStripe;
+    private final LongSupplier clock;
+    @SuppressWarnings("unchecked")
+    private final Map<UUID, Bucket>[] stripes = new Map[STRIPES];
+
+    TokenBucketLimiter(RateLimitProperties properties, LongSupplier clock) {
+        configure(Budget.READ, properties.getReads());
+        configure(Budget.WRITE, properties.getWrites());
+        configure(Budget.STATS, properties.getStats());
+        this.maxUsersPerStripe = Math.max(1, properties.getMaxUsers() / STRIPES);
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    private void configure(Budget budget, RateLimitProperties.Budget config) {
+        if (config.getCapacity() < 1) {
+            throw new IllegalArgumentException("Rate limit capacity must be at least 1: " + budget);
+        }
+        long interval = Math.max(1, config.getPeriod().toNanos() / config.getCapacity());
+        intervalNanos[budget.ordinal()] = interval;
+        burstNanos[budget.ordinal()] = interval * config.getCapacity();
+    }
+
+    /**
+     * Take a token from a user's bucket.
+     *
+     * @return 0 if the request is allowed, otherwise how many nanoseconds until it would be
+     */
+    long tryAcquire(UUID userId, Budget budget) {
+        long now = clock.getAsLong();
+        int i = budget.ordinal();
+        AtomicLongArray full = bucket(userId, now).fullAt;
+        while (true) {
+            long current = full.get(i);
+            long next = Math.max(current, now) + intervalNanos[i];
+            long excess = next - now - burstNanos[i];
+            if (excess > 0) {
+                return excess;
+            }
+            if (full.compareAndSet(i, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    int trackedUsers() {
+        int users = 0;
+        for (Map<UUID, Bucket> stripe : stripes) {
+            users += stripe.size();
+        }
+        return users;
+    }
+
+    private Bucket bucket(UUID userId, long now) {
+        Map<UUID, Bucket> stripe = stripes[(userId.hashCode() & Integer.MAX_VALUE) % STRIPES];
+        Bucket bucket = stripe.get(userId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxUsersPerStripe) {
+            evict(stripe, now);
+        }
+        return stripe.computeIfAbsent(userId, id -> new Bucket());
+    }
+
+    /**
+     * Make room in a full stripe. Concurrent evictions are harmless: a request holding a dropped
+     * bucket at worst goes uncounted.
+     */
+    private void evict(Map<UUID, Bucket> stripe, long now) {
+        stripe.values().removeIf(bucket -> bucket.isFull(now));
+        Iterator<UUID> users = stripe.keySet().iterator();
+        while (stripe.size() >= maxUsersPerStripe && users.hasNext()) {
+            users.next();
+            users.remove();
+        }
+    }
+
+    /**
+     * One user's buckets: for each budget, the instant (clock nanos) at which it is full again.
+     */
+    private static final class Bucket {
+
+        private final AtomicLongArray fullAt = new AtomicLongArray(Budget.values().length);
+
+        Bucket() {
+            for (int i = 0; i < fullAt.length(); i++) {
+                fullAt.set(i, Long.MIN_VALUE);
+            }
+        }
+
+        boolean isFull(long now) {
+            for (int i = 0; i < fullAt.length(); i++) {
+                if (fullAt.get(i) > now) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package me.adilfulara.autoledger.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A serialized response body, optionally also gzip-compressed.
+ *
+ * @param contentType response content type
+ * @param body        uncompressed body
+ * @param gzipBody    gzip-compressed body, or null if the body was too small to be worth it
+ */
+record CachedResponse(String contentType, byte[] body, byte[] gzipBody) {
+
+    static CachedResponse of(String contentType, byte[] body, int gzipMinSize) {
+        return new CachedResponse(contentType, body, body.length >= gzipMinSize ? gzip(body) : null);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,192 @@
+package me.adilfulara.autoledger.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import me.adilfulara.autoledger.auth.AuthenticatedUser;
+import me.adilfulara.autoledger.auth.JwtAuthFilter;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import me.adilfulara.autoledger.observability.SqlStatementCounter;
+import me.adilfulara.autoledger.observability.SqlStatementHeaderAdvice;
+import me.adilfulara.autoledger.observability.SqlStatementProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves hot GET endpoints from cached, already-serialized response bytes.
+ *
+ * <p>Covers {@code GET /api/cars} (keyed by user), {@code GET /api/cars/{id}} and
+ * {@code GET /api/cars/{id}/stats} (keyed by car). Each entry is tagged with the data version it
+ * was rendered at — {@code users.data_version} for the list, {@code cars.data_version} for a car —
+ * and every car or fillup write bumps those in its transaction, so a write invalidates the entry
+ * without explicit eviction. A hit costs one version lookup and writes the bytes straight to the
+ * servlet output stream, skipping the controller, entity loading, DTO mapping and Jackson.
+ * Bodies of {@code gzip-min-size} or more are also stored compressed and sent as-is to clients
+ * that accept gzip.
+ *
+ * <p>Runs after {@link JwtAuthFilter}, whose authenticated user it needs. Only active when
+ * {@code response-cache.enabled} is true.
+ */
+@Component
+@Order(JwtAuthFilter.ORDER + 10)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    static final String METRIC_NAME = "autoledger.response.cache";
+
+    private static final Pattern CAR_LIST = Pattern.compile("/api/cars/?");
+    private static final Pattern CAR = Pattern.compile("/api/cars/([0-9a-fA-F-]{36})");
+    private static final Pattern CAR_STATS = Pattern.compile("/api/cars/([0-9a-fA-F-]{36})/stats");
+
+    private final UserRepository userRepository;
+    private final CarRepository carRepository;
+    private final ResponseCacheProperties properties;
+    private final SqlStatementProperties sqlProperties;
+    private final VersionedCache<String, CachedResponse> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ResponseCacheFilter(UserRepository userRepository, CarRepository carRepository,
+                               ResponseCacheProperties properties, SqlStatementProperties sqlProperties,
+                               MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.carRepository = carRepository;
+        this.properties = properties;
+        this.sqlProperties = sqlProperties;
+        this.cache = new VersionedCache<>(properties.getMaxEntries());
+        this.hits = Counter.builder(METRIC_NAME)
+                .description("Cacheable GET requests by response cache result")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder(METRIC_NAME)
+                .description("Cacheable GET requests by response cache result")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cache key and its current data version.
+     */
+    private record Target(String key, long version) {}
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Optional<Target> target = resolve(request);
+        if (target.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = target.get().key();
+        long version = target.get().version();
+
+        CachedResponse cached = cache.find(key, version);
+        if (cached != null) {
+            hits.increment();
+            write(cached, request, response);
+            return;
+        }
+
+        misses.increment();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+            byte[] body = wrapper.getContentAsByteArray();
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null
+                    && body.length <= properties.getMaxBodySize()) {
+                // The version was read before the handler ran, so the stored body is never older than it
+                cache.put(key, version, CachedResponse.of(wrapper.getContentType(), body, properties.getGzipMinSize()));
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    int cachedResponses() {
+        return cache.size();
+    }
+
+    private Optional<Target> resolve(HttpServletRequest request) {
+        if (!(request.getAttribute(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE) instanceof AuthenticatedUser user)) {
+            return Optional.empty();
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (CAR_LIST.matcher(path).matches()) {
+            return userRepository.findDataVersionById(user.userId())
+                    .map(version -> new Target("cars:" + user.userId(), version));
+        }
+        Matcher car = CAR.matcher(path);
+        if (car.matches()) {
+            return carTarget("car:", car.group(1));
+        }
+        Matcher stats = CAR_STATS.matcher(path);
+        if (stats.matches()) {
+            return carTarget("stats:", stats.group(1));
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Target> carTarget(String prefix, String id) {
+        UUID carId = UUID.fromString(id);
+        // Unknown cars fall through to the controller, which answers 404
+        return carRepository.findDataVersionById(carId)
+                .map(version -> new Target(prefix + carId, version));
+    }
+
+    private void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        byte[] body = cached.body();
+        if (cached.gzipBody() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            body = cached.gzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        response.setContentLength(body.length);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (sqlProperties.isHeaderEnabled()) {
+            response.setHeader(SqlStatementHeaderAdvice.HEADER_NAME, String.valueOf(SqlStatementCounter.currentCount()));
+        }
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip (present and not weighted q=0).
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    if (parts[i].trim().matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,75 @@
+package me.adilfulara.autoledger.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the serialized-response cache.
+ *
+ * <p>Maps to {@code response-cache.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * response-cache:
+ *   enabled: true
+ *   max-entries: 10000
+ *   max-body-size: 262144
+ *   gzip-min-size: 1024
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "response-cache")
+public class ResponseCacheProperties {
+
+    /**
+     * Whether cacheable GET responses are served from the cache.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum cached responses; least recently used responses are dropped first.
+     */
+    private int maxEntries = 10_000;
+
+    /**
+     * Responses with larger bodies (bytes) are not cached.
+     */
+    private int maxBodySize = 256 * 1024;
+
+    /**
+     * Bodies of at least this many bytes are also stored gzip-compressed.
+     */
+    private int gzipMinSize = 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(int maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public int getGzipMinSize() {
+        return gzipMinSize;
+    }
+
+    public void setGzipMinSize(int gzipMinSize) {
+        this.gzipMinSize = gzipMinSize;
+    }
+}
@@ -0,0 +1,66 @@
+package me.adilfulara.autoledger.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations of the same key into one.
+ *
+ * <p>The first caller for a key runs the computation on its own thread; callers arriving while it
+ * is in flight wait on a {@link CompletableFuture} and get the same result, or the same exception.
+ * Nothing is kept once the computation finishes, so this only removes duplicate concurrent work;
+ * keys should include whatever version makes two computations interchangeable.
+ *
+ * @param <K> computation key
+ * @param <V> computed value
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run the computation for a key, or wait for the one already in flight.
+     *
+     * @return the value and whether it came from another caller's computation
+     */
+    public Flight<V> run(K key, Supplier<V> computation) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            return new Flight<>(await(existing), true);
+        }
+        try {
+            V value = computation.get();
+            own.complete(value);
+            return new Flight<>(value, false);
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public record Flight<V>(V value, boolean shared) {}
+}
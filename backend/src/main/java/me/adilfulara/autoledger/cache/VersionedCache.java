@@ -0,0 +1,90 @@
+package me.adilfulara.autoledger.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of rendered values, each tagged with the data version it was rendered at.
+ *
+ * <p>A lookup with a different version misses and replaces the entry, so writes invalidate
+ * values simply by bumping the version; nothing has to be evicted explicitly. Rendering happens
+ * outside the lock, so a slow render never blocks readers of other keys (two concurrent misses
+ * for the same key may both render; the results are identical).
+ *
+ * @param <K> cache key
+ * @param <V> rendered value
+ */
+public final class VersionedCache<K, V> {
+
+    private record Entry<V>(long version, V value) {}
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<K, Entry<V>> entries;
+
+    public VersionedCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Get the value for a key at a version, rendering and storing it on a miss.
+     *
+     * @return the value and whether it was served from the cache
+     */
+    public Lookup<V> get(K key, long version, Supplier<V> render) {
+        V cached = find(key, version);
+        if (cached != null) {
+            return new Lookup<>(cached, true);
+        }
+        V value = render.get();
+        put(key, version, value);
+        return new Lookup<>(value, false);
+    }
+
+    /**
+     * Get the value for a key if it was rendered at exactly this version.
+     *
+     * @return the cached value, or null
+     */
+    public V find(K key, long version) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            return entry != null && entry.version() == version ? entry.value() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Store a value rendered at a version, unless a newer version is already cached.
+     */
+    public void put(K key, long version, V value) {
+        lock.lock();
+        try {
+            Entry<V> current = entries.get(key);
+            if (current == null || current.version() <= version) {
+                entries.put(key, new Entry<>(version, value));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public record Lookup<V>(V value, boolean hit) {}
+}
@@ -0,0 +1,17 @@
+package me.adilfulara.autoledger.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.metrics.ApplicationStartup;
+
+/**
+ * Flyway migration at startup; see {@link FlywayMigrator}.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    FlywayMigrator flywayMigrator(StartupProperties properties, ApplicationStartup applicationStartup) {
+        return new FlywayMigrator(properties, applicationStartup);
+    }
+}
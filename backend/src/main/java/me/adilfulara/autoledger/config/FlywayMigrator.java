@@ -0,0 +1,189 @@
+package me.adilfulara.autoledger.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.Location;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.support.DefaultLifecycleProcessor;
+import org.springframework.core.SpringProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Runs Flyway at startup, recording each phase as an {@link ApplicationStartup} step.
+ *
+ * <p>With {@code startup.defer-flyway-validation}, a startup where every local versioned migration
+ * is already recorded as applied skips {@code migrate()} (and with it the checksum validation):
+ * one query against the schema history replaces resolving and validating every migration. The
+ * validation runs on a background thread once the application is ready; if it fails, the
+ * application reports itself as refusing traffic. Any pending, unknown or repeatable migration
+ * takes the normal path, so schema changes are never deferred.
+ *
+ * <p>In a CDS training run ({@code -Dspring.context.exit=onRefresh}, see Dockerfile.cds) nothing is
+ * migrated: that process exits as soon as the context is refreshed and runs where no database is
+ * reachable.
+ */
+public class FlywayMigrator implements FlywayMigrationStrategy, ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlywayMigrator.class);
+
+    private final StartupProperties properties;
+    private final ApplicationStartup applicationStartup;
+    private volatile Flyway deferredValidation;
+
+    public FlywayMigrator(StartupProperties properties, ApplicationStartup applicationStartup) {
+        this.properties = properties;
+        this.applicationStartup = applicationStartup;
+    }
+
+    @Override
+    public void migrate(Flyway flyway) {
+        if (isTrainingRun()) {
+            logger.info("Skipping Flyway migration: context exits on refresh");
+            return;
+        }
+
+        Set<String> applied = new HashSet<>();
+        // The first connection starts the pool, so this step times pool creation
+        StartupStep connect = applicationStartup.start("autoledger.datasource.connect");
+        try (Connection connection = flyway.getConfiguration().getDataSource().getConnection()) {
+            if (properties.isDeferFlywayValidation()) {
+                applied = appliedScripts(connection, flyway.getConfiguration());
+            }
+        } catch (SQLException e) {
+            throw new FlywayException("Failed to connect to the database", e);
+        } finally {
+            connect.end();
+        }
+
+        StartupStep step = applicationStartup.start("autoledger.flyway.migrate");
+        try {
+            if (properties.isDeferFlywayValidation() && isUpToDate(localScripts(flyway.getConfiguration()), applied)) {
+                step.tag("mode", "deferred");
+                deferredValidation = flyway;
+                logger.info("All {} migrations applied; deferring Flyway validation until ready", applied.size());
+                return;
+            }
+            step.tag("mode", "migrate");
+            MigrateResult result = flyway.migrate();
+            step.tag("migrationsExecuted", String.valueOf(result.migrationsExecuted));
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * Run a deferred validation in the background once the port is open.
+     */
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Flyway flyway = deferredValidation;
+        if (flyway == null) {
+            return;
+        }
+        deferredValidation = null;
+        Thread.ofVirtual().name("flyway-validate").start(() -> {
+            if (!validate(flyway)) {
+                AvailabilityChangeEvent.publish(event.getApplicationContext(), ReadinessState.REFUSING_TRAFFIC);
+            }
+        });
+    }
+
+    /**
+     * Whether a validation was deferred and has not started yet.
+     */
+    boolean hasDeferredValidation() {
+        return deferredValidation != null;
+    }
+
+    static boolean validate(Flyway flyway) {
+        try {
+            flyway.validate();
+            logger.info("Deferred Flyway validation passed");
+            return true;
+        } catch (FlywayException e) {
+            logger.error("Deferred Flyway validation failed; refusing traffic", e);
+            return false;
+        }
+    }
+
+    /**
+     * Whether the local migrations are exactly the applied ones. Null (unknown) local scripts never
+     * are, so anything this check does not understand falls back to a normal migrate.
+     */
+    static boolean isUpToDate(Set<String> local, Set<String> applied) {
+        return local != null && !local.isEmpty() && local.equals(applied);
+    }
+
+    /**
+     * File names of the local migrations, or null if some location or script is one this check
+     * does not handle (filesystem locations, repeatable or callback scripts).
+     */
+    static Set<String> localScripts(Configuration configuration) {
+        PathMatchingResourcePatternResolver resolver =
+                new PathMatchingResourcePatternResolver(configuration.getClassLoader());
+        Set<String> scripts = new HashSet<>();
+        try {
+            for (Location location : configuration.getLocations()) {
+                if (!location.isClassPath()) {
+                    return null;
+                }
+                for (Resource resource : resolver.getResources("classpath*:" + location.getRootPath() + "/*.sql")) {
+                    String name = resource.getFilename();
+                    if (name == null || !name.startsWith(configuration.getSqlMigrationPrefix())) {
+                        return null;
+                    }
+                    scripts.add(name);
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return scripts;
+    }
+
+    /**
+     * File names of the successfully applied versioned migrations; empty if there is no history yet.
+     */
+    static Set<String> appliedScripts(Connection connection, Configuration configuration) {
+        String schema = configuration.getDefaultSchema() != null
+                ? configuration.getDefaultSchema()
+                : configuration.getSchemas().length > 0 ? configuration.getSchemas()[0] : null;
+        String table = (schema != null ? "\"" + schema + "\"." : "") + "\"" + configuration.getTable() + "\"";
+        Set<String> scripts = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT script FROM " + table + " WHERE success AND type = 'SQL'")) {
+            while (rows.next()) {
+                scripts.add(rows.getString(1));
+            }
+        } catch (SQLException e) {
+            // No history table yet: a fresh database, which needs a normal migrate
+            return Set.of();
+        }
+        return scripts;
+    }
+
+    static boolean isTrainingRun() {
+        return DefaultLifecycleProcessor.ON_REFRESH_VALUE.equalsIgnoreCase(
+                SpringProperties.getProperty(DefaultLifecycleProcessor.EXIT_PROPERTY_NAME));
+    }
+}
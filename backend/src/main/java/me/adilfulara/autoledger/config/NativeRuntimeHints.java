@@ -0,0 +1,78 @@
+package me.adilfulara.autoledger.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ClassUtils;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Reachability metadata for the native image ({@code native} Maven profile) that Spring AOT and
+ * the GraalVM metadata repository cannot infer.
+ *
+ * <ul>
+ *   <li>Flyway migrations are read as classpath resources at startup.</li>
+ *   <li>Entities are mapped through their Lombok-generated constructors and accessors; repository
+ *       domain types are covered by Spring Data's AOT support, but entities read only through
+ *       custom queries and batch operations are not, so every entity is registered.</li>
+ *   <li>DTOs are serialized by Jackson outside controller signatures (change stream events,
+ *       idempotent replays, MCP responses), where Spring MVC's binding hints do not reach.</li>
+ *   <li>{@code SqlStatementCountingDataSource} wraps connections and statements in JDK proxies,
+ *       one interface each; a native image can only create proxies declared at build time.</li>
+ * </ul>
+ * Registered by {@code AutoLedgerApplication}; evaluated at build time during AOT processing,
+ * so the classpath scans below never run in the native executable.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final String MIGRATIONS = "db/migration/*.sql";
+    static final String ENTITY_PACKAGE = "me.adilfulara.autoledger.domain.model";
+    static final String DTO_PACKAGE = "me.adilfulara.autoledger.api.dto";
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources().registerPattern(MIGRATIONS);
+
+        for (Class<?> entity : typesIn(ENTITY_PACKAGE, classLoader)) {
+            hints.reflection().registerType(entity, MemberCategory.values());
+        }
+
+        BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+        for (Class<?> dto : typesIn(DTO_PACKAGE, classLoader)) {
+            bindingHints.registerReflectionHints(hints.reflection(), dto);
+        }
+
+        for (Class<?> jdbcType : List.of(Connection.class, Statement.class, PreparedStatement.class,
+                CallableStatement.class)) {
+            hints.proxies().registerJdkProxy(jdbcType);
+        }
+    }
+
+    /**
+     * Top-level and static nested classes, records and enums in a package.
+     */
+    static List<Class<?>> typesIn(String basePackage, ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isIndependent() && !beanDefinition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+        scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+        return scanner.findCandidateComponents(basePackage).stream()
+                .map(BeanDefinition::getBeanClassName)
+                .<Class<?>>map(name -> ClassUtils.resolveClassName(name, classLoader))
+                .toList();
+    }
+}
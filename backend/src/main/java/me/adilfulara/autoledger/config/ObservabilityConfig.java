@@ -0,0 +1,46 @@
+package me.adilfulara.autoledger.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import me.adilfulara.autoledger.observability.ServiceStatementCountingPostProcessor;
+import me.adilfulara.autoledger.observability.SqlStatementCountingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration for SQL statement counting.
+ *
+ * <p>Wraps the application DataSource so statements can be counted per request, and advises every
+ * {@code @Service} bean so statements can also be attributed to individual service calls.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    /**
+     * Wrap every DataSource bean in a {@link SqlStatementCountingDataSource}.
+     */
+    @Bean
+    static BeanPostProcessor sqlStatementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlStatementCountingDataSource)) {
+                    return new SqlStatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Count statements per {@code @Service} method call.
+     */
+    @Bean
+    static ServiceStatementCountingPostProcessor serviceStatementCountingPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ServiceStatementCountingPostProcessor(meterRegistry);
+    }
+}
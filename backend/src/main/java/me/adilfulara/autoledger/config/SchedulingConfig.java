@@ -0,0 +1,13 @@
+package me.adilfulara.autoledger.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs.
+ * Individual jobs are opt-in through their own properties.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,34 @@
+package me.adilfulara.autoledger.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for application startup.
+ *
+ * <p>Maps to {@code startup.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * startup:
+ *   defer-flyway-validation: true
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "startup")
+public class StartupProperties {
+
+    /**
+     * Skip Flyway at startup when every local migration is already applied, and validate the
+     * migration checksums in the background once the application is ready instead.
+     */
+    private boolean deferFlywayValidation = false;
+
+    public boolean isDeferFlywayValidation() {
+        return deferFlywayValidation;
+    }
+
+    public void setDeferFlywayValidation(boolean deferFlywayValidation) {
+        this.deferFlywayValidation = deferFlywayValidation;
+    }
+}
@@ -0,0 +1,101 @@
+package me.adilfulara.autoledger.deletion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background job that finishes asynchronous car deletions.
+ *
+ * <p>Deletes each pending car's fillups {@code chunk-size} rows per transaction, pausing between
+ * chunks, then the car row. A failure leaves the car marked, so the next run resumes where this one
+ * stopped. Only registered when {@code car-deletion.enabled} is true (the default).
+ *
+ * <p>Deleting a large car takes many chunks and pauses, so the scheduled trigger only hands the
+ * work to a virtual thread; the shared scheduler thread stays free for the other jobs. A trigger
+ * that fires while a previous run is still deleting does nothing.
+ */
+@Component
+@ConditionalOnProperty(prefix = "car-deletion", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CarDeletionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarDeletionJob.class);
+
+    private final CarDeletionService deletionService;
+    private final CarDeletionProperties properties;
+    private final Executor worker;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CarDeletionJob(CarDeletionService deletionService, CarDeletionProperties properties) {
+        this(deletionService, properties, task -> Thread.ofVirtual().name("car-deletion").start(task));
+    }
+
+    CarDeletionJob(CarDeletionService deletionService, CarDeletionProperties properties, Executor worker) {
+        this.deletionService = deletionService;
+        this.properties = properties;
+        this.worker = worker;
+    }
+
+    /**
+     * Start deleting pending cars in the background, unless a previous run is still at it.
+     */
+    @Scheduled(fixedDelayString = "${car-deletion.poll-interval:5s}")
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            worker.execute(() -> {
+                try {
+                    deletePending();
+                } catch (RuntimeException e) {
+                    logger.error("Failed to list cars pending deletion", e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Delete every pending car, one after another.
+     */
+    void deletePending() {
+        for (UUID carId : deletionService.findPending()) {
+            try {
+                deleteCar(carId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Failed to delete car {}", carId, e);
+            }
+        }
+    }
+
+    /**
+     * Delete one car's history chunk by chunk, then the car.
+     *
+     * @return number of fillups deleted
+     */
+    long deleteCar(UUID carId) throws InterruptedException {
+        long total = 0;
+        int deleted;
+        while ((deleted = deletionService.deleteChunk(carId, properties.getChunkSize())) > 0) {
+            total += deleted;
+            Thread.sleep(properties.getPause());
+        }
+        deletionService.finishDeletion(carId);
+        logger.info("Deleted car {} and {} fillups", carId, total);
+        return total;
+    }
+}
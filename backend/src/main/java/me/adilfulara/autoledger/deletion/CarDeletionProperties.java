@@ -0,0 +1,77 @@
+package me.adilfulara.autoledger.deletion;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for asynchronous car deletion.
+ *
+ * <p>Maps to {@code car-deletion.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * car-deletion:
+ *   enabled: true
+ *   poll-interval: 5s
+ *   chunk-size: 1000
+ *   pause: 100ms
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "car-deletion")
+public class CarDeletionProperties {
+
+    /**
+     * Whether the deletion job runs in this instance.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Delay between checks for cars waiting to be deleted.
+     */
+    private Duration pollInterval = Duration.ofSeconds(5);
+
+    /**
+     * Fillups deleted per transaction.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Pause between chunks, spreading lock time and WAL volume out for concurrent traffic.
+     */
+    private Duration pause = Duration.ofMillis(100);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Duration getPause() {
+        return pause;
+    }
+
+    public void setPause(Duration pause) {
+        this.pause = pause;
+    }
+}
@@ -0,0 +1,130 @@
+package me.adilfulara.autoledger.deletion;
+
+import me.adilfulara.autoledger.api.dto.CarDeletionResponse;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.ChangeType;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupArchiveRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.SyncTombstoneRepository;
+import me.adilfulara.autoledger.outbox.OutboxRecorder;
+import me.adilfulara.autoledger.service.CarNameIndex;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Asynchronous deletion of cars with long histories.
+ *
+ * <p>A request only marks the car as deleting, which hides it from every read and write path,
+ * and records the {@code CAR_DELETED} change (sync tombstone, outbox event), so to clients the car
+ * is gone immediately. {@link CarDeletionJob} then removes the fillups in bounded chunks, each in
+ * its own short transaction, and finally the car row, instead of one cascading delete holding
+ * locks and writing WAL for the whole history inside the request.
+ */
+@Service
+public class CarDeletionService {
+
+    private final CarRepository carRepository;
+    private final FillupRepository fillupRepository;
+    private final FillupArchiveRepository archiveRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final OutboxRecorder outboxRecorder;
+    private final CarNameIndex carNameIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    public CarDeletionService(CarRepository carRepository, FillupRepository fillupRepository,
+                              FillupArchiveRepository archiveRepository, SyncTombstoneRepository tombstoneRepository,
+                              OutboxRecorder outboxRecorder, CarNameIndex carNameIndex,
+                              PlatformTransactionManager transactionManager) {
+        this.carRepository = carRepository;
+        this.fillupRepository = fillupRepository;
+        this.archiveRepository = archiveRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.outboxRecorder = outboxRecorder;
+        this.carNameIndex = carNameIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Hide a car and queue it for deletion. Repeated requests return the pending deletion.
+     *
+     * @throws ResourceNotFoundException if the car does not exist
+     */
+    public CarDeletionResponse requestDeletion(UUID carId) {
+        return transactionTemplate.execute(status -> {
+            Car car = carRepository.findById(carId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Car", carId));
+            if (car.getDeletingSince() != null) {
+                return CarDeletionResponse.deleting(carId, car.getDeletingSince());
+            }
+
+            // Takes the owner's row lock first, like every other car write, then re-reads the car
+            Car locked = outboxRecorder.record(ChangeType.CAR_DELETED, carId, carId);
+            if (locked.getDeletingSince() != null) {
+                // A concurrent request got there first; drop the duplicate change
+                status.setRollbackOnly();
+                return CarDeletionResponse.deleting(carId, locked.getDeletingSince());
+            }
+            Instant now = Instant.now();
+            carRepository.markDeleting(carId, now);
+            carNameIndex.carDeleted(car.getUserId(), carId);
+            return CarDeletionResponse.deleting(carId, now);
+        });
+    }
+
+    /**
+     * Get the status of a car deletion.
+     *
+     * @throws ResourceNotFoundException if no deletion of the car is pending or remembered
+     */
+    @Transactional(readOnly = true)
+    public CarDeletionResponse getStatus(UUID userId, UUID carId) {
+        Optional<Car> car = carRepository.findById(carId);
+        if (car.isPresent() && car.get().getDeletingSince() != null) {
+            return CarDeletionResponse.deleting(carId, car.get().getDeletingSince());
+        }
+        if (car.isEmpty() && tombstoneRepository.existsCarDeletion(userId, carId)) {
+            return CarDeletionResponse.deleted(carId);
+        }
+        throw new ResourceNotFoundException("Car deletion", carId);
+    }
+
+    /**
+     * Find cars waiting to be deleted, oldest request first.
+     */
+    @Transactional(readOnly = true)
+    public List<UUID> findPending() {
+        return carRepository.findIdsDeleting();
+    }
+
+    /**
+     * Delete one chunk of a car's fillups, then of its archived fillups.
+     *
+     * @return number of rows deleted; 0 once nothing is left
+     */
+    @Transactional
+    public int deleteChunk(UUID carId, int chunkSize) {
+        int deleted = fillupRepository.deleteChunkByCarId(carId, chunkSize);
+        if (deleted == 0) {
+            deleted = archiveRepository.deleteChunkByCarId(carId, chunkSize);
+        }
+        return deleted;
+    }
+
+    /**
+     * Delete the car row once its history is gone. The remaining per-car rows (monthly segments,
+     * stats snapshot) are small and cascade.
+     */
+    @Transactional
+    public void finishDeletion(UUID carId) {
+        carRepository.deleteById(carId);
+    }
+}
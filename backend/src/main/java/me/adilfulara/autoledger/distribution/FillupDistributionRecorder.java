@@ -0,0 +1,238 @@
+package me.adilfulara.autoledger.distribution;
+
+import me.adilfulara.autoledger.domain.model.ArchivedFillup;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupDistribution;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupArchiveRepository;
+import me.adilfulara.autoledger.domain.repository.FillupDistributionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Keeps each car's monthly {@link QuantileSketch}es of MPG and price per unit up to date as part
+ * of the write transaction.
+ * <p>
+ * A write is recorded as the values of the fillups it could affect, before and after: values
+ * that changed are removed from their old months' sketches and added to their new ones, at the
+ * cost of one read and one upsert of those months, however long the history. Appending only adds
+ * values. A car whose sketches were never built, or whose stored sketches turn out not to hold a
+ * value being removed, gets them rebuilt from its hot and archived fillups instead.
+ * <p>
+ * Callers must hold the car's row lock, which {@code OutboxRecorder} takes when it stamps the
+ * car, so two writers never read and replace the same sketch at once.
+ */
+@Component
+public class FillupDistributionRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(FillupDistributionRecorder.class);
+
+    private final FillupDistributionRepository distributionRepository;
+    private final FillupArchiveRepository archiveRepository;
+    private final CarRepository carRepository;
+
+    public FillupDistributionRecorder(FillupDistributionRepository distributionRepository,
+                                      FillupArchiveRepository archiveRepository, CarRepository carRepository) {
+        this.distributionRepository = distributionRepository;
+        this.archiveRepository = archiveRepository;
+        this.carRepository = carRepository;
+    }
+
+    /**
+     * A car's hot fillups with their MPG values.
+     *
+     * @param fillups all of the car's fillups in the hot table
+     * @param mpgById MPG of those fillups that have one
+     */
+    public record History(List<Fillup> fillups, Map<UUID, BigDecimal> mpgById) {}
+
+    /**
+     * The values a fillup contributes to its month's sketches.
+     *
+     * @param mpg the fillup's MPG, or null if it has none
+     */
+    public record Sample(Instant date, BigDecimal mpg, BigDecimal pricePerUnit) {
+
+        /**
+         * Samples of fillups, keyed by fillup ID.
+         */
+        public static Map<UUID, Sample> of(Collection<Fillup> fillups, Map<UUID, BigDecimal> mpgById) {
+            Map<UUID, Sample> samples = new HashMap<>();
+            for (Fillup fillup : fillups) {
+                samples.put(fillup.getId(),
+                        new Sample(fillup.getDate(), mpgById.get(fillup.getId()), fillup.getPricePerUnit()));
+            }
+            return samples;
+        }
+    }
+
+    /**
+     * Fold fillups appended after all of the car's other fillups into its sketches.
+     * A car whose sketches were never built gets them built from its history instead.
+     *
+     * @param car     the car, whose row this transaction has locked
+     * @param created the appended fillups
+     * @param mpgById MPG of the appended fillups that have one
+     * @param history the car's history; only read if the sketches must be built
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAppended(Car car, List<Fillup> created, Map<UUID, BigDecimal> mpgById,
+                               Supplier<History> history) {
+        recordChanged(car, Map.of(), Sample.of(created, mpgById), history);
+    }
+
+    /**
+     * Move the values of fillups a write affected from their old months' sketches to their new
+     * ones. Fillups whose sample did not change are left alone; a fillup only in {@code before}
+     * was deleted, one only in {@code after} was created.
+     *
+     * @param car     the car, whose row this transaction has locked
+     * @param before  samples of the affected fillups before the write
+     * @param after   samples of the same fillups after the write
+     * @param history the car's history; only read if the sketches must be rebuilt
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanged(Car car, Map<UUID, Sample> before, Map<UUID, Sample> after,
+                              Supplier<History> history) {
+        List<Sample> removed = new ArrayList<>();
+        List<Sample> added = new ArrayList<>();
+        before.forEach((id, sample) -> {
+            if (!Objects.equals(sample, after.get(id))) {
+                removed.add(sample);
+            }
+        });
+        after.forEach((id, sample) -> {
+            if (!Objects.equals(sample, before.get(id))) {
+                added.add(sample);
+            }
+        });
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(car.getDistributionsBuilt())) {
+            rebuild(car, history);
+            return;
+        }
+
+        Map<LocalDate, MonthSketches> byMonth = new TreeMap<>();
+        removed.forEach(sample -> byMonth.computeIfAbsent(monthOf(sample.date()), month -> new MonthSketches()));
+        added.forEach(sample -> byMonth.computeIfAbsent(monthOf(sample.date()), month -> new MonthSketches()));
+        for (FillupDistribution stored : distributionRepository.findByCarIdAndPeriodStartIn(car.getId(),
+                byMonth.keySet())) {
+            byMonth.get(stored.getPeriodStart()).merge(MonthSketches.of(stored));
+        }
+        for (Sample sample : removed) {
+            if (!byMonth.get(monthOf(sample.date())).remove(sample.mpg(), sample.pricePerUnit())) {
+                logger.warn("Distribution sketches of car {} do not hold a removed value; rebuilding", car.getId());
+                rebuild(car, history);
+                return;
+            }
+        }
+        for (Sample sample : added) {
+            byMonth.get(monthOf(sample.date())).add(sample.mpg(), sample.pricePerUnit());
+        }
+        distributionRepository.upsertAll(toRows(car.getId(), byMonth));
+    }
+
+    /**
+     * Replace a car's sketches with ones built from all of its hot and archived fillups.
+     *
+     * @param car     the car, whose row this transaction has locked
+     * @param history the car's hot fillups after the write
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rebuild(Car car, Supplier<History> history) {
+        Map<LocalDate, MonthSketches> byMonth = new TreeMap<>();
+        if (car.getArchivedThroughOdometer() != null) {
+            for (ArchivedFillup fillup : archiveRepository.findByCarIdOrderByDateDesc(car.getId())) {
+                byMonth.computeIfAbsent(monthOf(fillup.getDate()), month -> new MonthSketches())
+                        .add(fillup.getMpg(), fillup.getPricePerUnit());
+            }
+        }
+        History hot = history.get();
+        for (Fillup fillup : hot.fillups()) {
+            byMonth.computeIfAbsent(monthOf(fillup.getDate()), month -> new MonthSketches())
+                    .add(hot.mpgById().get(fillup.getId()), fillup.getPricePerUnit());
+        }
+
+        distributionRepository.deleteByCarId(car.getId());
+        distributionRepository.upsertAll(toRows(car.getId(), byMonth));
+        if (!Boolean.TRUE.equals(car.getDistributionsBuilt())) {
+            carRepository.markDistributionsBuilt(car.getId());
+        }
+    }
+
+    /**
+     * First day of a fillup date's month (UTC), matching {@code FillupSegment}.
+     */
+    static LocalDate monthOf(Instant date) {
+        return date.atZone(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1);
+    }
+
+    private static List<FillupDistribution> toRows(UUID carId, Map<LocalDate, MonthSketches> byMonth) {
+        List<FillupDistribution> rows = new ArrayList<>(byMonth.size());
+        byMonth.forEach((month, sketches) -> rows.add(new FillupDistribution(null, carId, month,
+                sketches.mpg().toBytes(), sketches.price().toBytes(), null)));
+        return rows;
+    }
+
+    /**
+     * One month's sketches.
+     */
+    record MonthSketches(QuantileSketch mpg, QuantileSketch price) {
+
+        MonthSketches() {
+            this(new QuantileSketch(), new QuantileSketch());
+        }
+
+        static MonthSketches of(FillupDistribution row) {
+            return new MonthSketches(QuantileSketch.fromBytes(row.getMpgSketch()),
+                    QuantileSketch.fromBytes(row.getPriceSketch()));
+        }
+
+        /**
+         * Add a fillup's values; an MPG that rounded to zero has no place on a log scale.
+         */
+        void add(BigDecimal mpg, BigDecimal pricePerUnit) {
+            if (mpg != null && mpg.signum() > 0) {
+                this.mpg.add(mpg.doubleValue());
+            }
+            price.add(pricePerUnit.doubleValue());
+        }
+
+        /**
+         * Remove a fillup's values, skipping those {@link #add} skipped.
+         *
+         * @return false if the sketches do not hold them
+         */
+        boolean remove(BigDecimal mpg, BigDecimal pricePerUnit) {
+            if (mpg != null && mpg.signum() > 0 && !this.mpg.remove(mpg.doubleValue())) {
+                return false;
+            }
+            return price.remove(pricePerUnit.doubleValue());
+        }
+
+        void merge(MonthSketches other) {
+            mpg.merge(other.mpg);
+            price.merge(other.price);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package me.adilfulara.autoledger.distribution;
+
+import me.adilfulara.autoledger.api.dto.CarDistributionResponse;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupDistribution;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupDistributionRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.service.FillupService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the distribution of a car's MPG and price per unit from its monthly sketches.
+ * <p>
+ * A request merges the sketches of the requested months, so its cost depends on the number of
+ * months rather than the number of fillups. Cars whose history predates the sketches get them
+ * built on their first request or write.
+ */
+@Service
+public class FillupDistributionService {
+
+    static final int MAX_BINS = 50;
+
+    private static final int MPG_SCALE = 2;
+    private static final int PRICE_SCALE = 3;
+    private static final LocalDate EARLIEST = LocalDate.of(1, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 1);
+
+    private final CarRepository carRepository;
+    private final FillupRepository fillupRepository;
+    private final FillupDistributionRepository distributionRepository;
+    private final FillupDistributionRecorder distributionRecorder;
+    private final FillupService fillupService;
+
+    public FillupDistributionService(CarRepository carRepository, FillupRepository fillupRepository,
+                                     FillupDistributionRepository distributionRepository,
+                                     FillupDistributionRecorder distributionRecorder, FillupService fillupService) {
+        this.carRepository = carRepository;
+        this.fillupRepository = fillupRepository;
+        this.distributionRepository = distributionRepository;
+        this.distributionRecorder = distributionRecorder;
+        this.fillupService = fillupService;
+    }
+
+    /**
+     * Summarize a car's MPG and price per unit over a range of months.
+     *
+     * @param from first month (inclusive), or null for the car's first
+     * @param to   last month (inclusive), or null for the car's latest
+     * @param bins number of histogram bins, at most {@value #MAX_BINS}
+     * @throws ResourceNotFoundException if the car does not exist or is being deleted
+     * @throws IllegalArgumentException  if {@code from} is after {@code to} or {@code bins} is out of range
+     */
+    @Transactional
+    public CarDistributionResponse getDistribution(UUID carId, YearMonth from, YearMonth to, int bins) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (bins < 1 || bins > MAX_BINS) {
+            throw new IllegalArgumentException("bins must be between 1 and " + MAX_BINS);
+        }
+        Car car = carRepository.findById(carId)
+                .filter(c -> c.getDeletingSince() == null)
+                .orElseThrow(() -> new ResourceNotFoundException("Car", carId));
+        if (!Boolean.TRUE.equals(car.getDistributionsBuilt()) && carRepository.markDistributionsBuilt(carId) == 1) {
+            // Marking took the car's row lock, so no write can slip in while the sketches are built
+            Car locked = carRepository.findById(carId).orElseThrow();
+            distributionRecorder.rebuild(locked, () -> history(locked));
+        }
+
+        QuantileSketch mpg = new QuantileSketch();
+        QuantileSketch price = new QuantileSketch();
+        List<FillupDistribution> months = distributionRepository.findByCarIdInRange(carId,
+                from == null ? EARLIEST : from.atDay(1), to == null ? LATEST : to.atDay(1));
+        for (FillupDistribution month : months) {
+            mpg.merge(QuantileSketch.fromBytes(month.getMpgSketch()));
+            price.merge(QuantileSketch.fromBytes(month.getPriceSketch()));
+        }
+        return new CarDistributionResponse(carId, from, to,
+                summarize(mpg, bins, MPG_SCALE), summarize(price, bins, PRICE_SCALE));
+    }
+
+    private FillupDistributionRecorder.History history(Car car) {
+        List<Fillup> fillups = fillupRepository.findByCarIdOrderByOdometerAsc(car.getId());
+        return new FillupDistributionRecorder.History(fillups,
+                fillupService.calculateMPGs(fillups, car.getArchivedThroughOdometer() == null));
+    }
+
+    private static CarDistributionResponse.Distribution summarize(QuantileSketch sketch, int bins, int scale) {
+        if (sketch.isEmpty()) {
+            return new CarDistributionResponse.Distribution(0, null, null, null, List.of());
+        }
+        List<CarDistributionResponse.Bin> histogram = sketch.histogram(bins).stream()
+                .map(bin -> new CarDistributionResponse.Bin(round(bin.lower(), scale), round(bin.upper(), scale),
+                        bin.count()))
+                .toList();
+        return new CarDistributionResponse.Distribution(sketch.count(),
+                round(sketch.quantile(0.1), scale),
+                round(sketch.quantile(0.5), scale),
+                round(sketch.quantile(0.9), scale),
+                histogram);
+    }
+
+    private static BigDecimal round(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+}
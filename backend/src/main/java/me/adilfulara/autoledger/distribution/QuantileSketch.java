@@ -0,0 +1,225 @@
+package me.adilfulara.autoledger.distribution;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A mergeable quantile sketch with relative accuracy.
+ * <p>
+ * A positive value {@code v} is counted in bucket {@code ceil(log_γ v)}, with
+ * {@code γ = (1 + α) / (1 - α)}; every value in bucket {@code i} is within {@code α} of the
+ * bucket's representative value {@code 2γ^i / (γ + 1)}. Quantiles are therefore accurate to
+ * {@value #RELATIVE_ACCURACY} of their value, however many values were added. Two sketches merge
+ * by adding bucket counts, so a car's distribution is the sum of its monthly sketches and merging
+ * in any order gives the same result. Removing a value decrements its bucket, which is exact too.
+ * <p>
+ * A month of fillups occupies a handful of buckets, which {@link #toBytes()} stores as
+ * variable-length index deltas and counts: typically a few bytes per distinct value.
+ */
+public final class QuantileSketch {
+
+    /**
+     * Relative accuracy of quantiles. Part of the serialized format: changing it invalidates
+     * stored sketches.
+     */
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int FORMAT_VERSION = 1;
+
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long count;
+
+    /**
+     * A histogram bin: the number of values between {@code lower} and {@code upper}.
+     */
+    public record Bin(double lower, double upper, long count) {}
+
+    /**
+     * Add a value.
+     *
+     * @throws IllegalArgumentException if the value is not positive
+     */
+    public void add(double value) {
+        if (!(value > 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("value must be positive and finite: " + value);
+        }
+        buckets.merge(index(value), 1L, Long::sum);
+        count++;
+    }
+
+    /**
+     * Remove a value that was added before.
+     *
+     * @return false, leaving the sketch unchanged, if no value in the value's bucket was counted
+     * @throws IllegalArgumentException if the value is not positive
+     */
+    public boolean remove(double value) {
+        if (!(value > 0) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("value must be positive and finite: " + value);
+        }
+        int index = index(value);
+        Long n = buckets.get(index);
+        if (n == null) {
+            return false;
+        }
+        if (n == 1) {
+            buckets.remove(index);
+        } else {
+            buckets.put(index, n - 1);
+        }
+        count--;
+        return true;
+    }
+
+    /**
+     * Add every value counted by another sketch.
+     */
+    public void merge(QuantileSketch other) {
+        other.buckets.forEach((index, n) -> buckets.merge(index, n, Long::sum));
+        count += other.count;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * The value at a quantile, e.g. 0.5 for the median.
+     *
+     * @param q quantile between 0 and 1
+     * @throws IllegalArgumentException if {@code q} is outside [0, 1]
+     * @throws IllegalStateException    if the sketch is empty
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1: " + q);
+        }
+        if (count == 0) {
+            throw new IllegalStateException("sketch is empty");
+        }
+        double rank = q * (count - 1);
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return value(bucket.getKey());
+            }
+        }
+        return value(buckets.lastKey());
+    }
+
+    /**
+     * Count the values in equal-width bins spanning the lowest to the highest bucket.
+     * Each bucket falls entirely into the bin holding its representative value.
+     *
+     * @param bins number of bins
+     * @return the bins in ascending order, or none if the sketch is empty
+     * @throws IllegalArgumentException if {@code bins} is not positive
+     */
+    public List<Bin> histogram(int bins) {
+        if (bins <= 0) {
+            throw new IllegalArgumentException("bins must be positive: " + bins);
+        }
+        List<Bin> result = new ArrayList<>(bins);
+        if (count == 0) {
+            return result;
+        }
+        double lower = Math.pow(GAMMA, buckets.firstKey() - 1);
+        double upper = Math.pow(GAMMA, buckets.lastKey());
+        double width = (upper - lower) / bins;
+        long[] counts = new long[bins];
+        buckets.forEach((index, n) -> {
+            int bin = (int) ((value(index) - lower) / width);
+            counts[Math.min(Math.max(bin, 0), bins - 1)] += n;
+        });
+        for (int i = 0; i < bins; i++) {
+            result.add(new Bin(lower + i * width, i == bins - 1 ? upper : lower + (i + 1) * width, counts[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Serialize: a format version, the number of buckets, then each bucket's index (zigzag-encoded
+     * delta from the previous index) and count, all as unsigned LEB128 varints.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + buckets.size() * 3);
+        writeVarint(out, FORMAT_VERSION);
+        writeVarint(out, buckets.size());
+        int previous = 0;
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            int delta = bucket.getKey() - previous;
+            writeVarint(out, Integer.toUnsignedLong((delta << 1) ^ (delta >> 31)));
+            writeVarint(out, bucket.getValue());
+            previous = bucket.getKey();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Deserialize a sketch written by {@link #toBytes()}; null or empty input gives an empty sketch.
+     *
+     * @throws IllegalArgumentException if the bytes are not a sketch in a known format
+     */
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        QuantileSketch sketch = new QuantileSketch();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        int[] position = {0};
+        long version = readVarint(bytes, position);
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown sketch format version " + version);
+        }
+        long size = readVarint(bytes, position);
+        int index = 0;
+        for (long i = 0; i < size; i++) {
+            int zigzag = (int) readVarint(bytes, position);
+            index += (zigzag >>> 1) ^ -(zigzag & 1);
+            long n = readVarint(bytes, position);
+            sketch.buckets.put(index, n);
+            sketch.count += n;
+        }
+        return sketch;
+    }
+
+    private static int index(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    private static double value(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= bytes.length) {
+                throw new IllegalArgumentException("Truncated sketch");
+            }
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed sketch");
+    }
+}
@@ -0,0 +1,100 @@
+package me.adilfulara.autoledger.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Fillup moved out of the hot fillups table by compaction.
+ * Kept verbatim (same ID and timestamps) for export, with the MPG it had when archived.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("fillups_archive")
+public class ArchivedFillup implements Persistable<UUID> {
+
+    /**
+     * ID of the original fillup.
+     */
+    @Id
+    private UUID id;
+
+    private UUID carId;
+
+    private Instant date;
+
+    private Long odometer;
+
+    private BigDecimal fuelVolume;
+
+    private BigDecimal pricePerUnit;
+
+    private BigDecimal totalCost;
+
+    private Boolean isPartial;
+
+    private Boolean isMissed;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    /**
+     * MPG computed at archive time, or null if it could not be calculated.
+     */
+    private BigDecimal mpg;
+
+    /**
+     * Why the fillup was flagged as an outlier when it was archived, or null if it was not.
+     */
+    private FillupAnomaly anomaly;
+
+    /**
+     * When the fillup was archived.
+     */
+    private Instant archivedAt;
+
+    /**
+     * Archived rows are only ever inserted; the ID is carried over, so Spring Data cannot
+     * infer newness from a null ID.
+     */
+    @Transient
+    private boolean isNew;
+
+    /**
+     * Create an archive row for a fillup that is about to be removed from the hot table.
+     */
+    public static ArchivedFillup from(Fillup fillup, BigDecimal mpg, Instant archivedAt) {
+        return new ArchivedFillup(
+                fillup.getId(),
+                fillup.getCarId(),
+                fillup.getDate(),
+                fillup.getOdometer(),
+                fillup.getFuelVolume(),
+                fillup.getPricePerUnit(),
+                fillup.getTotalCost(),
+                fillup.getIsPartial(),
+                fillup.getIsMissed(),
+                fillup.getCreatedAt(),
+                fillup.getUpdatedAt(),
+                mpg,
+                fillup.getAnomaly(),
+                archivedAt,
+                true
+        );
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+}
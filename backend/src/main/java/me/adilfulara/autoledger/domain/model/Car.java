@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.Instant;
@@ -66,6 +67,34 @@ public class Car {
      */
     private DistanceUnit distanceUnit;
 
+    /**
+     * Highest odometer reading moved to the fillup archive, or null if never compacted.
+     * Maintained by compaction only, so never written back by {@code save}.
+     */
+    @ReadOnlyProperty
+    private Long archivedThroughOdometer;
+
+    /**
+     * Incremented on every write to the car or its fillups (see {@code OutboxRecorder}).
+     * Never written back by {@code save}.
+     */
+    @ReadOnlyProperty
+    private Long dataVersion;
+
+    /**
+     * Whether the car's distribution sketches cover its history; false for cars whose history
+     * predates the sketches until they are built. Never written back by {@code save}.
+     */
+    @ReadOnlyProperty
+    private Boolean distributionsBuilt;
+
+    /**
+     * When asynchronous deletion was requested, or null for live cars.
+     * Set by {@code CarRepository.markDeleting} only, so never written back by {@code save}.
+     */
+    @ReadOnlyProperty
+    private Instant deletingSince;
+
     /**
      * Timestamp when the car record was created.
      * Managed by Spring Data auditing.
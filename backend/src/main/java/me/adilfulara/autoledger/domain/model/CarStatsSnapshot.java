@@ -0,0 +1,48 @@
+package me.adilfulara.autoledger.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Precomputed statistics for a car, maintained by the outbox worker.
+ * Only valid while {@link #dataVersion} equals the car's current data version.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("car_stats")
+public class CarStatsSnapshot {
+
+    @Id
+    private UUID carId;
+
+    /**
+     * The car's data version the statistics were computed at.
+     */
+    private Long dataVersion;
+
+    private Long totalFillups;
+
+    private Long totalDistance;
+
+    private BigDecimal totalFuelUsed;
+
+    private BigDecimal totalSpent;
+
+    private BigDecimal averageMpg;
+
+    private BigDecimal bestMpg;
+
+    private BigDecimal worstMpg;
+
+    private BigDecimal averagePricePerUnit;
+
+    private Instant computedAt;
+}
@@ -0,0 +1,13 @@
+package me.adilfulara.autoledger.domain.model;
+
+/**
+ * Kind of write recorded in the outbox.
+ */
+public enum ChangeType {
+    CAR_CREATED,
+    CAR_UPDATED,
+    CAR_DELETED,
+    FILLUP_ADDED,
+    FILLUP_UPDATED,
+    FILLUP_DELETED
+}
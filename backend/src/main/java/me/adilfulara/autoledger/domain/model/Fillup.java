@@ -73,6 +73,11 @@ public class Fillup {
      */
     private Boolean isMissed;
 
+    /**
+     * Why the fillup was flagged as an outlier when written; null if it was not.
+     */
+    private FillupAnomaly anomaly;
+
     /**
      * Timestamp when the fillup record was created.
      * Managed by Spring Data auditing.
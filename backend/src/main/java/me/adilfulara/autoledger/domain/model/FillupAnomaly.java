@@ -0,0 +1,17 @@
+package me.adilfulara.autoledger.domain.model;
+
+/**
+ * Why a fillup was flagged as an outlier against its car's running baseline.
+ */
+public enum FillupAnomaly {
+    /**
+     * Fuel volume far from the car's usual fill (e.g., a mistyped volume).
+     * Takes precedence over {@link #MPG}, since a wrong volume also skews the segment's MPG.
+     */
+    FUEL_VOLUME,
+
+    /**
+     * Segment MPG far from the car's usual economy (e.g., an odometer typo).
+     */
+    MPG
+}
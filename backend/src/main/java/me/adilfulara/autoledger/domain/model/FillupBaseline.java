@@ -0,0 +1,44 @@
+package me.adilfulara.autoledger.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Running statistics of a car's unflagged fillups, used to flag outliers on write.
+ * Each pair of mean and m2 is Welford's running state; variance = m2 / (count - 1).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("fillup_baselines")
+public class FillupBaseline {
+
+    @Id
+    private UUID carId;
+
+    /**
+     * Number of fuel volumes in the baseline (partial fills are not counted).
+     */
+    private Long fuelVolumeCount;
+
+    private Double fuelVolumeMean;
+
+    private Double fuelVolumeM2;
+
+    /**
+     * Number of segment MPG values in the baseline.
+     */
+    private Long mpgCount;
+
+    private Double mpgMean;
+
+    private Double mpgM2;
+
+    private Instant updatedAt;
+}
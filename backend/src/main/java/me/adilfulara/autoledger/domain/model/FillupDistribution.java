@@ -0,0 +1,44 @@
+package me.adilfulara.autoledger.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Quantile sketches of one car's MPG and price-per-unit values in one month, covering hot and
+ * archived fillups alike.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("fillup_distributions")
+public class FillupDistribution {
+
+    @Id
+    private UUID id;
+
+    private UUID carId;
+
+    /**
+     * First day of the month (UTC).
+     */
+    private LocalDate periodStart;
+
+    /**
+     * Serialized sketch of the month's per-fillup MPG values.
+     */
+    private byte[] mpgSketch;
+
+    /**
+     * Serialized sketch of the month's price-per-unit values.
+     */
+    private byte[] priceSketch;
+
+    private Instant updatedAt;
+}
@@ -0,0 +1,204 @@
+package me.adilfulara.autoledger.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Monthly totals of a car's archived fillups.
+ * Holds exactly the sums needed to add archived history back into car statistics.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("fillup_segments")
+public class FillupSegment {
+
+    @Id
+    private UUID id;
+
+    private UUID carId;
+
+    /**
+     * First day of the month (UTC) covered by this segment.
+     */
+    private LocalDate periodStart;
+
+    private Integer fillupCount;
+
+    private Instant firstDate;
+
+    private Instant lastDate;
+
+    private Long firstOdometer;
+
+    private Long lastOdometer;
+
+    private BigDecimal totalFuel;
+
+    private BigDecimal totalCost;
+
+    /**
+     * Sum of per-fillup price per unit (the stats average is per fillup, not per unit of fuel).
+     */
+    private BigDecimal pricePerUnitSum;
+
+    /**
+     * Number of unflagged archived fillups that had an MPG value.
+     */
+    private Integer mpgCount;
+
+    /**
+     * Sum of those MPG values (scale 2, exact).
+     */
+    private BigDecimal mpgSum;
+
+    private BigDecimal bestMpg;
+
+    private BigDecimal worstMpg;
+
+    /**
+     * Number of archived fillups flagged as outliers that had an MPG value; kept apart so stats
+     * can leave them out.
+     */
+    private Integer flaggedMpgCount;
+
+    private BigDecimal flaggedMpgSum;
+
+    private BigDecimal flaggedBestMpg;
+
+    private BigDecimal flaggedWorstMpg;
+
+    @LastModifiedDate
+    private Instant updatedAt;
+
+    /**
+     * Roll archived fillups up into one segment per month.
+     *
+     * @param carId    the car the fillups belong to
+     * @param archived archived fillups of that car
+     * @return segments ordered by period
+     */
+    public static List<FillupSegment> summarize(UUID carId, List<ArchivedFillup> archived) {
+        Map<LocalDate, FillupSegment> byMonth = new TreeMap<>();
+        for (ArchivedFillup fillup : archived) {
+            LocalDate month = fillup.getDate().atZone(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1);
+            byMonth.computeIfAbsent(month, m -> empty(carId, m)).add(fillup);
+        }
+        return new ArrayList<>(byMonth.values());
+    }
+
+    /**
+     * Fold another segment for the same car and month into this one.
+     */
+    public void merge(FillupSegment other) {
+        fillupCount += other.fillupCount;
+        firstDate = min(firstDate, other.firstDate);
+        lastDate = max(lastDate, other.lastDate);
+        firstOdometer = Math.min(firstOdometer, other.firstOdometer);
+        lastOdometer = Math.max(lastOdometer, other.lastOdometer);
+        totalFuel = totalFuel.add(other.totalFuel);
+        totalCost = totalCost.add(other.totalCost);
+        pricePerUnitSum = pricePerUnitSum.add(other.pricePerUnitSum);
+        mpgCount += other.mpgCount;
+        mpgSum = mpgSum.add(other.mpgSum);
+        bestMpg = max(bestMpg, other.bestMpg);
+        worstMpg = min(worstMpg, other.worstMpg);
+        flaggedMpgCount += other.flaggedMpgCount;
+        flaggedMpgSum = flaggedMpgSum.add(other.flaggedMpgSum);
+        flaggedBestMpg = max(flaggedBestMpg, other.flaggedBestMpg);
+        flaggedWorstMpg = min(flaggedWorstMpg, other.flaggedWorstMpg);
+    }
+
+    /**
+     * Number of archived MPG values, with or without those of flagged fillups.
+     */
+    public long mpgCount(boolean includeFlagged) {
+        return includeFlagged ? mpgCount + flaggedMpgCount : mpgCount;
+    }
+
+    /**
+     * Sum of archived MPG values, with or without those of flagged fillups.
+     */
+    public BigDecimal mpgSum(boolean includeFlagged) {
+        return includeFlagged ? mpgSum.add(flaggedMpgSum) : mpgSum;
+    }
+
+    /**
+     * Best archived MPG, with or without those of flagged fillups; null if there is none.
+     */
+    public BigDecimal bestMpg(boolean includeFlagged) {
+        return includeFlagged ? max(bestMpg, flaggedBestMpg) : bestMpg;
+    }
+
+    /**
+     * Worst archived MPG, with or without those of flagged fillups; null if there is none.
+     */
+    public BigDecimal worstMpg(boolean includeFlagged) {
+        return includeFlagged ? min(worstMpg, flaggedWorstMpg) : worstMpg;
+    }
+
+    private void add(ArchivedFillup fillup) {
+        fillupCount++;
+        firstDate = min(firstDate, fillup.getDate());
+        lastDate = max(lastDate, fillup.getDate());
+        firstOdometer = firstOdometer == null ? fillup.getOdometer() : Math.min(firstOdometer, fillup.getOdometer());
+        lastOdometer = lastOdometer == null ? fillup.getOdometer() : Math.max(lastOdometer, fillup.getOdometer());
+        totalFuel = totalFuel.add(fillup.getFuelVolume());
+        totalCost = totalCost.add(fillup.getTotalCost());
+        pricePerUnitSum = pricePerUnitSum.add(fillup.getPricePerUnit());
+        if (fillup.getMpg() != null && fillup.getAnomaly() != null) {
+            flaggedMpgCount++;
+            flaggedMpgSum = flaggedMpgSum.add(fillup.getMpg());
+            flaggedBestMpg = max(flaggedBestMpg, fillup.getMpg());
+            flaggedWorstMpg = min(flaggedWorstMpg, fillup.getMpg());
+        } else if (fillup.getMpg() != null) {
+            mpgCount++;
+            mpgSum = mpgSum.add(fillup.getMpg());
+            bestMpg = max(bestMpg, fillup.getMpg());
+            worstMpg = min(worstMpg, fillup.getMpg());
+        }
+    }
+
+    private static FillupSegment empty(UUID carId, LocalDate periodStart) {
+        FillupSegment segment = new FillupSegment();
+        segment.carId = carId;
+        segment.periodStart = periodStart;
+        segment.fillupCount = 0;
+        segment.totalFuel = BigDecimal.ZERO;
+        segment.totalCost = BigDecimal.ZERO;
+        segment.pricePerUnitSum = BigDecimal.ZERO;
+        segment.mpgCount = 0;
+        segment.mpgSum = BigDecimal.ZERO;
+        segment.flaggedMpgCount = 0;
+        segment.flaggedMpgSum = BigDecimal.ZERO;
+        return segment;
+    }
+
+    private static <T extends Comparable<T>> T min(T a, T b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static <T extends Comparable<T>> T max(T a, T b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.compareTo(b) >= 0 ? a : b;
+    }
+}
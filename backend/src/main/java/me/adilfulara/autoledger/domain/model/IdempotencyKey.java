@@ -0,0 +1,42 @@
+package me.adilfulara.autoledger.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A client-supplied Idempotency-Key and the response of the request that first used it.
+ * Claimed in the same transaction as the request's writes; pruned after {@code idempotency.ttl}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("idempotency_keys")
+public class IdempotencyKey {
+
+    @Id
+    private Long id;
+
+    private UUID userId;
+
+    private String idempotencyKey;
+
+    /**
+     * Hex SHA-256 of the request body the key was first used with.
+     */
+    private String requestHash;
+
+    /**
+     * JSON response body; set before the claiming transaction commits.
+     */
+    private String responseBody;
+
+    private Instant createdAt;
+
+    private Instant expiresAt;
+}
@@ -0,0 +1,73 @@
+package me.adilfulara.autoledger.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Change event written in the same transaction as a car or fillup write.
+ * Drained and deleted by the outbox worker.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("outbox_events")
+public class OutboxEvent {
+
+    /**
+     * Sequence-generated ID; also the processing order.
+     */
+    @Id
+    private Long id;
+
+    private ChangeType eventType;
+
+    /**
+     * Owner of the car (kept on the event so CAR_DELETED can still be routed).
+     */
+    private UUID userId;
+
+    private UUID carId;
+
+    /**
+     * ID of the changed car or fillup.
+     */
+    private UUID entityId;
+
+    /**
+     * The car's data version after this change.
+     */
+    private Long dataVersion;
+
+    /**
+     * Failed processing attempts so far.
+     */
+    private Integer attempts;
+
+    /**
+     * Earliest time the worker may (re)try this event.
+     */
+    private Instant availableAt;
+
+    private Instant createdAt;
+
+    /**
+     * Constructor for recording new events (ID generated by database).
+     */
+    public OutboxEvent(ChangeType eventType, UUID userId, UUID carId, UUID entityId, Long dataVersion,
+                       Instant now) {
+        this.eventType = eventType;
+        this.userId = userId;
+        this.carId = carId;
+        this.entityId = entityId;
+        this.dataVersion = dataVersion;
+        this.attempts = 0;
+        this.availableAt = now;
+        this.createdAt = now;
+    }
+}
@@ -0,0 +1,58 @@
+package me.adilfulara.autoledger.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Record of a deleted car or fillup, so delta syncs can tell clients to drop it.
+ * Written in the same transaction as the delete; pruned after {@code sync.tombstone-retention}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("sync_tombstones")
+public class SyncTombstone {
+
+    @Id
+    private Long id;
+
+    private UUID userId;
+
+    /**
+     * The owner's change sequence number assigned to the delete.
+     */
+    private Long changeSeq;
+
+    /**
+     * CAR_DELETED or FILLUP_DELETED.
+     */
+    private ChangeType changeType;
+
+    /**
+     * ID of the deleted car or fillup.
+     */
+    private UUID entityId;
+
+    private UUID carId;
+
+    private Instant deletedAt;
+
+    /**
+     * Constructor for recording new tombstones (ID generated by database).
+     */
+    public SyncTombstone(UUID userId, Long changeSeq, ChangeType changeType, UUID entityId, UUID carId,
+                         Instant deletedAt) {
+        this.userId = userId;
+        this.changeSeq = changeSeq;
+        this.changeType = changeType;
+        this.entityId = entityId;
+        this.carId = carId;
+        this.deletedAt = deletedAt;
+    }
+}
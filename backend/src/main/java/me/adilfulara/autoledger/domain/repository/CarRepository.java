@@ -1,9 +1,13 @@
 package me.adilfulara.autoledger.domain.repository;
 
 import me.adilfulara.autoledger.domain.model.Car;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,12 +20,22 @@ import java.util.UUID;
 public interface CarRepository extends CrudRepository<Car, UUID> {
 
     /**
-     * Find all cars belonging to a specific user.
+     * Find all cars belonging to a specific user, excluding cars being deleted.
      *
      * @param userId the user's internal UUID
      * @return list of cars owned by the user
      */
-    List<Car> findByUserId(UUID userId);
+    @Query("SELECT * FROM cars WHERE user_id = :userId AND deleting_since IS NULL")
+    List<Car> findByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Check that a car exists and is not being deleted.
+     *
+     * @param carId the car's UUID
+     * @return true if the car can be read and written
+     */
+    @Query("SELECT EXISTS (SELECT 1 FROM cars WHERE id = :carId AND deleting_since IS NULL)")
+    boolean existsActiveById(@Param("carId") UUID carId);
 
     /**
      * Find a car by VIN.
@@ -40,6 +54,21 @@ public interface CarRepository extends CrudRepository<Car, UUID> {
      */
     Optional<Car> findByUserIdAndName(UUID userId, String name);
 
+    /**
+     * Find a user's cars whose names contain the given name approximately, best match first.
+     * Uses pg_trgm word similarity ({@code <%}, threshold {@code pg_trgm.word_similarity_threshold})
+     * backed by the trigram index on {@code cars.name}.
+     *
+     * @param userId the user's internal UUID
+     * @param name   the (possibly partial or misspelled) car name
+     * @param limit  maximum number of cars to return
+     * @return matching cars, most similar first
+     */
+    @Query("SELECT * FROM cars WHERE user_id = :userId AND deleting_since IS NULL AND :name <% name "
+            + "ORDER BY word_similarity(:name, name) DESC, name LIMIT :limit")
+    List<Car> findByUserIdAndNameSimilarTo(@Param("userId") UUID userId, @Param("name") String name,
+                                           @Param("limit") int limit);
+
     /**
      * Count cars belonging to a specific user.
      *
@@ -47,4 +76,101 @@ public interface CarRepository extends CrudRepository<Car, UUID> {
      * @return number of cars owned by the user
      */
     long countByUserId(UUID userId);
+
+    /**
+     * Find cars that have fillups older than a cutoff (candidates for compaction).
+     *
+     * @param cutoff fillups dated before this instant are eligible
+     * @return IDs of cars with eligible fillups
+     */
+    @Query("SELECT DISTINCT car_id FROM fillups WHERE date < :cutoff "
+            + "AND car_id NOT IN (SELECT id FROM cars WHERE deleting_since IS NOT NULL)")
+    List<UUID> findIdsWithFillupsBefore(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Record the highest odometer reading moved to the fillup archive.
+     *
+     * @param carId the car's UUID
+     * @param odometer highest archived odometer
+     */
+    @Modifying
+    @Query("UPDATE cars SET archived_through_odometer = :odometer WHERE id = :carId")
+    void markArchivedThrough(@Param("carId") UUID carId, @Param("odometer") Long odometer);
+
+    /**
+     * Increment a car's data version and stamp it with the owner's change sequence number.
+     * Uses {@code RETURNING} so callers get the owner and new version without a second query.
+     *
+     * @param carId     the car's UUID
+     * @param changeSeq the change sequence number from {@link UserRepository#nextChangeSeqForCar}
+     * @return the updated car, or empty if it does not exist
+     */
+    @Query("UPDATE cars SET data_version = data_version + 1, change_seq = :changeSeq WHERE id = :carId RETURNING *")
+    Optional<Car> recordChange(@Param("carId") UUID carId, @Param("changeSeq") long changeSeq);
+
+    /**
+     * Find a user's cars that changed, or whose fillups changed, after a change sequence number.
+     *
+     * @param userId the user's internal UUID
+     * @param since  only cars stamped with a higher change sequence number are returned
+     * @return changed cars
+     */
+    @Query("SELECT * FROM cars WHERE user_id = :userId AND change_seq > :since AND deleting_since IS NULL")
+    List<Car> findChangedByUserIdSince(@Param("userId") UUID userId, @Param("since") long since);
+
+    /**
+     * Get a car's data version.
+     *
+     * @param carId the car's UUID
+     * @return Optional containing the version if the car exists
+     */
+    @Query("SELECT data_version FROM cars WHERE id = :carId")
+    Optional<Long> findDataVersionById(@Param("carId") UUID carId);
+
+    /**
+     * Get a car's data version, only if the car belongs to the user.
+     * Validates ownership and cache freshness in a single lookup.
+     *
+     * @param carId  the car's UUID
+     * @param userId the user's internal UUID
+     * @return Optional containing the version if the user owns the car
+     */
+    @Query("SELECT data_version FROM cars WHERE id = :carId AND user_id = :userId AND deleting_since IS NULL")
+    Optional<Long> findDataVersionByIdAndUserId(@Param("carId") UUID carId, @Param("userId") UUID userId);
+
+    /**
+     * Record that a car's distribution sketches cover its history, locking the car row until the
+     * transaction ends so concurrent writers wait for the sketches being built.
+     *
+     * @param carId the car's UUID
+     * @return 1 if the car was marked, 0 if it does not exist or was already marked
+     */
+    @Modifying
+    @Query("UPDATE cars SET distributions_built = TRUE WHERE id = :carId AND NOT distributions_built")
+    int markDistributionsBuilt(@Param("carId") UUID carId);
+
+    /**
+     * Hide a car pending asynchronous deletion.
+     *
+     * @param carId the car's UUID
+     * @param now   the deletion request time
+     * @return 1 if the car was marked, 0 if it does not exist or is already being deleted
+     */
+    @Modifying
+    @Query("UPDATE cars SET deleting_since = :now WHERE id = :carId AND deleting_since IS NULL")
+    int markDeleting(@Param("carId") UUID carId, @Param("now") Instant now);
+
+    /**
+     * Find cars waiting for asynchronous deletion, oldest request first.
+     *
+     * @return IDs of cars being deleted
+     */
+    @Query("SELECT id FROM cars WHERE deleting_since IS NOT NULL ORDER BY deleting_since")
+    List<UUID> findIdsDeleting();
+
+    /**
+     * ID of the active car with the most history changes, used as the startup warmup sample.
+     */
+    @Query("SELECT id FROM cars WHERE deleting_since IS NULL ORDER BY data_version DESC LIMIT 1")
+    Optional<UUID> findWarmupSampleId();
 }
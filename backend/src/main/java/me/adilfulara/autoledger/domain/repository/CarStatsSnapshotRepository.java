@@ -0,0 +1,54 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.CarStatsSnapshot;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Repository interface for precomputed car statistics.
+ */
+@Repository
+public interface CarStatsSnapshotRepository extends CrudRepository<CarStatsSnapshot, UUID> {
+
+    /**
+     * Insert or replace a car's snapshot, unless a snapshot for a newer data version is already stored
+     * (events can be processed out of order when a retry overtakes a later batch).
+     *
+     * @return number of rows written (0 if a newer snapshot exists)
+     */
+    @Modifying
+    @Query("""
+            INSERT INTO car_stats (car_id, data_version, total_fillups, total_distance, total_fuel_used,
+                                   total_spent, average_mpg, best_mpg, worst_mpg, average_price_per_unit, computed_at)
+            VALUES (:carId, :dataVersion, :totalFillups, :totalDistance, :totalFuelUsed,
+                    :totalSpent, :averageMpg, :bestMpg, :worstMpg, :averagePricePerUnit, CURRENT_TIMESTAMP)
+            ON CONFLICT (car_id) DO UPDATE SET
+                data_version = EXCLUDED.data_version,
+                total_fillups = EXCLUDED.total_fillups,
+                total_distance = EXCLUDED.total_distance,
+                total_fuel_used = EXCLUDED.total_fuel_used,
+                total_spent = EXCLUDED.total_spent,
+                average_mpg = EXCLUDED.average_mpg,
+                best_mpg = EXCLUDED.best_mpg,
+                worst_mpg = EXCLUDED.worst_mpg,
+                average_price_per_unit = EXCLUDED.average_price_per_unit,
+                computed_at = EXCLUDED.computed_at
+            WHERE car_stats.data_version < EXCLUDED.data_version
+            """)
+    int upsert(@Param("carId") UUID carId,
+               @Param("dataVersion") long dataVersion,
+               @Param("totalFillups") long totalFillups,
+               @Param("totalDistance") long totalDistance,
+               @Param("totalFuelUsed") BigDecimal totalFuelUsed,
+               @Param("totalSpent") BigDecimal totalSpent,
+               @Param("averageMpg") BigDecimal averageMpg,
+               @Param("bestMpg") BigDecimal bestMpg,
+               @Param("worstMpg") BigDecimal worstMpg,
+               @Param("averagePricePerUnit") BigDecimal averagePricePerUnit);
+}
@@ -0,0 +1,68 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.ArchivedFillup;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for archived fillups.
+ * Rows are written by compaction and read only for export and date-range queries.
+ */
+@Repository
+public interface FillupArchiveRepository extends CrudRepository<ArchivedFillup, UUID> {
+
+    /**
+     * Find all archived fillups for a car, ordered by date descending (export order).
+     *
+     * @param carId the car's UUID
+     * @return archived fillups (newest first)
+     */
+    @Query("SELECT * FROM fillups_archive WHERE car_id = :carId ORDER BY date DESC")
+    List<ArchivedFillup> findByCarIdOrderByDateDesc(@Param("carId") UUID carId);
+
+    /**
+     * Find a car's archived fillups in a date range, newest first.
+     *
+     * @param carId the car's UUID
+     * @param from  start of the range (inclusive)
+     * @param to    end of the range (exclusive)
+     * @return archived fillups in the range
+     */
+    @Query("SELECT * FROM fillups_archive WHERE car_id = :carId AND date >= :from AND date < :to " +
+           "ORDER BY date DESC")
+    List<ArchivedFillup> findByCarIdAndDateRange(@Param("carId") UUID carId, @Param("from") Instant from,
+                                                 @Param("to") Instant to);
+
+    /**
+     * Find the archived fillups of all of a user's cars in a date range, newest first.
+     *
+     * @param userId the user's internal UUID
+     * @param from   start of the range (inclusive)
+     * @param to     end of the range (exclusive)
+     * @return archived fillups in the range
+     */
+    @Query("SELECT a.* FROM cars c JOIN fillups_archive a ON a.car_id = c.id " +
+           "WHERE c.user_id = :userId AND c.deleting_since IS NULL AND c.archived_through_odometer IS NOT NULL " +
+           "AND a.date >= :from AND a.date < :to ORDER BY a.date DESC")
+    List<ArchivedFillup> findByUserIdAndDateRange(@Param("userId") UUID userId, @Param("from") Instant from,
+                                                  @Param("to") Instant to);
+
+    /**
+     * Delete up to {@code limit} of a car's archived fillups (asynchronous car deletion).
+     *
+     * @param carId the car's UUID
+     * @param limit maximum number of rows to delete
+     * @return number of rows deleted; 0 once the car has no archived fillups left
+     */
+    @Modifying
+    @Query("DELETE FROM fillups_archive WHERE id IN " +
+           "(SELECT id FROM fillups_archive WHERE car_id = :carId LIMIT :limit)")
+    int deleteChunkByCarId(@Param("carId") UUID carId, @Param("limit") int limit);
+}
@@ -0,0 +1,61 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.FillupBaseline;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Repository interface for the per-car running baselines used by anomaly detection.
+ */
+@Repository
+public interface FillupBaselineRepository extends CrudRepository<FillupBaseline, UUID> {
+
+    /**
+     * Merge running statistics into a car's baseline, creating it if missing.
+     * <p>
+     * Uses Chan's parallel formula, so concurrent writers can each merge the samples they learned
+     * without locking the row: for counts a and b, means ma and mb and delta = mb - ma, the merged
+     * mean is ma + delta * b / (a + b) and the merged m2 is m2a + m2b + delta² * a * b / (a + b).
+     */
+    @Modifying
+    @Query("""
+            INSERT INTO fillup_baselines (car_id, fuel_volume_count, fuel_volume_mean, fuel_volume_m2,
+                                          mpg_count, mpg_mean, mpg_m2, updated_at)
+            VALUES (:carId, :fuelVolumeCount, :fuelVolumeMean, :fuelVolumeM2,
+                    :mpgCount, :mpgMean, :mpgM2, CURRENT_TIMESTAMP)
+            ON CONFLICT (car_id) DO UPDATE SET
+                fuel_volume_count = fillup_baselines.fuel_volume_count + EXCLUDED.fuel_volume_count,
+                fuel_volume_mean = CASE WHEN EXCLUDED.fuel_volume_count = 0 THEN fillup_baselines.fuel_volume_mean
+                    ELSE fillup_baselines.fuel_volume_mean
+                        + (EXCLUDED.fuel_volume_mean - fillup_baselines.fuel_volume_mean) * EXCLUDED.fuel_volume_count
+                        / (fillup_baselines.fuel_volume_count + EXCLUDED.fuel_volume_count) END,
+                fuel_volume_m2 = CASE WHEN EXCLUDED.fuel_volume_count = 0 THEN fillup_baselines.fuel_volume_m2
+                    ELSE fillup_baselines.fuel_volume_m2 + EXCLUDED.fuel_volume_m2
+                        + (EXCLUDED.fuel_volume_mean - fillup_baselines.fuel_volume_mean) ^ 2
+                        * fillup_baselines.fuel_volume_count * EXCLUDED.fuel_volume_count
+                        / (fillup_baselines.fuel_volume_count + EXCLUDED.fuel_volume_count) END,
+                mpg_count = fillup_baselines.mpg_count + EXCLUDED.mpg_count,
+                mpg_mean = CASE WHEN EXCLUDED.mpg_count = 0 THEN fillup_baselines.mpg_mean
+                    ELSE fillup_baselines.mpg_mean
+                        + (EXCLUDED.mpg_mean - fillup_baselines.mpg_mean) * EXCLUDED.mpg_count
+                        / (fillup_baselines.mpg_count + EXCLUDED.mpg_count) END,
+                mpg_m2 = CASE WHEN EXCLUDED.mpg_count = 0 THEN fillup_baselines.mpg_m2
+                    ELSE fillup_baselines.mpg_m2 + EXCLUDED.mpg_m2
+                        + (EXCLUDED.mpg_mean - fillup_baselines.mpg_mean) ^ 2
+                        * fillup_baselines.mpg_count * EXCLUDED.mpg_count
+                        / (fillup_baselines.mpg_count + EXCLUDED.mpg_count) END,
+                updated_at = EXCLUDED.updated_at
+            """)
+    void merge(@Param("carId") UUID carId,
+               @Param("fuelVolumeCount") long fuelVolumeCount,
+               @Param("fuelVolumeMean") double fuelVolumeMean,
+               @Param("fuelVolumeM2") double fuelVolumeM2,
+               @Param("mpgCount") long mpgCount,
+               @Param("mpgMean") double mpgMean,
+               @Param("mpgM2") double mpgM2);
+}
@@ -0,0 +1,44 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.Fillup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Batched fillup writes, each executed as a single JDBC batch.
+ * Mixed into {@link FillupRepository}.
+ */
+public interface FillupBatchOperations {
+
+    /**
+     * Insert fillups with preassigned IDs.
+     *
+     * @param fillups        new fillups (ID, timestamps and all fields set)
+     * @param changeSeqById  change sequence number to stamp on each fillup
+     */
+    void batchInsert(List<Fillup> fillups, Map<UUID, Long> changeSeqById);
+
+    /**
+     * Update all fields of existing fillups (the car cannot change).
+     *
+     * @param fillups        the updated fillups
+     * @param changeSeqById  change sequence number to stamp on each fillup
+     */
+    void batchUpdate(List<Fillup> fillups, Map<UUID, Long> changeSeqById);
+
+    /**
+     * Delete fillups.
+     *
+     * @param fillups the fillups to delete (ID and car used)
+     */
+    void batchDelete(List<Fillup> fillups);
+
+    /**
+     * Set or clear the anomaly flag of fillups, leaving their other fields untouched.
+     *
+     * @param fillups the fillups (ID, car and anomaly used)
+     */
+    void batchMarkAnomalies(List<Fillup> fillups);
+}
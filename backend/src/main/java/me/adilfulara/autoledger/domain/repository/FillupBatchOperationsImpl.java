@@ -0,0 +1,99 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.Fillup;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC batch implementation of {@link FillupBatchOperations}.
+ * Every statement is keyed on {@code (id, car_id)} so it prunes to the car's partition.
+ */
+class FillupBatchOperationsImpl implements FillupBatchOperations {
+
+    private static final String INSERT = """
+            INSERT INTO fillups (id, car_id, date, odometer, fuel_volume, price_per_unit, total_cost,
+                                 is_partial, is_missed, created_at, updated_at, change_seq)
+            VALUES (:id, :carId, :date, :odometer, :fuelVolume, :pricePerUnit, :totalCost,
+                    :isPartial, :isMissed, :createdAt, :updatedAt, :changeSeq)
+            """;
+
+    private static final String UPDATE = """
+            UPDATE fillups SET date = :date, odometer = :odometer, fuel_volume = :fuelVolume,
+                               price_per_unit = :pricePerUnit, total_cost = :totalCost,
+                               is_partial = :isPartial, is_missed = :isMissed,
+                               updated_at = :updatedAt, change_seq = :changeSeq
+            WHERE id = :id AND car_id = :carId
+            """;
+
+    private static final String DELETE = "DELETE FROM fillups WHERE id = :id AND car_id = :carId";
+
+    private static final String MARK_ANOMALY = "UPDATE fillups SET anomaly = :anomaly WHERE id = :id AND car_id = :carId";
+
+    private final NamedParameterJdbcOperations jdbc;
+
+    FillupBatchOperationsImpl(NamedParameterJdbcOperations jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void batchInsert(List<Fillup> fillups, Map<UUID, Long> changeSeqById) {
+        if (!fillups.isEmpty()) {
+            jdbc.batchUpdate(INSERT, parameters(fillups, changeSeqById));
+        }
+    }
+
+    @Override
+    public void batchUpdate(List<Fillup> fillups, Map<UUID, Long> changeSeqById) {
+        if (!fillups.isEmpty()) {
+            jdbc.batchUpdate(UPDATE, parameters(fillups, changeSeqById));
+        }
+    }
+
+    @Override
+    public void batchDelete(List<Fillup> fillups) {
+        if (!fillups.isEmpty()) {
+            jdbc.batchUpdate(DELETE, fillups.stream()
+                    .map(f -> new MapSqlParameterSource()
+                            .addValue("id", f.getId())
+                            .addValue("carId", f.getCarId()))
+                    .toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    @Override
+    public void batchMarkAnomalies(List<Fillup> fillups) {
+        if (!fillups.isEmpty()) {
+            jdbc.batchUpdate(MARK_ANOMALY, fillups.stream()
+                    .map(f -> new MapSqlParameterSource()
+                            .addValue("id", f.getId())
+                            .addValue("carId", f.getCarId())
+                            .addValue("anomaly", f.getAnomaly() == null ? null : f.getAnomaly().name(), Types.VARCHAR))
+                    .toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    private static SqlParameterSource[] parameters(List<Fillup> fillups, Map<UUID, Long> changeSeqById) {
+        return fillups.stream()
+                .map(f -> new MapSqlParameterSource()
+                        .addValue("id", f.getId())
+                        .addValue("carId", f.getCarId())
+                        .addValue("date", Timestamp.from(f.getDate()))
+                        .addValue("odometer", f.getOdometer())
+                        .addValue("fuelVolume", f.getFuelVolume())
+                        .addValue("pricePerUnit", f.getPricePerUnit())
+                        .addValue("totalCost", f.getTotalCost())
+                        .addValue("isPartial", f.getIsPartial())
+                        .addValue("isMissed", f.getIsMissed())
+                        .addValue("createdAt", Timestamp.from(f.getCreatedAt()))
+                        .addValue("updatedAt", Timestamp.from(f.getUpdatedAt()))
+                        .addValue("changeSeq", changeSeqById.get(f.getId())))
+                .toArray(SqlParameterSource[]::new);
+    }
+}
@@ -0,0 +1,19 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.FillupDistribution;
+
+import java.util.List;
+
+/**
+ * Batched writes of monthly distribution sketches, executed as a single JDBC batch.
+ * Mixed into {@link FillupDistributionRepository}.
+ */
+public interface FillupDistributionOperations {
+
+    /**
+     * Insert or replace the sketches of each row's car and month.
+     *
+     * @param distributions rows with car, month and both sketches set; IDs are ignored
+     */
+    void upsertAll(List<FillupDistribution> distributions);
+}
@@ -0,0 +1,42 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.FillupDistribution;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.List;
+
+/**
+ * JDBC batch implementation of {@link FillupDistributionOperations}.
+ */
+class FillupDistributionOperationsImpl implements FillupDistributionOperations {
+
+    private static final String UPSERT = """
+            INSERT INTO fillup_distributions (car_id, period_start, mpg_sketch, price_sketch, updated_at)
+            VALUES (:carId, :periodStart, :mpgSketch, :priceSketch, CURRENT_TIMESTAMP)
+            ON CONFLICT (car_id, period_start) DO UPDATE SET
+                mpg_sketch = EXCLUDED.mpg_sketch,
+                price_sketch = EXCLUDED.price_sketch,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final NamedParameterJdbcOperations jdbc;
+
+    FillupDistributionOperationsImpl(NamedParameterJdbcOperations jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void upsertAll(List<FillupDistribution> distributions) {
+        if (!distributions.isEmpty()) {
+            jdbc.batchUpdate(UPSERT, distributions.stream()
+                    .map(d -> new MapSqlParameterSource()
+                            .addValue("carId", d.getCarId())
+                            .addValue("periodStart", d.getPeriodStart())
+                            .addValue("mpgSketch", d.getMpgSketch())
+                            .addValue("priceSketch", d.getPriceSketch()))
+                    .toArray(SqlParameterSource[]::new));
+        }
+    }
+}
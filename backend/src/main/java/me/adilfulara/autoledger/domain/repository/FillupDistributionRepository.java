@@ -0,0 +1,55 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.FillupDistribution;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for per-month quantile sketches of MPG and price per unit.
+ */
+@Repository
+public interface FillupDistributionRepository extends CrudRepository<FillupDistribution, UUID>,
+        FillupDistributionOperations {
+
+    /**
+     * Find a car's sketches for some months.
+     *
+     * @param carId        the car's UUID
+     * @param periodStarts first days of the months
+     * @return the sketches that exist, in no particular order
+     */
+    List<FillupDistribution> findByCarIdAndPeriodStartIn(UUID carId, Collection<LocalDate> periodStarts);
+
+    /**
+     * Find a car's sketches for the months in a range.
+     *
+     * @param carId the car's UUID
+     * @param from  first day of the first month (inclusive)
+     * @param to    first day of the last month (inclusive)
+     * @return the sketches, oldest month first
+     */
+    @Query("""
+            SELECT * FROM fillup_distributions
+            WHERE car_id = :carId AND period_start BETWEEN :from AND :to
+            ORDER BY period_start
+            """)
+    List<FillupDistribution> findByCarIdInRange(@Param("carId") UUID carId, @Param("from") LocalDate from,
+                                                @Param("to") LocalDate to);
+
+    /**
+     * Delete all of a car's sketches, before they are rebuilt.
+     *
+     * @param carId the car's UUID
+     */
+    @Modifying
+    @Query("DELETE FROM fillup_distributions WHERE car_id = :carId")
+    void deleteByCarId(@Param("carId") UUID carId);
+}
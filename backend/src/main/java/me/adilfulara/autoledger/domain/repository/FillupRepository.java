@@ -1,12 +1,15 @@
 package me.adilfulara.autoledger.domain.repository;
 
 import me.adilfulara.autoledger.domain.model.Fillup;
+import org.springframework.data.jdbc.repository.query.Modifying;
 import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,7 +19,13 @@ import java.util.UUID;
  * Provides CRUD operations for fillup management and MPG calculations.
  */
 @Repository
-public interface FillupRepository extends CrudRepository<Fillup, UUID> {
+public interface FillupRepository extends CrudRepository<Fillup, UUID>, FillupBatchOperations {
+
+    /**
+     * Columns shared by fillups and fillups_archive, for queries that span both.
+     */
+    String FILLUP_COLUMNS = "id, car_id, date, odometer, fuel_volume, price_per_unit, total_cost, " +
+                            "is_partial, is_missed, created_at, updated_at";
 
     /**
      * Find all fillups for a specific car, ordered by date descending.
@@ -37,6 +46,17 @@ public interface FillupRepository extends CrudRepository<Fillup, UUID> {
     @Query("SELECT * FROM fillups WHERE car_id = :carId ORDER BY date DESC LIMIT :limit")
     List<Fillup> findRecentByCarId(@Param("carId") UUID carId, @Param("limit") int limit);
 
+    /**
+     * Find one page of a car's fillups, newest first.
+     *
+     * @param carId the car's UUID
+     * @param limit maximum number of records to return
+     * @param offset number of newer records to skip
+     * @return list of fillups
+     */
+    @Query("SELECT * FROM fillups WHERE car_id = :carId ORDER BY date DESC LIMIT :limit OFFSET :offset")
+    List<Fillup> findPageByCarId(@Param("carId") UUID carId, @Param("limit") int limit, @Param("offset") int offset);
+
     /**
      * Find the most recent fillup for a car (to validate odometer progression).
      *
@@ -56,6 +76,102 @@ public interface FillupRepository extends CrudRepository<Fillup, UUID> {
     @Query("SELECT * FROM fillups WHERE car_id = :carId ORDER BY odometer ASC")
     List<Fillup> findByCarIdOrderByOdometerAsc(@Param("carId") UUID carId);
 
+    /**
+     * Find the fillups whose MPG a write between two odometer readings can change: those in the
+     * range, and those up to and including the first full fillup after it.
+     *
+     * @param carId        the car's UUID
+     * @param fromOdometer lowest odometer the write touched (inclusive)
+     * @param toOdometer   highest odometer the write touched (inclusive)
+     * @return the fillups, ordered by odometer
+     */
+    @Query("SELECT * FROM fillups WHERE car_id = :carId AND odometer >= :fromOdometer AND odometer <= COALESCE(" +
+           "(SELECT MIN(odometer) FROM fillups WHERE car_id = :carId AND odometer > :toOdometer " +
+           "AND is_partial = false), :toOdometer) ORDER BY odometer ASC")
+    List<Fillup> findAffectedByOdometerRange(@Param("carId") UUID carId, @Param("fromOdometer") Long fromOdometer,
+                                             @Param("toOdometer") Long toOdometer);
+
+    /**
+     * Find a car's fillups in a date range, newest first.
+     *
+     * @param carId the car's UUID
+     * @param from  start of the range (inclusive)
+     * @param to    end of the range (exclusive)
+     * @return fillups in the range
+     */
+    @Query("SELECT * FROM fillups WHERE car_id = :carId AND date >= :from AND date < :to ORDER BY date DESC")
+    List<Fillup> findByCarIdAndDateRange(@Param("carId") UUID carId, @Param("from") Instant from,
+                                         @Param("to") Instant to);
+
+    /**
+     * Find the fillups of all of a user's cars in a date range, newest first.
+     * Each car is probed through its (car_id, date) index, so the cost follows the size of the range.
+     *
+     * @param userId the user's internal UUID
+     * @param from   start of the range (inclusive)
+     * @param to     end of the range (exclusive)
+     * @return fillups in the range
+     */
+    @Query("SELECT f.* FROM cars c JOIN fillups f ON f.car_id = c.id " +
+           "WHERE c.user_id = :userId AND c.deleting_since IS NULL " +
+           "AND f.date >= :from AND f.date < :to ORDER BY f.date DESC")
+    List<Fillup> findByUserIdAndDateRange(@Param("userId") UUID userId, @Param("from") Instant from,
+                                          @Param("to") Instant to);
+
+    /**
+     * Find a user's fillups that changed after a change sequence number.
+     * Only the fillups of cars stamped after {@code since} are probed, so the cost follows the
+     * number of changed cars rather than the size of the account.
+     *
+     * @param userId the user's internal UUID
+     * @param since  only fillups stamped with a higher change sequence number are returned
+     * @return changed fillups
+     */
+    @Query("SELECT f.* FROM cars c JOIN fillups f ON f.car_id = c.id " +
+           "WHERE c.user_id = :userId AND c.deleting_since IS NULL " +
+           "AND c.change_seq > :since AND f.change_seq > :since")
+    List<Fillup> findChangedByUserIdSince(@Param("userId") UUID userId, @Param("since") long since);
+
+    /**
+     * Stamp a fillup with its owner's change sequence number.
+     *
+     * @param id        the fillup's UUID
+     * @param carId     the fillup's car (lets the update prune to one partition)
+     * @param changeSeq the change sequence number
+     */
+    @Modifying
+    @Query("UPDATE fillups SET change_seq = :changeSeq WHERE id = :id AND car_id = :carId")
+    void markChanged(@Param("id") UUID id, @Param("carId") UUID carId, @Param("changeSeq") long changeSeq);
+
+    /**
+     * Set or clear a fillup's anomaly flag.
+     *
+     * @param id      the fillup's UUID
+     * @param carId   the fillup's car (lets the update prune to one partition)
+     * @param anomaly the {@code FillupAnomaly} name, or null to clear the flag
+     */
+    @Modifying
+    @Query("UPDATE fillups SET anomaly = :anomaly WHERE id = :id AND car_id = :carId")
+    void markAnomaly(@Param("id") UUID id, @Param("carId") UUID carId, @Param("anomaly") String anomaly);
+
+    /**
+     * Find a car's flagged fillups, newest first (served by the partial index idx_fillups_flagged).
+     *
+     * @param carId the car's UUID
+     * @return the car's fillups with an anomaly flag
+     */
+    @Query("SELECT * FROM fillups WHERE car_id = :carId AND anomaly IS NOT NULL ORDER BY date DESC")
+    List<Fillup> findFlaggedByCarId(@Param("carId") UUID carId);
+
+    /**
+     * Find all fillups of several cars in one query (e.g. to validate a batch write).
+     *
+     * @param carIds the cars' UUIDs
+     * @return the cars' fillups, in no particular order
+     */
+    @Query("SELECT * FROM fillups WHERE car_id IN (:carIds)")
+    List<Fillup> findByCarIdIn(@Param("carIds") Collection<UUID> carIds);
+
     /**
      * Count fillups for a specific car.
      *
@@ -69,32 +185,66 @@ public interface FillupRepository extends CrudRepository<Fillup, UUID> {
      * Used for MPG calculation to find the "anchor" point.
      * <p>
      * This is an optimized query that returns only a single row, avoiding loading
-     * all fillups for a car into memory.
+     * all fillups for a car into memory. Compacted history is included, so the first
+     * fillup after an archived range still finds its anchor.
      *
      * @param carId the car's UUID
      * @param currentOdometer the current fillup's odometer reading
      * @return Optional containing the anchor fillup if one exists
      */
-    @Query("SELECT * FROM fillups WHERE car_id = :carId " +
-           "AND odometer < :currentOdometer " +
-           "AND is_partial = false " +
-           "ORDER BY odometer DESC LIMIT 1")
+    @Query("SELECT * FROM (" +
+           "(SELECT " + FILLUP_COLUMNS + " FROM fillups WHERE car_id = :carId " +
+           "AND odometer < :currentOdometer AND is_partial = false " +
+           "ORDER BY odometer DESC LIMIT 1) " +
+           "UNION ALL " +
+           "(SELECT " + FILLUP_COLUMNS + " FROM fillups_archive WHERE car_id = :carId " +
+           "AND odometer < :currentOdometer AND is_partial = false " +
+           "ORDER BY odometer DESC LIMIT 1)" +
+           ") anchors ORDER BY odometer DESC LIMIT 1")
     Optional<Fillup> findLastFullFillupBefore(@Param("carId") UUID carId,
                                                @Param("currentOdometer") Long currentOdometer);
 
     /**
      * Sum fuel volume for all fillups between anchor and current (exclusive anchor, inclusive current).
-     * Used for MPG calculation to accumulate fuel from partial fillups.
+     * Used for MPG calculation to accumulate fuel from partial fillups, including archived ones.
      *
      * @param carId the car's UUID
      * @param anchorOdometer the anchor fillup's odometer (exclusive)
      * @param currentOdometer the current fillup's odometer (inclusive)
      * @return total fuel volume, or null if no fillups in range
      */
-    @Query("SELECT SUM(fuel_volume) FROM fillups WHERE car_id = :carId " +
-           "AND odometer > :anchorOdometer " +
-           "AND odometer <= :currentOdometer")
+    @Query("SELECT SUM(fuel_volume) FROM (" +
+           "SELECT fuel_volume FROM fillups WHERE car_id = :carId " +
+           "AND odometer > :anchorOdometer AND odometer <= :currentOdometer " +
+           "UNION ALL " +
+           "SELECT fuel_volume FROM fillups_archive WHERE car_id = :carId " +
+           "AND odometer > :anchorOdometer AND odometer <= :currentOdometer" +
+           ") fuel")
     BigDecimal sumFuelBetween(@Param("carId") UUID carId,
                                @Param("anchorOdometer") Long anchorOdometer,
                                @Param("currentOdometer") Long currentOdometer);
+
+    /**
+     * Delete a car's fillups up to and including an odometer reading (after they were archived).
+     *
+     * @param carId the car's UUID
+     * @param throughOdometer highest odometer to delete (inclusive)
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM fillups WHERE car_id = :carId AND odometer <= :throughOdometer")
+    int deleteByCarIdThroughOdometer(@Param("carId") UUID carId,
+                                     @Param("throughOdometer") Long throughOdometer);
+
+    /**
+     * Delete up to {@code limit} of a car's fillups (asynchronous car deletion).
+     *
+     * @param carId the car's UUID
+     * @param limit maximum number of rows to delete
+     * @return number of rows deleted; 0 once the car has no fillups left
+     */
+    @Modifying
+    @Query("DELETE FROM fillups WHERE car_id = :carId AND id IN " +
+           "(SELECT id FROM fillups WHERE car_id = :carId LIMIT :limit)")
+    int deleteChunkByCarId(@Param("carId") UUID carId, @Param("limit") int limit);
 }
@@ -0,0 +1,34 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.FillupSegment;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for per-month summaries of archived fillups.
+ */
+@Repository
+public interface FillupSegmentRepository extends CrudRepository<FillupSegment, UUID> {
+
+    /**
+     * Find all segments for a car.
+     *
+     * @param carId the car's UUID
+     * @return the car's segments
+     */
+    List<FillupSegment> findByCarId(UUID carId);
+
+    /**
+     * Find the segment for a car and month.
+     *
+     * @param carId       the car's UUID
+     * @param periodStart first day of the month
+     * @return Optional containing the segment if one exists
+     */
+    Optional<FillupSegment> findByCarIdAndPeriodStart(UUID carId, LocalDate periodStart);
+}
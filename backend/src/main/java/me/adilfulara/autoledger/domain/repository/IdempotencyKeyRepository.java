@@ -0,0 +1,57 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.IdempotencyKey;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for idempotency keys.
+ */
+@Repository
+public interface IdempotencyKeyRepository extends CrudRepository<IdempotencyKey, Long> {
+
+    /**
+     * Claim a key for the current transaction, or take over an expired claim.
+     * If another transaction holds an uncommitted claim on the key, this waits for it to finish.
+     *
+     * @return the claimed row's ID, or empty if the key is already in use
+     */
+    @Query("""
+            INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, created_at, expires_at)
+            VALUES (:userId, :key, :requestHash, :now, :expiresAt)
+            ON CONFLICT (user_id, idempotency_key) DO UPDATE
+                SET request_hash = EXCLUDED.request_hash, response_body = NULL,
+                    created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at
+                WHERE idempotency_keys.expires_at <= EXCLUDED.created_at
+            RETURNING id
+            """)
+    Optional<Long> claim(@Param("userId") UUID userId, @Param("key") String key,
+                         @Param("requestHash") String requestHash, @Param("now") Instant now,
+                         @Param("expiresAt") Instant expiresAt);
+
+    @Query("SELECT * FROM idempotency_keys WHERE user_id = :userId AND idempotency_key = :key")
+    Optional<IdempotencyKey> findByUserIdAndKey(@Param("userId") UUID userId, @Param("key") String key);
+
+    /**
+     * Store the response of the request that claimed the key.
+     */
+    @Modifying
+    @Query("UPDATE idempotency_keys SET response_body = :responseBody WHERE id = :id")
+    void complete(@Param("id") Long id, @Param("responseBody") String responseBody);
+
+    /**
+     * Delete keys that expired before the given instant.
+     *
+     * @return number of keys deleted
+     */
+    @Modifying
+    @Query("DELETE FROM idempotency_keys WHERE expires_at < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,58 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.OutboxEvent;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for outbox events.
+ */
+@Repository
+public interface OutboxEventRepository extends CrudRepository<OutboxEvent, Long> {
+
+    /**
+     * Lock the oldest available events for processing.
+     * Rows locked by another worker are skipped, so several instances can drain concurrently.
+     *
+     * @param now         only events available at or before this instant are claimed
+     * @param maxAttempts events that already failed this many times are left alone
+     * @param limit       maximum number of events to claim
+     * @return claimed events in ID order
+     */
+    @Query("""
+            SELECT * FROM outbox_events
+            WHERE available_at <= :now AND attempts < :maxAttempts
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """)
+    List<OutboxEvent> claimBatch(@Param("now") Instant now,
+                                 @Param("maxAttempts") int maxAttempts,
+                                 @Param("limit") int limit);
+
+    /**
+     * Delete processed events.
+     *
+     * @param ids IDs of processed events
+     */
+    @Modifying
+    @Query("DELETE FROM outbox_events WHERE id IN (:ids)")
+    void deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Record a failed attempt and postpone the events.
+     *
+     * @param ids         IDs of the failed events
+     * @param availableAt when the events may be retried
+     */
+    @Modifying
+    @Query("UPDATE outbox_events SET attempts = attempts + 1, available_at = :availableAt WHERE id IN (:ids)")
+    void markFailed(@Param("ids") Collection<Long> ids, @Param("availableAt") Instant availableAt);
+}
@@ -0,0 +1,58 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.domain.model.SyncTombstone;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for sync tombstones.
+ */
+@Repository
+public interface SyncTombstoneRepository extends CrudRepository<SyncTombstone, Long> {
+
+    /**
+     * Find a user's deletions after a change sequence number.
+     *
+     * @param userId the user's internal UUID
+     * @param since  only tombstones with a higher change sequence number are returned
+     * @return tombstones in change order
+     */
+    @Query("SELECT * FROM sync_tombstones WHERE user_id = :userId AND change_seq > :since ORDER BY change_seq")
+    List<SyncTombstone> findByUserIdSince(@Param("userId") UUID userId, @Param("since") long since);
+
+    /**
+     * Check whether a user's car was deleted (and its tombstone not yet pruned).
+     *
+     * @param userId the user's internal UUID
+     * @param carId  the car's UUID
+     * @return true if a CAR_DELETED tombstone exists
+     */
+    @Query("SELECT EXISTS (SELECT 1 FROM sync_tombstones "
+            + "WHERE user_id = :userId AND entity_id = :carId AND change_type = 'CAR_DELETED')")
+    boolean existsCarDeletion(@Param("userId") UUID userId, @Param("carId") UUID carId);
+
+    /**
+     * Delete tombstones older than a cutoff and raise each affected user's sync floor to the
+     * highest pruned change sequence number, so tokens from before it get a full sync.
+     *
+     * @param cutoff tombstones deleted before this instant are pruned
+     * @return number of users whose sync floor was raised
+     */
+    @Modifying
+    @Query("""
+            WITH pruned AS (
+                DELETE FROM sync_tombstones WHERE deleted_at < :cutoff RETURNING user_id, change_seq
+            )
+            UPDATE users SET sync_floor = p.max_seq
+            FROM (SELECT user_id, MAX(change_seq) AS max_seq FROM pruned GROUP BY user_id) p
+            WHERE users.id = p.user_id AND users.sync_floor < p.max_seq
+            """)
+    int pruneDeletedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -1,7 +1,9 @@
 package me.adilfulara.autoledger.domain.repository;
 
 import me.adilfulara.autoledger.domain.model.User;
+import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -45,4 +47,60 @@ public interface UserRepository extends CrudRepository<User, UUID> {
      * @return true if user exists, false otherwise
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Get a user's data version (incremented on every change to the user's cars).
+     *
+     * @param id the user's internal UUID
+     * @return Optional containing the version if the user exists
+     */
+    @Query("SELECT data_version FROM users WHERE id = :id")
+    Optional<Long> findDataVersionById(@Param("id") UUID id);
+
+    /**
+     * Allocate the next change sequence number for the owner of a car.
+     * Car-level changes also increment the owner's data version.
+     * <p>
+     * The user row stays locked until the caller's transaction ends, so a user's writes take
+     * sequence numbers in commit order: a reader that sees {@code change_seq = N} also sees
+     * every change numbered up to N.
+     *
+     * @param carId     the changed car's UUID
+     * @param carChange whether the car itself (not one of its fillups) changed
+     * @return the new change sequence number, or empty if the car does not exist
+     */
+    @Query("UPDATE users SET change_seq = change_seq + 1, "
+            + "data_version = data_version + CASE WHEN :carChange THEN 1 ELSE 0 END "
+            + "WHERE id = (SELECT user_id FROM cars WHERE id = :carId) RETURNING change_seq")
+    Optional<Long> nextChangeSeqForCar(@Param("carId") UUID carId, @Param("carChange") boolean carChange);
+
+    /**
+     * Allocate several consecutive change sequence numbers for the owner of a car, for a batch of
+     * changes to the car's fillups. Locks the user row like {@link #nextChangeSeqForCar}.
+     *
+     * @param carId the changed car's UUID
+     * @param count how many numbers to allocate
+     * @return the last allocated number, or empty if the car does not exist
+     */
+    @Query("UPDATE users SET change_seq = change_seq + :count "
+            + "WHERE id = (SELECT user_id FROM cars WHERE id = :carId) RETURNING change_seq")
+    Optional<Long> reserveChangeSeqsForCar(@Param("carId") UUID carId, @Param("count") int count);
+
+    /**
+     * Get the sequence number of a user's latest change.
+     *
+     * @param id the user's internal UUID
+     * @return Optional containing the sequence number if the user exists
+     */
+    @Query("SELECT change_seq FROM users WHERE id = :id")
+    Optional<Long> findChangeSeqById(@Param("id") UUID id);
+
+    /**
+     * Get the highest change sequence number whose tombstones may have been pruned.
+     *
+     * @param id the user's internal UUID
+     * @return Optional containing the floor if the user exists
+     */
+    @Query("SELECT sync_floor FROM users WHERE id = :id")
+    Optional<Long> findSyncFloorById(@Param("id") UUID id);
 }
@@ -0,0 +1,78 @@
+package me.adilfulara.autoledger.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the per-user change stream ({@code GET /api/events}).
+ *
+ * <p>Maps to {@code events.stream.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * events:
+ *   stream:
+ *     heartbeat-interval: 20s
+ *     timeout: 30m
+ *     queue-capacity: 32
+ *     max-subscribers-per-user: 8
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "events.stream")
+public class ChangeStreamProperties {
+
+    /**
+     * Idle time after which a heartbeat comment is sent (keeps proxies from closing the connection).
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(20);
+
+    /**
+     * Maximum lifetime of a stream; clients reconnect afterwards.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * Undelivered notifications buffered per subscriber before it is sent a resync instead.
+     */
+    private int queueCapacity = 32;
+
+    /**
+     * Open streams per user; opening another closes the oldest.
+     */
+    private int maxSubscribersPerUser = 8;
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxSubscribersPerUser() {
+        return maxSubscribersPerUser;
+    }
+
+    public void setMaxSubscribersPerUser(int maxSubscribersPerUser) {
+        this.maxSubscribersPerUser = maxSubscribersPerUser;
+    }
+}
@@ -0,0 +1,207 @@
+package me.adilfulara.autoledger.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import me.adilfulara.autoledger.api.dto.ChangeNotification;
+import me.adilfulara.autoledger.outbox.CarDataChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans out {@link CarDataChangedEvent}s to the owning user's open event streams.
+ *
+ * <p>Each stream is an async-servlet {@link SseEmitter}, so an open connection holds no request
+ * thread. Writes happen on one virtual thread per subscriber that blocks on the subscriber's
+ * bounded queue: an idle subscriber costs a parked virtual thread and a small queue. When nothing
+ * was sent for {@code heartbeat-interval}, a comment line is written to keep proxies from
+ * closing the connection and to detect dead clients.
+ *
+ * <p>Back-pressure: a subscriber that cannot keep up fills its queue; the backlog is then replaced
+ * by a single {@code resync} notification telling the client to refetch, so a slow consumer
+ * never buffers more than {@code queue-capacity} notifications.
+ */
+@Component
+public class ChangeStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamService.class);
+
+    private final ChangeStreamProperties properties;
+    private final Map<UUID, Deque<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Counter resyncs;
+
+    public ChangeStreamService(ChangeStreamProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.resyncs = Counter.builder("autoledger.events.resyncs")
+                .description("Subscribers whose notification backlog was replaced by a resync")
+                .register(meterRegistry);
+        Gauge.builder("autoledger.events.subscribers", this, ChangeStreamService::subscriberCount)
+                .description("Open change streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a change stream for a user.
+     * If the user already has the maximum number of streams, the oldest one is closed.
+     */
+    public SseEmitter subscribe(UUID userId) {
+        SseEmitter emitter = createEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter, properties.getQueueCapacity());
+        emitter.onCompletion(() -> subscriber.close(false));
+        emitter.onTimeout(() -> subscriber.close(false));
+        emitter.onError(e -> subscriber.close(false));
+
+        List<Subscriber> evicted = new ArrayList<>();
+        subscribers.compute(userId, (id, userSubscribers) -> {
+            Deque<Subscriber> result = userSubscribers != null ? userSubscribers : new ConcurrentLinkedDeque<>();
+            result.addLast(subscriber);
+            while (result.size() > properties.getMaxSubscribersPerUser()) {
+                evicted.add(result.pollFirst());
+            }
+            return result;
+        });
+        evicted.forEach(s -> s.close(true));
+
+        subscriber.start();
+        return emitter;
+    }
+
+    /**
+     * Push notifications for a car change to its owner's streams.
+     * Only enqueues; never blocks the publishing (outbox worker) thread.
+     */
+    @EventListener
+    public void onCarDataChanged(CarDataChangedEvent event) {
+        Deque<Subscriber> userSubscribers = subscribers.get(event.userId());
+        if (userSubscribers == null) {
+            return;
+        }
+        List<ChangeNotification> notifications = toNotifications(event);
+        for (Subscriber subscriber : userSubscribers) {
+            notifications.forEach(subscriber::offer);
+        }
+    }
+
+    /**
+     * One notification per recorded change, plus {@code stats_updated} unless the car was deleted.
+     */
+    static List<ChangeNotification> toNotifications(CarDataChangedEvent event) {
+        List<ChangeNotification> notifications = new ArrayList<>();
+        for (CarDataChangedEvent.Change change : event.changes()) {
+            notifications.add(ChangeNotification.of(change.type(), event.carId(), change.entityId(),
+                    event.dataVersion()));
+        }
+        if (!event.carDeleted()) {
+            notifications.add(ChangeNotification.statsUpdated(event.carId(), event.dataVersion()));
+        }
+        return notifications;
+    }
+
+    int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    /**
+     * One open stream: a bounded queue drained by a virtual thread.
+     */
+    private final class Subscriber {
+
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<ChangeNotification> queue;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private Thread writer;
+
+        Subscriber(UUID userId, SseEmitter emitter, int queueCapacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        void start() {
+            writer = Thread.ofVirtual().name("sse-" + userId).start(this::run);
+        }
+
+        /**
+         * Queue a notification. Synchronized because the outbox worker publishes from one thread
+         * per car: a concurrent offer between clearing and queuing the resync would fill the queue
+         * and lose the resync. The writer only takes from the queue, which cannot make it fail.
+         */
+        synchronized void offer(ChangeNotification notification) {
+            if (!queue.offer(notification)) {
+                // Slow consumer: drop the backlog and tell the client to refetch instead
+                queue.clear();
+                queue.offer(ChangeNotification.resync());
+                resyncs.increment();
+            }
+        }
+
+        private void run() {
+            long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+            try {
+                // Commits the response so the client sees the stream open immediately
+                emitter.send(SseEmitter.event().comment("connected"));
+                while (!closed.get()) {
+                    ChangeNotification notification = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    if (notification == null) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .name(notification.type())
+                                .data(notification, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Closed while waiting
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Change stream for user {} closed: {}", userId, e.getMessage());
+                close(true);
+            }
+        }
+
+        void close(boolean completeEmitter) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            remove(this);
+            if (writer != null && Thread.currentThread() != writer) {
+                writer.interrupt();
+            }
+            if (completeEmitter) {
+                try {
+                    emitter.complete();
+                } catch (IllegalStateException e) {
+                    // Already completed by the container
+                }
+            }
+        }
+    }
+}
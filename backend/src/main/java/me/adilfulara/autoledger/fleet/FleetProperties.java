@@ -0,0 +1,34 @@
+package me.adilfulara.autoledger.fleet;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the fleet summary.
+ *
+ * <p>Maps to {@code fleet.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * fleet:
+ *   concurrency: 4
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "fleet")
+public class FleetProperties {
+
+    /**
+     * Cars whose stats are computed at the same time, across all fleet requests of this instance.
+     * Each computation holds one pooled connection, so keep this well below the pool size.
+     */
+    private int concurrency = 4;
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+}
@@ -0,0 +1,196 @@
+package me.adilfulara.autoledger.fleet;
+
+import me.adilfulara.autoledger.api.dto.CarStatsResponse;
+import me.adilfulara.autoledger.api.dto.FleetSummaryResponse;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.service.CarService;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Summarizes all of a user's cars at once, for accounts that track a fleet.
+ *
+ * <p>Stats come from the snapshots maintained by the outbox worker, read for the whole fleet with
+ * one query. Only cars whose snapshot is missing or stale are computed, each on its own virtual
+ * thread. A semaphore shared by all fleet requests bounds how many computations (and so pooled
+ * connections) run at once to {@code fleet.concurrency}; the rest wait on a parked virtual thread.
+ * The request's executor is closed before summarizing, so no computation outlives the request.
+ *
+ * <p>Every figure is converted to the requested {@link FleetUnits} before it is totalled or ranked.
+ */
+@Service
+public class FleetService {
+
+    private static final Comparator<BigDecimal> HIGHEST_FIRST = Comparator.reverseOrder();
+    private static final Comparator<BigDecimal> LOWEST_FIRST = Comparator.naturalOrder();
+
+    private final CarRepository carRepository;
+    private final CarService carService;
+    private final Semaphore permits;
+
+    public FleetService(CarRepository carRepository, CarService carService, FleetProperties properties) {
+        this.carRepository = carRepository;
+        this.carService = carService;
+        this.permits = new Semaphore(properties.getConcurrency());
+    }
+
+    /**
+     * Summarize all of a user's active cars.
+     */
+    public FleetSummaryResponse getFleetSummary(UUID userId, FleetUnits units) {
+        List<Car> cars = carRepository.findByUserId(userId);
+        Map<UUID, CarStatsResponse> stats = new ConcurrentHashMap<>(carService.getCurrentSnapshotStats(cars));
+        List<Car> stale = cars.stream().filter(car -> !stats.containsKey(car.getId())).toList();
+        computeStats(stale, stats);
+
+        List<Car> summarized = cars.stream().filter(car -> stats.containsKey(car.getId())).toList();
+        return summarize(summarized, stats, units);
+    }
+
+    /**
+     * Compute the stats of the given cars in parallel, within the shared concurrency budget.
+     * Cars deleted in the meantime are left out.
+     */
+    void computeStats(List<Car> cars, Map<UUID, CarStatsResponse> stats) {
+        if (cars.isEmpty()) {
+            return;
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tasks = new ArrayList<>(cars.size());
+            for (Car car : cars) {
+                tasks.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        stats.put(car.getId(), carService.getCarStats(car.getId()));
+                    } catch (ResourceNotFoundException e) {
+                        // Deleted since the car list was read
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                await(task);
+            }
+        }
+    }
+
+    static FleetSummaryResponse summarize(List<Car> cars, Map<UUID, CarStatsResponse> stats, FleetUnits units) {
+        List<FleetSummaryResponse.Vehicle> unranked = cars.stream()
+                .map(car -> vehicle(car, stats.get(car.getId()), units))
+                .toList();
+
+        Map<UUID, Integer> efficiencyRanks = rank(unranked, FleetSummaryResponse.Vehicle::averageEfficiency,
+                HIGHEST_FIRST);
+        Map<UUID, Integer> costRanks = rank(unranked, FleetSummaryResponse.Vehicle::costPerDistance, LOWEST_FIRST);
+        List<FleetSummaryResponse.Vehicle> vehicles = unranked.stream()
+                .map(v -> new FleetSummaryResponse.Vehicle(v.carId(), v.name(), v.totalFillups(), v.totalDistance(),
+                        v.totalFuel(), v.totalSpent(), v.averageEfficiency(), v.costPerDistance(),
+                        efficiencyRanks.get(v.carId()), costRanks.get(v.carId())))
+                .sorted(Comparator.comparing(FleetSummaryResponse.Vehicle::efficiencyRank,
+                                Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(FleetSummaryResponse.Vehicle::name, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+
+        BigDecimal totalDistance = sum(vehicles.stream().map(FleetSummaryResponse.Vehicle::totalDistance));
+        BigDecimal totalSpent = sum(vehicles.stream().map(FleetSummaryResponse.Vehicle::totalSpent));
+        List<BigDecimal> efficiencies = vehicles.stream()
+                .map(FleetSummaryResponse.Vehicle::averageEfficiency)
+                .filter(Objects::nonNull)
+                .toList();
+        FleetSummaryResponse.Totals totals = new FleetSummaryResponse.Totals(
+                vehicles.size(),
+                vehicles.stream().mapToLong(FleetSummaryResponse.Vehicle::totalFillups).sum(),
+                totalDistance,
+                sum(vehicles.stream().map(FleetSummaryResponse.Vehicle::totalFuel)),
+                totalSpent,
+                efficiencies.isEmpty()
+                        ? null
+                        : sum(efficiencies.stream()).divide(BigDecimal.valueOf(efficiencies.size()), 2, RoundingMode.HALF_UP),
+                costPerDistance(totalSpent, totalDistance));
+
+        return new FleetSummaryResponse(units.distanceUnit(), units.fuelUnit(), totals, vehicles);
+    }
+
+    private static FleetSummaryResponse.Vehicle vehicle(Car car, CarStatsResponse stats, FleetUnits units) {
+        BigDecimal distance = units.distance(BigDecimal.valueOf(stats.totalDistance()), car.getDistanceUnit())
+                .setScale(1, RoundingMode.HALF_UP);
+        BigDecimal fuel = units.fuel(stats.totalFuelUsed(), car.getFuelUnit()).setScale(3, RoundingMode.HALF_UP);
+        BigDecimal efficiency = units.efficiency(stats.averageMpg(), car.getDistanceUnit(), car.getFuelUnit());
+        return new FleetSummaryResponse.Vehicle(
+                car.getId(),
+                car.getName(),
+                stats.totalFillups(),
+                distance,
+                fuel,
+                stats.totalSpent(),
+                efficiency == null ? null : efficiency.setScale(2, RoundingMode.HALF_UP),
+                costPerDistance(stats.totalSpent(), distance),
+                null,
+                null);
+    }
+
+    private static BigDecimal costPerDistance(BigDecimal spent, BigDecimal distance) {
+        if (distance.signum() == 0) {
+            return null;
+        }
+        return spent.divide(distance, 4, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Competition ranking ("1, 2, 2, 4") of the vehicles that have a value; equal values share a rank.
+     */
+    static Map<UUID, Integer> rank(List<FleetSummaryResponse.Vehicle> vehicles,
+                                   Function<FleetSummaryResponse.Vehicle, BigDecimal> value,
+                                   Comparator<BigDecimal> order) {
+        List<FleetSummaryResponse.Vehicle> ranked = vehicles.stream()
+                .filter(v -> value.apply(v) != null)
+                .sorted(Comparator.comparing(value, order))
+                .toList();
+        Map<UUID, Integer> ranks = new HashMap<>();
+        for (int i = 0; i < ranked.size(); i++) {
+            BigDecimal current = value.apply(ranked.get(i));
+            boolean tied = i > 0 && value.apply(ranked.get(i - 1)).compareTo(current) == 0;
+            ranks.put(ranked.get(i).carId(), tied ? ranks.get(ranked.get(i - 1).carId()) : i + 1);
+        }
+        return ranks;
+    }
+
+    private static BigDecimal sum(Stream<BigDecimal> values) {
+        return values.reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static void await(Future<?> task) {
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Fleet stats computation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing fleet stats", e);
+        }
+    }
+}
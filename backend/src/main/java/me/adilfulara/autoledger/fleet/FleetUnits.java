@@ -0,0 +1,79 @@
+package me.adilfulara.autoledger.fleet;
+
+import me.adilfulara.autoledger.domain.model.DistanceUnit;
+import me.adilfulara.autoledger.domain.model.FuelUnit;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Unit system a fleet summary is reported in. Every car's figures are converted from the car's
+ * own units, so cars logged in miles/gallons and kilometers/liters can be totalled and ranked.
+ */
+public enum FleetUnits {
+
+    /**
+     * Miles, US gallons, miles per gallon.
+     */
+    US(DistanceUnit.MILES, FuelUnit.GALLONS),
+
+    /**
+     * Kilometers, liters, kilometers per liter.
+     */
+    METRIC(DistanceUnit.KILOMETERS, FuelUnit.LITERS);
+
+    static final BigDecimal KILOMETERS_PER_MILE = new BigDecimal("1.609344");
+    static final BigDecimal LITERS_PER_GALLON = new BigDecimal("3.785411784");
+
+    private final DistanceUnit distanceUnit;
+    private final FuelUnit fuelUnit;
+
+    FleetUnits(DistanceUnit distanceUnit, FuelUnit fuelUnit) {
+        this.distanceUnit = distanceUnit;
+        this.fuelUnit = fuelUnit;
+    }
+
+    public DistanceUnit distanceUnit() {
+        return distanceUnit;
+    }
+
+    public FuelUnit fuelUnit() {
+        return fuelUnit;
+    }
+
+    /**
+     * Convert a distance from a car's unit to this system's.
+     */
+    BigDecimal distance(BigDecimal value, DistanceUnit from) {
+        if (value == null || from == distanceUnit) {
+            return value;
+        }
+        return from == DistanceUnit.MILES
+                ? value.multiply(KILOMETERS_PER_MILE)
+                : value.divide(KILOMETERS_PER_MILE, MathContext.DECIMAL64);
+    }
+
+    /**
+     * Convert a fuel volume from a car's unit to this system's.
+     */
+    BigDecimal fuel(BigDecimal value, FuelUnit from) {
+        if (value == null || from == fuelUnit) {
+            return value;
+        }
+        return from == FuelUnit.GALLONS
+                ? value.multiply(LITERS_PER_GALLON)
+                : value.divide(LITERS_PER_GALLON, MathContext.DECIMAL64);
+    }
+
+    /**
+     * Convert a distance-per-fuel figure (such as a car's MPG) from a car's units to this system's.
+     */
+    BigDecimal efficiency(BigDecimal value, DistanceUnit distanceFrom, FuelUnit fuelFrom) {
+        if (value == null) {
+            return null;
+        }
+        // Distance scales the numerator; converting one unit of fuel scales the denominator
+        BigDecimal perUnitFuel = fuel(BigDecimal.ONE, fuelFrom);
+        return distance(value, distanceFrom).divide(perUnitFuel, MathContext.DECIMAL64);
+    }
+}
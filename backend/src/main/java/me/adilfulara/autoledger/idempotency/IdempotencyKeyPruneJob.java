@@ -0,0 +1,32 @@
+package me.adilfulara.autoledger.idempotency;
+
+import me.adilfulara.autoledger.domain.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Scheduled job that deletes idempotency keys older than {@code idempotency.ttl}.
+ */
+@Component
+public class IdempotencyKeyPruneJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyPruneJob.class);
+
+    private final IdempotencyKeyRepository keyRepository;
+
+    public IdempotencyKeyPruneJob(IdempotencyKeyRepository keyRepository) {
+        this.keyRepository = keyRepository;
+    }
+
+    @Scheduled(cron = "${idempotency.prune-cron:0 15 * * * *}")
+    @Transactional
+    public void run() {
+        int deleted = keyRepository.deleteExpired(Instant.now());
+        logger.info("Pruned {} expired idempotency keys", deleted);
+    }
+}
@@ -0,0 +1,49 @@
+package me.adilfulara.autoledger.idempotency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for Idempotency-Key handling.
+ *
+ * <p>Maps to {@code idempotency.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * idempotency:
+ *   ttl: 24h
+ *   prune-cron: "0 15 * * * *"
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * How long a key is remembered. Retries after this re-execute the request.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * When expired keys are pruned (Spring cron expression).
+     */
+    private String pruneCron = "0 15 * * * *";
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public String getPruneCron() {
+        return pruneCron;
+    }
+
+    public void setPruneCron(String pruneCron) {
+        this.pruneCron = pruneCron;
+    }
+}
@@ -0,0 +1,138 @@
+package me.adilfulara.autoledger.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import me.adilfulara.autoledger.api.exception.IdempotencyKeyReusedException;
+import me.adilfulara.autoledger.domain.model.IdempotencyKey;
+import me.adilfulara.autoledger.domain.repository.IdempotencyKeyRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Runs requests at most once per client-supplied Idempotency-Key.
+ *
+ * <p>The key is claimed with an insert into {@code idempotency_keys} in the same transaction as the
+ * request's writes, and the serialized response is stored before that transaction commits. So:
+ * <ul>
+ *   <li>a retry finds the committed row with one unique-index lookup and replays the response
+ *       without running the request again;</li>
+ *   <li>a concurrent duplicate blocks on the unique index until the first request finishes, then
+ *       replays its response, or runs itself if the first one rolled back;</li>
+ *   <li>failed requests store nothing, so a retry after an error runs again.</li>
+ * </ul>
+ * Keys are scoped to the user and compared together with a hash of the request body; reusing a
+ * key for a different request is rejected.
+ */
+@Service
+public class IdempotencyService {
+
+    /**
+     * Longest accepted key, matching the column size.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository keyRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyProperties properties;
+    private final Counter replays;
+
+    public IdempotencyService(IdempotencyKeyRepository keyRepository, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager, IdempotencyProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.keyRepository = keyRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.replays = Counter.builder("autoledger.idempotency.replays")
+                .description("Requests answered from a stored Idempotency-Key response")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Outcome of an idempotent request.
+     *
+     * @param body     the response body, either just produced or replayed
+     * @param replayed whether the body was replayed from an earlier request with the same key
+     */
+    public record Result<T>(T body, boolean replayed) {
+    }
+
+    /**
+     * Run an action once per key, or replay the response of the request that first used the key.
+     *
+     * @param userId       owner of the key
+     * @param key          the Idempotency-Key header value
+     * @param request      the request body, hashed to detect key reuse
+     * @param responseType type of the action's result, used to deserialize replays
+     * @param action       the request's work; runs in the transaction that claims the key
+     * @throws IllegalArgumentException       if the key is blank or too long
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     */
+    public <T> Result<T> execute(UUID userId, String key, Object request, Class<T> responseType,
+                                 Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            Optional<Long> claimed = keyRepository.claim(userId, key, requestHash, now,
+                    now.plus(properties.getTtl()));
+            if (claimed.isPresent()) {
+                T body = action.get();
+                keyRepository.complete(claimed.get(), write(body));
+                return new Result<>(body, false);
+            }
+
+            IdempotencyKey existing = keyRepository.findByUserIdAndKey(userId, key)
+                    .orElseThrow(() -> new IllegalStateException("Idempotency key vanished: " + key));
+            if (!existing.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            if (existing.getResponseBody() == null) {
+                throw new IllegalStateException("Idempotency key has no stored response: " + key);
+            }
+            replays.increment();
+            return new Result<>(read(existing.getResponseBody(), responseType), true);
+        });
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to hash request", e);
+        }
+    }
+
+    private String write(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to store idempotent response", e);
+        }
+    }
+
+    private <T> T read(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to replay idempotent response", e);
+        }
+    }
+}
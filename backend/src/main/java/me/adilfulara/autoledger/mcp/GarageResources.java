@@ -0,0 +1,164 @@
+package me.adilfulara.autoledger.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import me.adilfulara.autoledger.api.dto.CarResponse;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.cache.VersionedCache;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import me.adilfulara.autoledger.service.FillupService;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders the MCP resources {@code autoledger://garage/cars} and
+ * {@code autoledger://cars/{id}/history}.
+ *
+ * <p>Agents re-read the same resources many times per conversation, so rendered JSON is kept in a
+ * {@link VersionedCache} keyed by the data version of what it was rendered from: the user's
+ * {@code data_version} for the garage and the car's for its history pages. Every car or fillup write
+ * bumps those versions in the same transaction, so a cache hit costs one version lookup and a write
+ * invalidates the snapshot without any explicit eviction.
+ *
+ * <p>History is paginated newest-first ({@code ?page=N}, 1-based, {@code mcp.history-page-size}
+ * entries per page); each page links to the next through {@code nextCursor}.
+ */
+@Component
+public class GarageResources {
+
+    public static final String GARAGE_URI = "autoledger://garage/cars";
+    public static final String HISTORY_URI_TEMPLATE = "autoledger://cars/{id}/history";
+
+    private static final Pattern HISTORY_URI =
+            Pattern.compile("autoledger://cars/([0-9a-fA-F-]{36})/history(?:\\?page=(\\d+))?");
+
+    private final UserRepository userRepository;
+    private final CarRepository carRepository;
+    private final FillupRepository fillupRepository;
+    private final FillupService fillupService;
+    private final ObjectMapper objectMapper;
+    private final McpProperties properties;
+    private final VersionedCache<String, String> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public GarageResources(UserRepository userRepository, CarRepository carRepository,
+                           FillupRepository fillupRepository, FillupService fillupService,
+                           ObjectMapper objectMapper, McpProperties properties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.carRepository = carRepository;
+        this.fillupRepository = fillupRepository;
+        this.fillupService = fillupService;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.cache = new VersionedCache<>(properties.getSnapshotCacheSize());
+        this.hits = Counter.builder("autoledger.mcp.snapshots")
+                .description("MCP resource reads by snapshot cache result")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("autoledger.mcp.snapshots")
+                .description("MCP resource reads by snapshot cache result")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * History URI of a car's first page.
+     */
+    public static String historyUri(UUID carId) {
+        return "autoledger://cars/" + carId + "/history";
+    }
+
+    /**
+     * Read a resource as JSON text.
+     *
+     * @throws ResourceNotFoundException if the URI is unknown or names a car the user does not own
+     */
+    public String read(UUID userId, String uri) {
+        if (GARAGE_URI.equals(uri)) {
+            return readGarage(userId);
+        }
+        Matcher matcher = HISTORY_URI.matcher(uri);
+        if (matcher.matches()) {
+            UUID carId = UUID.fromString(matcher.group(1));
+            int page = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 1;
+            return readHistory(userId, carId, page);
+        }
+        throw new ResourceNotFoundException("Unknown resource: " + uri);
+    }
+
+    /**
+     * All of the user's cars.
+     */
+    public String readGarage(UUID userId) {
+        long version = userRepository.findDataVersionById(userId).orElse(0L);
+        return lookup("garage:" + userId, version, () -> render(Map.of(
+                "cars", carRepository.findByUserId(userId).stream().map(CarResponse::from).toList())));
+    }
+
+    /**
+     * One page of a car's fillups, newest first, with MPG.
+     */
+    public String readHistory(UUID userId, UUID carId, int page) {
+        if (page < 1) {
+            throw new ResourceNotFoundException("History page must be 1 or greater: " + page);
+        }
+        // Checks ownership and reads the version in one lookup; read before the fillups so a
+        // concurrent write can only make the snapshot newer than its version, never older
+        long version = carRepository.findDataVersionByIdAndUserId(carId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Car", carId));
+        return lookup("history:" + carId + ":" + page, version, () -> renderHistory(carId, page));
+    }
+
+    int cachedSnapshots() {
+        return cache.size();
+    }
+
+    private String renderHistory(UUID carId, int page) {
+        int pageSize = properties.getHistoryPageSize();
+        // One extra row tells whether another page follows
+        List<Fillup> rows = fillupRepository.findPageByCarId(carId, pageSize + 1, (page - 1) * pageSize);
+        boolean hasMore = rows.size() > pageSize;
+        List<Fillup> fillups = hasMore ? rows.subList(0, pageSize) : rows;
+
+        Map<UUID, BigDecimal> mpgs = fillupService.calculateMPGs(fillups);
+        List<FillupResponse> entries = fillups.stream()
+                .map(f -> FillupResponse.from(f, mpgs.get(f.getId())))
+                .toList();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("carId", carId);
+        body.put("page", page);
+        body.put("fillups", entries);
+        body.put("nextCursor", hasMore ? historyUri(carId) + "?page=" + (page + 1) : null);
+        return render(body);
+    }
+
+    private String lookup(String key, long version, Supplier<String> render) {
+        VersionedCache.Lookup<String> lookup = cache.get(key, version, render);
+        (lookup.hit() ? hits : misses).increment();
+        return lookup.value();
+    }
+
+    private String render(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render MCP resource", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package me.adilfulara.autoledger.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
+import me.adilfulara.autoledger.api.exception.InvalidOdometerException;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.service.CarNameIndex;
+import me.adilfulara.autoledger.service.CarNameMatch;
+import me.adilfulara.autoledger.service.FillupService;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * MCP tool {@code log_fillup}: records a fillup for one of the user's cars, named loosely.
+ *
+ * <p>The car is resolved through {@link CarNameIndex}: an exact case-insensitive match wins,
+ * otherwise the best fuzzy match is taken if it clearly outranks the runner-up, and the agent is
+ * asked to choose among the candidates if not. The fillup goes through
+ * {@link FillupService#createFillup(CreateFillupRequest)}, so it gets the same odometer validation
+ * and outbox recording as {@code POST /api/fillups}.
+ */
+@Component
+public class LogFillupTool {
+
+    public static final String NAME = "log_fillup";
+
+    /**
+     * Minimum score lead of the best fuzzy match over the runner-up for it to be picked.
+     */
+    static final double AMBIGUITY_MARGIN = 0.1;
+
+    private final CarNameIndex carNameIndex;
+    private final FillupService fillupService;
+    private final ObjectMapper objectMapper;
+
+    public LogFillupTool(CarNameIndex carNameIndex, FillupService fillupService, ObjectMapper objectMapper) {
+        this.carNameIndex = carNameIndex;
+        this.fillupService = fillupService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Tool description for {@code tools/list}.
+     */
+    public ObjectNode definition() {
+        ObjectNode tool = objectMapper.createObjectNode();
+        tool.put("name", NAME);
+        tool.put("description", "Log a fuel fillup for one of the user's cars. "
+                + "The odometer must be greater than the car's last entry.");
+        ObjectNode schema = tool.putObject("inputSchema");
+        schema.put("type", "object");
+        ObjectNode properties = schema.putObject("properties");
+        property(properties, "car_name", "string", "Name of the car; partial names are matched");
+        property(properties, "odometer", "integer", "Odometer reading");
+        property(properties, "gallons", "number", "Fuel volume in the car's fuel unit");
+        property(properties, "price", "number", "Price per unit of fuel");
+        property(properties, "is_full", "boolean", "Whether the tank was filled completely (default true)");
+        schema.putArray("required").add("car_name").add("odometer").add("gallons").add("price");
+        return tool;
+    }
+
+    /**
+     * Run the tool for a user.
+     */
+    public ToolResult call(UUID userId, JsonNode arguments) {
+        String carName = text(arguments, "car_name");
+        Long odometer = arguments.path("odometer").isIntegralNumber() ? arguments.path("odometer").asLong() : null;
+        BigDecimal gallons = decimal(arguments, "gallons");
+        BigDecimal price = decimal(arguments, "price");
+        boolean isFull = arguments.path("is_full").asBoolean(true);
+
+        if (carName == null || odometer == null || gallons == null || price == null) {
+            return ToolResult.error("car_name, odometer, gallons and price are required");
+        }
+        if (odometer <= 0 || gallons.signum() <= 0 || price.signum() <= 0) {
+            return ToolResult.error("odometer, gallons and price must be positive");
+        }
+
+        try {
+            CarNameMatch car = resolveCar(userId, carName);
+            CreateFillupRequest request = new CreateFillupRequest(
+                    car.carId(),
+                    Instant.now(),
+                    odometer,
+                    gallons,
+                    price,
+                    gallons.multiply(price).setScale(2, RoundingMode.HALF_UP),
+                    !isFull,
+                    false
+            );
+            Fillup saved = fillupService.createFillup(request);
+            BigDecimal mpg = fillupService.calculateMPG(saved).orElse(null);
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("car", car.name());
+            body.put("fillup", FillupResponse.from(saved, mpg));
+            return ToolResult.success(objectMapper.writeValueAsString(body));
+        } catch (ResourceNotFoundException | InvalidOdometerException | IllegalArgumentException e) {
+            return ToolResult.error(e.getMessage());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render tool result", e);
+        }
+    }
+
+    /**
+     * Resolve a loosely named car among the user's cars.
+     *
+     * @throws ResourceNotFoundException if no car, or more than one car, matches
+     */
+    CarNameMatch resolveCar(UUID userId, String name) {
+        List<CarNameMatch> matches = carNameIndex.search(userId, name);
+        if (matches.isEmpty()) {
+            throw new ResourceNotFoundException("No car matches name: " + name);
+        }
+        CarNameMatch best = matches.getFirst();
+        if (best.isExact() || matches.size() == 1
+                || best.score() - matches.get(1).score() >= AMBIGUITY_MARGIN) {
+            return best;
+        }
+        throw new ResourceNotFoundException("Car name '" + name + "' is ambiguous; matches "
+                + matches.stream().map(CarNameMatch::name).toList());
+    }
+
+    private static void property(ObjectNode properties, String name, String type, String description) {
+        ObjectNode property = properties.putObject(name);
+        property.put("type", type);
+        property.put("description", description);
+    }
+
+    private static String text(JsonNode arguments, String field) {
+        JsonNode node = arguments.path(field);
+        return node.isTextual() && !node.asText().isBlank() ? node.asText() : null;
+    }
+
+    private static BigDecimal decimal(JsonNode arguments, String field) {
+        JsonNode node = arguments.path(field);
+        return node.isNumber() ? node.decimalValue() : null;
+    }
+}
@@ -0,0 +1,60 @@
+package me.adilfulara.autoledger.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.auth.AuthenticatedUser;
+import me.adilfulara.autoledger.auth.CurrentUser;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * MCP HTTP+SSE transport.
+ *
+ * <p>{@code GET /mcp/sse} opens the session stream and announces the message endpoint;
+ * {@code POST /mcp/message?sessionId=...} accepts a JSON-RPC message and answers on the stream.
+ */
+@RestController
+@RequestMapping("/mcp")
+public class McpController {
+
+    static final String MESSAGE_PATH = "/mcp/message";
+
+    private final McpServer mcpServer;
+    private final McpSessions sessions;
+
+    public McpController(McpServer mcpServer, McpSessions sessions) {
+        this.mcpServer = mcpServer;
+        this.sessions = sessions;
+    }
+
+    /**
+     * Open an MCP session.
+     */
+    @GetMapping(value = "/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter connect(@CurrentUser AuthenticatedUser user) {
+        return sessions.open(user.userId(), MESSAGE_PATH);
+    }
+
+    /**
+     * Handle a client message; the response is delivered on the session stream.
+     */
+    @PostMapping(value = "/message", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> message(
+            @CurrentUser AuthenticatedUser user,
+            @RequestParam String sessionId,
+            @RequestBody JsonNode message) {
+        McpSessions.Session session = sessions.find(sessionId, user.userId())
+                .orElseThrow(() -> new ResourceNotFoundException("MCP session", sessionId));
+
+        mcpServer.handle(user.userId(), message)
+                .ifPresent(response -> sessions.send(session, response));
+        return ResponseEntity.accepted().build();
+    }
+}
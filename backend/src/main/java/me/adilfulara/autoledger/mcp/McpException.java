@@ -0,0 +1,23 @@
+package me.adilfulara.autoledger.mcp;
+
+/**
+ * JSON-RPC error raised while handling an MCP request.
+ */
+public class McpException extends RuntimeException {
+
+    public static final int METHOD_NOT_FOUND = -32601;
+    public static final int INVALID_PARAMS = -32602;
+    public static final int INTERNAL_ERROR = -32603;
+    public static final int RESOURCE_NOT_FOUND = -32002;
+
+    private final int code;
+
+    public McpException(int code, String message) {
+        super(message);
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,77 @@
+package me.adilfulara.autoledger.mcp;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the MCP server.
+ *
+ * <p>Maps to {@code mcp.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * mcp:
+ *   history-page-size: 50
+ *   snapshot-cache-size: 2000
+ *   session-timeout: 60m
+ *   heartbeat-interval: 20s
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "mcp")
+public class McpProperties {
+
+    /**
+     * Fillups per page of {@code autoledger://cars/{id}/history}.
+     */
+    private int historyPageSize = 50;
+
+    /**
+     * Rendered resource snapshots kept in memory (garages plus history pages).
+     */
+    private int snapshotCacheSize = 2000;
+
+    /**
+     * Maximum lifetime of an SSE session; clients reconnect afterwards.
+     */
+    private Duration sessionTimeout = Duration.ofMinutes(60);
+
+    /**
+     * Interval between heartbeat comments on open sessions.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(20);
+
+    public int getHistoryPageSize() {
+        return historyPageSize;
+    }
+
+    public void setHistoryPageSize(int historyPageSize) {
+        this.historyPageSize = historyPageSize;
+    }
+
+    public int getSnapshotCacheSize() {
+        return snapshotCacheSize;
+    }
+
+    public void setSnapshotCacheSize(int snapshotCacheSize) {
+        this.snapshotCacheSize = snapshotCacheSize;
+    }
+
+    public Duration getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    public void setSessionTimeout(Duration sessionTimeout) {
+        this.sessionTimeout = sessionTimeout;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+}
@@ -0,0 +1,171 @@
+package me.adilfulara.autoledger.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.service.CarService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JSON-RPC dispatcher for the Model Context Protocol (revision 2024-11-05).
+ *
+ * <p>Supports the lifecycle ({@code initialize}, {@code ping}), the garage and history resources
+ * ({@link GarageResources}) and the {@code log_fillup} tool ({@link LogFillupTool}). Transport is
+ * handled by {@link McpController}; this class only maps a request to its response.
+ */
+@Component
+public class McpServer {
+
+    public static final String PROTOCOL_VERSION = "2024-11-05";
+    public static final String SERVER_NAME = "auto-ledger";
+
+    private static final Logger logger = LoggerFactory.getLogger(McpServer.class);
+
+    private final GarageResources garageResources;
+    private final LogFillupTool logFillupTool;
+    private final CarService carService;
+    private final ObjectMapper objectMapper;
+
+    public McpServer(GarageResources garageResources, LogFillupTool logFillupTool, CarService carService,
+                     ObjectMapper objectMapper) {
+        this.garageResources = garageResources;
+        this.logFillupTool = logFillupTool;
+        this.carService = carService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Handle one JSON-RPC message for a user.
+     *
+     * @return the response, or empty for notifications (messages without an id)
+     */
+    public Optional<ObjectNode> handle(UUID userId, JsonNode message) {
+        JsonNode id = message.get("id");
+        String method = message.path("method").asText("");
+        JsonNode params = message.path("params");
+
+        if (id == null || id.isNull()) {
+            // Notifications (e.g. notifications/initialized) need no answer
+            return Optional.empty();
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", id);
+        try {
+            response.set("result", dispatch(userId, method, params));
+        } catch (McpException e) {
+            response.set("error", error(e.getCode(), e.getMessage()));
+        } catch (ResourceNotFoundException e) {
+            response.set("error", error(McpException.RESOURCE_NOT_FOUND, e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.error("MCP method {} failed", method, e);
+            response.set("error", error(McpException.INTERNAL_ERROR, "Internal error"));
+        }
+        return Optional.of(response);
+    }
+
+    private JsonNode dispatch(UUID userId, String method, JsonNode params) {
+        return switch (method) {
+            case "initialize" -> initialize();
+            case "ping" -> objectMapper.createObjectNode();
+            case "resources/list" -> listResources(userId);
+            case "resources/templates/list" -> listResourceTemplates();
+            case "resources/read" -> readResource(userId, params);
+            case "tools/list" -> listTools();
+            case "tools/call" -> callTool(userId, params);
+            default -> throw new McpException(McpException.METHOD_NOT_FOUND, "Method not found: " + method);
+        };
+    }
+
+    private ObjectNode initialize() {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("protocolVersion", PROTOCOL_VERSION);
+        ObjectNode capabilities = result.putObject("capabilities");
+        capabilities.putObject("resources");
+        capabilities.putObject("tools");
+        ObjectNode serverInfo = result.putObject("serverInfo");
+        serverInfo.put("name", SERVER_NAME);
+        serverInfo.put("version", "1.0.0");
+        return result;
+    }
+
+    private ObjectNode listResources(UUID userId) {
+        ObjectNode result = objectMapper.createObjectNode();
+        ArrayNode resources = result.putArray("resources");
+        resources.add(resource(GarageResources.GARAGE_URI, "Garage", "All cars owned by the user"));
+        for (Car car : carService.getCarsByUserId(userId)) {
+            resources.add(resource(GarageResources.historyUri(car.getId()), car.getName() + " history",
+                    "Fill-up history of " + car.getName() + ", newest first"));
+        }
+        return result;
+    }
+
+    private ObjectNode listResourceTemplates() {
+        ObjectNode result = objectMapper.createObjectNode();
+        ObjectNode template = result.putArray("resourceTemplates").addObject();
+        template.put("uriTemplate", GarageResources.HISTORY_URI_TEMPLATE);
+        template.put("name", "Car history");
+        template.put("description", "Fill-up history of a car, newest first; follow nextCursor for older pages");
+        template.put("mimeType", "application/json");
+        return result;
+    }
+
+    private ObjectNode readResource(UUID userId, JsonNode params) {
+        String uri = params.path("uri").asText(null);
+        if (uri == null) {
+            throw new McpException(McpException.INVALID_PARAMS, "uri is required");
+        }
+        ObjectNode result = objectMapper.createObjectNode();
+        ObjectNode content = result.putArray("contents").addObject();
+        content.put("uri", uri);
+        content.put("mimeType", "application/json");
+        content.put("text", garageResources.read(userId, uri));
+        return result;
+    }
+
+    private ObjectNode listTools() {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.putArray("tools").add(logFillupTool.definition());
+        return result;
+    }
+
+    private ObjectNode callTool(UUID userId, JsonNode params) {
+        String name = params.path("name").asText("");
+        if (!LogFillupTool.NAME.equals(name)) {
+            throw new McpException(McpException.INVALID_PARAMS, "Unknown tool: " + name);
+        }
+        ToolResult toolResult = logFillupTool.call(userId, params.path("arguments"));
+
+        ObjectNode result = objectMapper.createObjectNode();
+        ObjectNode content = result.putArray("content").addObject();
+        content.put("type", "text");
+        content.put("text", toolResult.text());
+        result.put("isError", toolResult.isError());
+        return result;
+    }
+
+    private ObjectNode resource(String uri, String name, String description) {
+        ObjectNode resource = objectMapper.createObjectNode();
+        resource.put("uri", uri);
+        resource.put("name", name);
+        resource.put("description", description);
+        resource.put("mimeType", "application/json");
+        return resource;
+    }
+
+    private ObjectNode error(int code, String message) {
+        ObjectNode error = objectMapper.createObjectNode();
+        error.put("code", code);
+        error.put("message", message);
+        return error;
+    }
+}
@@ -0,0 +1,113 @@
+package me.adilfulara.autoledger.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open MCP SSE sessions, keyed by a random session id.
+ *
+ * <p>In the HTTP+SSE transport the client keeps a {@code GET /mcp/sse} stream open for server
+ * messages and POSTs its requests to the endpoint announced on that stream. A session belongs to
+ * the user who opened it; the stream is an async-servlet {@link SseEmitter}, so idle sessions hold
+ * no request thread.
+ */
+@Component
+public class McpSessions {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpSessions.class);
+
+    public record Session(String id, UUID userId, SseEmitter emitter) {}
+
+    private final McpProperties properties;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    public McpSessions(McpProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Open a session and announce its message endpoint.
+     */
+    public SseEmitter open(UUID userId, String messagePath) {
+        SseEmitter emitter = createEmitter(properties.getSessionTimeout().toMillis());
+        Session session = new Session(UUID.randomUUID().toString(), userId, emitter);
+        sessions.put(session.id(), session);
+        emitter.onCompletion(() -> sessions.remove(session.id()));
+        emitter.onTimeout(() -> sessions.remove(session.id()));
+        emitter.onError(e -> sessions.remove(session.id()));
+
+        try {
+            emitter.send(SseEmitter.event().name("endpoint").data(messagePath + "?sessionId=" + session.id()));
+        } catch (IOException e) {
+            sessions.remove(session.id());
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * Find a session owned by a user.
+     */
+    public Optional<Session> find(String sessionId, UUID userId) {
+        return Optional.ofNullable(sessions.get(sessionId))
+                .filter(session -> session.userId().equals(userId));
+    }
+
+    /**
+     * Send a JSON-RPC message to the client.
+     *
+     * @return false if the stream is gone (the session is closed)
+     */
+    public boolean send(Session session, JsonNode message) {
+        try {
+            session.emitter().send(SseEmitter.event().name("message").data(message, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            close(session);
+            return false;
+        }
+    }
+
+    /**
+     * Keep idle streams alive through proxies, and drop the ones whose client went away.
+     */
+    @Scheduled(fixedDelayString = "${mcp.heartbeat-interval:20s}")
+    public void heartbeat() {
+        for (Session session : sessions.values()) {
+            try {
+                session.emitter().send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("MCP session {} closed: {}", session.id(), e.getMessage());
+                close(session);
+            }
+        }
+    }
+
+    int sessionCount() {
+        return sessions.size();
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void close(Session session) {
+        sessions.remove(session.id());
+        try {
+            session.emitter().complete();
+        } catch (IllegalStateException e) {
+            // Already completed by the container
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package me.adilfulara.autoledger.mcp;
+
+/**
+ * Outcome of an MCP tool call: text content for the agent, flagged when the call failed.
+ * Tool failures are reported in-band so the agent can read the message and correct itself.
+ */
+public record ToolResult(String text, boolean isError) {
+
+    public static ToolResult success(String text) {
+        return new ToolResult(text, false);
+    }
+
+    public static ToolResult error(String message) {
+        return new ToolResult(message, true);
+    }
+}
@@ -0,0 +1,25 @@
+package me.adilfulara.autoledger.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies {@link ServiceStatementInterceptor} to every {@code @Service} bean.
+ *
+ * <p>When a bean is already proxied (e.g., for {@code @Transactional}), the interceptor is added
+ * to the existing proxy ahead of the other advisors, so the count covers the whole transaction.
+ */
+public class ServiceStatementCountingPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    public ServiceStatementCountingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.advisor = new DefaultPointcutAdvisor(
+                new AnnotationMatchingPointcut(Service.class, true),
+                new ServiceStatementInterceptor(meterRegistry));
+        setBeforeExistingAdvisors(true);
+        setProxyTargetClass(true);
+    }
+}
@@ -0,0 +1,49 @@
+package me.adilfulara.autoledger.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Counts the SQL statements executed by each {@code @Service} method call.
+ *
+ * <p>Opens a nested {@link SqlStatementCounter} scope around the invocation and records the
+ * result in the {@code autoledger.db.statements.service} summary, tagged by class and method.
+ */
+public class ServiceStatementInterceptor implements MethodInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceStatementInterceptor.class);
+    static final String METRIC_NAME = "autoledger.db.statements.service";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ServiceStatementInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String service = invocation.getMethod().getDeclaringClass().getSimpleName();
+        String method = invocation.getMethod().getName();
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open(service + "." + method);
+        try {
+            return invocation.proceed();
+        } finally {
+            scope.close();
+            logger.trace("{} executed {} SQL statements", scope.getName(), scope.getCount());
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null) {
+                DistributionSummary.builder(METRIC_NAME)
+                        .description("JDBC statements executed per service call")
+                        .tag("service", service)
+                        .tag("method", method)
+                        .register(registry)
+                        .record(scope.getCount());
+            }
+        }
+    }
+}
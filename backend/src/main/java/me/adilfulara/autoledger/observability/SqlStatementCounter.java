@@ -0,0 +1,123 @@
+package me.adilfulara.autoledger.observability;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-bound counter of JDBC statements executed within nested scopes.
+ *
+ * <p>A scope is opened per HTTP request by {@link SqlStatementFilter} and per service call by
+ * {@link ServiceStatementInterceptor}. Every statement executed through
+ * {@link SqlStatementCountingDataSource} is counted against all scopes currently open on the thread,
+ * so a request total always includes the statements issued by the services it called.
+ *
+ * <p>The outermost scope also tracks how often each distinct SQL string ran, which is how
+ * per-row query patterns (N+1) are detected.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Open a new scope nested inside the current one (if any).
+     * Must be closed on the same thread, typically via try-with-resources.
+     *
+     * @param name descriptive name used in logs (e.g., "request", "CarService.getCarStats")
+     * @return the opened scope
+     */
+    public static Scope open(String name) {
+        Scope scope = new Scope(name, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Number of statements executed so far in the innermost open scope.
+     *
+     * @return statement count, or 0 when no scope is open
+     */
+    public static int currentCount() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.getCount() : 0;
+    }
+
+    /**
+     * Record one executed statement against every open scope on this thread.
+     *
+     * @param sql the SQL text (may be null for batches without a known statement)
+     */
+    static void record(String sql) {
+        Scope scope = CURRENT.get();
+        while (scope != null) {
+            scope.increment(sql);
+            scope = scope.parent;
+        }
+    }
+
+    /**
+     * A counting scope. Only the outermost scope keeps per-statement counts.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final String name;
+        private final Scope parent;
+        private final Map<String, Integer> countsBySql;
+        private int count;
+
+        private Scope(String name, Scope parent) {
+            this.name = name;
+            this.parent = parent;
+            this.countsBySql = parent == null ? new HashMap<>() : null;
+        }
+
+        private void increment(String sql) {
+            count++;
+            if (countsBySql != null && sql != null) {
+                countsBySql.merge(sql, 1, Integer::sum);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Statements that ran at least {@code threshold} times in this scope, most frequent first.
+         * Always empty for nested scopes.
+         *
+         * @param threshold minimum number of executions to report
+         * @return SQL text mapped to execution count
+         */
+        public Map<String, Integer> repeatedStatements(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            if (countsBySql == null) {
+                return repeated;
+            }
+            countsBySql.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= threshold)
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+            return repeated;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent != null) {
+                    CURRENT.set(parent);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        }
+    }
+}
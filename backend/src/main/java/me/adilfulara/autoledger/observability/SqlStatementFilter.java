@@ -0,0 +1,71 @@
+package me.adilfulara.autoledger.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Servlet filter that counts the SQL statements executed while handling each request.
+ *
+ * <p>Runs ahead of {@code JwtAuthFilter} so that JIT user provisioning is included in the total.
+ * The count is recorded in the {@code autoledger.db.statements} distribution summary, tagged with
+ * the matched URI pattern, and statements repeated within one request are logged as likely N+1
+ * patterns.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementFilter.class);
+    static final String METRIC_NAME = "autoledger.db.statements";
+
+    private final MeterRegistry meterRegistry;
+    private final SqlStatementProperties properties;
+
+    public SqlStatementFilter(MeterRegistry meterRegistry, SqlStatementProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open("request");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            report(request, scope);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder(METRIC_NAME)
+                .description("JDBC statements executed per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(scope.getCount());
+
+        Map<String, Integer> repeated = scope.repeatedStatements(properties.getRepeatedStatementThreshold());
+        repeated.forEach((sql, count) -> logger.warn(
+                "[{} {}] Possible N+1: statement executed {} times in one request: {}",
+                request.getMethod(), uri, count, sql));
+    }
+}
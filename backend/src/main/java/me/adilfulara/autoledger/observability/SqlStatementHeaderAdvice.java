@@ -0,0 +1,41 @@
+package me.adilfulara.autoledger.observability;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's SQL statement count to every response body written by a controller.
+ *
+ * <p>The header is written just before the body, after the handler has finished all database
+ * work, so it reflects the full count for the request. Responses without a body (e.g., 204)
+ * are not annotated. Only active when {@code observability.sql.header-enabled} is true.
+ */
+@ControllerAdvice
+public class SqlStatementHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String HEADER_NAME = "X-SQL-Statement-Count";
+
+    private final SqlStatementProperties properties;
+
+    public SqlStatementHeaderAdvice(SqlStatementProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.isHeaderEnabled();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        response.getHeaders().set(HEADER_NAME, String.valueOf(SqlStatementCounter.currentCount()));
+        return body;
+    }
+}
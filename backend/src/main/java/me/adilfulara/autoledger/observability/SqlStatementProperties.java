@@ -0,0 +1,49 @@
+package me.adilfulara.autoledger.observability;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for SQL statement counting.
+ *
+ * <p>Maps to {@code observability.sql.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * observability:
+ *   sql:
+ *     header-enabled: true
+ *     repeated-statement-threshold: 10
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "observability.sql")
+public class SqlStatementProperties {
+
+    /**
+     * Whether to expose the per-request statement count as a response header.
+     * Enabled in non-production profiles; production relies on the metric instead.
+     */
+    private boolean headerEnabled = false;
+
+    /**
+     * Number of executions of the same SQL within one request that is logged as a likely N+1.
+     */
+    private int repeatedStatementThreshold = 10;
+
+    public boolean isHeaderEnabled() {
+        return headerEnabled;
+    }
+
+    public void setHeaderEnabled(boolean headerEnabled) {
+        this.headerEnabled = headerEnabled;
+    }
+
+    public int getRepeatedStatementThreshold() {
+        return repeatedStatementThreshold;
+    }
+
+    public void setRepeatedStatementThreshold(int repeatedStatementThreshold) {
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+}
@@ -0,0 +1,108 @@
+package me.adilfulara.autoledger.observability;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Detects virtual threads that stay pinned to their carrier thread.
+ *
+ * <p>Active only when {@code spring.threads.virtual.enabled=true}. Streams the JFR
+ * {@code jdk.VirtualThreadPinned} event in-process, which fires when a virtual thread blocks while
+ * holding a monitor ({@code synchronized}) or inside native code. Each event increments the
+ * {@code autoledger.virtual_threads.pinned} counter, tagged with the first application or library
+ * frame that holds the monitor, and is logged with a short stack so the offending path (JDBC driver,
+ * Hikari, JWKS loading, ...) can be fixed.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    static final String EVENT_NAME = "jdk.VirtualThreadPinned";
+    static final String METRIC_NAME = "autoledger.virtual_threads.pinned";
+
+    private final MeterRegistry meterRegistry;
+    private final VirtualThreadProperties properties;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, VirtualThreadProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public synchronized void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(EVENT_NAME)
+                .withThreshold(properties.getPinnedThreshold())
+                .withStackTrace();
+        recordingStream.onEvent(EVENT_NAME, this::onPinned);
+        recordingStream.startAsync();
+        logger.info("Monitoring virtual thread pinning (threshold {})", properties.getPinnedThreshold());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null
+                ? event.getStackTrace().getFrames()
+                : List.of();
+        String site = pinningSite(frames);
+
+        Counter.builder(METRIC_NAME)
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .tag("site", site)
+                .register(meterRegistry)
+                .increment();
+
+        logger.warn("Virtual thread pinned for {} ms at {}:\n{}",
+                event.getDuration().toMillis(), site, formatStack(event.getStackTrace()));
+    }
+
+    /**
+     * First frame outside the JDK, which is where the monitor is held.
+     */
+    static String pinningSite(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                .filter(name -> !name.startsWith("java.") && !name.startsWith("jdk.") && !name.startsWith("sun."))
+                .findFirst()
+                .orElse("unknown");
+    }
+
+    private String formatStack(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "    <no stack trace>";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(properties.getStackDepth())
+                .map(frame -> "    at " + frame.getMethod().getType().getName() + "."
+                        + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+}
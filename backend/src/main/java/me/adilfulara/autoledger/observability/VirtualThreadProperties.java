@@ -0,0 +1,50 @@
+package me.adilfulara.autoledger.observability;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for virtual-thread diagnostics.
+ *
+ * <p>Maps to {@code observability.virtual-threads.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * observability:
+ *   virtual-threads:
+ *     pinned-threshold: 20ms
+ *     stack-depth: 8
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "observability.virtual-threads")
+public class VirtualThreadProperties {
+
+    /**
+     * Minimum time a virtual thread must stay pinned to its carrier before it is reported.
+     */
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+
+    /**
+     * Number of stack frames logged for each pinning event.
+     */
+    private int stackDepth = 8;
+
+    public Duration getPinnedThreshold() {
+        return pinnedThreshold;
+    }
+
+    public void setPinnedThreshold(Duration pinnedThreshold) {
+        this.pinnedThreshold = pinnedThreshold;
+    }
+
+    public int getStackDepth() {
+        return stackDepth;
+    }
+
+    public void setStackDepth(int stackDepth) {
+        this.stackDepth = stackDepth;
+    }
+}
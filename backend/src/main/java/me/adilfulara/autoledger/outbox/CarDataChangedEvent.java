@@ -0,0 +1,35 @@
+package me.adilfulara.autoledger.outbox;
+
+import me.adilfulara.autoledger.domain.model.ChangeType;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Application event published by {@link OutboxWorker} after a car's derived data was refreshed.
+ * One event covers all outbox events drained for the car in a batch.
+ *
+ * <p>Delivery is at-least-once: a listener may see the same change twice after a retry.
+ *
+ * @param userId      owner of the car
+ * @param carId       the changed car
+ * @param dataVersion the car's data version after the newest change
+ * @param changes     the coalesced changes, oldest first
+ */
+public record CarDataChangedEvent(UUID userId, UUID carId, long dataVersion, List<Change> changes) {
+
+    /**
+     * A single recorded change.
+     *
+     * @param type     kind of change
+     * @param entityId the changed car or fillup
+     */
+    public record Change(ChangeType type, UUID entityId) {}
+
+    /**
+     * Whether the car itself was deleted (no stats snapshot exists anymore).
+     */
+    public boolean carDeleted() {
+        return changes.stream().anyMatch(c -> c.type() == ChangeType.CAR_DELETED);
+    }
+}
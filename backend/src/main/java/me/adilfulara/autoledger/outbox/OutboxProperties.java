@@ -0,0 +1,107 @@
+package me.adilfulara.autoledger.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the outbox worker.
+ *
+ * <p>Maps to {@code outbox.worker.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * outbox:
+ *   worker:
+ *     enabled: true
+ *     poll-interval: 500ms
+ *     batch-size: 100
+ *     concurrency: 4
+ *     max-attempts: 10
+ *     retry-backoff: 30s
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "outbox.worker")
+public class OutboxProperties {
+
+    /**
+     * Whether the worker drains the outbox. Events are always recorded.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Delay between polls when the outbox was drained.
+     */
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    /**
+     * Maximum events claimed per batch.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Maximum cars processed in parallel (each holds a pooled connection).
+     */
+    private int concurrency = 4;
+
+    /**
+     * Events that failed this many times are logged at error level, counted in
+     * {@code autoledger.outbox.abandoned} and deleted.
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * Delay before a failed event is retried.
+     */
+    private Duration retryBackoff = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(Duration retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+}
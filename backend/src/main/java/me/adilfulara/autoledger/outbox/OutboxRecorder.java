@@ -0,0 +1,125 @@
+package me.adilfulara.autoledger.outbox;
+
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.ChangeType;
+import me.adilfulara.autoledger.domain.model.OutboxEvent;
+import me.adilfulara.autoledger.domain.model.SyncTombstone;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.OutboxEventRepository;
+import me.adilfulara.autoledger.domain.repository.SyncTombstoneRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Records change events in the outbox as part of the caller's write transaction.
+ *
+ * <p>Each event bumps the car's data version, which invalidates any stored stats snapshot
+ * immediately, and is later picked up by {@link OutboxWorker}. Car-level changes also bump the
+ * owner's data version, which versions user-level views such as the list of cars. Because the event commits or rolls
+ * back together with the write, no change is ever lost or reported without having happened.
+ *
+ * <p>Every change also takes the owner's next change sequence number for delta sync: it is stamped
+ * on the car and the changed fillup, or stored in a tombstone when the entity was deleted.
+ */
+@Component
+public class OutboxRecorder {
+
+    private static final Set<ChangeType> CAR_CHANGES =
+            EnumSet.of(ChangeType.CAR_CREATED, ChangeType.CAR_UPDATED, ChangeType.CAR_DELETED);
+
+    private final CarRepository carRepository;
+    private final UserRepository userRepository;
+    private final FillupRepository fillupRepository;
+    private final OutboxEventRepository outboxRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
+
+    public OutboxRecorder(CarRepository carRepository, UserRepository userRepository,
+                          FillupRepository fillupRepository, OutboxEventRepository outboxRepository,
+                          SyncTombstoneRepository tombstoneRepository) {
+        this.carRepository = carRepository;
+        this.userRepository = userRepository;
+        this.fillupRepository = fillupRepository;
+        this.outboxRepository = outboxRepository;
+        this.tombstoneRepository = tombstoneRepository;
+    }
+
+    /**
+     * Record a change to a car or one of its fillups.
+     * Must be called after the entity was saved, or before it is deleted (a deleted car's
+     * fillups go with it, so only the car gets a tombstone).
+     *
+     * @param type     kind of change
+     * @param carId    the affected car
+     * @param entityId the changed car or fillup
+     * @return the car with its new data version
+     * @throws ResourceNotFoundException if the car does not exist
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Car record(ChangeType type, UUID carId, UUID entityId) {
+        long changeSeq = userRepository.nextChangeSeqForCar(carId, CAR_CHANGES.contains(type))
+                .orElseThrow(() -> new ResourceNotFoundException("Car", carId));
+        Car car = carRepository.recordChange(carId, changeSeq)
+                .orElseThrow(() -> new ResourceNotFoundException("Car", carId));
+        Instant now = Instant.now();
+        switch (type) {
+            case FILLUP_ADDED, FILLUP_UPDATED -> fillupRepository.markChanged(entityId, carId, changeSeq);
+            case CAR_DELETED, FILLUP_DELETED -> tombstoneRepository.save(
+                    new SyncTombstone(car.getUserId(), changeSeq, type, entityId, carId, now));
+            default -> {
+                // Car created/updated: the car row was stamped above
+            }
+        }
+        outboxRepository.save(new OutboxEvent(type, car.getUserId(), carId, entityId,
+                car.getDataVersion(), now));
+        return car;
+    }
+
+    /**
+     * Record a batch of changes to one car's fillups.
+     * Takes one change sequence number per change but bumps the car's data version only once.
+     * Unlike {@link #record}, fillups are not stamped here: the caller writes the returned numbers
+     * together with the rows, so the recorder can run before the batch is written.
+     *
+     * @param carId   the affected car
+     * @param changes fillup changes, in order
+     * @return the change sequence number of the first change; the i-th change got {@code first + i}
+     * @throws ResourceNotFoundException if the car does not exist
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long recordAll(UUID carId, List<CarDataChangedEvent.Change> changes) {
+        long last = userRepository.reserveChangeSeqsForCar(carId, changes.size())
+                .orElseThrow(() -> new ResourceNotFoundException("Car", carId));
+        Car car = carRepository.recordChange(carId, last)
+                .orElseThrow(() -> new ResourceNotFoundException("Car", carId));
+        long first = last - changes.size() + 1;
+        Instant now = Instant.now();
+
+        List<OutboxEvent> events = new ArrayList<>(changes.size());
+        List<SyncTombstone> tombstones = new ArrayList<>();
+        for (int i = 0; i < changes.size(); i++) {
+            CarDataChangedEvent.Change change = changes.get(i);
+            events.add(new OutboxEvent(change.type(), car.getUserId(), carId, change.entityId(),
+                    car.getDataVersion(), now));
+            if (change.type() == ChangeType.FILLUP_DELETED) {
+                tombstones.add(new SyncTombstone(car.getUserId(), first + i, change.type(), change.entityId(),
+                        carId, now));
+            }
+        }
+        outboxRepository.saveAll(events);
+        if (!tombstones.isEmpty()) {
+            tombstoneRepository.saveAll(tombstones);
+        }
+        return first;
+    }
+}
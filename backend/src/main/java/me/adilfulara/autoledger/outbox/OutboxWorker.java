@@ -0,0 +1,178 @@
+package me.adilfulara.autoledger.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import me.adilfulara.autoledger.domain.model.OutboxEvent;
+import me.adilfulara.autoledger.domain.repository.OutboxEventRepository;
+import me.adilfulara.autoledger.service.CarService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox and maintains derived data off the request path.
+ *
+ * <p>Each batch is claimed with {@code FOR UPDATE SKIP LOCKED} and grouped by car, so any number
+ * of events for one car costs a single stats refresh. Cars are processed in parallel on virtual
+ * threads, bounded by {@code outbox.worker.concurrency} so the worker never holds more pooled
+ * connections than that (plus the one holding the claim). Processed rows are deleted when the
+ * claim commits; rows of failed cars are postponed by {@code retry-backoff}, and deleted with an
+ * error log once they have failed {@code max-attempts} times, so they do not pile up in the outbox
+ * after their refresh is given up on. A crash between the
+ * refresh and the commit re-delivers the events, which is harmless because the refresh is
+ * idempotent (at-least-once).
+ */
+@Component
+@ConditionalOnProperty(prefix = "outbox.worker", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxWorker implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxWorker.class);
+
+    static final String ABANDONED_METRIC = "autoledger.outbox.abandoned";
+
+    private final OutboxEventRepository outboxRepository;
+    private final CarService carService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties properties;
+    private final Semaphore permits;
+    private final Counter abandoned;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public OutboxWorker(OutboxEventRepository outboxRepository, CarService carService,
+                        ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                        OutboxProperties properties, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.carService = carService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.permits = new Semaphore(properties.getConcurrency());
+        this.abandoned = Counter.builder(ABANDONED_METRIC)
+                .description("Outbox events deleted after failing max-attempts times")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drain the outbox until a batch comes back short.
+     */
+    @Scheduled(fixedDelayString = "${outbox.worker.poll-interval:500ms}")
+    public void poll() {
+        try {
+            while (drainBatch() == properties.getBatchSize()) {
+                // Keep going while there is a backlog
+            }
+        } catch (RuntimeException e) {
+            logger.error("Outbox poll failed", e);
+        }
+    }
+
+    /**
+     * Claim and process one batch.
+     *
+     * @return number of events claimed
+     */
+    int drainBatch() {
+        Integer claimed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxEvent> events = outboxRepository.claimBatch(
+                    now, properties.getMaxAttempts(), properties.getBatchSize());
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            Map<UUID, List<OutboxEvent>> byCar = events.stream()
+                    .collect(Collectors.groupingBy(OutboxEvent::getCarId, LinkedHashMap::new, Collectors.toList()));
+            Map<UUID, Future<?>> tasks = new LinkedHashMap<>();
+            byCar.forEach((carId, carEvents) -> tasks.put(carId, executor.submit(() -> {
+                process(carId, carEvents);
+                return null;
+            })));
+
+            List<Long> processed = new ArrayList<>();
+            List<Long> failed = new ArrayList<>();
+            tasks.forEach((carId, task) -> {
+                if (await(carId, task)) {
+                    byCar.get(carId).forEach(event -> processed.add(event.getId()));
+                    return;
+                }
+                for (OutboxEvent event : byCar.get(carId)) {
+                    if (event.getAttempts() + 1 >= properties.getMaxAttempts()) {
+                        logger.error("Abandoning outbox event {} ({} of car {}) after {} failed attempts",
+                                event.getId(), event.getEventType(), carId, event.getAttempts() + 1);
+                        abandoned.increment();
+                        processed.add(event.getId());
+                    } else {
+                        failed.add(event.getId());
+                    }
+                }
+            });
+
+            // Abandoned events are deleted with the processed ones
+            if (!processed.isEmpty()) {
+                outboxRepository.deleteByIdIn(processed);
+            }
+            if (!failed.isEmpty()) {
+                outboxRepository.markFailed(failed, now.plus(properties.getRetryBackoff()));
+            }
+            return events.size();
+        });
+        return claimed == null ? 0 : claimed;
+    }
+
+    /**
+     * Refresh one car's derived data and announce the change.
+     */
+    void process(UUID carId, List<OutboxEvent> events) throws InterruptedException {
+        permits.acquire();
+        try {
+            carService.refreshStatsSnapshot(carId);
+        } finally {
+            permits.release();
+        }
+
+        OutboxEvent newest = events.getLast();
+        List<CarDataChangedEvent.Change> changes = events.stream()
+                .map(e -> new CarDataChangedEvent.Change(e.getEventType(), e.getEntityId()))
+                .toList();
+        eventPublisher.publishEvent(
+                new CarDataChangedEvent(newest.getUserId(), carId, newest.getDataVersion(), changes));
+    }
+
+    private boolean await(UUID carId, Future<?> task) {
+        try {
+            task.get();
+            return true;
+        } catch (ExecutionException e) {
+            logger.warn("Outbox processing failed for car {}", carId, e.getCause());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,306 @@
+package me.adilfulara.autoledger.service;
+
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-user in-memory index of car names for fuzzy lookups (e.g. the MCP {@code log_fillup} tool).
+ *
+ * <p>Names are split into trigrams the way pg_trgm does it (lower-cased alphanumeric words, padded
+ * with two leading blanks and one trailing blank), and each user's index keeps a posting list per
+ * trigram. A lookup only touches the names sharing a trigram with the query, so resolving a name
+ * among hundreds of cars takes microseconds. Candidates must contain at least
+ * {@code min-word-similarity} of the query's trigrams; they are ranked by the mean of that coverage
+ * and the trigram similarity of the whole names, with an exact case-insensitive match always first.
+ *
+ * <p>A user's index is loaded in the background on first use; until it is resident, lookups are
+ * answered by the {@code pg_trgm} GIN index on {@code cars.name} and ranked the same way.
+ * {@link CarService} keeps resident indexes in sync after each create, update and delete commits;
+ * entries expire after {@code ttl} so writes made on other instances are picked up, and at most
+ * {@code max-users} users are kept.
+ */
+@Component
+public class CarNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarNameIndex.class);
+
+    private final CarRepository carRepository;
+    private final CarNameIndexProperties properties;
+    private final Executor loader;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<UUID, UserNames> resident;
+    private final Map<UUID, AtomicBoolean> loading = new ConcurrentHashMap<>();
+
+    public CarNameIndex(CarRepository carRepository, CarNameIndexProperties properties) {
+        this(carRepository, properties, task -> Thread.ofVirtual().name("car-name-index").start(task),
+                Clock.systemUTC());
+    }
+
+    CarNameIndex(CarRepository carRepository, CarNameIndexProperties properties, Executor loader, Clock clock) {
+        this.carRepository = carRepository;
+        this.properties = properties;
+        this.loader = loader;
+        this.clock = clock;
+        this.resident = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, UserNames> eldest) {
+                return size() > properties.getMaxUsers();
+            }
+        };
+    }
+
+    /**
+     * Find the user's cars whose names match a query, best match first.
+     *
+     * @return up to {@code max-candidates} matches; empty if nothing is similar enough
+     */
+    public List<CarNameMatch> search(UUID userId, String query) {
+        Query q = new Query(query);
+        if (q.trigrams.isEmpty()) {
+            return List.of();
+        }
+
+        UserNames names = residentNames(userId);
+        if (names != null) {
+            return names.search(q, properties.getMinWordSimilarity(), properties.getMaxCandidates());
+        }
+
+        loadInBackground(userId);
+        List<Entry> candidates = carRepository
+                .findByUserIdAndNameSimilarTo(userId, query.trim(), properties.getMaxCandidates())
+                .stream()
+                .map(Entry::of)
+                .toList();
+        return UserNames.of(candidates, Instant.EPOCH)
+                .search(q, properties.getMinWordSimilarity(), properties.getMaxCandidates());
+    }
+
+    /**
+     * Record a created or updated car once the current transaction commits.
+     */
+    public void carSaved(Car car) {
+        afterCommit(() -> update(car.getUserId(), names -> names.with(Entry.of(car))));
+    }
+
+    /**
+     * Forget a deleted car once the current transaction commits.
+     */
+    public void carDeleted(UUID userId, UUID carId) {
+        afterCommit(() -> update(userId, names -> names.without(carId)));
+    }
+
+    int residentUsers() {
+        lock.lock();
+        try {
+            return resident.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UserNames residentNames(UUID userId) {
+        lock.lock();
+        try {
+            UserNames names = resident.get(userId);
+            if (names != null && names.loadedAt.plus(properties.getTtl()).isBefore(clock.instant())) {
+                resident.remove(userId);
+                return null;
+            }
+            return names;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void loadInBackground(UUID userId) {
+        AtomicBoolean stale = new AtomicBoolean();
+        if (loading.putIfAbsent(userId, stale) != null) {
+            return;
+        }
+        loader.execute(() -> {
+            try {
+                List<Entry> entries = carRepository.findByUserId(userId).stream().map(Entry::of).toList();
+                UserNames names = UserNames.of(entries, clock.instant());
+                lock.lock();
+                try {
+                    // A write that committed during the load may be missing from it; the next
+                    // lookup falls back to the database and loads again
+                    if (!stale.get()) {
+                        resident.put(userId, names);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to load car names for user {}", userId, e);
+            } finally {
+                loading.remove(userId, stale);
+            }
+        });
+    }
+
+    private void update(UUID userId, UnaryOperator<UserNames> change) {
+        lock.lock();
+        try {
+            resident.computeIfPresent(userId, (id, names) -> change.apply(names));
+            AtomicBoolean inFlight = loading.get(userId);
+            if (inFlight != null) {
+                inFlight.set(true);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * pg_trgm-compatible trigram set: each lower-cased alphanumeric word padded as "  word ".
+     */
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        StringBuilder word = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (!word.isEmpty()) {
+                String padded = "  " + word + " ";
+                for (int j = 0; j + 3 <= padded.length(); j++) {
+                    trigrams.add(padded.substring(j, j + 3));
+                }
+                word.setLength(0);
+            }
+        }
+        return trigrams;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Query(String normalized, Set<String> trigrams) {
+        Query(String text) {
+            this(normalize(text), trigrams(text));
+        }
+    }
+
+    private record Entry(UUID carId, String name, String normalized, Set<String> trigrams) {
+        static Entry of(Car car) {
+            return new Entry(car.getId(), car.getName(), normalize(car.getName()), trigrams(car.getName()));
+        }
+    }
+
+    /**
+     * Immutable snapshot of one user's names; updates copy it (users have at most hundreds of cars).
+     */
+    private static final class UserNames {
+
+        private final List<Entry> entries;
+        private final Map<String, int[]> postings;
+        private final Instant loadedAt;
+
+        private UserNames(List<Entry> entries, Map<String, int[]> postings, Instant loadedAt) {
+            this.entries = entries;
+            this.postings = postings;
+            this.loadedAt = loadedAt;
+        }
+
+        static UserNames of(List<Entry> entries, Instant loadedAt) {
+            Map<String, List<Integer>> lists = new HashMap<>();
+            for (int i = 0; i < entries.size(); i++) {
+                for (String trigram : entries.get(i).trigrams()) {
+                    lists.computeIfAbsent(trigram, t -> new ArrayList<>()).add(i);
+                }
+            }
+            Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+            lists.forEach((trigram, ids) -> postings.put(trigram, ids.stream().mapToInt(Integer::intValue).toArray()));
+            return new UserNames(List.copyOf(entries), postings, loadedAt);
+        }
+
+        UserNames with(Entry entry) {
+            List<Entry> updated = new ArrayList<>(entries.size() + 1);
+            entries.stream().filter(e -> !e.carId().equals(entry.carId())).forEach(updated::add);
+            updated.add(entry);
+            return of(updated, loadedAt);
+        }
+
+        UserNames without(UUID carId) {
+            return of(entries.stream().filter(e -> !e.carId().equals(carId)).toList(), loadedAt);
+        }
+
+        List<CarNameMatch> search(Query query, double minCoverage, int limit) {
+            // Shared trigram counts, only for names that share at least one trigram
+            int[] shared = new int[entries.size()];
+            for (String trigram : query.trigrams()) {
+                int[] posting = postings.get(trigram);
+                if (posting != null) {
+                    for (int i : posting) {
+                        shared[i]++;
+                    }
+                }
+            }
+
+            List<CarNameMatch> matches = new ArrayList<>();
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                if (entry.normalized().equals(query.normalized())) {
+                    matches.add(new CarNameMatch(entry.carId(), entry.name(), 1.0));
+                    continue;
+                }
+                if (shared[i] == 0) {
+                    continue;
+                }
+                double coverage = (double) shared[i] / query.trigrams().size();
+                if (coverage < minCoverage) {
+                    continue;
+                }
+                double similarity = (double) shared[i]
+                        / (query.trigrams().size() + entry.trigrams().size() - shared[i]);
+                // Non-exact matches never outrank an exact one
+                double score = Math.min((coverage + similarity) / 2, 0.99);
+                matches.add(new CarNameMatch(entry.carId(), entry.name(), score));
+            }
+            matches.sort(Comparator.comparingDouble(CarNameMatch::score).reversed()
+                    .thenComparing(CarNameMatch::name));
+            return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+        }
+    }
+}
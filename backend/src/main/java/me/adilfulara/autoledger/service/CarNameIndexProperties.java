@@ -0,0 +1,79 @@
+package me.adilfulara.autoledger.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-memory car name index.
+ *
+ * <p>Maps to {@code car-name-index.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * car-name-index:
+ *   max-users: 10000
+ *   ttl: 10m
+ *   min-word-similarity: 0.6
+ *   max-candidates: 5
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "car-name-index")
+public class CarNameIndexProperties {
+
+    /**
+     * Users whose car names are kept in memory; least recently used users are dropped first.
+     */
+    private int maxUsers = 10_000;
+
+    /**
+     * Lifetime of a user's index. Writes on this instance update it immediately; the TTL bounds
+     * how long writes made on other instances can go unnoticed.
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Minimum share of the query's trigrams a name must contain to be a candidate
+     * (same meaning and default as pg_trgm's {@code word_similarity_threshold}).
+     */
+    private double minWordSimilarity = 0.6;
+
+    /**
+     * Maximum ranked candidates returned per lookup.
+     */
+    private int maxCandidates = 5;
+
+    public int getMaxUsers() {
+        return maxUsers;
+    }
+
+    public void setMaxUsers(int maxUsers) {
+        this.maxUsers = maxUsers;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public double getMinWordSimilarity() {
+        return minWordSimilarity;
+    }
+
+    public void setMinWordSimilarity(double minWordSimilarity) {
+        this.minWordSimilarity = minWordSimilarity;
+    }
+
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    public void setMaxCandidates(int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+}
@@ -0,0 +1,17 @@
+package me.adilfulara.autoledger.service;
+
+import java.util.UUID;
+
+/**
+ * A car whose name matched a fuzzy lookup.
+ *
+ * @param carId the car's UUID
+ * @param name  the car's name
+ * @param score 1.0 for an exact (case-insensitive) match, otherwise the trigram score in [0, 1)
+ */
+public record CarNameMatch(UUID carId, String name, double score) {
+
+    public boolean isExact() {
+        return score >= 1.0;
+    }
+}
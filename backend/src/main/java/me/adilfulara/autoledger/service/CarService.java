@@ -1,22 +1,35 @@
 package me.adilfulara.autoledger.service;
 
+import me.adilfulara.autoledger.anomaly.AnomalyProperties;
 import me.adilfulara.autoledger.api.dto.CarStatsResponse;
 import me.adilfulara.autoledger.api.dto.CreateCarRequest;
 import me.adilfulara.autoledger.api.dto.UpdateCarRequest;
 import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
 import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.CarStatsSnapshot;
+import me.adilfulara.autoledger.domain.model.ChangeType;
 import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupSegment;
 import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.CarStatsSnapshotRepository;
 import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.FillupSegmentRepository;
+import me.adilfulara.autoledger.outbox.OutboxRecorder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for Car-related business logic.
@@ -27,12 +40,27 @@ public class CarService {
 
     private final CarRepository carRepository;
     private final FillupRepository fillupRepository;
+    private final FillupSegmentRepository segmentRepository;
+    private final CarStatsSnapshotRepository statsRepository;
     private final FillupService fillupService;
+    private final OutboxRecorder outboxRecorder;
+    private final CarNameIndex carNameIndex;
+    private final CarStatsCoalescer statsCoalescer;
+    private final AnomalyProperties anomalyProperties;
 
-    public CarService(CarRepository carRepository, FillupRepository fillupRepository, FillupService fillupService) {
+    public CarService(CarRepository carRepository, FillupRepository fillupRepository,
+                      FillupSegmentRepository segmentRepository, CarStatsSnapshotRepository statsRepository,
+                      FillupService fillupService, OutboxRecorder outboxRecorder, CarNameIndex carNameIndex,
+                      CarStatsCoalescer statsCoalescer, AnomalyProperties anomalyProperties) {
         this.carRepository = carRepository;
         this.fillupRepository = fillupRepository;
+        this.segmentRepository = segmentRepository;
+        this.statsRepository = statsRepository;
         this.fillupService = fillupService;
+        this.outboxRecorder = outboxRecorder;
+        this.carNameIndex = carNameIndex;
+        this.statsCoalescer = statsCoalescer;
+        this.anomalyProperties = anomalyProperties;
     }
 
     /**
@@ -44,11 +72,12 @@ public class CarService {
     }
 
     /**
-     * Get a car by ID.
+     * Get a car by ID. Cars being deleted are treated as not found.
      */
     @Transactional(readOnly = true)
     public Car getCarById(UUID carId) {
         return carRepository.findById(carId)
+                .filter(car -> car.getDeletingSince() == null)
                 .orElseThrow(() -> new ResourceNotFoundException("Car", carId));
     }
 
@@ -66,7 +95,10 @@ public class CarService {
                 request.fuelUnit(),
                 request.distanceUnit()
         );
-        return carRepository.save(car);
+        Car saved = carRepository.save(car);
+        outboxRecorder.record(ChangeType.CAR_CREATED, saved.getId(), saved.getId());
+        carNameIndex.carSaved(saved);
+        return saved;
     }
 
     /**
@@ -91,28 +123,104 @@ public class CarService {
             car.setName(request.name());
         }
 
-        return carRepository.save(car);
+        Car saved = carRepository.save(car);
+        outboxRecorder.record(ChangeType.CAR_UPDATED, carId, carId);
+        carNameIndex.carSaved(saved);
+        return saved;
     }
 
     /**
      * Delete a car and all its fillups.
      */
     public void deleteCar(UUID carId) {
-        if (!carRepository.existsById(carId)) {
+        if (!carRepository.existsActiveById(carId)) {
             throw new ResourceNotFoundException("Car", carId);
         }
+        Car car = outboxRecorder.record(ChangeType.CAR_DELETED, carId, carId);
         carRepository.deleteById(carId);
+        carNameIndex.carDeleted(car.getUserId(), carId);
     }
 
     /**
      * Get statistics for a car including MPG metrics.
+     * <p>
+     * Served from the snapshot maintained by the outbox worker while it matches the car's data
+     * version; otherwise (worker behind or disabled) computed from the fillups, sharing the
+     * computation with concurrent requests for the same car and data version.
      */
     @Transactional(readOnly = true)
     public CarStatsResponse getCarStats(UUID carId) {
         Car car = getCarById(carId);
+        Optional<CarStatsSnapshot> snapshot = statsRepository.findById(carId);
+        if (snapshot.isPresent() && Objects.equals(snapshot.get().getDataVersion(), car.getDataVersion())) {
+            return toResponse(car, snapshot.get());
+        }
+        return statsCoalescer.compute(carId, car.getDataVersion(), () -> computeStats(car));
+    }
+
+    /**
+     * Get the stats of several cars from their snapshots, reading all snapshots with one query.
+     *
+     * @return stats keyed by car ID, only for the cars whose snapshot matches their data version
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, CarStatsResponse> getCurrentSnapshotStats(Collection<Car> cars) {
+        Map<UUID, Car> byId = cars.stream().collect(Collectors.toMap(Car::getId, Function.identity()));
+        Map<UUID, CarStatsResponse> result = new HashMap<>();
+        if (byId.isEmpty()) {
+            return result;
+        }
+        statsRepository.findAllById(byId.keySet()).forEach(snapshot -> {
+            Car car = byId.get(snapshot.getCarId());
+            if (car != null && Objects.equals(snapshot.getDataVersion(), car.getDataVersion())) {
+                result.put(car.getId(), toResponse(car, snapshot));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Compute a car's statistics from its fillups, ignoring the snapshot and the coalescer.
+     * Used by the startup warmup to exercise the stats code path.
+     */
+    @Transactional(readOnly = true)
+    public CarStatsResponse computeCarStats(UUID carId) {
+        return computeStats(getCarById(carId));
+    }
+
+    /**
+     * Recompute and store a car's stats snapshot. Called by the outbox worker.
+     *
+     * @return the car the snapshot was computed for, or empty if it no longer exists or is being deleted
+     */
+    public Optional<Car> refreshStatsSnapshot(UUID carId) {
+        Optional<Car> car = carRepository.findById(carId).filter(c -> c.getDeletingSince() == null);
+        car.ifPresent(c -> {
+            CarStatsResponse stats = computeStats(c);
+            statsRepository.upsert(carId, c.getDataVersion(), stats.totalFillups(), stats.totalDistance(),
+                    stats.totalFuelUsed(), stats.totalSpent(), stats.averageMpg(), stats.bestMpg(),
+                    stats.worstMpg(), stats.averagePricePerUnit());
+        });
+        return car;
+    }
+
+    /**
+     * Compute statistics from the fillups.
+     * <p>
+     * Compacted history is included through its monthly segments, so the totals are the same
+     * as if every fillup were still in the hot table. With {@code anomaly.exclude-from-averages},
+     * flagged fillups still count towards the totals but not towards average, best or worst MPG;
+     * segments keep flagged MPGs apart so compacted history follows the option too.
+     */
+    private CarStatsResponse computeStats(Car car) {
+        UUID carId = car.getId();
+        boolean compacted = car.getArchivedThroughOdometer() != null;
         List<Fillup> fillups = fillupRepository.findByCarIdOrderByOdometerAsc(carId);
+        List<FillupSegment> segments = compacted
+                ? segmentRepository.findByCarId(carId)
+                : List.of();
 
-        if (fillups.isEmpty()) {
+        if (fillups.isEmpty() && segments.isEmpty()) {
             return new CarStatsResponse(
                     carId,
                     car.getName(),
@@ -127,36 +235,52 @@ public class CarService {
             );
         }
 
-        long totalFillups = fillups.size();
-        long totalDistance = fillups.getLast().getOdometer() - fillups.getFirst().getOdometer();
-        BigDecimal totalFuelUsed = fillups.stream()
-                .map(Fillup::getFuelVolume)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalSpent = fillups.stream()
-                .map(Fillup::getTotalCost)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal averagePricePerUnit = fillups.stream()
-                .map(Fillup::getPricePerUnit)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
+        long totalFillups = fillups.size() + segments.stream().mapToLong(FillupSegment::getFillupCount).sum();
+        long firstOdometer = segments.stream().mapToLong(FillupSegment::getFirstOdometer).min()
+                .orElseGet(() -> fillups.getFirst().getOdometer());
+        long lastOdometer = fillups.isEmpty()
+                ? segments.stream().mapToLong(FillupSegment::getLastOdometer).max().orElseThrow()
+                : fillups.getLast().getOdometer();
+        long totalDistance = lastOdometer - firstOdometer;
+
+        BigDecimal totalFuelUsed = sum(fillups.stream().map(Fillup::getFuelVolume))
+                .add(sum(segments.stream().map(FillupSegment::getTotalFuel)));
+        BigDecimal totalSpent = sum(fillups.stream().map(Fillup::getTotalCost))
+                .add(sum(segments.stream().map(FillupSegment::getTotalCost)));
+        BigDecimal averagePricePerUnit = sum(fillups.stream().map(Fillup::getPricePerUnit))
+                .add(sum(segments.stream().map(FillupSegment::getPricePerUnitSum)))
                 .divide(BigDecimal.valueOf(totalFillups), 3, RoundingMode.HALF_UP);
 
-        // Calculate MPG for each fillup
-        List<BigDecimal> mpgValues = new ArrayList<>();
-        for (Fillup fillup : fillups) {
-            Optional<BigDecimal> mpg = fillupService.calculateMPG(fillup);
-            mpg.ifPresent(mpgValues::add);
+        // Calculate MPG for all fillups in one pass over the ordered history
+        Map<UUID, BigDecimal> mpgById = fillupService.calculateMPGs(fillups, !compacted);
+        if (anomalyProperties.isExcludeFromAverages()) {
+            mpgById = new HashMap<>(mpgById);
+            for (Fillup fillup : fillups) {
+                if (fillup.getAnomaly() != null) {
+                    mpgById.remove(fillup.getId());
+                }
+            }
         }
+        Collection<BigDecimal> mpgValues = mpgById.values();
+        boolean includeFlagged = !anomalyProperties.isExcludeFromAverages();
 
+        long mpgCount = mpgValues.size() + segments.stream().mapToLong(s -> s.mpgCount(includeFlagged)).sum();
         BigDecimal averageMpg = null;
         BigDecimal bestMpg = null;
         BigDecimal worstMpg = null;
 
-        if (!mpgValues.isEmpty()) {
-            averageMpg = mpgValues.stream()
-                    .reduce(BigDecimal.ZERO, BigDecimal::add)
-                    .divide(BigDecimal.valueOf(mpgValues.size()), 2, RoundingMode.HALF_UP);
-            bestMpg = mpgValues.stream().max(BigDecimal::compareTo).orElse(null);
-            worstMpg = mpgValues.stream().min(BigDecimal::compareTo).orElse(null);
+        if (mpgCount > 0) {
+            averageMpg = sum(mpgValues.stream())
+                    .add(sum(segments.stream().map(s -> s.mpgSum(includeFlagged))))
+                    .divide(BigDecimal.valueOf(mpgCount), 2, RoundingMode.HALF_UP);
+            bestMpg = Stream.concat(mpgValues.stream(), segments.stream().map(s -> s.bestMpg(includeFlagged)))
+                    .filter(Objects::nonNull)
+                    .max(BigDecimal::compareTo)
+                    .orElse(null);
+            worstMpg = Stream.concat(mpgValues.stream(), segments.stream().map(s -> s.worstMpg(includeFlagged)))
+                    .filter(Objects::nonNull)
+                    .min(BigDecimal::compareTo)
+                    .orElse(null);
         }
 
         return new CarStatsResponse(
@@ -172,4 +296,23 @@ public class CarService {
                 averagePricePerUnit
         );
     }
+
+    private static CarStatsResponse toResponse(Car car, CarStatsSnapshot snapshot) {
+        return new CarStatsResponse(
+                car.getId(),
+                car.getName(),
+                snapshot.getTotalFillups(),
+                snapshot.getTotalDistance(),
+                snapshot.getTotalFuelUsed(),
+                snapshot.getTotalSpent(),
+                snapshot.getAverageMpg(),
+                snapshot.getBestMpg(),
+                snapshot.getWorstMpg(),
+                snapshot.getAveragePricePerUnit()
+        );
+    }
+
+    private static BigDecimal sum(Stream<BigDecimal> values) {
+        return values.reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
 }
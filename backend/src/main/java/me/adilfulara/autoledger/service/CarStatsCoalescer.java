@@ -0,0 +1,49 @@
+package me.adilfulara.autoledger.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import me.adilfulara.autoledger.api.dto.CarStatsResponse;
+import me.adilfulara.autoledger.cache.SingleFlight;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Shares one stats computation between concurrent requests for the same car and data version.
+ *
+ * <p>A dashboard fanning out, or several agent sessions asking about the same car, would otherwise
+ * each load the full fillup history and compute the same stats. The data version is part of the
+ * key, so a caller never receives stats computed for older data than it read.
+ */
+@Component
+public class CarStatsCoalescer {
+
+    static final String METRIC_NAME = "autoledger.stats.computations";
+
+    private record Key(UUID carId, Long dataVersion) {}
+
+    private final SingleFlight<Key, CarStatsResponse> flights = new SingleFlight<>();
+    private final Counter computed;
+    private final Counter shared;
+
+    public CarStatsCoalescer(MeterRegistry meterRegistry) {
+        this.computed = Counter.builder(METRIC_NAME)
+                .description("Stats requests that fell back to a full computation, by whether they ran or shared one")
+                .tag("result", "computed")
+                .register(meterRegistry);
+        this.shared = Counter.builder(METRIC_NAME)
+                .description("Stats requests that fell back to a full computation, by whether they ran or shared one")
+                .tag("result", "shared")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Compute a car's stats at a data version, or wait for an identical computation in flight.
+     */
+    public CarStatsResponse compute(UUID carId, Long dataVersion, Supplier<CarStatsResponse> computation) {
+        SingleFlight.Flight<CarStatsResponse> flight = flights.run(new Key(carId, dataVersion), computation);
+        (flight.shared() ? shared : computed).increment();
+        return flight.value();
+    }
+}
@@ -0,0 +1,355 @@
+package me.adilfulara.autoledger.service;
+
+import me.adilfulara.autoledger.anomaly.FillupAnomalyDetector;
+import me.adilfulara.autoledger.api.dto.BatchFillupRequest;
+import me.adilfulara.autoledger.api.dto.BatchFillupResponse;
+import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
+import me.adilfulara.autoledger.api.dto.UpdateFillupRequest;
+import me.adilfulara.autoledger.api.exception.InvalidOdometerException;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.distribution.FillupDistributionRecorder;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.ChangeType;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupAnomaly;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.outbox.CarDataChangedEvent;
+import me.adilfulara.autoledger.outbox.OutboxRecorder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Applies batches of fillup creates, updates and deletes, possibly across several cars.
+ * <p>
+ * A batch is validated once, in memory: the touched cars and their histories are loaded in a
+ * fixed number of queries, the batch is applied to the in-memory histories, and each car's
+ * resulting history is checked for odometer monotonicity. Only then are the writes issued, as
+ * one JDBC batch per statement type, in a single transaction, so the batch is all-or-nothing.
+ */
+@Service
+public class FillupBatchService {
+
+    private static final Comparator<Fillup> BY_DATE =
+            Comparator.comparing(Fillup::getDate).thenComparing(Fillup::getOdometer);
+
+    private final FillupRepository fillupRepository;
+    private final CarRepository carRepository;
+    private final FillupService fillupService;
+    private final OutboxRecorder outboxRecorder;
+    private final FillupAnomalyDetector anomalyDetector;
+    private final FillupDistributionRecorder distributionRecorder;
+
+    public FillupBatchService(FillupRepository fillupRepository, CarRepository carRepository,
+                              FillupService fillupService, OutboxRecorder outboxRecorder,
+                              FillupAnomalyDetector anomalyDetector,
+                              FillupDistributionRecorder distributionRecorder) {
+        this.fillupRepository = fillupRepository;
+        this.carRepository = carRepository;
+        this.fillupService = fillupService;
+        this.outboxRecorder = outboxRecorder;
+        this.anomalyDetector = anomalyDetector;
+        this.distributionRecorder = distributionRecorder;
+    }
+
+    /**
+     * Validate and apply a batch.
+     *
+     * @throws IllegalArgumentException  if the batch is empty or names a fillup more than once
+     * @throws ResourceNotFoundException if a car or fillup does not exist
+     * @throws InvalidOdometerException  if a created or updated fillup breaks odometer order
+     */
+    @Transactional
+    public BatchFillupResponse apply(BatchFillupRequest request) {
+        List<UUID> referencedIds = new ArrayList<>(request.delete());
+        request.update().forEach(u -> referencedIds.add(u.id()));
+        if (referencedIds.isEmpty() && request.create().isEmpty()) {
+            throw new IllegalArgumentException("Batch is empty");
+        }
+        Set<UUID> seen = new HashSet<>();
+        for (UUID id : referencedIds) {
+            if (!seen.add(id)) {
+                throw new IllegalArgumentException("Fillup " + id + " appears more than once in the batch");
+            }
+        }
+
+        Set<UUID> carIds = new HashSet<>();
+        request.create().forEach(c -> carIds.add(c.carId()));
+        if (!referencedIds.isEmpty()) {
+            Map<UUID, Fillup> referenced = toMap(fillupRepository.findAllById(referencedIds));
+            for (UUID id : referencedIds) {
+                Fillup fillup = referenced.get(id);
+                if (fillup == null) {
+                    throw new ResourceNotFoundException("Fillup", id);
+                }
+                carIds.add(fillup.getCarId());
+            }
+        }
+        Map<UUID, Car> cars = new HashMap<>();
+        carRepository.findAllById(carIds).forEach(car -> {
+            if (car.getDeletingSince() == null) {
+                cars.put(car.getId(), car);
+            }
+        });
+        for (UUID carId : carIds) {
+            if (!cars.containsKey(carId)) {
+                throw new ResourceNotFoundException("Car", carId);
+            }
+        }
+
+        // Apply the batch to the in-memory histories
+        Map<UUID, List<Fillup>> histories = fillupRepository.findByCarIdIn(carIds).stream()
+                .collect(Collectors.groupingBy(Fillup::getCarId, TreeMap::new, Collectors.toList()));
+        carIds.forEach(carId -> histories.computeIfAbsent(carId, id -> new ArrayList<>()));
+        // Applying updates mutates the loaded fillups, so keep copies to tell what the batch changed
+        Map<UUID, List<Fillup>> originals = new HashMap<>();
+        histories.forEach((carId, history) -> originals.put(carId,
+                history.stream().map(FillupBatchService::copy).toList()));
+        Map<UUID, Fillup> byId = histories.values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(Fillup::getId, Function.identity()));
+        // Sorted by car so concurrent batches take the owners' row locks in the same order
+        Map<UUID, List<CarDataChangedEvent.Change>> changes = new TreeMap<>();
+        Instant now = Instant.now();
+
+        List<Fillup> deleted = new ArrayList<>();
+        for (UUID id : request.delete()) {
+            Fillup fillup = byId.get(id);
+            histories.get(fillup.getCarId()).removeIf(f -> f.getId().equals(id));
+            deleted.add(fillup);
+            change(changes, fillup, ChangeType.FILLUP_DELETED);
+        }
+
+        List<Fillup> updated = new ArrayList<>();
+        for (BatchFillupRequest.Update update : request.update()) {
+            Fillup fillup = byId.get(update.id());
+            applyChanges(fillup, update.changes());
+            fillup.setUpdatedAt(now);
+            updated.add(fillup);
+            change(changes, fillup, ChangeType.FILLUP_UPDATED);
+        }
+
+        List<Fillup> created = new ArrayList<>();
+        for (CreateFillupRequest create : request.create()) {
+            Fillup fillup = new Fillup(create.carId(), create.date(), create.odometer(), create.fuelVolume(),
+                    create.pricePerUnit(), create.totalCost(), create.isPartialOrDefault(),
+                    create.isMissedOrDefault());
+            fillup.setId(UUID.randomUUID());
+            fillup.setCreatedAt(now);
+            fillup.setUpdatedAt(now);
+            histories.get(fillup.getCarId()).add(fillup);
+            created.add(fillup);
+            change(changes, fillup, ChangeType.FILLUP_ADDED);
+        }
+
+        Set<UUID> written = new HashSet<>();
+        updated.forEach(f -> written.add(f.getId()));
+        created.forEach(f -> written.add(f.getId()));
+        histories.values().forEach(history -> validateOdometers(history, written));
+
+        // Sketched values of cars whose existing history the batch changed, read before the writes
+        // since the MPG of a compacted car's first hot fillup is looked up in the database
+        Map<UUID, Map<UUID, FillupDistributionRecorder.Sample>> distributionsBefore = new HashMap<>();
+        Map<UUID, List<Fillup>> createdByCar = byCar(created);
+        changes.forEach((carId, carChanges) -> {
+            if (!appendedOnly(carChanges, createdByCar.getOrDefault(carId, List.of()), histories.get(carId))) {
+                List<Fillup> original = originals.get(carId);
+                distributionsBefore.put(carId, FillupDistributionRecorder.Sample.of(original,
+                        fillupService.calculateMPGs(original, cars.get(carId).getArchivedThroughOdometer() == null)));
+            }
+        });
+
+        // Record the changes, then write the rows stamped with their change sequence numbers
+        Map<UUID, Long> changeSeqById = new HashMap<>();
+        changes.forEach((carId, carChanges) -> {
+            long first = outboxRecorder.recordAll(carId, carChanges);
+            for (int i = 0; i < carChanges.size(); i++) {
+                changeSeqById.put(carChanges.get(i).entityId(), first + i);
+            }
+        });
+        fillupRepository.batchDelete(deleted);
+        fillupRepository.batchUpdate(updated, changeSeqById);
+        fillupRepository.batchInsert(created, changeSeqById);
+
+        // MPG of every touched car from the in-memory histories, without further queries for uncompacted cars
+        Map<UUID, BigDecimal> mpgById = new HashMap<>();
+        changes.keySet().forEach(carId -> mpgById.putAll(fillupService.calculateMPGs(histories.get(carId),
+                cars.get(carId).getArchivedThroughOdometer() == null)));
+        fillupRepository.batchMarkAnomalies(flagAnomalies(created, updated, histories, mpgById));
+        recordDistributions(cars, createdByCar, distributionsBefore, changes, histories, mpgById);
+
+        return new BatchFillupResponse(
+                created.stream().map(f -> FillupResponse.from(f, mpgById.get(f.getId()))).toList(),
+                updated.stream().map(f -> FillupResponse.from(f, mpgById.get(f.getId()))).toList(),
+                deleted.stream().map(Fillup::getId).toList());
+    }
+
+    /**
+     * Check each car's written fillups against its baseline, learning the created ones in odometer
+     * order, with MPG from the in-memory histories.
+     *
+     * @return the written fillups whose flag changed, with the new flag set
+     */
+    private List<Fillup> flagAnomalies(List<Fillup> created, List<Fillup> updated,
+                                       Map<UUID, List<Fillup>> histories, Map<UUID, BigDecimal> mpgById) {
+        List<Fillup> changed = new ArrayList<>();
+        if (!anomalyDetector.isEnabled()) {
+            return changed;
+        }
+        Map<UUID, List<Fillup>> createdByCar = byCar(created);
+        Map<UUID, List<Fillup>> updatedByCar = byCar(updated);
+        Set<UUID> carIds = new TreeSet<>(createdByCar.keySet());
+        carIds.addAll(updatedByCar.keySet());
+
+        for (UUID carId : carIds) {
+            List<Fillup> carCreated = createdByCar.getOrDefault(carId, List.of());
+            List<Fillup> carUpdated = updatedByCar.getOrDefault(carId, List.of());
+            Set<UUID> written = Stream.concat(carCreated.stream(), carUpdated.stream())
+                    .map(Fillup::getId)
+                    .collect(Collectors.toSet());
+            Map<UUID, FillupAnomaly> flagged = anomalyDetector.detect(carId,
+                    samples(carCreated.stream(), mpgById),
+                    samples(carUpdated.stream(), mpgById),
+                    () -> samples(histories.get(carId).stream().filter(f -> !written.contains(f.getId())), mpgById));
+            Stream.concat(carCreated.stream(), carUpdated.stream()).forEach(fillup -> {
+                FillupAnomaly anomaly = flagged.get(fillup.getId());
+                if (anomaly != fillup.getAnomaly()) {
+                    fillup.setAnomaly(anomaly);
+                    changed.add(fillup);
+                }
+            });
+        }
+        return changed;
+    }
+
+    /**
+     * Fold each car's created fillups into its distribution sketches when the batch only appended
+     * to the car's history; otherwise move the values the batch changed, comparing the car's
+     * in-memory history before and after the batch.
+     */
+    private void recordDistributions(Map<UUID, Car> cars, Map<UUID, List<Fillup>> createdByCar,
+                                     Map<UUID, Map<UUID, FillupDistributionRecorder.Sample>> distributionsBefore,
+                                     Map<UUID, List<CarDataChangedEvent.Change>> changes,
+                                     Map<UUID, List<Fillup>> histories, Map<UUID, BigDecimal> mpgById) {
+        changes.keySet().forEach(carId -> {
+            List<Fillup> history = histories.get(carId);
+            Supplier<FillupDistributionRecorder.History> carHistory =
+                    () -> new FillupDistributionRecorder.History(history, mpgById);
+            Map<UUID, FillupDistributionRecorder.Sample> before = distributionsBefore.get(carId);
+            if (before == null) {
+                distributionRecorder.recordAppended(cars.get(carId), createdByCar.getOrDefault(carId, List.of()),
+                        mpgById, carHistory);
+            } else {
+                distributionRecorder.recordChanged(cars.get(carId), before,
+                        FillupDistributionRecorder.Sample.of(history, mpgById), carHistory);
+            }
+        });
+    }
+
+    /**
+     * Whether a car's changes are all creates of fillups past every fillup it already had.
+     */
+    private static boolean appendedOnly(List<CarDataChangedEvent.Change> changes, List<Fillup> created,
+                                        List<Fillup> history) {
+        if (changes.stream().anyMatch(c -> c.type() != ChangeType.FILLUP_ADDED)) {
+            return false;
+        }
+        Set<UUID> createdIds = created.stream().map(Fillup::getId).collect(Collectors.toSet());
+        long lastExisting = history.stream()
+                .filter(f -> !createdIds.contains(f.getId()))
+                .mapToLong(Fillup::getOdometer)
+                .max()
+                .orElse(Long.MIN_VALUE);
+        return created.stream().allMatch(f -> f.getOdometer() > lastExisting);
+    }
+
+    private static Map<UUID, List<Fillup>> byCar(List<Fillup> fillups) {
+        return fillups.stream()
+                .sorted(Comparator.comparing(Fillup::getOdometer))
+                .collect(Collectors.groupingBy(Fillup::getCarId));
+    }
+
+    private static List<FillupAnomalyDetector.Sample> samples(Stream<Fillup> fillups, Map<UUID, BigDecimal> mpgById) {
+        return fillups.map(f -> FillupAnomalyDetector.Sample.of(f, mpgById.get(f.getId()))).toList();
+    }
+
+    /**
+     * Check that each written fillup's odometer lies strictly between its neighbours by date.
+     * Only written fillups are checked, so pre-existing inconsistencies do not block a batch.
+     */
+    static void validateOdometers(List<Fillup> history, Set<UUID> written) {
+        history.sort(BY_DATE);
+        for (int i = 0; i < history.size(); i++) {
+            Fillup fillup = history.get(i);
+            if (!written.contains(fillup.getId())) {
+                continue;
+            }
+            if (i > 0 && history.get(i - 1).getOdometer() >= fillup.getOdometer()) {
+                throw new InvalidOdometerException(fillup.getOdometer(), history.get(i - 1).getOdometer());
+            }
+            if (i < history.size() - 1 && history.get(i + 1).getOdometer() <= fillup.getOdometer()) {
+                throw new InvalidOdometerException(history.get(i + 1).getOdometer(), fillup.getOdometer());
+            }
+        }
+    }
+
+    private static void applyChanges(Fillup fillup, UpdateFillupRequest request) {
+        if (request.date() != null) {
+            fillup.setDate(request.date());
+        }
+        if (request.odometer() != null) {
+            fillup.setOdometer(request.odometer());
+        }
+        if (request.fuelVolume() != null) {
+            fillup.setFuelVolume(request.fuelVolume());
+        }
+        if (request.pricePerUnit() != null) {
+            fillup.setPricePerUnit(request.pricePerUnit());
+        }
+        if (request.totalCost() != null) {
+            fillup.setTotalCost(request.totalCost());
+        }
+        if (request.isPartial() != null) {
+            fillup.setIsPartial(request.isPartial());
+        }
+        if (request.isMissed() != null) {
+            fillup.setIsMissed(request.isMissed());
+        }
+    }
+
+    private static void change(Map<UUID, List<CarDataChangedEvent.Change>> changes, Fillup fillup, ChangeType type) {
+        changes.computeIfAbsent(fillup.getCarId(), id -> new ArrayList<>())
+                .add(new CarDataChangedEvent.Change(type, fillup.getId()));
+    }
+
+    private static Fillup copy(Fillup fillup) {
+        Fillup copy = new Fillup(fillup.getCarId(), fillup.getDate(), fillup.getOdometer(), fillup.getFuelVolume(),
+                fillup.getPricePerUnit(), fillup.getTotalCost(), fillup.getIsPartial(), fillup.getIsMissed());
+        copy.setId(fillup.getId());
+        return copy;
+    }
+
+    private static Map<UUID, Fillup> toMap(Iterable<Fillup> fillups) {
+        Map<UUID, Fillup> map = new HashMap<>();
+        fillups.forEach(f -> map.put(f.getId(), f));
+        return map;
+    }
+}
@@ -0,0 +1,164 @@
+package me.adilfulara.autoledger.service;
+
+import me.adilfulara.autoledger.api.dto.FillupRangeResponse;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.ArchivedFillup;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupArchiveRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Answers date-range questions ("what did I spend in Q3") without downloading whole histories.
+ * <p>
+ * The date range is applied in SQL, through the (car_id, date) indexes of the hot and archive
+ * tables. The partial, missed and price filters are applied afterwards, in memory: MPG depends on
+ * the partial fillups before a full one, so it is computed over the unfiltered range, which is a
+ * contiguous slice of each car's history, and only then are rows dropped. Aggregates cover the
+ * filtered rows.
+ */
+@Service
+@Transactional(readOnly = true)
+public class FillupRangeService {
+
+    private static final Comparator<FillupResponse> NEWEST_FIRST =
+            Comparator.comparing(FillupResponse::date).reversed();
+
+    private final FillupRepository fillupRepository;
+    private final FillupArchiveRepository archiveRepository;
+    private final CarRepository carRepository;
+    private final FillupService fillupService;
+
+    public FillupRangeService(FillupRepository fillupRepository, FillupArchiveRepository archiveRepository,
+                              CarRepository carRepository, FillupService fillupService) {
+        this.fillupRepository = fillupRepository;
+        this.archiveRepository = archiveRepository;
+        this.carRepository = carRepository;
+        this.fillupService = fillupService;
+    }
+
+    /**
+     * Filters of a range query. Null filters match every fillup.
+     *
+     * @param from     start of the range (inclusive)
+     * @param to       end of the range (exclusive)
+     * @param partial  only partial fillups if true, only full ones if false
+     * @param missed   only fillups after a missed one if true, only others if false
+     * @param minPrice lowest price per unit (inclusive)
+     * @param maxPrice highest price per unit (inclusive)
+     */
+    public record Filter(Instant from, Instant to, Boolean partial, Boolean missed,
+                         BigDecimal minPrice, BigDecimal maxPrice) {
+
+        /**
+         * @throws IllegalArgumentException if the range is empty or the price bounds are inverted
+         */
+        public Filter {
+            Objects.requireNonNull(from, "from");
+            Objects.requireNonNull(to, "to");
+            if (!from.isBefore(to)) {
+                throw new IllegalArgumentException("from must be before to");
+            }
+            if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+                throw new IllegalArgumentException("minPrice must not exceed maxPrice");
+            }
+        }
+
+        boolean matches(FillupResponse fillup) {
+            return (partial == null || partial.equals(fillup.isPartial()))
+                    && (missed == null || missed.equals(fillup.isMissed()))
+                    && (minPrice == null || fillup.pricePerUnit().compareTo(minPrice) >= 0)
+                    && (maxPrice == null || fillup.pricePerUnit().compareTo(maxPrice) <= 0);
+        }
+    }
+
+    /**
+     * Query one car's fillups, including compacted history.
+     *
+     * @throws ResourceNotFoundException if the car does not exist or is being deleted
+     */
+    public FillupRangeResponse getCarFillups(UUID carId, Filter filter) {
+        Car car = carRepository.findById(carId)
+                .filter(c -> c.getDeletingSince() == null)
+                .orElseThrow(() -> new ResourceNotFoundException("Car", carId));
+        List<Fillup> hot = fillupRepository.findByCarIdAndDateRange(carId, filter.from(), filter.to());
+        List<ArchivedFillup> archived = car.getArchivedThroughOdometer() == null
+                ? List.of()
+                : archiveRepository.findByCarIdAndDateRange(carId, filter.from(), filter.to());
+        return respond(filter, hot, archived);
+    }
+
+    /**
+     * Query the fillups of all of a user's cars, including compacted history.
+     */
+    public FillupRangeResponse getUserFillups(UUID userId, Filter filter) {
+        List<Fillup> hot = fillupRepository.findByUserIdAndDateRange(userId, filter.from(), filter.to());
+        List<ArchivedFillup> archived = archiveRepository.findByUserIdAndDateRange(userId, filter.from(), filter.to());
+        return respond(filter, hot, archived);
+    }
+
+    private FillupRangeResponse respond(Filter filter, List<Fillup> hot, List<ArchivedFillup> archived) {
+        List<FillupResponse> fillups = new ArrayList<>(hot.size() + archived.size());
+        hot.stream()
+                .collect(Collectors.groupingBy(Fillup::getCarId))
+                .values()
+                .forEach(carFillups -> {
+                    Map<UUID, BigDecimal> mpgById = fillupService.calculateMPGs(carFillups);
+                    carFillups.forEach(f -> fillups.add(FillupResponse.from(f, mpgById.get(f.getId()))));
+                });
+        archived.forEach(f -> fillups.add(FillupResponse.from(f)));
+
+        List<FillupResponse> matching = fillups.stream()
+                .filter(filter::matches)
+                .sorted(NEWEST_FIRST)
+                .toList();
+
+        Map<UUID, List<FillupResponse>> byCar = matching.stream()
+                .collect(Collectors.groupingBy(FillupResponse::carId, LinkedHashMap::new, Collectors.toList()));
+        List<FillupRangeResponse.CarTotals> cars = byCar.entrySet().stream()
+                .map(e -> totals(e.getKey(), e.getValue()))
+                .toList();
+        BigDecimal totalCost = sum(cars.stream().map(FillupRangeResponse.CarTotals::totalCost));
+
+        return new FillupRangeResponse(filter.from(), filter.to(), matching.size(), totalCost, cars, matching);
+    }
+
+    static FillupRangeResponse.CarTotals totals(UUID carId, List<FillupResponse> fillups) {
+        List<BigDecimal> prices = fillups.stream().map(FillupResponse::pricePerUnit).toList();
+        List<BigDecimal> mpgs = fillups.stream().map(FillupResponse::mpg).filter(Objects::nonNull).toList();
+        BigDecimal averageMpg = mpgs.isEmpty()
+                ? null
+                : sum(mpgs.stream()).divide(BigDecimal.valueOf(mpgs.size()), 2, RoundingMode.HALF_UP);
+        return new FillupRangeResponse.CarTotals(
+                carId,
+                fillups.size(),
+                sum(fillups.stream().map(FillupResponse::fuelVolume)),
+                sum(fillups.stream().map(FillupResponse::totalCost)),
+                sum(prices.stream()).divide(BigDecimal.valueOf(prices.size()), 3, RoundingMode.HALF_UP),
+                prices.stream().min(BigDecimal::compareTo).orElseThrow(),
+                prices.stream().max(BigDecimal::compareTo).orElseThrow(),
+                averageMpg
+        );
+    }
+
+    private static BigDecimal sum(Stream<BigDecimal> values) {
+        return values.reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
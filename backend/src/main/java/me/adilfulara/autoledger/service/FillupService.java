@@ -1,15 +1,36 @@
 package me.adilfulara.autoledger.service;
 
+import me.adilfulara.autoledger.anomaly.FillupAnomalyDetector;
+import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.dto.UpdateFillupRequest;
+import me.adilfulara.autoledger.api.exception.InvalidOdometerException;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.distribution.FillupDistributionRecorder;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.ChangeType;
 import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupAnomaly;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
 import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.outbox.OutboxRecorder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Service for Fillup-related business logic including MPG calculation.
+ * <p>
+ * Writes validate, persist, flag outliers against the car's baseline, record an outbox event and
+ * update the car's distribution sketches; other derived data (stats snapshots, change
+ * notifications) is maintained asynchronously by the outbox worker.
  */
 @Service
 public class FillupService {
@@ -17,9 +38,179 @@ public class FillupService {
     private static final int MPG_SCALE = 2;
 
     private final FillupRepository fillupRepository;
+    private final CarRepository carRepository;
+    private final OutboxRecorder outboxRecorder;
+    private final FillupAnomalyDetector anomalyDetector;
+    private final FillupDistributionRecorder distributionRecorder;
 
-    public FillupService(FillupRepository fillupRepository) {
+    public FillupService(FillupRepository fillupRepository, CarRepository carRepository,
+                         OutboxRecorder outboxRecorder, FillupAnomalyDetector anomalyDetector,
+                         FillupDistributionRecorder distributionRecorder) {
         this.fillupRepository = fillupRepository;
+        this.carRepository = carRepository;
+        this.outboxRecorder = outboxRecorder;
+        this.anomalyDetector = anomalyDetector;
+        this.distributionRecorder = distributionRecorder;
+    }
+
+    /**
+     * Create a new fillup.
+     *
+     * @throws ResourceNotFoundException if the car does not exist
+     * @throws InvalidOdometerException  if the odometer is not above the car's most recent reading
+     */
+    @Transactional
+    public Fillup createFillup(CreateFillupRequest request) {
+        if (!carRepository.existsActiveById(request.carId())) {
+            throw new ResourceNotFoundException("Car", request.carId());
+        }
+
+        // Validate odometer is greater than previous
+        Optional<Fillup> mostRecent = fillupRepository.findMostRecentByCarId(request.carId());
+        if (mostRecent.isPresent() && request.odometer() <= mostRecent.get().getOdometer()) {
+            throw new InvalidOdometerException(request.odometer(), mostRecent.get().getOdometer());
+        }
+
+        Fillup fillup = new Fillup(
+                request.carId(),
+                request.date(),
+                request.odometer(),
+                request.fuelVolume(),
+                request.pricePerUnit(),
+                request.totalCost(),
+                request.isPartialOrDefault(),
+                request.isMissedOrDefault()
+        );
+
+        Fillup saved = fillupRepository.save(fillup);
+        BigDecimal mpg = calculateMPG(saved).orElse(null);
+        flagAnomaly(saved, mpg, true);
+        Car car = outboxRecorder.record(ChangeType.FILLUP_ADDED, saved.getCarId(), saved.getId());
+        // The odometer check above makes every created fillup the car's latest
+        distributionRecorder.recordAppended(car, List.of(saved),
+                mpg == null ? Map.of() : Map.of(saved.getId(), mpg), () -> history(car));
+        return saved;
+    }
+
+    /**
+     * Update an existing fillup; null fields in the request are left unchanged.
+     *
+     * @throws ResourceNotFoundException if the fillup does not exist or its car is being deleted
+     */
+    @Transactional
+    public Fillup updateFillup(UUID id, UpdateFillupRequest request) {
+        Fillup fillup = findActiveFillup(id);
+        long from = fillup.getOdometer();
+        long to = fillup.getOdometer();
+        if (request.odometer() != null) {
+            from = Math.min(from, request.odometer());
+            to = Math.max(to, request.odometer());
+        }
+        Map<UUID, FillupDistributionRecorder.Sample> before = distributionSamples(fillup.getCarId(), from, to);
+
+        if (request.date() != null) {
+            fillup.setDate(request.date());
+        }
+        if (request.odometer() != null) {
+            fillup.setOdometer(request.odometer());
+        }
+        if (request.fuelVolume() != null) {
+            fillup.setFuelVolume(request.fuelVolume());
+        }
+        if (request.pricePerUnit() != null) {
+            fillup.setPricePerUnit(request.pricePerUnit());
+        }
+        if (request.totalCost() != null) {
+            fillup.setTotalCost(request.totalCost());
+        }
+        if (request.isPartial() != null) {
+            fillup.setIsPartial(request.isPartial());
+        }
+        if (request.isMissed() != null) {
+            fillup.setIsMissed(request.isMissed());
+        }
+
+        Fillup saved = fillupRepository.save(fillup);
+        flagAnomaly(saved, calculateMPG(saved).orElse(null), false);
+        Car car = outboxRecorder.record(ChangeType.FILLUP_UPDATED, saved.getCarId(), saved.getId());
+        distributionRecorder.recordChanged(car, before, distributionSamples(saved.getCarId(), from, to),
+                () -> history(car));
+        return saved;
+    }
+
+    /**
+     * Delete a fillup.
+     *
+     * @throws ResourceNotFoundException if the fillup does not exist or its car is being deleted
+     */
+    @Transactional
+    public void deleteFillup(UUID id) {
+        Fillup fillup = findActiveFillup(id);
+        long odometer = fillup.getOdometer();
+        Map<UUID, FillupDistributionRecorder.Sample> before = distributionSamples(fillup.getCarId(), odometer, odometer);
+        fillupRepository.deleteById(id);
+        Car car = outboxRecorder.record(ChangeType.FILLUP_DELETED, fillup.getCarId(), id);
+        distributionRecorder.recordChanged(car, before, distributionSamples(fillup.getCarId(), odometer, odometer),
+                () -> history(car));
+    }
+
+    /**
+     * Load a fillup whose car is not being deleted; a hidden car's fillups are hidden with it.
+     *
+     * @throws ResourceNotFoundException if the fillup does not exist or its car is being deleted
+     */
+    private Fillup findActiveFillup(UUID id) {
+        Fillup fillup = fillupRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Fillup", id));
+        if (!carRepository.existsActiveById(fillup.getCarId())) {
+            throw new ResourceNotFoundException("Fillup", id);
+        }
+        return fillup;
+    }
+
+    /**
+     * Check a written fillup against its car's baseline and store the resulting flag if it changed.
+     * A created fillup is also learned into the baseline; the car's history is only read when the
+     * car has no baseline yet, so an edit bootstraps it just like a create.
+     */
+    private void flagAnomaly(Fillup saved, BigDecimal mpg, boolean created) {
+        if (!anomalyDetector.isEnabled()) {
+            return;
+        }
+        FillupAnomalyDetector.Sample sample = FillupAnomalyDetector.Sample.of(saved, mpg);
+        Map<UUID, FillupAnomaly> flagged = anomalyDetector.detect(saved.getCarId(),
+                created ? List.of(sample) : List.of(), created ? List.of() : List.of(sample),
+                () -> historySamples(saved));
+        FillupAnomaly anomaly = flagged.get(saved.getId());
+        if (anomaly != saved.getAnomaly()) {
+            fillupRepository.markAnomaly(saved.getId(), saved.getCarId(), anomaly == null ? null : anomaly.name());
+            saved.setAnomaly(anomaly);
+        }
+    }
+
+    /**
+     * Distribution samples of the fillups a write between two odometer readings can change. The
+     * range is the same before and after the write, since the written fillup lies within it.
+     */
+    private Map<UUID, FillupDistributionRecorder.Sample> distributionSamples(UUID carId, long from, long to) {
+        List<Fillup> affected = fillupRepository.findAffectedByOdometerRange(carId, from, to);
+        return FillupDistributionRecorder.Sample.of(affected, calculateMPGs(affected));
+    }
+
+    private FillupDistributionRecorder.History history(Car car) {
+        List<Fillup> fillups = fillupRepository.findByCarIdOrderByOdometerAsc(car.getId());
+        return new FillupDistributionRecorder.History(fillups,
+                calculateMPGs(fillups, car.getArchivedThroughOdometer() == null));
+    }
+
+    private List<FillupAnomalyDetector.Sample> historySamples(Fillup exclude) {
+        List<Fillup> history = fillupRepository.findByCarIdOrderByOdometerAsc(exclude.getCarId()).stream()
+                .filter(f -> !f.getId().equals(exclude.getId()))
+                .toList();
+        Map<UUID, BigDecimal> mpgById = calculateMPGs(history);
+        return history.stream()
+                .map(f -> FillupAnomalyDetector.Sample.of(f, mpgById.get(f.getId())))
+                .toList();
     }
 
     /**
@@ -72,6 +263,86 @@ public class FillupService {
         return Optional.of(mpg);
     }
 
+    /**
+     * Calculates MPG for a batch of fillups belonging to the same car.
+     * <p>
+     * Applies the same rules as {@link #calculateMPG(Fillup)}, but resolves anchors and fuel totals
+     * in memory by walking the fillups in odometer order, so listing N fillups costs no queries per row.
+     * The fillups must form a contiguous slice of the car's history (e.g., the full history, or the
+     * most recent N entries). Only the first full fillup in the slice, whose anchor may lie before
+     * the slice, falls back to {@link #calculateMPG(Fillup)}.
+     *
+     * @param fillups contiguous fillups of a single car, in any order
+     * @return MPG values (scale 2) keyed by fillup ID; fillups without MPG are absent
+     * @throws IllegalArgumentException if any fuel volume is zero/negative
+     */
+    public Map<UUID, BigDecimal> calculateMPGs(List<Fillup> fillups) {
+        return calculateMPGs(fillups, false);
+    }
+
+    /**
+     * Calculates MPG for a batch of fillups belonging to the same car.
+     * <p>
+     * When {@code completeHistory} is true the fillups are the car's entire history (nothing hot
+     * before them, nothing archived), so no anchor can precede the slice and the anchor lookup
+     * for the first full fillup is skipped.
+     *
+     * @param fillups         contiguous fillups of a single car, in any order
+     * @param completeHistory whether the fillups are the car's entire history
+     * @return MPG values (scale 2) keyed by fillup ID; fillups without MPG are absent
+     * @throws IllegalArgumentException if any fuel volume is zero/negative
+     * @see #calculateMPGs(List)
+     */
+    public Map<UUID, BigDecimal> calculateMPGs(List<Fillup> fillups, boolean completeHistory) {
+        List<Fillup> ordered = fillups.stream()
+                .sorted(Comparator.comparing(Fillup::getOdometer))
+                .toList();
+
+        Map<UUID, BigDecimal> result = new HashMap<>();
+        Long anchorOdometer = null;
+        BigDecimal fuelSinceAnchor = BigDecimal.ZERO;
+
+        int start = 0;
+        while (start < ordered.size()) {
+            // Fillups sharing an odometer reading are resolved together, matching the range queries
+            long odometer = ordered.get(start).getOdometer();
+            int end = start;
+            while (end < ordered.size() && ordered.get(end).getOdometer() == odometer) {
+                end++;
+            }
+            List<Fillup> group = ordered.subList(start, end);
+
+            for (Fillup fillup : group) {
+                validateFuelVolume(fillup.getFuelVolume());
+                fuelSinceAnchor = fuelSinceAnchor.add(fillup.getFuelVolume());
+            }
+
+            for (Fillup fillup : group) {
+                if (Boolean.TRUE.equals(fillup.getIsPartial()) || Boolean.TRUE.equals(fillup.getIsMissed())) {
+                    continue;
+                }
+                if (anchorOdometer == null) {
+                    // Anchor (if any) precedes this slice
+                    if (!completeHistory) {
+                        calculateMPG(fillup).ifPresent(mpg -> result.put(fillup.getId(), mpg));
+                    }
+                } else {
+                    BigDecimal mpg = BigDecimal.valueOf(odometer - anchorOdometer)
+                            .divide(fuelSinceAnchor, MPG_SCALE, RoundingMode.HALF_UP);
+                    result.put(fillup.getId(), mpg);
+                }
+            }
+
+            if (group.stream().anyMatch(f -> !Boolean.TRUE.equals(f.getIsPartial()))) {
+                anchorOdometer = odometer;
+                fuelSinceAnchor = BigDecimal.ZERO;
+            }
+            start = end;
+        }
+
+        return result;
+    }
+
     /**
      * Validates that fuel volume is positive.
      */
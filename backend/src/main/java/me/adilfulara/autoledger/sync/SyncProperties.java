@@ -0,0 +1,49 @@
+package me.adilfulara.autoledger.sync;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for delta sync.
+ *
+ * <p>Maps to {@code sync.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * sync:
+ *   tombstone-retention: 90d
+ *   prune-cron: "0 45 3 * * *"
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "sync")
+public class SyncProperties {
+
+    /**
+     * How long deletions are remembered. Clients that have not synced for longer get a full sync.
+     */
+    private Duration tombstoneRetention = Duration.ofDays(90);
+
+    /**
+     * When expired tombstones are pruned (Spring cron expression).
+     */
+    private String pruneCron = "0 45 3 * * *";
+
+    public Duration getTombstoneRetention() {
+        return tombstoneRetention;
+    }
+
+    public void setTombstoneRetention(Duration tombstoneRetention) {
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    public String getPruneCron() {
+        return pruneCron;
+    }
+
+    public void setPruneCron(String pruneCron) {
+        this.pruneCron = pruneCron;
+    }
+}
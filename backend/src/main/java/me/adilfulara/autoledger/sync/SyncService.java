@@ -0,0 +1,84 @@
+package me.adilfulara.autoledger.sync;
+
+import me.adilfulara.autoledger.api.dto.CarResponse;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
+import me.adilfulara.autoledger.api.dto.SyncResponse;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.SyncTombstoneRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Delta sync of a user's cars and fillups.
+ *
+ * <p>Every write takes the owner's next change sequence number (see
+ * {@link me.adilfulara.autoledger.outbox.OutboxRecorder}). A sync token carries the number the
+ * client is up to date with, and a sync returns the cars, fillups and tombstones stamped after it,
+ * all through indexes on the change sequence, so the cost follows the size of the change.
+ *
+ * <p>The current sequence number is read before the changes, so a write committing in between is
+ * sent now and again next time; applying a change twice is harmless. Tokens older than the
+ * pruned tombstones, or ahead of the user's sequence, get a full snapshot with {@code reset}.
+ */
+@Service
+public class SyncService {
+
+    /**
+     * Internal "since" for full snapshots: matches rows that predate change tracking (stamped 0).
+     */
+    private static final long EVERYTHING = -1;
+
+    private final UserRepository userRepository;
+    private final CarRepository carRepository;
+    private final FillupRepository fillupRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
+
+    public SyncService(UserRepository userRepository, CarRepository carRepository,
+                       FillupRepository fillupRepository, SyncTombstoneRepository tombstoneRepository) {
+        this.userRepository = userRepository;
+        this.carRepository = carRepository;
+        this.fillupRepository = fillupRepository;
+        this.tombstoneRepository = tombstoneRepository;
+    }
+
+    /**
+     * Get the changes after a sync token.
+     *
+     * @param userId the user's internal UUID
+     * @param token  token from the previous sync, or null for a full snapshot
+     * @throws IllegalArgumentException  if the token is malformed
+     * @throws ResourceNotFoundException if the user does not exist
+     */
+    @Transactional(readOnly = true)
+    public SyncResponse changesSince(UUID userId, String token) {
+        long since = token == null || token.isBlank() ? EVERYTHING : SyncToken.decode(token);
+        long current = userRepository.findChangeSeqById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
+
+        boolean reset = since == EVERYTHING;
+        if (!reset && (since > current || since < userRepository.findSyncFloorById(userId).orElse(0L))) {
+            since = EVERYTHING;
+            reset = true;
+        }
+
+        List<CarResponse> cars = carRepository.findChangedByUserIdSince(userId, since).stream()
+                .map(CarResponse::from)
+                .toList();
+        List<FillupResponse> fillups = fillupRepository.findChangedByUserIdSince(userId, since).stream()
+                .map(FillupResponse::from)
+                .toList();
+        List<SyncResponse.Deletion> deleted = reset
+                ? List.of()
+                : tombstoneRepository.findByUserIdSince(userId, since).stream()
+                        .map(SyncResponse.Deletion::from)
+                        .toList();
+
+        return new SyncResponse(SyncToken.encode(current), reset, cars, fillups, deleted);
+    }
+}
@@ -0,0 +1,39 @@
+package me.adilfulara.autoledger.sync;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes a change sequence number as an opaque sync token.
+ * The version prefix leaves room to change the format without breaking stored tokens.
+ */
+final class SyncToken {
+
+    private static final String PREFIX = "v1:";
+
+    private SyncToken() {
+    }
+
+    static String encode(long changeSeq) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + changeSeq).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode(long)}
+     */
+    static long decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            if (decoded.startsWith(PREFIX)) {
+                long changeSeq = Long.parseLong(decoded.substring(PREFIX.length()));
+                if (changeSeq >= 0) {
+                    return changeSeq;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Not base64 or not a number (NumberFormatException is an IllegalArgumentException)
+        }
+        throw new IllegalArgumentException("Invalid sync token");
+    }
+}
@@ -0,0 +1,37 @@
+package me.adilfulara.autoledger.sync;
+
+import me.adilfulara.autoledger.domain.repository.SyncTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Scheduled job that prunes sync tombstones older than {@code sync.tombstone-retention}.
+ * Affected users' sync floors are raised in the same statement, so a client whose token
+ * predates the pruned tombstones gets a full snapshot instead of silently missing deletions.
+ */
+@Component
+public class TombstonePruneJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TombstonePruneJob.class);
+
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final SyncProperties properties;
+
+    public TombstonePruneJob(SyncTombstoneRepository tombstoneRepository, SyncProperties properties) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.properties = properties;
+    }
+
+    @Scheduled(cron = "${sync.prune-cron:0 45 3 * * *}")
+    @Transactional
+    public void run() {
+        Instant cutoff = Instant.now().minus(properties.getTombstoneRetention());
+        int users = tombstoneRepository.pruneDeletedBefore(cutoff);
+        logger.info("Pruned sync tombstones older than {} ({} users)", cutoff, users);
+    }
+}
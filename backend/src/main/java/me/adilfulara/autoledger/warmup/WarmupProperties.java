@@ -0,0 +1,77 @@
+package me.adilfulara.autoledger.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the startup warmup.
+ *
+ * <p>Maps to {@code warmup.*} properties in application.yml.
+ *
+ * <p>Example configuration:
+ * <pre>
+ * warmup:
+ *   enabled: true
+ *   connections: 4
+ *   iterations: 50
+ *   max-duration: 10s
+ * </pre>
+ */
+@Component
+@ConfigurationProperties(prefix = "warmup")
+public class WarmupProperties {
+
+    /**
+     * Whether to warm up before the instance reports ready.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Pool connections to open up front; capped at the pool's maximum size.
+     */
+    private int connections = 4;
+
+    /**
+     * Synthetic invocations of the MPG and stats code paths.
+     */
+    private int iterations = 50;
+
+    /**
+     * Upper bound on the whole warmup; remaining iterations are skipped once it is reached.
+     */
+    private Duration maxDuration = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public void setConnections(int connections) {
+        this.connections = connections;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    public void setMaxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+}
@@ -0,0 +1,199 @@
+package me.adilfulara.autoledger.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import me.adilfulara.autoledger.api.dto.CarStatsResponse;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
+import me.adilfulara.autoledger.auth.JwtService;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.service.CarService;
+import me.adilfulara.autoledger.service.FillupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Warms the instance up before it reports ready.
+ *
+ * <p>Application runners finish before {@code ApplicationReadyEvent}, so
+ * {@code /actuator/health/readiness} keeps refusing traffic until the warmup is done. After a
+ * scale-to-zero wake the first requests would otherwise pay for opening pool connections, fetching
+ * the JWKS and running the MPG and stats code in the interpreter. The warmup:
+ * <ol>
+ *   <li>opens {@code warmup.connections} pool connections at once and returns them to the pool;</li>
+ *   <li>prefetches the issuer's JWKS (skipped when auth is disabled);</li>
+ *   <li>computes MPG for a synthetic history and stats for one real car, serializing the results,
+ *       {@code warmup.iterations} times in a read-only transaction that is rolled back.</li>
+ * </ol>
+ * Each step is recorded on the startup timeline. Failures are logged and never block startup, and
+ * the iterations stop early once {@code warmup.max-duration} has passed.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    /**
+     * Fillups in the synthetic history, enough for the MPG loop to see partial and full fillups.
+     */
+    static final int SYNTHETIC_FILLUPS = 100;
+
+    private final WarmupProperties properties;
+    private final DataSource dataSource;
+    private final JwtService jwtService;
+    private final CarRepository carRepository;
+    private final CarService carService;
+    private final FillupService fillupService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ApplicationStartup applicationStartup;
+
+    public WarmupRunner(WarmupProperties properties, DataSource dataSource, JwtService jwtService,
+                        CarRepository carRepository, CarService carService, FillupService fillupService,
+                        ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                        ApplicationStartup applicationStartup) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.jwtService = jwtService;
+        this.carRepository = carRepository;
+        this.carService = carService;
+        this.fillupService = fillupService;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.applicationStartup = applicationStartup;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Instant deadline = Instant.now().plus(properties.getMaxDuration());
+
+        StartupStep poolStep = applicationStartup.start("autoledger.warmup.pool");
+        int connections = attempt("pool pre-fill", this::fillPool, 0);
+        poolStep.tag("connections", String.valueOf(connections)).end();
+
+        StartupStep jwksStep = applicationStartup.start("autoledger.warmup.jwks");
+        boolean jwks = attempt("JWKS prefetch", jwtService::prefetchJwks, false);
+        jwksStep.tag("fetched", String.valueOf(jwks)).end();
+
+        StartupStep codeStep = applicationStartup.start("autoledger.warmup.code-paths");
+        int iterations = attempt("code path warmup", () -> exerciseCodePaths(deadline), 0);
+        codeStep.tag("iterations", String.valueOf(iterations)).end();
+
+        logger.info("Warmup finished in {} ms: {} connections, JWKS {}, {} iterations",
+                (System.nanoTime() - start) / 1_000_000, connections, jwks ? "cached" : "skipped", iterations);
+    }
+
+    /**
+     * Open connections concurrently held, so the pool creates them now rather than on demand.
+     *
+     * @return number of connections opened
+     */
+    int fillPool() throws SQLException {
+        int target = properties.getConnections();
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            target = Math.min(target, dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize());
+        }
+        List<Connection> held = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                held.add(dataSource.getConnection());
+            }
+            return held.size();
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Run the MPG and stats code paths until the iterations are done or the deadline passes.
+     * Everything runs in one read-only transaction that is rolled back, so nothing is written.
+     *
+     * @return number of iterations completed
+     */
+    int exerciseCodePaths(Instant deadline) {
+        List<Fillup> history = syntheticHistory();
+        Integer completed = readOnlyTransaction.execute(status -> {
+            status.setRollbackOnly();
+            Optional<UUID> sampleCarId = carRepository.findWarmupSampleId();
+            int i = 0;
+            while (i < properties.getIterations() && Instant.now().isBefore(deadline)) {
+                Map<UUID, BigDecimal> mpgById = fillupService.calculateMPGs(history, true);
+                serialize(history.stream().map(f -> FillupResponse.from(f, mpgById.get(f.getId()))).toList());
+                if (sampleCarId.isPresent()) {
+                    CarStatsResponse stats = carService.computeCarStats(sampleCarId.get());
+                    serialize(stats);
+                }
+                i++;
+            }
+            return i;
+        });
+        return completed == null ? 0 : completed;
+    }
+
+    /**
+     * A car history with a partial fillup every fifth entry and a missed one every 17th.
+     */
+    static List<Fillup> syntheticHistory() {
+        UUID carId = new UUID(0, 0);
+        Instant date = Instant.parse("2024-01-01T00:00:00Z");
+        List<Fillup> history = new ArrayList<>(SYNTHETIC_FILLUPS);
+        for (int i = 0; i < SYNTHETIC_FILLUPS; i++) {
+            BigDecimal volume = BigDecimal.valueOf(900 + i % 7 * 25, 2);
+            BigDecimal price = BigDecimal.valueOf(349 + i % 5 * 10, 2);
+            Fillup fillup = new Fillup(carId, date.plus(7L * i, ChronoUnit.DAYS), 10_000L + 280L * i,
+                    volume, price, volume.multiply(price), i % 5 == 4, i % 17 == 16);
+            fillup.setId(new UUID(0, i + 1));
+            history.add(fillup);
+        }
+        return history;
+    }
+
+    private void serialize(Object value) {
+        try {
+            objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize warmup result", e);
+        }
+    }
+
+    private <T> T attempt(String name, WarmupStep<T> step, T fallback) {
+        try {
+            return step.run();
+        } catch (Exception e) {
+            logger.warn("Warmup {} failed; continuing startup", name, e);
+            return fallback;
+        }
+    }
+
+    @FunctionalInterface
+    interface WarmupStep<T> {
+        T run() throws Exception;
+    }
+}
@@ -0,0 +1,29 @@
+-- Idempotency keys for POST /api/fillups.
+--
+-- A request carrying an Idempotency-Key header inserts its key here in the same transaction as the
+-- fillup, together with a hash of the request body and, once created, the serialized response.
+-- A retry with the same key finds the row with one unique-index lookup and gets the stored response
+-- back without re-running validation. A concurrent duplicate blocks on the unique index until the
+-- first request commits (then replays) or rolls back (then proceeds as the first).
+-- Rows are pruned after idempotency.ttl; an expired key may be claimed again.
+
+CREATE TABLE app.idempotency_keys (
+    id BIGSERIAL PRIMARY KEY,
+    user_id UUID NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+
+    CONSTRAINT uq_idempotency_keys_user_key UNIQUE (user_id, idempotency_key),
+    CONSTRAINT fk_idempotency_keys_user_id FOREIGN KEY (user_id)
+        REFERENCES app.users(id)
+        ON DELETE CASCADE
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON app.idempotency_keys(expires_at);
+
+COMMENT ON TABLE app.idempotency_keys IS 'Idempotency-Key header values of fillup creations, kept for idempotency.ttl';
+COMMENT ON COLUMN app.idempotency_keys.request_hash IS 'Hex SHA-256 of the request body; a key reused with a different body is rejected';
+COMMENT ON COLUMN app.idempotency_keys.response_body IS 'JSON response body replayed to retries';
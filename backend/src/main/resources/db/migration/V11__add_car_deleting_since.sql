@@ -0,0 +1,12 @@
+-- Asynchronous car deletion (DELETE /api/cars/{id} with Prefer: respond-async).
+--
+-- The request only stamps deleting_since, which hides the car from every read and write path.
+-- The car deletion job then removes its fillups and archived fillups in bounded chunks, one short
+-- transaction each, and finally deletes the car row, whose remaining children cascade.
+
+ALTER TABLE app.cars ADD COLUMN deleting_since TIMESTAMP;
+
+-- Deletion job: the few cars waiting to be deleted
+CREATE INDEX idx_cars_deleting_since ON app.cars(deleting_since) WHERE deleting_since IS NOT NULL;
+
+COMMENT ON COLUMN app.cars.deleting_since IS 'When asynchronous deletion was requested; NULL for live cars';
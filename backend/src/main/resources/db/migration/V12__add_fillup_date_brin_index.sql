@@ -0,0 +1,17 @@
+-- Date-range access to fillups (GET /api/cars/{carId}/fillups/range, GET /api/fillups/range).
+--
+-- Fillups are appended roughly in date order, so the heap is physically correlated with date and a
+-- BRIN index (min/max date per block range) serves scans across all cars, such as the compaction
+-- cutoff, at a small fraction of a B-tree's size and write cost. It replaces the B-tree on date.
+-- Per-car and per-user ranges keep using idx_fillups_car_date; fillups backfilled far out of date
+-- order only widen the block ranges BRIN has to read, never change the results.
+--
+-- Archived fillups are included in range queries, so they get the same per-car date index.
+
+DROP INDEX IF EXISTS app.idx_fillups_date;
+
+CREATE INDEX idx_fillups_date_brin ON app.fillups USING brin (date) WITH (pages_per_range = 32);
+
+CREATE INDEX idx_fillups_archive_car_date ON app.fillups_archive(car_id, date DESC);
+
+COMMENT ON INDEX app.idx_fillups_date_brin IS 'Block-range index on date for scans across all cars';
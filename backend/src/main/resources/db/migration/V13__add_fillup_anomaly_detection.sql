@@ -0,0 +1,34 @@
+-- Anomaly flags for suspicious fillups (odometer typos, mistyped fuel volumes).
+--
+-- Each car keeps a running baseline of its fuel volumes and segment MPGs: count, mean and the
+-- Welford sum of squared deviations (m2), from which the variance follows as m2 / (count - 1).
+-- A write compares the new fillup against the baseline and folds it in, so flagging costs a
+-- primary-key read and one upsert regardless of history length. Partial baselines from a batch
+-- are merged with Chan's parallel formula, which needs no lock on the baseline row.
+--
+-- Flagged fillups record why they were flagged; unflagged fillups leave the column NULL.
+
+ALTER TABLE app.fillups ADD COLUMN anomaly VARCHAR(20) CHECK (anomaly IN ('FUEL_VOLUME', 'MPG'));
+
+-- GET /api/cars/{carId}/fillups/flagged: the few flagged fillups of a car
+CREATE INDEX idx_fillups_flagged ON app.fillups(car_id, date DESC) WHERE anomaly IS NOT NULL;
+
+CREATE TABLE app.fillup_baselines (
+    car_id UUID PRIMARY KEY,
+    fuel_volume_count BIGINT NOT NULL DEFAULT 0,
+    fuel_volume_mean DOUBLE PRECISION NOT NULL DEFAULT 0,
+    fuel_volume_m2 DOUBLE PRECISION NOT NULL DEFAULT 0,
+    mpg_count BIGINT NOT NULL DEFAULT 0,
+    mpg_mean DOUBLE PRECISION NOT NULL DEFAULT 0,
+    mpg_m2 DOUBLE PRECISION NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_fillup_baselines_car_id FOREIGN KEY (car_id)
+        REFERENCES app.cars(id)
+        ON DELETE CASCADE
+);
+
+COMMENT ON COLUMN app.fillups.anomaly IS 'Why the fillup was flagged as an outlier (FUEL_VOLUME or MPG); NULL if not flagged';
+COMMENT ON TABLE app.fillup_baselines IS 'Running mean/variance (Welford) of each car''s unflagged fuel volumes and segment MPGs';
+COMMENT ON COLUMN app.fillup_baselines.fuel_volume_m2 IS 'Sum of squared deviations from the mean; variance = m2 / (count - 1)';
+COMMENT ON COLUMN app.fillup_baselines.mpg_m2 IS 'Sum of squared deviations from the mean; variance = m2 / (count - 1)';
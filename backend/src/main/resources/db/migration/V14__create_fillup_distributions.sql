@@ -0,0 +1,34 @@
+-- Per-month quantile sketches of MPG and price per unit.
+--
+-- Each row holds two serialized sketches for one car and month (by fillup date, UTC). A sketch
+-- counts values in logarithmic buckets with 1% relative accuracy, so merging months is adding
+-- bucket counts, and median, p10/p90 and histograms are read from a car's few rows instead of
+-- its fillups. Sketches cover archived fillups too: compaction moves rows, it does not change them.
+--
+-- Appended fillups are folded into their month on write. Edits, deletes and back-filled fillups
+-- change neighbouring MPG values, so they rebuild the car's sketches from its history instead.
+
+CREATE TABLE app.fillup_distributions (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    car_id UUID NOT NULL,
+    period_start DATE NOT NULL,
+    mpg_sketch BYTEA NOT NULL,
+    price_sketch BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_fillup_distributions_car_id FOREIGN KEY (car_id)
+        REFERENCES app.cars(id)
+        ON DELETE CASCADE,
+    CONSTRAINT uq_fillup_distributions_car_period UNIQUE (car_id, period_start)
+);
+
+-- Cars with history from before this migration get their sketches built on first use;
+-- new cars start out built
+ALTER TABLE app.cars ADD COLUMN distributions_built BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE app.cars ALTER COLUMN distributions_built SET DEFAULT TRUE;
+
+COMMENT ON TABLE app.fillup_distributions IS 'Per-car monthly quantile sketches of MPG and price per unit, including archived fillups';
+COMMENT ON COLUMN app.fillup_distributions.period_start IS 'First day of the month (UTC) covered by the sketches';
+COMMENT ON COLUMN app.fillup_distributions.mpg_sketch IS 'Serialized QuantileSketch of per-fillup MPG values';
+COMMENT ON COLUMN app.fillup_distributions.price_sketch IS 'Serialized QuantileSketch of price_per_unit values';
+COMMENT ON COLUMN app.cars.distributions_built IS 'Whether app.fillup_distributions covers the car''s history';
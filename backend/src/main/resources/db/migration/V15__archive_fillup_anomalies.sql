@@ -0,0 +1,20 @@
+-- Carry anomaly flags through compaction.
+--
+-- Archived fillups keep the flag they had in the hot table, and segments keep the MPG of flagged
+-- fillups apart from the rest, so anomaly.exclude-from-averages leaves flagged outliers out of
+-- compacted history too. With the option off, stats add both parts back together.
+--
+-- Segments built before this migration counted flagged MPGs with the others; their flagged
+-- columns stay empty.
+
+ALTER TABLE app.fillups_archive ADD COLUMN anomaly VARCHAR(20) CHECK (anomaly IN ('FUEL_VOLUME', 'MPG'));
+
+ALTER TABLE app.fillup_segments
+    ADD COLUMN flagged_mpg_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN flagged_mpg_sum NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    ADD COLUMN flagged_best_mpg NUMERIC(10, 2),
+    ADD COLUMN flagged_worst_mpg NUMERIC(10, 2);
+
+COMMENT ON COLUMN app.fillups_archive.anomaly IS 'Why the fillup was flagged as an outlier when archived; NULL if not flagged';
+COMMENT ON COLUMN app.fillup_segments.mpg_sum IS 'Sum of archived per-fillup MPG values of unflagged fillups (scale 2)';
+COMMENT ON COLUMN app.fillup_segments.flagged_mpg_sum IS 'Sum of archived per-fillup MPG values of flagged fillups (scale 2)';
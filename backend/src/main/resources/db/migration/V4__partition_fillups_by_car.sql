@@ -0,0 +1,83 @@
+-- Convert app.fillups to a hash-partitioned table on car_id.
+--
+-- Every hot query is keyed on car_id, so hash partitioning lets PostgreSQL prune each one
+-- to a single partition and keeps per-partition indexes small.
+--
+-- Partition count comes from the 'autoledger.fillup_partitions' setting (default 8). It is set
+-- per Flyway connection via spring.flyway.init-sqls (FILLUP_PARTITIONS env var). Changing it later
+-- requires a re-partition, so choose a count that leaves headroom (a power of two).
+--
+-- This migration copies rows in a single transaction and is meant for small/new databases.
+-- Large tables should be converted beforehand with scripts/db/partition-fillups-online.sql;
+-- this migration then detects the partitioned table and does nothing.
+DO $$
+DECLARE
+    partitions INTEGER := COALESCE(NULLIF(current_setting('autoledger.fillup_partitions', true), '')::INTEGER, 8);
+    i INTEGER;
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM pg_class c
+        JOIN pg_namespace n ON n.oid = c.relnamespace
+        WHERE n.nspname = 'app' AND c.relname = 'fillups' AND c.relkind = 'p'
+    ) THEN
+        RAISE NOTICE 'app.fillups is already partitioned, skipping';
+        RETURN;
+    END IF;
+
+    IF partitions < 1 THEN
+        RAISE EXCEPTION 'autoledger.fillup_partitions must be at least 1 (was %)', partitions;
+    END IF;
+
+    -- Primary key must include the partition key
+    CREATE TABLE app.fillups_partitioned (
+        id UUID NOT NULL DEFAULT gen_random_uuid(),
+        car_id UUID NOT NULL,
+        date TIMESTAMP NOT NULL,
+        odometer BIGINT NOT NULL CHECK (odometer >= 0),
+        fuel_volume NUMERIC(10, 3) NOT NULL CHECK (fuel_volume > 0),
+        price_per_unit NUMERIC(10, 3) NOT NULL CHECK (price_per_unit >= 0),
+        total_cost NUMERIC(10, 2) NOT NULL CHECK (total_cost >= 0),
+        is_partial BOOLEAN NOT NULL DEFAULT FALSE,
+        is_missed BOOLEAN NOT NULL DEFAULT FALSE,
+        created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+        updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+        CONSTRAINT fillups_partitioned_pkey PRIMARY KEY (id, car_id),
+        CONSTRAINT fk_fillups_car_id FOREIGN KEY (car_id)
+            REFERENCES app.cars(id)
+            ON DELETE CASCADE
+    ) PARTITION BY HASH (car_id);
+
+    FOR i IN 0..partitions - 1 LOOP
+        EXECUTE format(
+            'CREATE TABLE app.fillups_p%s PARTITION OF app.fillups_partitioned FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+            i, partitions, i);
+    END LOOP;
+
+    INSERT INTO app.fillups_partitioned
+        (id, car_id, date, odometer, fuel_volume, price_per_unit, total_cost,
+         is_partial, is_missed, created_at, updated_at)
+    SELECT id, car_id, date, odometer, fuel_volume, price_per_unit, total_cost,
+           is_partial, is_missed, created_at, updated_at
+    FROM app.fillups;
+
+    DROP TABLE app.fillups;
+    ALTER TABLE app.fillups_partitioned RENAME TO fillups;
+    ALTER INDEX app.fillups_partitioned_pkey RENAME TO fillups_pkey;
+
+    -- Indexes are created on the parent and cascade to every partition.
+    -- idx_fillups_car_id is dropped: it is a prefix of idx_fillups_car_date.
+    CREATE INDEX idx_fillups_car_date ON app.fillups(car_id, date DESC);
+    CREATE INDEX idx_fillups_car_odometer ON app.fillups(car_id, odometer);
+    CREATE INDEX idx_fillups_date ON app.fillups(date);
+
+    COMMENT ON TABLE app.fillups IS 'Fuel fill-up records for MPG calculation (hash-partitioned on car_id)';
+    COMMENT ON COLUMN app.fillups.car_id IS 'References app.cars.id (partition key)';
+    COMMENT ON COLUMN app.fillups.odometer IS 'Total vehicle mileage/kilometers at fill-up';
+    COMMENT ON COLUMN app.fillups.fuel_volume IS 'Amount of fuel added (units from parent car)';
+    COMMENT ON COLUMN app.fillups.price_per_unit IS 'Price per unit of fuel';
+    COMMENT ON COLUMN app.fillups.total_cost IS 'Total cost of fill-up (currency)';
+    COMMENT ON COLUMN app.fillups.is_partial IS 'TRUE if tank was not filled to top (skip MPG calc)';
+    COMMENT ON COLUMN app.fillups.is_missed IS 'TRUE if user missed logging previous fill-up (break MPG chain)';
+END
+$$;
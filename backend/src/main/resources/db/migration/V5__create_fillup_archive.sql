@@ -0,0 +1,64 @@
+-- Cold-history compaction: archived fillups and per-month summary segments.
+--
+-- Old fillups are moved out of the hot app.fillups table by the compaction job
+-- (archive.fillups.enabled). Each moved row is kept verbatim in app.fillups_archive for export,
+-- together with the MPG it had at archive time, and rolled up into app.fillup_segments so that
+-- car stats can add archived totals without reading archived rows.
+
+CREATE TABLE app.fillups_archive (
+    id UUID PRIMARY KEY,
+    car_id UUID NOT NULL,
+    date TIMESTAMP NOT NULL,
+    odometer BIGINT NOT NULL,
+    fuel_volume NUMERIC(10, 3) NOT NULL,
+    price_per_unit NUMERIC(10, 3) NOT NULL,
+    total_cost NUMERIC(10, 2) NOT NULL,
+    is_partial BOOLEAN NOT NULL,
+    is_missed BOOLEAN NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    mpg NUMERIC(10, 2),
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_fillups_archive_car_id FOREIGN KEY (car_id)
+        REFERENCES app.cars(id)
+        ON DELETE CASCADE
+);
+
+-- Export and MPG anchor lookups across the hot/archive boundary
+CREATE INDEX idx_fillups_archive_car_odometer ON app.fillups_archive(car_id, odometer);
+
+CREATE TABLE app.fillup_segments (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    car_id UUID NOT NULL,
+    period_start DATE NOT NULL,
+    fillup_count INTEGER NOT NULL,
+    first_date TIMESTAMP NOT NULL,
+    last_date TIMESTAMP NOT NULL,
+    first_odometer BIGINT NOT NULL,
+    last_odometer BIGINT NOT NULL,
+    total_fuel NUMERIC(14, 3) NOT NULL,
+    total_cost NUMERIC(14, 2) NOT NULL,
+    price_per_unit_sum NUMERIC(14, 3) NOT NULL,
+    mpg_count INTEGER NOT NULL,
+    mpg_sum NUMERIC(14, 2) NOT NULL,
+    best_mpg NUMERIC(10, 2),
+    worst_mpg NUMERIC(10, 2),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_fillup_segments_car_id FOREIGN KEY (car_id)
+        REFERENCES app.cars(id)
+        ON DELETE CASCADE,
+    CONSTRAINT uq_fillup_segments_car_period UNIQUE (car_id, period_start)
+);
+
+-- Highest archived odometer per car; NULL means the car has never been compacted
+ALTER TABLE app.cars ADD COLUMN archived_through_odometer BIGINT;
+
+COMMENT ON TABLE app.fillups_archive IS 'Fillups moved out of app.fillups by compaction (export only)';
+COMMENT ON COLUMN app.fillups_archive.mpg IS 'MPG computed at archive time (NULL if not computable)';
+COMMENT ON TABLE app.fillup_segments IS 'Per-car monthly totals of archived fillups';
+COMMENT ON COLUMN app.fillup_segments.period_start IS 'First day of the month (UTC) covered by the segment';
+COMMENT ON COLUMN app.fillup_segments.price_per_unit_sum IS 'Sum of price_per_unit (for the per-fillup average price)';
+COMMENT ON COLUMN app.fillup_segments.mpg_sum IS 'Sum of archived per-fillup MPG values (scale 2)';
+COMMENT ON COLUMN app.cars.archived_through_odometer IS 'Highest odometer moved to app.fillups_archive (NULL if none)';
@@ -0,0 +1,51 @@
+-- Transactional outbox for derived-data maintenance.
+--
+-- Every car/fillup write bumps app.cars.data_version and inserts an app.outbox_events row in the
+-- same transaction. The outbox worker (outbox.worker.enabled) drains the table in batches,
+-- coalesces events per car, refreshes the app.car_stats snapshot and deletes the processed rows.
+-- Failed rows stay in the table with a later available_at, giving at-least-once processing.
+
+CREATE TABLE app.outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(32) NOT NULL,
+    user_id UUID NOT NULL,
+    car_id UUID NOT NULL,
+    entity_id UUID,
+    data_version BIGINT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    -- No FK to cars: CAR_DELETED events must outlive the car they describe
+);
+
+-- Worker claim query: oldest available rows first
+CREATE INDEX idx_outbox_events_available ON app.outbox_events(available_at, id);
+
+-- Incremented by every write to the car or its fillups
+ALTER TABLE app.cars ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE app.car_stats (
+    car_id UUID PRIMARY KEY,
+    data_version BIGINT NOT NULL,
+    total_fillups BIGINT NOT NULL,
+    total_distance BIGINT NOT NULL,
+    total_fuel_used NUMERIC(14, 3) NOT NULL,
+    total_spent NUMERIC(14, 2) NOT NULL,
+    average_mpg NUMERIC(10, 2),
+    best_mpg NUMERIC(10, 2),
+    worst_mpg NUMERIC(10, 2),
+    average_price_per_unit NUMERIC(10, 3),
+    computed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_car_stats_car_id FOREIGN KEY (car_id)
+        REFERENCES app.cars(id)
+        ON DELETE CASCADE
+);
+
+COMMENT ON TABLE app.outbox_events IS 'Pending change events for the outbox worker (deleted once processed)';
+COMMENT ON COLUMN app.outbox_events.event_type IS 'ChangeType: CAR_CREATED, CAR_UPDATED, CAR_DELETED, FILLUP_ADDED, FILLUP_UPDATED, FILLUP_DELETED';
+COMMENT ON COLUMN app.outbox_events.entity_id IS 'ID of the changed car or fillup';
+COMMENT ON COLUMN app.outbox_events.data_version IS 'cars.data_version after this change';
+COMMENT ON COLUMN app.outbox_events.available_at IS 'Earliest time the worker may (re)try this event';
+COMMENT ON COLUMN app.cars.data_version IS 'Incremented on every write to the car or its fillups';
+COMMENT ON TABLE app.car_stats IS 'Precomputed car statistics, valid while data_version matches app.cars.data_version';
@@ -0,0 +1,8 @@
+-- Per-user data version for caching user-level views (the MCP garage resource).
+--
+-- Incremented in the same transaction as every car create/update/delete (see OutboxRecorder),
+-- so a cached garage snapshot is valid exactly while its version matches.
+
+ALTER TABLE app.users ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN app.users.data_version IS 'Incremented on every create/update/delete of the user''s cars';
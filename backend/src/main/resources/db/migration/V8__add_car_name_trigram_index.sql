@@ -0,0 +1,9 @@
+-- Trigram index for fuzzy car-name lookups (MCP log_fillup).
+--
+-- CarNameIndex answers lookups from memory once a user's names are loaded; until then it queries
+-- CarRepository.findByUserIdAndNameSimilarTo, which this index serves. The extension is created in
+-- the app schema because connections use search_path = app.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA app;
+
+CREATE INDEX idx_cars_name_trgm ON app.cars USING gin (name app.gin_trgm_ops);
@@ -0,0 +1,37 @@
+-- Per-user change sequence and tombstones for the delta sync API (GET /api/sync).
+--
+-- OutboxRecorder allocates the next users.change_seq for every car/fillup write and stamps it on
+-- the changed car (and fillup) row, or records a tombstone for deletions. Allocation locks the
+-- user row until commit, so a reader that sees change_seq = N also sees every change up to N.
+-- Rows that existed before this migration keep change_seq 0 and are only sent by full syncs.
+
+ALTER TABLE app.users ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE app.users ADD COLUMN sync_floor BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE app.cars ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE app.fillups ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+-- Delta queries: a user's changed cars, then the changed fillups of those cars only
+CREATE INDEX idx_cars_user_change_seq ON app.cars(user_id, change_seq);
+CREATE INDEX idx_fillups_car_change_seq ON app.fillups(car_id, change_seq);
+
+CREATE TABLE app.sync_tombstones (
+    id BIGSERIAL PRIMARY KEY,
+    user_id UUID NOT NULL,
+    change_seq BIGINT NOT NULL,
+    change_type VARCHAR(32) NOT NULL,
+    entity_id UUID NOT NULL,
+    car_id UUID NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    -- No FKs: tombstones describe rows that no longer exist
+);
+
+CREATE INDEX idx_sync_tombstones_user_seq ON app.sync_tombstones(user_id, change_seq);
+CREATE INDEX idx_sync_tombstones_deleted_at ON app.sync_tombstones(deleted_at);
+
+COMMENT ON COLUMN app.users.change_seq IS 'Sequence number of the user''s latest car/fillup change';
+COMMENT ON COLUMN app.users.sync_floor IS 'Highest change_seq whose tombstones may have been pruned; older sync tokens need a full sync';
+COMMENT ON COLUMN app.cars.change_seq IS 'users.change_seq of the latest change to the car or its fillups';
+COMMENT ON COLUMN app.fillups.change_seq IS 'users.change_seq of the latest change to the fillup';
+COMMENT ON TABLE app.sync_tombstones IS 'Deleted cars and fillups, kept for sync.tombstone-retention';
+COMMENT ON COLUMN app.sync_tombstones.change_type IS 'CAR_DELETED or FILLUP_DELETED';
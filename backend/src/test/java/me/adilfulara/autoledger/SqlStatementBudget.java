@@ -0,0 +1,37 @@
+package me.adilfulara.autoledger;
+
+import me.adilfulara.autoledger.observability.SqlStatementHeaderAdvice;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Assertions on the number of SQL statements an API call executed.
+ * Reads the {@code X-SQL-Statement-Count} header, which is enabled for tests in application.yml.
+ */
+public final class SqlStatementBudget {
+
+    private SqlStatementBudget() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Get the number of SQL statements executed while serving a response.
+     */
+    public static int statementCount(ResponseEntity<?> response) {
+        String header = response.getHeaders().getFirst(SqlStatementHeaderAdvice.HEADER_NAME);
+        assertThat(header)
+                .as("response should carry the %s header", SqlStatementHeaderAdvice.HEADER_NAME)
+                .isNotNull();
+        return Integer.parseInt(header);
+    }
+
+    /**
+     * Assert that serving a response executed at most {@code budget} SQL statements.
+     */
+    public static void assertWithinBudget(ResponseEntity<?> response, int budget) {
+        assertThat(statementCount(response))
+                .as("SQL statements executed for this request")
+                .isLessThanOrEqualTo(budget);
+    }
+}
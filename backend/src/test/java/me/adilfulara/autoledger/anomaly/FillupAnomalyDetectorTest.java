@@ -0,0 +1,212 @@
+package me.adilfulara.autoledger.anomaly;
+
+import me.adilfulara.autoledger.domain.model.FillupAnomaly;
+import me.adilfulara.autoledger.domain.model.FillupBaseline;
+import me.adilfulara.autoledger.domain.repository.FillupBaselineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FillupAnomalyDetector")
+class FillupAnomalyDetectorTest {
+
+    private static final UUID CAR_ID = UUID.randomUUID();
+    private static final double[] VOLUMES = {9.6, 10.4, 10.1, 9.7, 10.0, 10.3, 9.8, 10.2, 9.9, 10.0};
+    private static final double[] MPGS = {29.5, 30.5, 31.0, 29.0, 30.0, 30.2, 29.8, 30.4, 29.6, 30.0};
+
+    @Mock
+    private FillupBaselineRepository baselineRepository;
+
+    private AnomalyProperties properties;
+    private FillupAnomalyDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AnomalyProperties();
+        detector = new FillupAnomalyDetector(baselineRepository, properties);
+    }
+
+    private static FillupAnomalyDetector.Sample sample(String fuelVolume, String mpg) {
+        return new FillupAnomalyDetector.Sample(UUID.randomUUID(), new BigDecimal(fuelVolume), false,
+                mpg == null ? null : new BigDecimal(mpg), null);
+    }
+
+    private static RunningStats stats(double... values) {
+        RunningStats stats = RunningStats.EMPTY;
+        for (double value : values) {
+            stats = stats.add(value);
+        }
+        return stats;
+    }
+
+    private static List<FillupAnomalyDetector.Sample> history() {
+        List<FillupAnomalyDetector.Sample> history = new ArrayList<>();
+        for (int i = 0; i < VOLUMES.length; i++) {
+            history.add(sample(String.valueOf(VOLUMES[i]), String.valueOf(MPGS[i])));
+        }
+        return history;
+    }
+
+    private void givenBaseline(RunningStats fuelVolume, RunningStats mpg) {
+        when(baselineRepository.findById(CAR_ID)).thenReturn(Optional.of(new FillupBaseline(CAR_ID,
+                fuelVolume.count(), fuelVolume.mean(), fuelVolume.m2(),
+                mpg.count(), mpg.mean(), mpg.m2(), Instant.now())));
+    }
+
+    private void givenEstablishedBaseline() {
+        givenBaseline(stats(VOLUMES), stats(MPGS));
+    }
+
+    @Nested
+    @DisplayName("detect")
+    class Detect {
+
+        @Test
+        @DisplayName("flags a fuel volume typo, reporting the volume before the MPG it skews")
+        void flagsFuelVolume() {
+            givenEstablishedBaseline();
+            FillupAnomalyDetector.Sample typo = sample("1.0", "300.0");
+
+            Map<UUID, FillupAnomaly> flagged = detector.detect(CAR_ID, List.of(typo), List.of(), List::of);
+
+            assertThat(flagged).containsExactly(Map.entry(typo.fillupId(), FillupAnomaly.FUEL_VOLUME));
+        }
+
+        @Test
+        @DisplayName("flags an MPG outlier with an ordinary fuel volume")
+        void flagsMpg() {
+            givenEstablishedBaseline();
+            FillupAnomalyDetector.Sample outlier = sample("10.0", "60.0");
+
+            Map<UUID, FillupAnomaly> flagged = detector.detect(CAR_ID, List.of(outlier), List.of(), List::of);
+
+            assertThat(flagged).containsExactly(Map.entry(outlier.fillupId(), FillupAnomaly.MPG));
+        }
+
+        @Test
+        @DisplayName("does not check the volume of a partial fill")
+        void skipsPartialVolume() {
+            givenEstablishedBaseline();
+            FillupAnomalyDetector.Sample partial = new FillupAnomalyDetector.Sample(UUID.randomUUID(),
+                    new BigDecimal("2.0"), true, null, null);
+
+            assertThat(detector.detect(CAR_ID, List.of(partial), List.of(), List::of)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("only learns while the baseline is young")
+        void youngBaselineOnlyLearns() {
+            givenBaseline(stats(10.0, 10.1, 9.9), stats(30.0, 30.5));
+
+            Map<UUID, FillupAnomaly> flagged = detector.detect(CAR_ID,
+                    List.of(sample("1.0", "90.0")), List.of(), List::of);
+
+            assertThat(flagged).isEmpty();
+            verify(baselineRepository).merge(CAR_ID, 1L, 1.0, 0.0, 1L, 90.0, 0.0);
+        }
+
+        @Test
+        @DisplayName("merges only what the write learned into a stored baseline")
+        void mergesLearnedValues() {
+            givenEstablishedBaseline();
+            FillupAnomalyDetector.Sample ordinary = sample("10.5", "31.0");
+            FillupAnomalyDetector.Sample outlier = sample("10.0", "60.0");
+
+            detector.detect(CAR_ID, List.of(ordinary, outlier), List.of(), List::of);
+
+            // The outlier's volume is learned, its MPG is not
+            verify(baselineRepository).merge(eq(CAR_ID), eq(2L), eq(10.25, 1e-9), eq(0.125, 1e-9),
+                    eq(1L), eq(31.0, 1e-9), eq(0.0, 1e-9));
+        }
+
+        @Test
+        @DisplayName("bootstraps a missing baseline from unflagged history and stores all of it")
+        void bootstrapsFromHistory() {
+            when(baselineRepository.findById(CAR_ID)).thenReturn(Optional.empty());
+            List<FillupAnomalyDetector.Sample> history = new ArrayList<>(history());
+            history.add(new FillupAnomalyDetector.Sample(UUID.randomUUID(), new BigDecimal("1.0"), false,
+                    new BigDecimal("300.0"), FillupAnomaly.FUEL_VOLUME));
+            FillupAnomalyDetector.Sample outlier = sample("10.0", "60.0");
+
+            Map<UUID, FillupAnomaly> flagged = detector.detect(CAR_ID, List.of(outlier), List.of(), () -> history);
+
+            assertThat(flagged).containsExactly(Map.entry(outlier.fillupId(), FillupAnomaly.MPG));
+            RunningStats volumes = stats(VOLUMES).add(10.0);
+            RunningStats mpgs = stats(MPGS);
+            verify(baselineRepository).merge(eq(CAR_ID),
+                    eq(volumes.count()), eq(volumes.mean(), 1e-9), eq(volumes.m2(), 1e-9),
+                    eq(mpgs.count()), eq(mpgs.mean(), 1e-9), eq(mpgs.m2(), 1e-9));
+        }
+
+        @Test
+        @DisplayName("checks updated fillups without learning them")
+        void checksUpdatesWithoutLearning() {
+            givenEstablishedBaseline();
+            FillupAnomalyDetector.Sample fixed = sample("10.1", "30.1");
+            FillupAnomalyDetector.Sample stillWrong = sample("25.0", null);
+
+            Map<UUID, FillupAnomaly> flagged = detector.detect(CAR_ID, List.of(), List.of(fixed, stillWrong),
+                    List::of);
+
+            assertThat(flagged).containsExactly(Map.entry(stillWrong.fillupId(), FillupAnomaly.FUEL_VOLUME));
+            verify(baselineRepository, never()).merge(any(), anyLong(), anyDouble(), anyDouble(),
+                    anyLong(), anyDouble(), anyDouble());
+        }
+
+        @Test
+        @DisplayName("bootstraps a missing baseline from history when a write only updates")
+        void bootstrapsOnUpdate() {
+            when(baselineRepository.findById(CAR_ID)).thenReturn(Optional.empty());
+            FillupAnomalyDetector.Sample edited = sample("25.0", null);
+
+            Map<UUID, FillupAnomaly> flagged = detector.detect(CAR_ID, List.of(), List.of(edited), () -> history());
+
+            assertThat(flagged).containsExactly(Map.entry(edited.fillupId(), FillupAnomaly.FUEL_VOLUME));
+            RunningStats volumes = stats(VOLUMES);
+            RunningStats mpgs = stats(MPGS);
+            verify(baselineRepository).merge(eq(CAR_ID),
+                    eq(volumes.count()), eq(volumes.mean(), 1e-9), eq(volumes.m2(), 1e-9),
+                    eq(mpgs.count()), eq(mpgs.mean(), 1e-9), eq(mpgs.m2(), 1e-9));
+        }
+
+        @Test
+        @DisplayName("stores no empty baseline for an update on a car without history")
+        void storesNothingWhenNothingLearned() {
+            when(baselineRepository.findById(CAR_ID)).thenReturn(Optional.empty());
+
+            detector.detect(CAR_ID, List.of(), List.of(sample("10.0", "30.0")), List::of);
+
+            verify(baselineRepository, never()).merge(any(), anyLong(), anyDouble(), anyDouble(),
+                    anyLong(), anyDouble(), anyDouble());
+        }
+
+        @Test
+        @DisplayName("does nothing when disabled")
+        void disabled() {
+            properties.setEnabled(false);
+
+            assertThat(detector.detect(CAR_ID, List.of(sample("1.0", null)), List.of(), List::of)).isEmpty();
+            verifyNoInteractions(baselineRepository);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package me.adilfulara.autoledger.anomaly;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("RunningStats")
+class RunningStatsTest {
+
+    private static final double[] VALUES = {9.6, 10.4, 12.1, 8.7, 10.0, 11.3, 9.2, 10.8, 9.9, 10.5};
+
+    private static RunningStats of(double... values) {
+        RunningStats stats = RunningStats.EMPTY;
+        for (double value : values) {
+            stats = stats.add(value);
+        }
+        return stats;
+    }
+
+    @Nested
+    @DisplayName("add")
+    class Add {
+
+        @Test
+        @DisplayName("matches a two-pass mean and sample standard deviation")
+        void matchesTwoPass() {
+            double mean = Arrays.stream(VALUES).average().orElseThrow();
+            double variance = Arrays.stream(VALUES).map(v -> (v - mean) * (v - mean)).sum() / (VALUES.length - 1);
+
+            RunningStats stats = of(VALUES);
+
+            assertThat(stats.count()).isEqualTo(VALUES.length);
+            assertThat(stats.mean()).isCloseTo(mean, within(1e-9));
+            assertThat(stats.standardDeviation()).isCloseTo(Math.sqrt(variance), within(1e-9));
+        }
+
+        @Test
+        @DisplayName("reports no deviation with fewer than two values")
+        void noDeviationForOneValue() {
+            assertThat(RunningStats.EMPTY.standardDeviation()).isZero();
+            assertThat(of(42.0).standardDeviation()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("merge")
+    class Merge {
+
+        @Test
+        @DisplayName("equals adding every value to one instance")
+        void equalsSequentialAdds() {
+            RunningStats merged = of(Arrays.copyOfRange(VALUES, 0, 4))
+                    .merge(of(Arrays.copyOfRange(VALUES, 4, VALUES.length)));
+            RunningStats sequential = of(VALUES);
+
+            assertThat(merged.count()).isEqualTo(sequential.count());
+            assertThat(merged.mean()).isCloseTo(sequential.mean(), within(1e-9));
+            assertThat(merged.m2()).isCloseTo(sequential.m2(), within(1e-9));
+        }
+
+        @Test
+        @DisplayName("treats empty statistics as the identity")
+        void emptyIsIdentity() {
+            RunningStats stats = of(VALUES);
+
+            assertThat(stats.merge(RunningStats.EMPTY)).isEqualTo(stats);
+            assertThat(RunningStats.EMPTY.merge(stats)).isEqualTo(stats);
+        }
+    }
+
+    @Nested
+    @DisplayName("isOutlier")
+    class IsOutlier {
+
+        private final AnomalyProperties properties = new AnomalyProperties();
+
+        @Test
+        @DisplayName("flags nothing before minSamples values")
+        void waitsForMinSamples() {
+            RunningStats young = of(10.0, 10.1, 9.9);
+
+            assertThat(young.isOutlier(100.0, properties)).isFalse();
+        }
+
+        @Test
+        @DisplayName("flags values beyond the threshold in standard deviations")
+        void flagsBeyondThreshold() {
+            RunningStats stats = of(VALUES);
+
+            assertThat(stats.isOutlier(1.0, properties)).isTrue();
+            assertThat(stats.isOutlier(25.0, properties)).isTrue();
+            assertThat(stats.isOutlier(11.0, properties)).isFalse();
+        }
+
+        @Test
+        @DisplayName("tolerates minRelativeDeviation of the mean when values barely vary")
+        void toleratesRelativeDeviation() {
+            RunningStats steady = of(10.0, 10.0, 10.0, 10.0, 10.0, 10.0, 10.0, 10.0, 10.01);
+
+            assertThat(steady.isOutlier(12.0, properties)).isFalse();
+            assertThat(steady.isOutlier(13.0, properties)).isTrue();
+        }
+    }
+}
@@ -23,12 +23,16 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import static me.adilfulara.autoledger.SqlStatementBudget.assertWithinBudget;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 /**
  * Integration tests for CarController using real PostgreSQL via Testcontainers.
@@ -106,6 +110,7 @@ class CarControllerIT {
             assertThat(response.getBody()).hasSize(1);
             assertThat(response.getBody().get(0).make()).isEqualTo("Toyota");
             assertThat(response.getBody().get(0).model()).isEqualTo("Camry");
+            assertWithinBudget(response, 1);
         }
 
         @Test
@@ -283,6 +288,127 @@ class CarControllerIT {
             assertThat(response.getBody().totalDistance()).isEqualTo(300L);
             assertThat(response.getBody().averageMpg()).isEqualByComparingTo(new BigDecimal("30.00"));
         }
+
+        @Test
+        @DisplayName("computes stats for 500 fillups within 3 queries")
+        void statsStayWithinStatementBudget() {
+            Car car = createTestCar("Honda", "Accord");
+            Instant baseTime = Instant.now().minus(500, ChronoUnit.DAYS);
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                rows.add(new Object[]{car.getId(), Timestamp.from(baseTime.plus(i, ChronoUnit.DAYS)),
+                        10000L + (i * 300L), new BigDecimal("10.0"), new BigDecimal("3.50"), new BigDecimal("35.00")});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO app.fillups (car_id, date, odometer, fuel_volume, price_per_unit, total_cost) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)",
+                    rows);
+
+            ResponseEntity<CarStatsResponse> response = restTemplate.getForEntity(
+                    "/api/cars/" + car.getId() + "/stats", CarStatsResponse.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody().totalFillups()).isEqualTo(500);
+            assertThat(response.getBody().averageMpg()).isEqualByComparingTo(new BigDecimal("30.00"));
+            assertWithinBudget(response, 3);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/cars/{id}/stats/distribution")
+    class GetCarDistribution {
+
+        @Test
+        @DisplayName("builds sketches for history that predates them once, then reads only the sketches")
+        void buildsSketchesForOlderHistory() {
+            Car car = createTestCar("Honda", "Accord");
+            jdbcTemplate.update("UPDATE app.cars SET distributions_built = FALSE WHERE id = ?", car.getId());
+            Instant baseTime = Instant.now().minus(100, ChronoUnit.DAYS);
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                rows.add(new Object[]{car.getId(), Timestamp.from(baseTime.plus(i, ChronoUnit.DAYS)),
+                        10000L + (i * 300L), new BigDecimal("10.0"), new BigDecimal("3.50"), new BigDecimal("35.00")});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO app.fillups (car_id, date, odometer, fuel_volume, price_per_unit, total_cost) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)",
+                    rows);
+            String url = "/api/cars/" + car.getId() + "/stats/distribution";
+
+            ResponseEntity<CarDistributionResponse> first = restTemplate.getForEntity(url, CarDistributionResponse.class);
+            ResponseEntity<CarDistributionResponse> second = restTemplate.getForEntity(url, CarDistributionResponse.class);
+
+            assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(first.getBody().mpg().count()).isEqualTo(99);
+            assertThat(first.getBody().mpg().median()).isCloseTo(new BigDecimal("30.00"), within(new BigDecimal("0.30")));
+            assertThat(first.getBody().pricePerUnit().count()).isEqualTo(100);
+            assertThat(first.getBody().pricePerUnit().histogram()).hasSize(10);
+            assertThat(second.getBody()).isEqualTo(first.getBody());
+            // Car, then its monthly sketches
+            assertWithinBudget(second, 2);
+        }
+
+        @Test
+        @DisplayName("includes fillups created through the API")
+        void includesCreatedFillups() {
+            Car car = createTestCar("Honda", "Accord");
+            Instant now = Instant.now();
+            for (int i = 0; i < 3; i++) {
+                restTemplate.postForEntity("/api/fillups", new CreateFillupRequest(car.getId(),
+                        now.minus(3 - i, ChronoUnit.DAYS), 10000L + i * 300L, new BigDecimal("10.0"),
+                        new BigDecimal("3.00").add(BigDecimal.valueOf(i)), new BigDecimal("30.00"), false, false),
+                        FillupResponse.class);
+            }
+
+            ResponseEntity<CarDistributionResponse> response = restTemplate.getForEntity(
+                    "/api/cars/" + car.getId() + "/stats/distribution?bins=4", CarDistributionResponse.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody().mpg().count()).isEqualTo(2);
+            assertThat(response.getBody().pricePerUnit().count()).isEqualTo(3);
+            assertThat(response.getBody().pricePerUnit().median()).isCloseTo(new BigDecimal("4.000"),
+                    within(new BigDecimal("0.050")));
+            assertThat(response.getBody().pricePerUnit().histogram()).hasSize(4);
+        }
+
+        @Test
+        @DisplayName("moves the values of edited and deleted fillups without rebuilding")
+        void followsEditsAndDeletes() {
+            Car car = createTestCar("Honda", "Accord");
+            Instant now = Instant.now();
+            List<UUID> ids = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                ids.add(restTemplate.postForEntity("/api/fillups", new CreateFillupRequest(car.getId(),
+                        now.minus(3 - i, ChronoUnit.DAYS), 10000L + i * 300L, new BigDecimal("10.0"),
+                        new BigDecimal("3.50"), new BigDecimal("35.00"), false, false),
+                        FillupResponse.class).getBody().id());
+            }
+
+            restTemplate.exchange("/api/fillups/" + ids.get(1), HttpMethod.PUT, new HttpEntity<>(
+                    new UpdateFillupRequest(null, null, new BigDecimal("15.0"), new BigDecimal("4.50"), null, null, null)),
+                    FillupResponse.class);
+            restTemplate.delete("/api/fillups/" + ids.get(2));
+
+            ResponseEntity<CarDistributionResponse> response = restTemplate.getForEntity(
+                    "/api/cars/" + car.getId() + "/stats/distribution", CarDistributionResponse.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            // 300 miles on 15 gallons; the deleted fillup's 300 miles on 10 gallons is gone
+            assertThat(response.getBody().mpg().count()).isEqualTo(1);
+            assertThat(response.getBody().mpg().median()).isCloseTo(new BigDecimal("20.00"), within(new BigDecimal("0.20")));
+            assertThat(response.getBody().pricePerUnit().count()).isEqualTo(2);
+            assertThat(response.getBody().pricePerUnit().histogram().getLast().upper())
+                    .isCloseTo(new BigDecimal("4.500"), within(new BigDecimal("0.100")));
+        }
+
+        @Test
+        @DisplayName("returns 404 for an unknown car")
+        void returns404ForUnknownCar() {
+            ResponseEntity<ErrorResponse> response = restTemplate.getForEntity(
+                    "/api/cars/" + UUID.randomUUID() + "/stats/distribution", ErrorResponse.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        }
     }
 
     @Nested
@@ -2,6 +2,8 @@ package me.adilfulara.autoledger.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import me.adilfulara.autoledger.api.dto.CarDeletionResponse;
+import me.adilfulara.autoledger.api.dto.CarDistributionResponse;
 import me.adilfulara.autoledger.api.dto.CarStatsResponse;
 import me.adilfulara.autoledger.api.dto.CreateCarRequest;
 import me.adilfulara.autoledger.api.dto.UpdateCarRequest;
@@ -10,6 +12,8 @@ import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
 import me.adilfulara.autoledger.auth.AuthenticatedUser;
 import me.adilfulara.autoledger.auth.CurrentUserResolver;
 import me.adilfulara.autoledger.auth.JwtAuthFilter;
+import me.adilfulara.autoledger.deletion.CarDeletionService;
+import me.adilfulara.autoledger.distribution.FillupDistributionService;
 import me.adilfulara.autoledger.domain.model.Car;
 import me.adilfulara.autoledger.domain.model.DistanceUnit;
 import me.adilfulara.autoledger.domain.model.FuelUnit;
@@ -27,6 +31,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
 
@@ -47,6 +53,12 @@ class CarControllerTest {
     @Mock
     private CarService carService;
 
+    @Mock
+    private CarDeletionService deletionService;
+
+    @Mock
+    private FillupDistributionService distributionService;
+
     @InjectMocks
     private CarController carController;
 
@@ -218,6 +230,51 @@ class CarControllerTest {
             mockMvc.perform(delete("/api/cars/{id}", CAR_ID))
                     .andExpect(status().isNotFound());
         }
+
+        @Test
+        @DisplayName("deletes in the background with Prefer: respond-async")
+        void deletesAsynchronously() throws Exception {
+            Instant requestedAt = Instant.parse("2024-06-01T12:00:00Z");
+            when(deletionService.requestDeletion(CAR_ID))
+                    .thenReturn(CarDeletionResponse.deleting(CAR_ID, requestedAt));
+
+            mockMvc.perform(delete("/api/cars/{id}", CAR_ID)
+                            .header("Prefer", "respond-async"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string("Location", "/api/cars/" + CAR_ID + "/deletion"))
+                    .andExpect(header().string("Preference-Applied", "respond-async"))
+                    .andExpect(jsonPath("$.status").value("deleting"));
+
+            verify(carService, never()).deleteCar(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/cars/{id}/deletion")
+    class GetCarDeletion {
+
+        @Test
+        @DisplayName("returns deletion status")
+        void returnsStatus() throws Exception {
+            when(deletionService.getStatus(USER_ID, CAR_ID)).thenReturn(CarDeletionResponse.deleted(CAR_ID));
+
+            mockMvc.perform(get("/api/cars/{id}/deletion", CAR_ID)
+                            .requestAttr(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, TEST_USER))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.carId").value(CAR_ID.toString()))
+                    .andExpect(jsonPath("$.status").value("deleted"));
+        }
+
+        @Test
+        @DisplayName("returns 404 when no deletion is known")
+        void returns404WhenUnknown() throws Exception {
+            when(deletionService.getStatus(USER_ID, CAR_ID))
+                    .thenThrow(new ResourceNotFoundException("Car deletion", CAR_ID));
+
+            mockMvc.perform(get("/api/cars/{id}/deletion", CAR_ID)
+                            .requestAttr(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, TEST_USER))
+                    .andExpect(status().isNotFound());
+        }
     }
 
     @Nested
@@ -242,4 +299,41 @@ class CarControllerTest {
                     .andExpect(jsonPath("$.averageMpg").value(30.00));
         }
     }
+
+    @Nested
+    @DisplayName("GET /api/cars/{id}/stats/distribution")
+    class GetCarDistribution {
+
+        @Test
+        @DisplayName("returns quantiles and histograms for a range of months")
+        void returnsDistribution() throws Exception {
+            CarDistributionResponse.Distribution mpg = new CarDistributionResponse.Distribution(12,
+                    new BigDecimal("27.10"), new BigDecimal("30.04"), new BigDecimal("33.20"),
+                    List.of(new CarDistributionResponse.Bin(new BigDecimal("26.80"), new BigDecimal("33.50"), 12)));
+            CarDistributionResponse.Distribution price = new CarDistributionResponse.Distribution(0,
+                    null, null, null, List.of());
+            when(distributionService.getDistribution(CAR_ID, YearMonth.of(2024, 7), YearMonth.of(2024, 9), 1))
+                    .thenReturn(new CarDistributionResponse(CAR_ID, YearMonth.of(2024, 7), YearMonth.of(2024, 9),
+                            mpg, price));
+
+            mockMvc.perform(get("/api/cars/{id}/stats/distribution", CAR_ID)
+                            .param("from", "2024-07")
+                            .param("to", "2024-09")
+                            .param("bins", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.mpg.median").value(30.04))
+                    .andExpect(jsonPath("$.mpg.histogram[0].count").value(12))
+                    .andExpect(jsonPath("$.pricePerUnit.count").value(0));
+        }
+
+        @Test
+        @DisplayName("defaults to ten bins over all months and returns 404 for an unknown car")
+        void usesDefaults() throws Exception {
+            when(distributionService.getDistribution(CAR_ID, null, null, 10))
+                    .thenThrow(new ResourceNotFoundException("Car", CAR_ID));
+
+            mockMvc.perform(get("/api/cars/{id}/stats/distribution", CAR_ID))
+                    .andExpect(status().isNotFound());
+        }
+    }
 }
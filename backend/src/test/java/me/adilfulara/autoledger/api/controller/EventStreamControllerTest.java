@@ -0,0 +1,63 @@
+package me.adilfulara.autoledger.api.controller;
+
+import me.adilfulara.autoledger.api.exception.GlobalExceptionHandler;
+import me.adilfulara.autoledger.auth.AuthenticatedUser;
+import me.adilfulara.autoledger.auth.CurrentUserResolver;
+import me.adilfulara.autoledger.auth.JwtAuthFilter;
+import me.adilfulara.autoledger.events.ChangeStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EventStreamController")
+class EventStreamControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private ChangeStreamService changeStreamService;
+
+    @InjectMocks
+    private EventStreamController eventStreamController;
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final AuthenticatedUser TEST_USER = new AuthenticatedUser(
+        USER_ID, "test_user", "test@example.com"
+    );
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(eventStreamController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new CurrentUserResolver())
+                .build();
+    }
+
+    @Test
+    @DisplayName("GET /api/events opens an async stream for the current user")
+    void opensStreamForCurrentUser() throws Exception {
+        when(changeStreamService.subscribe(USER_ID)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .requestAttr(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, TEST_USER))
+                .andExpect(request().asyncStarted());
+
+        verify(changeStreamService).subscribe(USER_ID);
+    }
+}
@@ -15,19 +15,25 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import static me.adilfulara.autoledger.SqlStatementBudget.assertWithinBudget;
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -178,6 +184,89 @@ class FillupControllerIT {
             assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
             assertThat(response.getBody().message()).containsIgnoringCase("odometer");
         }
+
+        private <T> ResponseEntity<T> postWithKey(String key, CreateFillupRequest request, Class<T> type) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("Idempotency-Key", key);
+            return restTemplate.postForEntity("/api/fillups", new HttpEntity<>(request, headers), type);
+        }
+
+        @Test
+        @DisplayName("replays the original response for a retried Idempotency-Key")
+        void replaysRetriedIdempotencyKey() {
+            CreateFillupRequest request = new CreateFillupRequest(
+                    testCar.getId(), Instant.now(), 10000L,
+                    new BigDecimal("10.0"), new BigDecimal("3.50"),
+                    new BigDecimal("35.00"), false, false);
+
+            ResponseEntity<FillupResponse> first = postWithKey("retry-1", request, FillupResponse.class);
+            ResponseEntity<FillupResponse> retry = postWithKey("retry-1", request, FillupResponse.class);
+
+            assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            assertThat(first.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("false");
+            assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            assertThat(retry.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+            assertThat(retry.getBody()).isEqualTo(first.getBody());
+            assertThat(fillupRepository.findByCarIdOrderByDateDesc(testCar.getId())).hasSize(1);
+            // Claim attempt and key lookup; the create path is not re-run
+            assertWithinBudget(retry, 2);
+        }
+
+        @Test
+        @DisplayName("coalesces concurrent requests with the same Idempotency-Key")
+        void coalescesConcurrentIdempotencyKey() {
+            CreateFillupRequest request = new CreateFillupRequest(
+                    testCar.getId(), Instant.now(), 10000L,
+                    new BigDecimal("10.0"), new BigDecimal("3.50"),
+                    new BigDecimal("35.00"), false, false);
+
+            List<CompletableFuture<ResponseEntity<FillupResponse>>> requests = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                requests.add(CompletableFuture.supplyAsync(
+                        () -> postWithKey("concurrent-1", request, FillupResponse.class)));
+            }
+            List<ResponseEntity<FillupResponse>> responses = requests.stream().map(CompletableFuture::join).toList();
+
+            assertThat(responses).allSatisfy(r -> assertThat(r.getStatusCode()).isEqualTo(HttpStatus.CREATED));
+            assertThat(responses).extracting(r -> r.getBody().id()).containsOnly(responses.getFirst().getBody().id());
+            assertThat(fillupRepository.findByCarIdOrderByDateDesc(testCar.getId())).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("returns 422 when an Idempotency-Key is reused for a different request")
+        void returns422ForReusedIdempotencyKey() {
+            CreateFillupRequest request = new CreateFillupRequest(
+                    testCar.getId(), Instant.now(), 10000L,
+                    new BigDecimal("10.0"), new BigDecimal("3.50"),
+                    new BigDecimal("35.00"), false, false);
+            CreateFillupRequest other = new CreateFillupRequest(
+                    testCar.getId(), Instant.now(), 10300L,
+                    new BigDecimal("10.0"), new BigDecimal("3.50"),
+                    new BigDecimal("35.00"), false, false);
+            postWithKey("reused-1", request, FillupResponse.class);
+
+            ResponseEntity<ErrorResponse> response = postWithKey("reused-1", other, ErrorResponse.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+            assertThat(fillupRepository.findByCarIdOrderByDateDesc(testCar.getId())).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("does not remember failed requests")
+        void doesNotRememberFailedRequests() {
+            createTestFillup(15000L, 0);
+            CreateFillupRequest rejected = new CreateFillupRequest(
+                    testCar.getId(), Instant.now(), 10000L,
+                    new BigDecimal("10.0"), new BigDecimal("3.50"),
+                    new BigDecimal("35.00"), false, false);
+
+            ResponseEntity<ErrorResponse> response = postWithKey("failed-1", rejected, ErrorResponse.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM app.idempotency_keys WHERE idempotency_key = 'failed-1'", Long.class))
+                    .isZero();
+        }
     }
 
     @Nested
@@ -314,6 +403,165 @@ class FillupControllerIT {
         }
     }
 
+    @Nested
+    @DisplayName("POST /api/fillups/batch")
+    class ApplyFillupBatch {
+
+        private CreateFillupRequest create(Car car, long odometer, int daysOffset) {
+            return new CreateFillupRequest(car.getId(), baseTime.plus(daysOffset, ChronoUnit.DAYS), odometer,
+                    new BigDecimal("10.0"), new BigDecimal("3.50"), new BigDecimal("35.00"), false, false);
+        }
+
+        @Test
+        @DisplayName("applies creates, updates and deletes across cars")
+        void appliesBatchAcrossCars() {
+            Car otherCar = carRepository.save(new Car(testUser.getId(), "Honda", "Civic", 2020, null, "Other",
+                    FuelUnit.GALLONS, DistanceUnit.MILES));
+            Fillup first = createTestFillup(10000L, 0);
+            Fillup mistake = createTestFillup(10150L, 3);
+
+            ResponseEntity<BatchFillupResponse> response = restTemplate.postForEntity("/api/fillups/batch",
+                    new BatchFillupRequest(
+                            List.of(create(testCar, 10300L, 7), create(otherCar, 5000L, 1)),
+                            List.of(new BatchFillupRequest.Update(first.getId(),
+                                    new UpdateFillupRequest(null, null, null, null, new BigDecimal("36.00"),
+                                            null, null))),
+                            List.of(mistake.getId())),
+                    BatchFillupResponse.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody().created()).extracting(FillupResponse::odometer)
+                    .containsExactly(10300L, 5000L);
+            // MPG of the new fillup is computed against the batch result (the deleted one is gone)
+            assertThat(response.getBody().created().getFirst().mpg()).isEqualByComparingTo(new BigDecimal("30.00"));
+            assertThat(response.getBody().updated().getFirst().totalCost()).isEqualByComparingTo("36.00");
+            assertThat(response.getBody().deleted()).containsExactly(mistake.getId());
+            assertThat(fillupRepository.findByCarIdOrderByOdometerAsc(testCar.getId()))
+                    .extracting(Fillup::getOdometer).containsExactly(10000L, 10300L);
+            assertThat(fillupRepository.countByCarId(otherCar.getId())).isEqualTo(1);
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM app.fillups WHERE car_id = ? AND change_seq > 0", Long.class,
+                    testCar.getId())).isEqualTo(2L);
+        }
+
+        @Test
+        @DisplayName("writes nothing when one entry breaks odometer order")
+        void isAllOrNothing() {
+            createTestFillup(10000L, 0);
+
+            ResponseEntity<ErrorResponse> response = restTemplate.postForEntity("/api/fillups/batch",
+                    new BatchFillupRequest(
+                            List.of(create(testCar, 10300L, 7), create(testCar, 10200L, 14)), null, null),
+                    ErrorResponse.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(fillupRepository.countByCarId(testCar.getId())).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("creating 200 fillups uses a fixed number of statements")
+        void batchStaysWithinBudget() {
+            List<CreateFillupRequest> creates = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                creates.add(create(testCar, 10000L + i * 300L, i));
+            }
+
+            ResponseEntity<BatchFillupResponse> response = restTemplate.postForEntity("/api/fillups/batch",
+                    new BatchFillupRequest(creates, null, null), BatchFillupResponse.class);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody().created()).hasSize(200);
+            assertThat(fillupRepository.countByCarId(testCar.getId())).isEqualTo(200);
+            // Cars, histories, change numbers, car stamp, outbox batch, insert batch, baseline read and merge,
+            // sketch read and upsert
+            assertWithinBudget(response, 10);
+        }
+    }
+
+    @Nested
+    @DisplayName("SQL statement budgets")
+    class SqlStatementBudgets {
+
+        private void insertFillups(int count) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                rows.add(new Object[]{
+                        testCar.getId(),
+                        Timestamp.from(baseTime.plus(i, ChronoUnit.HOURS)),
+                        10000L + (i * 300L),
+                        new BigDecimal("10.0"),
+                        new BigDecimal("3.50"),
+                        new BigDecimal("35.00"),
+                        i % 5 == 3
+                });
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO app.fillups (car_id, date, odometer, fuel_volume, price_per_unit, total_cost, is_partial) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    rows);
+        }
+
+        @Test
+        @DisplayName("listing 500 fillups uses at most 3 queries")
+        void listingFillupsStaysWithinBudget() {
+            insertFillups(500);
+
+            ResponseEntity<List<FillupResponse>> response = restTemplate.exchange(
+                    "/api/cars/" + testCar.getId() + "/fillups",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<>() {});
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).hasSize(500);
+            assertWithinBudget(response, 3);
+        }
+
+        @Test
+        @DisplayName("columnar history of 500 fillups uses at most 3 queries and a fraction of the bytes")
+        void columnarHistoryIsCompact() {
+            insertFillups(500);
+            String url = "/api/cars/" + testCar.getId() + "/fillups";
+
+            ResponseEntity<String> rows = restTemplate.getForEntity(url, String.class);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setAccept(List.of(MediaType.parseMediaType(FillupColumnsResponse.MEDIA_TYPE)));
+            ResponseEntity<FillupColumnsResponse> columns = restTemplate.exchange(
+                    url, HttpMethod.GET, new HttpEntity<>(headers), FillupColumnsResponse.class);
+            ResponseEntity<String> columnsText = restTemplate.exchange(
+                    url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+            assertThat(columns.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(columns.getBody().count()).isEqualTo(500);
+            assertThat(columns.getBody().odometerBase()).isEqualTo(10000L);
+            assertThat(columns.getBody().odometerDeltas()).containsOnly(0L, 300L);
+            assertThat(columns.getBody().partialRows()).hasSize(100);
+            assertThat(columnsText.getBody().length()).isLessThan(rows.getBody().length() / 4);
+            assertWithinBudget(columns, 3);
+        }
+
+        @Test
+        @DisplayName("listing recent fillups uses at most 4 queries")
+        void listingRecentFillupsStaysWithinBudget() {
+            insertFillups(200);
+
+            ResponseEntity<List<FillupResponse>> response = restTemplate.exchange(
+                    "/api/cars/" + testCar.getId() + "/fillups/recent",
+                    HttpMethod.GET,
+                    null,
+                    new ParameterizedTypeReference<>() {});
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).hasSize(50);
+            assertThat(response.getBody()).allSatisfy(f -> {
+                if (!f.isPartial()) {
+                    assertThat(f.mpg()).isNotNull();
+                }
+            });
+            assertWithinBudget(response, 4);
+        }
+    }
+
     @Nested
     @DisplayName("MPG Calculation via API")
     class MpgCalculationViaApi {
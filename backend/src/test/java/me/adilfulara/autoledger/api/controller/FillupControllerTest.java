@@ -2,13 +2,29 @@ package me.adilfulara.autoledger.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import me.adilfulara.autoledger.api.dto.BatchFillupRequest;
+import me.adilfulara.autoledger.api.dto.BatchFillupResponse;
 import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.dto.FillupColumnsResponse;
+import me.adilfulara.autoledger.api.dto.FillupRangeResponse;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
 import me.adilfulara.autoledger.api.dto.UpdateFillupRequest;
 import me.adilfulara.autoledger.api.exception.GlobalExceptionHandler;
+import me.adilfulara.autoledger.api.exception.InvalidOdometerException;
+import me.adilfulara.autoledger.api.exception.IdempotencyKeyReusedException;
 import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.auth.AuthenticatedUser;
+import me.adilfulara.autoledger.auth.CurrentUserResolver;
+import me.adilfulara.autoledger.auth.JwtAuthFilter;
+import me.adilfulara.autoledger.domain.model.ArchivedFillup;
 import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupAnomaly;
 import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupArchiveRepository;
 import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.idempotency.IdempotencyService;
+import me.adilfulara.autoledger.service.FillupBatchService;
+import me.adilfulara.autoledger.service.FillupRangeService;
 import me.adilfulara.autoledger.service.FillupService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -25,10 +41,12 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -47,19 +65,34 @@ class FillupControllerTest {
     @Mock
     private CarRepository carRepository;
 
+    @Mock
+    private FillupArchiveRepository archiveRepository;
+
     @Mock
     private FillupService fillupService;
 
+    @Mock
+    private FillupBatchService fillupBatchService;
+
+    @Mock
+    private FillupRangeService fillupRangeService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @InjectMocks
     private FillupController fillupController;
 
     private static final UUID CAR_ID = UUID.randomUUID();
     private static final UUID FILLUP_ID = UUID.randomUUID();
+    private static final AuthenticatedUser TEST_USER = new AuthenticatedUser(
+            UUID.randomUUID(), "user_123", "test@example.com");
 
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(fillupController)
                 .setControllerAdvice(new GlobalExceptionHandler())
+                .setCustomArgumentResolvers(new CurrentUserResolver())
                 .build();
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
@@ -82,6 +115,7 @@ class FillupControllerTest {
         void returnsFillupWithMPG() throws Exception {
             Fillup fillup = createTestFillup();
             when(fillupRepository.findById(FILLUP_ID)).thenReturn(Optional.of(fillup));
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
             when(fillupService.calculateMPG(fillup)).thenReturn(Optional.of(new BigDecimal("30.00")));
 
             mockMvc.perform(get("/api/fillups/{id}", FILLUP_ID))
@@ -99,6 +133,72 @@ class FillupControllerTest {
             mockMvc.perform(get("/api/fillups/{id}", FILLUP_ID))
                     .andExpect(status().isNotFound());
         }
+
+        @Test
+        @DisplayName("returns 404 when the fillup's car is being deleted")
+        void returns404WhenCarDeleting() throws Exception {
+            when(fillupRepository.findById(FILLUP_ID)).thenReturn(Optional.of(createTestFillup()));
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(false);
+
+            mockMvc.perform(get("/api/fillups/{id}", FILLUP_ID))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /api/fillups/batch")
+    class ApplyFillupBatch {
+
+        @Test
+        @DisplayName("applies a valid batch")
+        void appliesBatch() throws Exception {
+            BatchFillupRequest request = new BatchFillupRequest(
+                    List.of(new CreateFillupRequest(CAR_ID, Instant.now(), 10000L,
+                            new BigDecimal("10.0"), new BigDecimal("3.50"), new BigDecimal("35.00"), false, false)),
+                    null,
+                    List.of(FILLUP_ID));
+            when(fillupBatchService.apply(any(BatchFillupRequest.class))).thenReturn(
+                    new BatchFillupResponse(List.of(FillupResponse.from(createTestFillup())), List.of(),
+                            List.of(FILLUP_ID)));
+
+            mockMvc.perform(post("/api/fillups/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.created[0].carId").value(CAR_ID.toString()))
+                    .andExpect(jsonPath("$.deleted[0]").value(FILLUP_ID.toString()));
+        }
+
+        @Test
+        @DisplayName("returns 400 when an entry fails validation")
+        void returns400WhenEntryInvalid() throws Exception {
+            BatchFillupRequest request = new BatchFillupRequest(
+                    List.of(new CreateFillupRequest(CAR_ID, Instant.now(), -5L,
+                            new BigDecimal("10.0"), new BigDecimal("3.50"), new BigDecimal("35.00"), false, false)),
+                    null,
+                    null);
+
+            mockMvc.perform(post("/api/fillups/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.fieldErrors[0].field").value("create[0].odometer"));
+
+            verifyNoInteractions(fillupBatchService);
+        }
+
+        @Test
+        @DisplayName("returns 400 when the batch breaks odometer order")
+        void returns400WhenOdometerInvalid() throws Exception {
+            BatchFillupRequest request = new BatchFillupRequest(null, null, List.of(FILLUP_ID));
+            when(fillupBatchService.apply(any(BatchFillupRequest.class)))
+                    .thenThrow(new InvalidOdometerException(9000L, 10000L));
+
+            mockMvc.perform(post("/api/fillups/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isBadRequest());
+        }
     }
 
     @Nested
@@ -114,12 +214,11 @@ class FillupControllerTest {
                     new BigDecimal("35.00"), false, false);
             Fillup fillup = createTestFillup();
 
-            when(carRepository.existsById(CAR_ID)).thenReturn(true);
-            when(fillupRepository.findMostRecentByCarId(CAR_ID)).thenReturn(Optional.empty());
-            when(fillupRepository.save(any(Fillup.class))).thenReturn(fillup);
+            when(fillupService.createFillup(any(CreateFillupRequest.class))).thenReturn(fillup);
             when(fillupService.calculateMPG(fillup)).thenReturn(Optional.empty());
 
             mockMvc.perform(post("/api/fillups")
+                            .requestAttr(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, TEST_USER)
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(request)))
                     .andExpect(status().isCreated())
@@ -134,9 +233,11 @@ class FillupControllerTest {
                     new BigDecimal("10.0"), new BigDecimal("3.50"),
                     new BigDecimal("35.00"), false, false);
 
-            when(carRepository.existsById(CAR_ID)).thenReturn(false);
+            when(fillupService.createFillup(any(CreateFillupRequest.class)))
+                    .thenThrow(new ResourceNotFoundException("Car", CAR_ID));
 
             mockMvc.perform(post("/api/fillups")
+                            .requestAttr(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, TEST_USER)
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(request)))
                     .andExpect(status().isNotFound());
@@ -145,18 +246,16 @@ class FillupControllerTest {
         @Test
         @DisplayName("returns 400 when odometer is not greater than previous")
         void returns400WhenOdometerInvalid() throws Exception {
-            Fillup existingFillup = createTestFillup();
-            existingFillup.setOdometer(15000L);
-
             CreateFillupRequest request = new CreateFillupRequest(
                     CAR_ID, Instant.now(), 10000L,
                     new BigDecimal("10.0"), new BigDecimal("3.50"),
                     new BigDecimal("35.00"), false, false);
 
-            when(carRepository.existsById(CAR_ID)).thenReturn(true);
-            when(fillupRepository.findMostRecentByCarId(CAR_ID)).thenReturn(Optional.of(existingFillup));
+            when(fillupService.createFillup(any(CreateFillupRequest.class)))
+                    .thenThrow(new InvalidOdometerException(10000L, 15000L));
 
             mockMvc.perform(post("/api/fillups")
+                            .requestAttr(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, TEST_USER)
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(request)))
                     .andExpect(status().isBadRequest())
@@ -170,10 +269,55 @@ class FillupControllerTest {
                     null, null, null, null, null, null, null, null);
 
             mockMvc.perform(post("/api/fillups")
+                            .requestAttr(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, TEST_USER)
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(request)))
                     .andExpect(status().isBadRequest());
         }
+
+        @Test
+        @DisplayName("replays the stored response for a repeated Idempotency-Key")
+        void replaysForRepeatedIdempotencyKey() throws Exception {
+            CreateFillupRequest request = new CreateFillupRequest(
+                    CAR_ID, Instant.now(), 10000L,
+                    new BigDecimal("10.0"), new BigDecimal("3.50"),
+                    new BigDecimal("35.00"), false, false);
+            FillupResponse stored = FillupResponse.from(createTestFillup(), null);
+
+            when(idempotencyService.execute(eq(TEST_USER.userId()), eq("retry-1"), any(CreateFillupRequest.class),
+                    eq(FillupResponse.class), any()))
+                    .thenReturn(new IdempotencyService.Result<>(stored, true));
+
+            mockMvc.perform(post("/api/fillups")
+                            .requestAttr(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, TEST_USER)
+                            .header("Idempotency-Key", "retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", "true"))
+                    .andExpect(jsonPath("$.id").value(FILLUP_ID.toString()));
+
+            verify(fillupService, never()).createFillup(any());
+        }
+
+        @Test
+        @DisplayName("returns 422 when an Idempotency-Key is reused for a different request")
+        void returns422ForReusedIdempotencyKey() throws Exception {
+            CreateFillupRequest request = new CreateFillupRequest(
+                    CAR_ID, Instant.now(), 10000L,
+                    new BigDecimal("10.0"), new BigDecimal("3.50"),
+                    new BigDecimal("35.00"), false, false);
+
+            when(idempotencyService.execute(any(), eq("retry-1"), any(), eq(FillupResponse.class), any()))
+                    .thenThrow(new IdempotencyKeyReusedException("retry-1"));
+
+            mockMvc.perform(post("/api/fillups")
+                            .requestAttr(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, TEST_USER)
+                            .header("Idempotency-Key", "retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isUnprocessableEntity());
+        }
     }
 
     @Nested
@@ -187,14 +331,14 @@ class FillupControllerTest {
                     null, 10500L, null, null, null, null, null);
             Fillup fillup = createTestFillup();
 
-            when(fillupRepository.findById(FILLUP_ID)).thenReturn(Optional.of(fillup));
-            when(fillupRepository.save(any(Fillup.class))).thenReturn(fillup);
+            when(fillupService.updateFillup(eq(FILLUP_ID), any(UpdateFillupRequest.class))).thenReturn(fillup);
             when(fillupService.calculateMPG(fillup)).thenReturn(Optional.of(new BigDecimal("30.00")));
 
             mockMvc.perform(put("/api/fillups/{id}", FILLUP_ID)
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(request)))
-                    .andExpect(status().isOk());
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.mpg").value(30.00));
         }
 
         @Test
@@ -205,8 +349,7 @@ class FillupControllerTest {
                     new BigDecimal("3.75"), new BigDecimal("46.88"), true, true);
             Fillup fillup = createTestFillup();
 
-            when(fillupRepository.findById(FILLUP_ID)).thenReturn(Optional.of(fillup));
-            when(fillupRepository.save(any(Fillup.class))).thenReturn(fillup);
+            when(fillupService.updateFillup(eq(FILLUP_ID), any(UpdateFillupRequest.class))).thenReturn(fillup);
             when(fillupService.calculateMPG(fillup)).thenReturn(Optional.of(new BigDecimal("28.00")));
 
             mockMvc.perform(put("/api/fillups/{id}", FILLUP_ID)
@@ -221,7 +364,8 @@ class FillupControllerTest {
             UpdateFillupRequest request = new UpdateFillupRequest(
                     null, 10500L, null, null, null, null, null);
 
-            when(fillupRepository.findById(FILLUP_ID)).thenReturn(Optional.empty());
+            when(fillupService.updateFillup(eq(FILLUP_ID), any(UpdateFillupRequest.class)))
+                    .thenThrow(new ResourceNotFoundException("Fillup", FILLUP_ID));
 
             mockMvc.perform(put("/api/fillups/{id}", FILLUP_ID)
                             .contentType(MediaType.APPLICATION_JSON)
@@ -237,18 +381,17 @@ class FillupControllerTest {
         @Test
         @DisplayName("deletes fillup successfully")
         void deletesFillup() throws Exception {
-            when(fillupRepository.existsById(FILLUP_ID)).thenReturn(true);
-
             mockMvc.perform(delete("/api/fillups/{id}", FILLUP_ID))
                     .andExpect(status().isNoContent());
 
-            verify(fillupRepository).deleteById(FILLUP_ID);
+            verify(fillupService).deleteFillup(FILLUP_ID);
         }
 
         @Test
         @DisplayName("returns 404 when not found")
         void returns404WhenNotFound() throws Exception {
-            when(fillupRepository.existsById(FILLUP_ID)).thenReturn(false);
+            doThrow(new ResourceNotFoundException("Fillup", FILLUP_ID))
+                    .when(fillupService).deleteFillup(FILLUP_ID);
 
             mockMvc.perform(delete("/api/fillups/{id}", FILLUP_ID))
                     .andExpect(status().isNotFound());
@@ -263,9 +406,10 @@ class FillupControllerTest {
         @DisplayName("returns fillups for car")
         void returnsFillups() throws Exception {
             Fillup fillup = createTestFillup();
-            when(carRepository.existsById(CAR_ID)).thenReturn(true);
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
             when(fillupRepository.findByCarIdOrderByDateDesc(CAR_ID)).thenReturn(List.of(fillup));
-            when(fillupService.calculateMPG(fillup)).thenReturn(Optional.of(new BigDecimal("30.00")));
+            when(fillupService.calculateMPGs(List.of(fillup)))
+                    .thenReturn(Map.of(FILLUP_ID, new BigDecimal("30.00")));
 
             mockMvc.perform(get("/api/cars/{carId}/fillups", CAR_ID))
                     .andExpect(status().isOk())
@@ -276,13 +420,137 @@ class FillupControllerTest {
         @Test
         @DisplayName("returns 404 when car not found")
         void returns404WhenCarNotFound() throws Exception {
-            when(carRepository.existsById(CAR_ID)).thenReturn(false);
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(false);
 
             mockMvc.perform(get("/api/cars/{carId}/fillups", CAR_ID))
                     .andExpect(status().isNotFound());
         }
     }
 
+    @Nested
+    @DisplayName("GET /api/cars/{carId}/fillups (columnar)")
+    class GetFillupColumnsByCarId {
+
+        @Test
+        @DisplayName("returns columns when the columnar media type is accepted")
+        void returnsColumns() throws Exception {
+            Fillup fillup = createTestFillup();
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of(fillup));
+            when(fillupService.calculateMPGs(List.of(fillup)))
+                    .thenReturn(Map.of(FILLUP_ID, new BigDecimal("30.00")));
+
+            mockMvc.perform(get("/api/cars/{carId}/fillups", CAR_ID)
+                            .accept(FillupColumnsResponse.MEDIA_TYPE))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(FillupColumnsResponse.MEDIA_TYPE))
+                    .andExpect(jsonPath("$.carId").value(CAR_ID.toString()))
+                    .andExpect(jsonPath("$.count").value(1))
+                    .andExpect(jsonPath("$.odometerBase").value(10000))
+                    .andExpect(jsonPath("$.mpg[0]").value(30.00))
+                    .andExpect(jsonPath("$.ids").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("includes fillup IDs when requested")
+        void includesIds() throws Exception {
+            Fillup fillup = createTestFillup();
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of(fillup));
+            when(fillupService.calculateMPGs(List.of(fillup))).thenReturn(Map.of());
+
+            mockMvc.perform(get("/api/cars/{carId}/fillups", CAR_ID)
+                            .param("includeIds", "true")
+                            .accept(FillupColumnsResponse.MEDIA_TYPE))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.ids[0]").value(FILLUP_ID.toString()));
+        }
+
+        @Test
+        @DisplayName("still returns rows for plain JSON clients")
+        void plainJsonStillReturnsRows() throws Exception {
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.findByCarIdOrderByDateDesc(CAR_ID)).thenReturn(List.of());
+
+            mockMvc.perform(get("/api/cars/{carId}/fillups", CAR_ID)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$").isArray());
+
+            verify(fillupRepository, never()).findByCarIdOrderByOdometerAsc(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/cars/{carId}/fillups/range")
+    class GetFillupsInRange {
+
+        private static final Instant FROM = Instant.parse("2024-07-01T00:00:00Z");
+        private static final Instant TO = Instant.parse("2024-10-01T00:00:00Z");
+
+        @Test
+        @DisplayName("returns the range with aggregates and passes the filters on")
+        void returnsRange() throws Exception {
+            FillupResponse fillup = FillupResponse.from(createTestFillup(), new BigDecimal("30.00"));
+            FillupRangeResponse.CarTotals totals = new FillupRangeResponse.CarTotals(CAR_ID, 1,
+                    new BigDecimal("10.0"), new BigDecimal("35.00"), new BigDecimal("3.500"),
+                    new BigDecimal("3.50"), new BigDecimal("3.50"), new BigDecimal("30.00"));
+            FillupRangeService.Filter filter = new FillupRangeService.Filter(FROM, TO, false, null,
+                    new BigDecimal("3.00"), null);
+            when(fillupRangeService.getCarFillups(CAR_ID, filter)).thenReturn(new FillupRangeResponse(
+                    FROM, TO, 1, new BigDecimal("35.00"), List.of(totals), List.of(fillup)));
+
+            mockMvc.perform(get("/api/cars/{carId}/fillups/range", CAR_ID)
+                            .param("from", FROM.toString())
+                            .param("to", TO.toString())
+                            .param("partial", "false")
+                            .param("minPrice", "3.00"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.fillupCount").value(1))
+                    .andExpect(jsonPath("$.totalCost").value(35.00))
+                    .andExpect(jsonPath("$.cars[0].averagePricePerUnit").value(3.5))
+                    .andExpect(jsonPath("$.fillups[0].id").value(FILLUP_ID.toString()));
+        }
+
+        @Test
+        @DisplayName("returns 400 when the range is empty")
+        void returns400ForEmptyRange() throws Exception {
+            mockMvc.perform(get("/api/cars/{carId}/fillups/range", CAR_ID)
+                            .param("from", TO.toString())
+                            .param("to", FROM.toString()))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(fillupRangeService);
+        }
+
+        @Test
+        @DisplayName("returns 404 when car not found")
+        void returns404WhenCarNotFound() throws Exception {
+            when(fillupRangeService.getCarFillups(eq(CAR_ID), any()))
+                    .thenThrow(new ResourceNotFoundException("Car", CAR_ID));
+
+            mockMvc.perform(get("/api/cars/{carId}/fillups/range", CAR_ID)
+                            .param("from", FROM.toString())
+                            .param("to", TO.toString()))
+                    .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @DisplayName("queries all of the user's cars")
+        void queriesUserFillups() throws Exception {
+            when(fillupRangeService.getUserFillups(eq(TEST_USER.userId()), any())).thenReturn(
+                    new FillupRangeResponse(FROM, TO, 0, BigDecimal.ZERO, List.of(), List.of()));
+
+            mockMvc.perform(get("/api/fillups/range")
+                            .requestAttr(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, TEST_USER)
+                            .param("from", FROM.toString())
+                            .param("to", TO.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.fillupCount").value(0))
+                    .andExpect(jsonPath("$.fillups").isEmpty());
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/cars/{carId}/fillups/recent")
     class GetRecentFillups {
@@ -291,9 +559,9 @@ class FillupControllerTest {
         @DisplayName("returns recent fillups with default limit")
         void returnsRecentFillups() throws Exception {
             Fillup fillup = createTestFillup();
-            when(carRepository.existsById(CAR_ID)).thenReturn(true);
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
             when(fillupRepository.findRecentByCarId(CAR_ID, 50)).thenReturn(List.of(fillup));
-            when(fillupService.calculateMPG(fillup)).thenReturn(Optional.empty());
+            when(fillupService.calculateMPGs(List.of(fillup))).thenReturn(Map.of());
 
             mockMvc.perform(get("/api/cars/{carId}/fillups/recent", CAR_ID))
                     .andExpect(status().isOk())
@@ -303,7 +571,7 @@ class FillupControllerTest {
         @Test
         @DisplayName("returns recent fillups with custom limit")
         void returnsRecentFillupsWithLimit() throws Exception {
-            when(carRepository.existsById(CAR_ID)).thenReturn(true);
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
             when(fillupRepository.findRecentByCarId(CAR_ID, 10)).thenReturn(List.of());
 
             mockMvc.perform(get("/api/cars/{carId}/fillups/recent", CAR_ID)
@@ -313,4 +581,63 @@ class FillupControllerTest {
             verify(fillupRepository).findRecentByCarId(CAR_ID, 10);
         }
     }
+
+    @Nested
+    @DisplayName("GET /api/cars/{carId}/fillups/flagged")
+    class GetFlaggedFillups {
+
+        @Test
+        @DisplayName("returns flagged fillups with their flag and MPG")
+        void returnsFlaggedFillups() throws Exception {
+            Fillup fillup = createTestFillup();
+            fillup.setAnomaly(FillupAnomaly.MPG);
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.findFlaggedByCarId(CAR_ID)).thenReturn(List.of(fillup));
+            when(fillupService.calculateMPG(fillup)).thenReturn(Optional.of(new BigDecimal("95.40")));
+
+            mockMvc.perform(get("/api/cars/{carId}/fillups/flagged", CAR_ID))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(FILLUP_ID.toString()))
+                    .andExpect(jsonPath("$[0].anomaly").value("MPG"))
+                    .andExpect(jsonPath("$[0].mpg").value(95.40));
+        }
+
+        @Test
+        @DisplayName("returns 404 when car not found")
+        void returns404WhenCarNotFound() throws Exception {
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(false);
+
+            mockMvc.perform(get("/api/cars/{carId}/fillups/flagged", CAR_ID))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/cars/{carId}/fillups/archive")
+    class GetArchivedFillups {
+
+        @Test
+        @DisplayName("returns archived fillups with stored MPG")
+        void returnsArchivedFillups() throws Exception {
+            ArchivedFillup archived = ArchivedFillup.from(createTestFillup(), new BigDecimal("31.25"), Instant.now());
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(archiveRepository.findByCarIdOrderByDateDesc(CAR_ID)).thenReturn(List.of(archived));
+
+            mockMvc.perform(get("/api/cars/{carId}/fillups/archive", CAR_ID))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(FILLUP_ID.toString()))
+                    .andExpect(jsonPath("$[0].mpg").value(31.25));
+
+            verifyNoInteractions(fillupService);
+        }
+
+        @Test
+        @DisplayName("returns 404 when car not found")
+        void returns404WhenCarNotFound() throws Exception {
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(false);
+
+            mockMvc.perform(get("/api/cars/{carId}/fillups/archive", CAR_ID))
+                    .andExpect(status().isNotFound());
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package me.adilfulara.autoledger.archive;
+
+import me.adilfulara.autoledger.PostgreSQLTestContainer;
+import me.adilfulara.autoledger.api.dto.CarStatsResponse;
+import me.adilfulara.autoledger.domain.model.*;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupArchiveRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import me.adilfulara.autoledger.service.CarService;
+import me.adilfulara.autoledger.service.FillupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for fillup compaction using real PostgreSQL via Testcontainers.
+ * Verifies that stats and per-fillup MPG are identical before and after compaction.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DisplayName("Fillup compaction Integration Tests")
+class FillupCompactionIT {
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLTestContainer.configureDataSource(registry);
+    }
+
+    @Autowired
+    private FillupCompactionService compactionService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private FillupService fillupService;
+
+    @Autowired
+    private FillupRepository fillupRepository;
+
+    @Autowired
+    private FillupArchiveRepository archiveRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Car testCar;
+    private Instant baseTime;
+
+    @BeforeEach
+    void setUp() {
+        fillupRepository.deleteAll();
+        carRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User user = userRepository.save(new User("user_compaction_test", "compaction@test.com"));
+        testCar = carRepository.save(new Car(user.getId(), "Toyota", "Camry", 2015, null,
+                "Old Faithful", FuelUnit.GALLONS, DistanceUnit.MILES));
+        baseTime = Instant.now().minus(400, ChronoUnit.DAYS);
+
+        // 24 fillups, every 4th (from index 2) partial, one missed; the first hot row is partial
+        long odometer = 20_000;
+        for (int i = 0; i < 24; i++) {
+            odometer += 250 + (i % 5) * 20;
+            BigDecimal fuel = new BigDecimal("9.500").add(new BigDecimal(i % 3));
+            BigDecimal price = new BigDecimal("3.459");
+            BigDecimal cost = fuel.multiply(price).setScale(2, RoundingMode.HALF_UP);
+            fillupRepository.save(new Fillup(testCar.getId(), baseTime.plus(i * 15L, ChronoUnit.DAYS), odometer,
+                    fuel, price, cost, i % 4 == 2, i == 11));
+        }
+    }
+
+    @Test
+    @DisplayName("stats and MPG are unchanged by compaction")
+    void statsAndMpgUnchanged() {
+        CarStatsResponse statsBefore = carService.getCarStats(testCar.getId());
+        Map<UUID, BigDecimal> mpgBefore = fillupService.calculateMPGs(
+                fillupRepository.findByCarIdOrderByOdometerAsc(testCar.getId()));
+
+        int archived = compactionService.compactCar(testCar.getId(), baseTime.plus(200, ChronoUnit.DAYS));
+
+        assertThat(archived).isEqualTo(14);
+        List<Fillup> hot = fillupRepository.findByCarIdOrderByOdometerAsc(testCar.getId());
+        assertThat(hot).hasSize(10);
+        assertThat(hot.getFirst().getIsPartial()).isTrue();
+
+        CarStatsResponse statsAfter = carService.getCarStats(testCar.getId());
+        assertThat(statsAfter)
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(statsBefore);
+
+        Map<UUID, BigDecimal> mpgAfter = new HashMap<>(fillupService.calculateMPGs(hot));
+        archiveRepository.findByCarIdOrderByDateDesc(testCar.getId()).stream()
+                .filter(a -> a.getMpg() != null)
+                .forEach(a -> mpgAfter.put(a.getId(), a.getMpg()));
+        assertThat(mpgAfter).isEqualTo(mpgBefore);
+    }
+
+    @Test
+    @DisplayName("compacting twice merges into existing segments without changing stats")
+    void compactTwice() {
+        CarStatsResponse statsBefore = carService.getCarStats(testCar.getId());
+
+        compactionService.compactCar(testCar.getId(), baseTime.plus(100, ChronoUnit.DAYS));
+        compactionService.compactCar(testCar.getId(), baseTime.plus(250, ChronoUnit.DAYS));
+
+        assertThat(carRepository.findById(testCar.getId()).orElseThrow().getArchivedThroughOdometer()).isNotNull();
+        assertThat(carService.getCarStats(testCar.getId()))
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(statsBefore);
+    }
+}
@@ -0,0 +1,244 @@
+package me.adilfulara.autoledger.archive;
+
+import me.adilfulara.autoledger.domain.model.ArchivedFillup;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupAnomaly;
+import me.adilfulara.autoledger.domain.model.FillupSegment;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupArchiveRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.FillupSegmentRepository;
+import me.adilfulara.autoledger.service.FillupService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FillupCompactionService")
+class FillupCompactionServiceTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private FillupRepository fillupRepository;
+
+    @Mock
+    private FillupArchiveRepository archiveRepository;
+
+    @Mock
+    private FillupSegmentRepository segmentRepository;
+
+    @Mock
+    private FillupService fillupService;
+
+    @InjectMocks
+    private FillupCompactionService compactionService;
+
+    private static final UUID CAR_ID = UUID.randomUUID();
+    private static final Instant CUTOFF = Instant.parse("2024-01-01T00:00:00Z");
+
+    private Fillup fillup(long odometer, Instant date) {
+        Fillup fillup = new Fillup(CAR_ID, date, odometer,
+                new BigDecimal("10.000"), new BigDecimal("3.500"), new BigDecimal("35.00"), false, false);
+        fillup.setId(UUID.randomUUID());
+        return fillup;
+    }
+
+    private Instant daysBeforeCutoff(int days) {
+        return CUTOFF.minus(days, ChronoUnit.DAYS);
+    }
+
+    @Nested
+    @DisplayName("selectArchivable")
+    class SelectArchivable {
+
+        @Test
+        @DisplayName("selects fillups dated before the cutoff")
+        void selectsOldFillups() {
+            Fillup old1 = fillup(1000L, daysBeforeCutoff(60));
+            Fillup old2 = fillup(1300L, daysBeforeCutoff(30));
+            Fillup recent = fillup(1600L, CUTOFF.plus(1, ChronoUnit.DAYS));
+
+            assertThat(FillupCompactionService.selectArchivable(List.of(old1, old2, recent), CUTOFF))
+                    .containsExactly(old1, old2);
+        }
+
+        @Test
+        @DisplayName("always keeps the latest fillup")
+        void keepsLatest() {
+            Fillup old1 = fillup(1000L, daysBeforeCutoff(60));
+            Fillup old2 = fillup(1300L, daysBeforeCutoff(30));
+
+            assertThat(FillupCompactionService.selectArchivable(List.of(old1, old2), CUTOFF))
+                    .containsExactly(old1);
+        }
+
+        @Test
+        @DisplayName("does not split fillups sharing an odometer reading")
+        void keepsEqualOdometerGroupsTogether() {
+            Fillup old = fillup(1000L, daysBeforeCutoff(60));
+            Fillup sameOdometerOld = fillup(1300L, daysBeforeCutoff(1));
+            Fillup sameOdometerRecent = fillup(1300L, CUTOFF.plus(1, ChronoUnit.HOURS));
+
+            assertThat(FillupCompactionService.selectArchivable(
+                    List.of(old, sameOdometerOld, sameOdometerRecent), CUTOFF))
+                    .containsExactly(old);
+        }
+
+        @Test
+        @DisplayName("returns nothing for empty history")
+        void emptyHistory() {
+            assertThat(FillupCompactionService.selectArchivable(List.of(), CUTOFF)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("compactCar")
+    class CompactCar {
+
+        @Test
+        @DisplayName("archives, summarizes and deletes old fillups")
+        @SuppressWarnings("unchecked")
+        void archivesOldFillups() {
+            Fillup old1 = fillup(1000L, Instant.parse("2023-11-05T00:00:00Z"));
+            Fillup old2 = fillup(1300L, Instant.parse("2023-11-20T00:00:00Z"));
+            Fillup old3 = fillup(1600L, Instant.parse("2023-12-10T00:00:00Z"));
+            Fillup recent = fillup(1900L, CUTOFF.plus(5, ChronoUnit.DAYS));
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID))
+                    .thenReturn(List.of(old1, old2, old3, recent));
+            when(fillupService.calculateMPGs(List.of(old1, old2, old3)))
+                    .thenReturn(Map.of(old2.getId(), new BigDecimal("30.00"), old3.getId(), new BigDecimal("30.00")));
+            when(segmentRepository.findByCarIdAndPeriodStart(eq(CAR_ID), any())).thenReturn(Optional.empty());
+
+            int archived = compactionService.compactCar(CAR_ID, CUTOFF);
+
+            assertThat(archived).isEqualTo(3);
+            ArgumentCaptor<List<ArchivedFillup>> archivedCaptor = ArgumentCaptor.forClass(List.class);
+            verify(archiveRepository).saveAll(archivedCaptor.capture());
+            assertThat(archivedCaptor.getValue()).extracting(ArchivedFillup::getId)
+                    .containsExactly(old1.getId(), old2.getId(), old3.getId());
+            assertThat(archivedCaptor.getValue()).allMatch(ArchivedFillup::isNew);
+
+            ArgumentCaptor<FillupSegment> segmentCaptor = ArgumentCaptor.forClass(FillupSegment.class);
+            verify(segmentRepository, times(2)).save(segmentCaptor.capture());
+            FillupSegment november = segmentCaptor.getAllValues().get(0);
+            assertThat(november.getPeriodStart()).isEqualTo(LocalDate.of(2023, 11, 1));
+            assertThat(november.getFillupCount()).isEqualTo(2);
+            assertThat(november.getMpgCount()).isEqualTo(1);
+            assertThat(november.getTotalFuel()).isEqualByComparingTo("20.000");
+
+            verify(fillupRepository).deleteByCarIdThroughOdometer(CAR_ID, 1600L);
+            verify(carRepository).markArchivedThrough(CAR_ID, 1600L);
+        }
+
+        @Test
+        @DisplayName("merges into an existing segment for the same month")
+        void mergesExistingSegment() {
+            Fillup old = fillup(1000L, Instant.parse("2023-11-05T00:00:00Z"));
+            Fillup recent = fillup(1300L, CUTOFF.plus(5, ChronoUnit.DAYS));
+            FillupSegment existing = FillupSegment.summarize(CAR_ID,
+                    List.of(ArchivedFillup.from(fillup(700L, Instant.parse("2023-11-01T00:00:00Z")),
+                            new BigDecimal("28.00"), Instant.now()))).getFirst();
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of(old, recent));
+            when(fillupService.calculateMPGs(List.of(old)))
+                    .thenReturn(Map.of(old.getId(), new BigDecimal("30.00")));
+            when(segmentRepository.findByCarIdAndPeriodStart(CAR_ID, LocalDate.of(2023, 11, 1)))
+                    .thenReturn(Optional.of(existing));
+
+            compactionService.compactCar(CAR_ID, CUTOFF);
+
+            verify(segmentRepository).save(existing);
+            assertThat(existing.getFillupCount()).isEqualTo(2);
+            assertThat(existing.getFirstOdometer()).isEqualTo(700L);
+            assertThat(existing.getLastOdometer()).isEqualTo(1000L);
+            assertThat(existing.getMpgSum()).isEqualByComparingTo("58.00");
+            assertThat(existing.getBestMpg()).isEqualByComparingTo("30.00");
+            assertThat(existing.getWorstMpg()).isEqualByComparingTo("28.00");
+        }
+
+        @Test
+        @DisplayName("keeps flagged fillups' flag and MPG apart from the rest")
+        @SuppressWarnings("unchecked")
+        void keepsFlaggedMpgApart() {
+            Fillup old1 = fillup(1000L, Instant.parse("2023-11-05T00:00:00Z"));
+            Fillup old2 = fillup(1300L, Instant.parse("2023-11-20T00:00:00Z"));
+            old2.setAnomaly(FillupAnomaly.MPG);
+            Fillup recent = fillup(1600L, CUTOFF.plus(5, ChronoUnit.DAYS));
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of(old1, old2, recent));
+            when(fillupService.calculateMPGs(List.of(old1, old2)))
+                    .thenReturn(Map.of(old1.getId(), new BigDecimal("30.00"), old2.getId(), new BigDecimal("90.00")));
+            when(segmentRepository.findByCarIdAndPeriodStart(eq(CAR_ID), any())).thenReturn(Optional.empty());
+
+            compactionService.compactCar(CAR_ID, CUTOFF);
+
+            ArgumentCaptor<List<ArchivedFillup>> archivedCaptor = ArgumentCaptor.forClass(List.class);
+            verify(archiveRepository).saveAll(archivedCaptor.capture());
+            assertThat(archivedCaptor.getValue()).extracting(ArchivedFillup::getAnomaly)
+                    .containsExactly(null, FillupAnomaly.MPG);
+            ArgumentCaptor<FillupSegment> segmentCaptor = ArgumentCaptor.forClass(FillupSegment.class);
+            verify(segmentRepository).save(segmentCaptor.capture());
+            FillupSegment segment = segmentCaptor.getValue();
+            assertThat(segment.mpgCount(false)).isEqualTo(1);
+            assertThat(segment.worstMpg(false)).isEqualByComparingTo("30.00");
+            assertThat(segment.bestMpg(false)).isEqualByComparingTo("30.00");
+            assertThat(segment.mpgCount(true)).isEqualTo(2);
+            assertThat(segment.mpgSum(true)).isEqualByComparingTo("120.00");
+            assertThat(segment.bestMpg(true)).isEqualByComparingTo("90.00");
+        }
+
+        @Test
+        @DisplayName("does nothing when no fillups are old enough")
+        void nothingToArchive() {
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID))
+                    .thenReturn(List.of(fillup(1000L, CUTOFF.plus(1, ChronoUnit.DAYS))));
+
+            assertThat(compactionService.compactCar(CAR_ID, CUTOFF)).isZero();
+
+            verify(archiveRepository, never()).saveAll(anyList());
+            verify(fillupRepository, never()).deleteByCarIdThroughOdometer(any(), anyLong());
+            verifyNoInteractions(carRepository, segmentRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("FillupCompactionJob")
+    class Job {
+
+        @Test
+        @DisplayName("compacts every candidate and continues past failures")
+        void compactsCandidates() {
+            FillupArchiveProperties properties = new FillupArchiveProperties();
+            FillupCompactionService service = mock(FillupCompactionService.class);
+            UUID failing = UUID.randomUUID();
+            UUID ok = UUID.randomUUID();
+            when(service.findCandidates(any())).thenReturn(List.of(failing, ok));
+            when(service.compactCar(eq(failing), any())).thenThrow(new IllegalStateException("boom"));
+            when(service.compactCar(eq(ok), any())).thenReturn(5);
+
+            new FillupCompactionJob(service, properties).run();
+
+            verify(service).compactCar(eq(ok), any());
+        }
+    }
+}
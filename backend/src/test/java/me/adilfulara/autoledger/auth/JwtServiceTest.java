@@ -15,7 +15,14 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -178,6 +185,91 @@ class JwtServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("JWKS caching")
+    class JwksCaching {
+
+        @Test
+        @DisplayName("should load JWKS once for concurrent callers")
+        void shouldLoadJwksOnceForConcurrentCallers() throws Exception {
+            // Given
+            JWKSet jwkSet = new JWKSet(rsaKey.toPublicJWK());
+            CountingJwtService service = new CountingJwtService(authProperties, jwkSet);
+
+            // When
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<JWKSet>> results = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    results.add(executor.submit(() -> service.getJwkSet(ISSUER)));
+                }
+                for (Future<JWKSet> result : results) {
+                    assertThat(result.get()).isSameAs(jwkSet);
+                }
+            }
+
+            // Then
+            assertThat(service.loads.get()).isEqualTo(1);
+            assertThat(service.lastJwksUri).isEqualTo(ISSUER + "/.well-known/jwks.json");
+        }
+
+        @Test
+        @DisplayName("should not cache failed loads")
+        void shouldNotCacheFailedLoads() {
+            // Given
+            CountingJwtService service = new CountingJwtService(authProperties, null);
+
+            // When / Then
+            assertThatThrownBy(() -> service.getJwkSet(ISSUER))
+                .isInstanceOf(JwtValidationException.class)
+                .hasMessageContaining("Failed to fetch JWKS");
+            assertThatThrownBy(() -> service.getJwkSet(ISSUER))
+                .isInstanceOf(JwtValidationException.class);
+            assertThat(service.loads.get()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should prefetch the issuer's JWKS into the cache")
+        void shouldPrefetchJwks() {
+            // Given
+            CountingJwtService service = new CountingJwtService(authProperties, new JWKSet(rsaKey.toPublicJWK()));
+
+            // When
+            boolean fetched = service.prefetchJwks();
+            service.getJwkSet(ISSUER);
+
+            // Then
+            assertThat(fetched).isTrue();
+            assertThat(service.loads.get()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should skip the prefetch when auth is disabled")
+        void shouldSkipPrefetchWhenAuthDisabled() {
+            // Given
+            authProperties.setEnabled(false);
+            CountingJwtService service = new CountingJwtService(authProperties, new JWKSet(rsaKey.toPublicJWK()));
+
+            // When / Then
+            assertThat(service.prefetchJwks()).isFalse();
+            assertThat(service.loads.get()).isZero();
+        }
+
+        @Test
+        @DisplayName("should reload JWKS after cache is cleared")
+        void shouldReloadAfterClear() {
+            // Given
+            CountingJwtService service = new CountingJwtService(authProperties, new JWKSet(rsaKey.toPublicJWK()));
+            service.getJwkSet(ISSUER);
+
+            // When
+            service.clearJwksCache();
+            service.getJwkSet(ISSUER);
+
+            // Then
+            assertThat(service.loads.get()).isEqualTo(2);
+        }
+    }
+
     // ==================== Helper Methods ====================
 
     private String createValidToken() throws JOSEException {
@@ -253,6 +345,32 @@ class JwtServiceTest {
         return signedJWT.serialize();
     }
 
+    /**
+     * JwtService that counts JWKS loads instead of performing HTTP calls.
+     * A null JWKSet simulates an unreachable issuer.
+     */
+    private static class CountingJwtService extends JwtService {
+        private final JWKSet jwkSet;
+        private final AtomicInteger loads = new AtomicInteger();
+        private volatile String lastJwksUri;
+
+        CountingJwtService(AuthProperties authProperties, JWKSet jwkSet) {
+            super(authProperties);
+            this.jwkSet = jwkSet;
+        }
+
+        @Override
+        protected JWKSet loadJwkSet(String jwksUri) throws Exception {
+            loads.incrementAndGet();
+            lastJwksUri = jwksUri;
+            Thread.sleep(10);
+            if (jwkSet == null) {
+                throw new IOException("connection refused");
+            }
+            return jwkSet;
+        }
+    }
+
     /**
      * Testable version of JwtService that allows injecting a JWKSet for testing.
      * Overrides getJwkSet to return the test JWKSet instead of fetching from URL.
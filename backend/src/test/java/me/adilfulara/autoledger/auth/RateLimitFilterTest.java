@@ -0,0 +1,200 @@
+package me.adilfulara.autoledger.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RateLimitFilter")
+class RateLimitFilterTest {
+
+    private static final AuthenticatedUser USER =
+            new AuthenticatedUser(UUID.randomUUID(), "test_user", "test@example.com");
+    private static final AuthenticatedUser OTHER_USER =
+            new AuthenticatedUser(UUID.randomUUID(), "other_user", "other@example.com");
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final AtomicInteger handled = new AtomicInteger();
+    private final FilterChain handler = (request, response) -> handled.incrementAndGet();
+
+    private RateLimitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setReads(new RateLimitProperties.Budget(3, Duration.ofSeconds(3)));
+        properties.setWrites(new RateLimitProperties.Budget(2, Duration.ofSeconds(10)));
+        properties.setStats(new RateLimitProperties.Budget(1, Duration.ofSeconds(30)));
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(properties, meterRegistry, clock::get);
+    }
+
+    private MockHttpServletResponse perform(String method, String path, AuthenticatedUser user) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (user != null) {
+            request.setAttribute(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, user);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, handler);
+        return response;
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    @Nested
+    @DisplayName("Token buckets")
+    class TokenBuckets {
+
+        @Test
+        @DisplayName("Should allow a burst of capacity requests, then reject with 429 and Retry-After")
+        void rejectsOverCapacity() throws Exception {
+            for (int i = 0; i < 3; i++) {
+                assertThat(perform("GET", "/api/cars", USER).getStatus()).isEqualTo(200);
+            }
+
+            MockHttpServletResponse limited = perform("GET", "/api/cars", USER);
+
+            assertThat(limited.getStatus()).isEqualTo(429);
+            assertThat(limited.getHeader("Retry-After")).isEqualTo("1");
+            assertThat(limited.getContentAsString()).contains("Too many requests");
+            assertThat(handled).hasValue(3);
+            assertThat(meterRegistry.get(RateLimitFilter.METRIC_NAME).tag("budget", "read").counter().count())
+                    .isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should refill at capacity per period")
+        void refills() throws Exception {
+            for (int i = 0; i < 3; i++) {
+                perform("GET", "/api/cars", USER);
+            }
+
+            advance(Duration.ofMillis(999));
+            assertThat(perform("GET", "/api/cars", USER).getStatus()).isEqualTo(429);
+            advance(Duration.ofMillis(1));
+            assertThat(perform("GET", "/api/cars", USER).getStatus()).isEqualTo(200);
+            assertThat(perform("GET", "/api/cars", USER).getStatus()).isEqualTo(429);
+        }
+
+        @Test
+        @DisplayName("Should report the wait until the next token in whole seconds")
+        void retryAfterRoundsUp() throws Exception {
+            perform("GET", "/api/cars/" + UUID.randomUUID() + "/stats", USER);
+            advance(Duration.ofMillis(500));
+
+            MockHttpServletResponse limited = perform("GET", "/api/cars/" + UUID.randomUUID() + "/stats", USER);
+
+            assertThat(limited.getStatus()).isEqualTo(429);
+            assertThat(limited.getHeader("Retry-After")).isEqualTo("30");
+        }
+
+        @Test
+        @DisplayName("Should keep separate budgets for reads, writes and stats")
+        void separateBudgets() throws Exception {
+            perform("POST", "/api/fillups", USER);
+            perform("DELETE", "/api/fillups/" + UUID.randomUUID(), USER);
+            assertThat(perform("PUT", "/api/cars/" + UUID.randomUUID(), USER).getStatus()).isEqualTo(429);
+
+            assertThat(perform("GET", "/api/cars/" + UUID.randomUUID() + "/stats", USER).getStatus()).isEqualTo(200);
+            assertThat(perform("GET", "/api/cars", USER).getStatus()).isEqualTo(200);
+        }
+
+        @Test
+        @DisplayName("Should charge car distributions to the stats budget")
+        void chargesDistributionsToStats() throws Exception {
+            UUID carId = UUID.randomUUID();
+            assertThat(perform("GET", "/api/cars/" + carId + "/stats/distribution", USER).getStatus()).isEqualTo(200);
+
+            assertThat(perform("GET", "/api/cars/" + carId + "/stats", USER).getStatus()).isEqualTo(429);
+            assertThat(perform("GET", "/api/cars/" + carId + "/fillups", USER).getStatus()).isEqualTo(200);
+            assertThat(meterRegistry.get(RateLimitFilter.METRIC_NAME).tag("budget", "stats").counter().count())
+                    .isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should charge the fleet summary to the stats budget")
+        void chargesFleetSummaryToStats() throws Exception {
+            assertThat(perform("GET", "/api/fleet/summary", USER).getStatus()).isEqualTo(200);
+
+            assertThat(perform("GET", "/api/fleet/summary", USER).getStatus()).isEqualTo(429);
+            assertThat(perform("GET", "/api/cars/" + UUID.randomUUID() + "/stats", USER).getStatus()).isEqualTo(429);
+            assertThat(perform("GET", "/api/cars", USER).getStatus()).isEqualTo(200);
+        }
+
+        @Test
+        @DisplayName("Should keep separate buckets per user")
+        void separateUsers() throws Exception {
+            perform("GET", "/api/cars/" + UUID.randomUUID() + "/stats", USER);
+
+            assertThat(perform("GET", "/api/cars/" + UUID.randomUUID() + "/stats", OTHER_USER).getStatus())
+                    .isEqualTo(200);
+        }
+    }
+
+    @Nested
+    @DisplayName("Bypass")
+    class Bypass {
+
+        @Test
+        @DisplayName("Should not limit requests without an authenticated user")
+        void skipsAnonymous() throws Exception {
+            for (int i = 0; i < 10; i++) {
+                assertThat(perform("GET", "/api/cars", null).getStatus()).isEqualTo(200);
+            }
+        }
+
+        @Test
+        @DisplayName("Should not limit actuator endpoints")
+        void skipsActuator() throws Exception {
+            for (int i = 0; i < 10; i++) {
+                assertThat(perform("GET", "/actuator/health", USER).getStatus()).isEqualTo(200);
+            }
+        }
+
+        @Test
+        @DisplayName("Should pass everything through when disabled")
+        void skipsWhenDisabled() throws Exception {
+            properties.setEnabled(false);
+
+            for (int i = 0; i < 10; i++) {
+                assertThat(perform("POST", "/api/fillups", USER).getStatus()).isEqualTo(200);
+            }
+            assertThat(handled).hasValue(10);
+        }
+    }
+
+    @Nested
+    @DisplayName("State")
+    class State {
+
+        @Test
+        @DisplayName("Should never track more users than configured")
+        void boundsTrackedUsers() throws Exception {
+            properties.setMaxUsers(32);
+            meterRegistry = new SimpleMeterRegistry();
+            filter = new RateLimitFilter(properties, meterRegistry, clock::get);
+
+            for (int i = 0; i < 1000; i++) {
+                perform("GET", "/api/cars", new AuthenticatedUser(UUID.randomUUID(), "u" + i, "u" + i + "@example.com"));
+            }
+
+            assertThat(meterRegistry.get("autoledger.ratelimit.users").gauge().value()).isLessThanOrEqualTo(32);
+        }
+    }
+}
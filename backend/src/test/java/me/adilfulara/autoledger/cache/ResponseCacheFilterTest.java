@@ -0,0 +1,236 @@
+package me.adilfulara.autoledger.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import me.adilfulara.autoledger.auth.AuthenticatedUser;
+import me.adilfulara.autoledger.auth.JwtAuthFilter;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import me.adilfulara.autoledger.observability.SqlStatementProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ResponseCacheFilter")
+class ResponseCacheFilterTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID CAR_ID = UUID.randomUUID();
+    private static final AuthenticatedUser USER = new AuthenticatedUser(USER_ID, "test_user", "test@example.com");
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CarRepository carRepository;
+
+    private ResponseCacheProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ResponseCacheFilter filter;
+
+    /**
+     * Stands in for the controller: counts invocations and writes a JSON body.
+     */
+    private final AtomicInteger handled = new AtomicInteger();
+    private String handlerBody = "[{\"name\":\"Daily Driver\"}]";
+    private int handlerStatus = HttpServletResponse.SC_OK;
+    private final FilterChain handler = (request, response) -> {
+        handled.incrementAndGet();
+        HttpServletResponse http = (HttpServletResponse) response;
+        http.setStatus(handlerStatus);
+        http.setContentType("application/json");
+        http.getOutputStream().write(handlerBody.getBytes(StandardCharsets.UTF_8));
+    };
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ResponseCacheFilter(userRepository, carRepository, properties, new SqlStatementProperties(),
+                meterRegistry);
+    }
+
+    private MockHttpServletRequest get(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setAttribute(JwtAuthFilter.AUTHENTICATED_USER_ATTRIBUTE, USER);
+        return request;
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, handler);
+        return response;
+    }
+
+    private double count(String result) {
+        return meterRegistry.get(ResponseCacheFilter.METRIC_NAME).tag("result", result).counter().count();
+    }
+
+    @Nested
+    @DisplayName("Car list")
+    class CarList {
+
+        @Test
+        @DisplayName("Should serve the second request from cached bytes without invoking the handler")
+        void servesHitFromCache() throws Exception {
+            when(userRepository.findDataVersionById(USER_ID)).thenReturn(Optional.of(4L));
+
+            MockHttpServletResponse first = perform(get("/api/cars"));
+            MockHttpServletResponse second = perform(get("/api/cars"));
+
+            assertThat(handled).hasValue(1);
+            assertThat(second.getStatus()).isEqualTo(200);
+            assertThat(second.getContentType()).startsWith("application/json");
+            assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo(handlerBody);
+            assertThat(count("hit")).isEqualTo(1);
+            assertThat(count("miss")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should re-render once the user's data version changes")
+        void rerendersAfterWrite() throws Exception {
+            when(userRepository.findDataVersionById(USER_ID)).thenReturn(Optional.of(4L), Optional.of(5L));
+
+            perform(get("/api/cars"));
+            handlerBody = "[]";
+            MockHttpServletResponse after = perform(get("/api/cars"));
+
+            assertThat(handled).hasValue(2);
+            assertThat(after.getContentAsString()).isEqualTo("[]");
+        }
+    }
+
+    @Nested
+    @DisplayName("Single car and stats")
+    class SingleCar {
+
+        @Test
+        @DisplayName("Should cache a car and its stats separately under the car's version")
+        void cachesPerEndpoint() throws Exception {
+            when(carRepository.findDataVersionById(CAR_ID)).thenReturn(Optional.of(2L));
+
+            perform(get("/api/cars/" + CAR_ID));
+            perform(get("/api/cars/" + CAR_ID + "/stats"));
+            perform(get("/api/cars/" + CAR_ID));
+            perform(get("/api/cars/" + CAR_ID + "/stats"));
+
+            assertThat(handled).hasValue(2);
+            assertThat(filter.cachedResponses()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should pass unknown cars through to the handler without caching")
+        void passesThroughUnknownCar() throws Exception {
+            when(carRepository.findDataVersionById(CAR_ID)).thenReturn(Optional.empty());
+            handlerStatus = HttpServletResponse.SC_NOT_FOUND;
+
+            perform(get("/api/cars/" + CAR_ID));
+            perform(get("/api/cars/" + CAR_ID));
+
+            assertThat(handled).hasValue(2);
+            assertThat(filter.cachedResponses()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should not cache error responses")
+        void skipsErrors() throws Exception {
+            when(carRepository.findDataVersionById(CAR_ID)).thenReturn(Optional.of(2L));
+            handlerStatus = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+
+            MockHttpServletResponse response = perform(get("/api/cars/" + CAR_ID + "/stats"));
+
+            assertThat(response.getStatus()).isEqualTo(500);
+            assertThat(response.getContentAsString()).isEqualTo(handlerBody);
+            assertThat(filter.cachedResponses()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Gzip")
+    class Gzip {
+
+        @Test
+        @DisplayName("Should send pre-compressed bytes to clients that accept gzip")
+        void sendsGzip() throws Exception {
+            properties.setGzipMinSize(1);
+            when(userRepository.findDataVersionById(USER_ID)).thenReturn(Optional.of(1L));
+            perform(get("/api/cars"));
+
+            MockHttpServletRequest request = get("/api/cars");
+            request.addHeader("Accept-Encoding", "gzip, deflate, br");
+            MockHttpServletResponse response = perform(request);
+
+            assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+            assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+                assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(handlerBody);
+            }
+        }
+
+        @Test
+        @DisplayName("Should send plain bytes when the body is below the gzip threshold")
+        void plainBelowThreshold() throws Exception {
+            when(userRepository.findDataVersionById(USER_ID)).thenReturn(Optional.of(1L));
+            perform(get("/api/cars"));
+
+            MockHttpServletRequest request = get("/api/cars");
+            request.addHeader("Accept-Encoding", "gzip");
+            MockHttpServletResponse response = perform(request);
+
+            assertThat(response.getHeader("Content-Encoding")).isNull();
+            assertThat(response.getContentAsString()).isEqualTo(handlerBody);
+        }
+
+        @Test
+        @DisplayName("Should parse Accept-Encoding weights")
+        void parsesAcceptEncoding() {
+            assertThat(ResponseCacheFilter.acceptsGzip("gzip")).isTrue();
+            assertThat(ResponseCacheFilter.acceptsGzip("br, GZIP;q=0.5")).isTrue();
+            assertThat(ResponseCacheFilter.acceptsGzip("*")).isTrue();
+            assertThat(ResponseCacheFilter.acceptsGzip("gzip;q=0")).isFalse();
+            assertThat(ResponseCacheFilter.acceptsGzip("identity")).isFalse();
+            assertThat(ResponseCacheFilter.acceptsGzip(null)).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Should ignore non-GET requests, other paths and unauthenticated requests")
+    void ignoresOtherRequests() throws Exception {
+        perform(new MockHttpServletRequest("POST", "/api/cars"));
+        perform(get("/api/cars/" + CAR_ID + "/fillups"));
+        perform(new MockHttpServletRequest("GET", "/api/cars"));
+
+        assertThat(handled).hasValue(3);
+        verifyNoInteractions(userRepository, carRepository);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when disabled")
+    void disabled() throws Exception {
+        properties.setEnabled(false);
+
+        perform(get("/api/cars"));
+        perform(get("/api/cars"));
+
+        assertThat(handled).hasValue(2);
+        verifyNoInteractions(userRepository, carRepository);
+    }
+}
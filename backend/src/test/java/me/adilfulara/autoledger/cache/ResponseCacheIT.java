@@ -0,0 +1,164 @@
+package me.adilfulara.autoledger.cache;
+
+import me.adilfulara.autoledger.PostgreSQLTestContainer;
+import me.adilfulara.autoledger.api.dto.CarResponse;
+import me.adilfulara.autoledger.api.dto.CarStatsResponse;
+import me.adilfulara.autoledger.api.dto.CreateCarRequest;
+import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
+import me.adilfulara.autoledger.api.dto.UpdateCarRequest;
+import me.adilfulara.autoledger.domain.model.DistanceUnit;
+import me.adilfulara.autoledger.domain.model.FuelUnit;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static me.adilfulara.autoledger.SqlStatementBudget.statementCount;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the serialized-response cache using real PostgreSQL via Testcontainers.
+ * Verifies that repeated reads skip the handler and that writes through the API invalidate them.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "response-cache.enabled=true")
+@DisplayName("Response Cache Integration Tests")
+class ResponseCacheIT {
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLTestContainer.configureDataSource(registry);
+    }
+
+    // Same UUID as JwtAuthFilter injects when auth is disabled
+    private static final UUID TEST_USER_UUID =
+            UUID.fromString("a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private FillupRepository fillupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        fillupRepository.deleteAll();
+        carRepository.deleteAll();
+        userRepository.deleteAll();
+
+        // Start each test at a fresh user version so entries cached by earlier tests never match
+        jdbcTemplate.update(
+                "INSERT INTO app.users (id, auth_provider_id, email, data_version, created_at) "
+                        + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)",
+                TEST_USER_UUID, "test_user_dev", "dev@test.com", ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE / 2));
+    }
+
+    private CarResponse createCar(String name) {
+        CreateCarRequest request = new CreateCarRequest("Toyota", "Camry", 2022, null, name,
+                FuelUnit.GALLONS, DistanceUnit.MILES);
+        ResponseEntity<CarResponse> response = restTemplate.postForEntity("/api/cars", request, CarResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        return response.getBody();
+    }
+
+    private void createFillup(UUID carId, long odometer) {
+        CreateFillupRequest request = new CreateFillupRequest(carId, Instant.now(), odometer,
+                new BigDecimal("10.000"), new BigDecimal("3.500"), new BigDecimal("35.00"), false, false);
+        ResponseEntity<FillupResponse> response = restTemplate.postForEntity("/api/fillups", request, FillupResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    @DisplayName("GET /api/cars is served from cache until a car is created")
+    void carListHitAndInvalidation() {
+        createCar("First");
+
+        ResponseEntity<CarResponse[]> miss = restTemplate.getForEntity("/api/cars", CarResponse[].class);
+        ResponseEntity<CarResponse[]> hit = restTemplate.getForEntity("/api/cars", CarResponse[].class);
+
+        assertThat(hit.getBody()).hasSize(1);
+        assertThat(statementCount(hit)).isEqualTo(1);
+        assertThat(statementCount(hit)).isLessThan(statementCount(miss));
+
+        createCar("Second");
+        ResponseEntity<CarResponse[]> after = restTemplate.getForEntity("/api/cars", CarResponse[].class);
+
+        assertThat(after.getBody()).extracting(CarResponse::name).containsExactlyInAnyOrder("First", "Second");
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/{id} reflects updates made through the API")
+    void carHitAndInvalidation() {
+        CarResponse car = createCar("Before");
+        restTemplate.getForEntity("/api/cars/" + car.id(), CarResponse.class);
+
+        ResponseEntity<CarResponse> hit = restTemplate.getForEntity("/api/cars/" + car.id(), CarResponse.class);
+        assertThat(hit.getBody().name()).isEqualTo("Before");
+        assertThat(statementCount(hit)).isEqualTo(1);
+
+        restTemplate.exchange("/api/cars/" + car.id(), HttpMethod.PUT,
+                new HttpEntity<>(new UpdateCarRequest(null, null, null, null, "After")), CarResponse.class);
+        ResponseEntity<CarResponse> after = restTemplate.getForEntity("/api/cars/" + car.id(), CarResponse.class);
+
+        assertThat(after.getBody().name()).isEqualTo("After");
+    }
+
+    @Test
+    @DisplayName("GET /api/cars/{id}/stats reflects new fillups")
+    void statsHitAndInvalidation() {
+        CarResponse car = createCar("Stats");
+        createFillup(car.id(), 1000);
+        restTemplate.getForEntity("/api/cars/" + car.id() + "/stats", CarStatsResponse.class);
+
+        ResponseEntity<CarStatsResponse> hit =
+                restTemplate.getForEntity("/api/cars/" + car.id() + "/stats", CarStatsResponse.class);
+        assertThat(hit.getBody().totalFillups()).isEqualTo(1L);
+        assertThat(statementCount(hit)).isEqualTo(1);
+
+        createFillup(car.id(), 1300);
+        ResponseEntity<CarStatsResponse> after =
+                restTemplate.getForEntity("/api/cars/" + car.id() + "/stats", CarStatsResponse.class);
+
+        assertThat(after.getBody().totalFillups()).isEqualTo(2L);
+        assertThat(after.getBody().averageMpg()).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    @DisplayName("Deleted cars are not served from cache")
+    void deletedCar() {
+        CarResponse car = createCar("Gone");
+        restTemplate.getForEntity("/api/cars/" + car.id(), CarResponse.class);
+
+        restTemplate.delete("/api/cars/" + car.id());
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/cars/" + car.id(), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,136 @@
+package me.adilfulara.autoledger.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SingleFlight")
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> flights = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start a computation that blocks until released, and wait until it is in flight.
+     */
+    private Future<SingleFlight.Flight<Integer>> startBlocked(String key, CountDownLatch release,
+                                                               int value) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        Future<SingleFlight.Flight<Integer>> leader = executor.submit(() -> flights.run(key, () -> {
+            computations.incrementAndGet();
+            started.countDown();
+            await(release);
+            return value;
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        return leader;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<Future<SingleFlight.Flight<Integer>>> followers(String key, int count) {
+        List<Future<SingleFlight.Flight<Integer>>> followers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            followers.add(executor.submit(() -> flights.run(key, () -> {
+                computations.incrementAndGet();
+                return -1;
+            })));
+        }
+        return followers;
+    }
+
+    private static void awaitWaiting(List<? extends Future<?>> futures) throws InterruptedException {
+        // Followers park on the leader's future; give them time to get there
+        Thread.sleep(100);
+        assertThat(futures).noneMatch(Future::isDone);
+    }
+
+    @Test
+    @DisplayName("Should share one in-flight computation between concurrent callers")
+    void sharesInFlightComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<SingleFlight.Flight<Integer>> leader = startBlocked("car:1", release, 42);
+        List<Future<SingleFlight.Flight<Integer>>> followers = followers("car:1", 5);
+        awaitWaiting(followers);
+
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(new SingleFlight.Flight<>(42, false));
+        for (Future<SingleFlight.Flight<Integer>> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(new SingleFlight.Flight<>(42, true));
+        }
+        assertThat(computations).hasValue(1);
+        assertThat(flights.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not share between different keys")
+    void separatesKeys() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<SingleFlight.Flight<Integer>> leader = startBlocked("car:1@v1", release, 1);
+
+        SingleFlight.Flight<Integer> other = flights.run("car:1@v2", () -> 2);
+
+        assertThat(other).isEqualTo(new SingleFlight.Flight<>(2, false));
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS).value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should compute again once the previous computation finished")
+    void doesNotCacheResults() {
+        assertThat(flights.run("car:1", () -> 1).value()).isEqualTo(1);
+        assertThat(flights.run("car:1", () -> 2).value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should hand the leader's exception to waiting callers")
+    void propagatesFailure() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<SingleFlight.Flight<Integer>> leader = executor.submit(() -> flights.run("car:1", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalArgumentException("boom");
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Future<SingleFlight.Flight<Integer>>> followers = followers("car:1", 3);
+        awaitWaiting(followers);
+
+        release.countDown();
+
+        for (Future<?> future : List.of(leader, followers.get(0), followers.get(1), followers.get(2))) {
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(computations).hasValue(0);
+        assertThat(flights.inFlight()).isZero();
+    }
+}
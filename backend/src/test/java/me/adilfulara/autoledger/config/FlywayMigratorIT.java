@@ -0,0 +1,78 @@
+package me.adilfulara.autoledger.config;
+
+import me.adilfulara.autoledger.PostgreSQLTestContainer;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for deferred Flyway validation against real PostgreSQL via Testcontainers.
+ * The context has already migrated the shared container, so a second start is up to date.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DisplayName("FlywayMigrator Integration Tests")
+class FlywayMigratorIT {
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLTestContainer.configureDataSource(registry);
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    private FlywayMigrator migrator(boolean defer, ApplicationStartup startup) {
+        StartupProperties properties = new StartupProperties();
+        properties.setDeferFlywayValidation(defer);
+        return new FlywayMigrator(properties, startup);
+    }
+
+    @Test
+    @DisplayName("defers validation when every migration is applied")
+    void defersWhenUpToDate() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        FlywayMigrator migrator = migrator(true, startup);
+
+        migrator.migrate(flyway);
+
+        assertThat(migrator.hasDeferredValidation()).isTrue();
+        assertThat(FlywayMigrator.validate(flyway)).isTrue();
+        StartupTimeline timeline = startup.getBufferedTimeline();
+        assertThat(timeline.getEvents())
+                .extracting(event -> event.getStartupStep().getName())
+                .containsExactly("autoledger.datasource.connect", "autoledger.flyway.migrate");
+        assertThat(timeline.getEvents().get(1).getStartupStep().getTags())
+                .anyMatch(tag -> tag.getKey().equals("mode") && tag.getValue().equals("deferred"));
+    }
+
+    @Test
+    @DisplayName("migrates as usual when not opted in")
+    void migratesByDefault() {
+        FlywayMigrator migrator = migrator(false, ApplicationStartup.DEFAULT);
+
+        migrator.migrate(flyway);
+
+        assertThat(migrator.hasDeferredValidation()).isFalse();
+    }
+
+    @Test
+    @DisplayName("reads the applied and local migrations")
+    void readsMigrations() throws Exception {
+        try (Connection connection = flyway.getConfiguration().getDataSource().getConnection()) {
+            assertThat(FlywayMigrator.appliedScripts(connection, flyway.getConfiguration()))
+                    .contains("V1__create_user_table.sql")
+                    .isEqualTo(FlywayMigrator.localScripts(flyway.getConfiguration()));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package me.adilfulara.autoledger.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("FlywayMigrator")
+class FlywayMigratorTest {
+
+    @Nested
+    @DisplayName("isUpToDate")
+    class IsUpToDate {
+
+        @Test
+        @DisplayName("is true when every local migration is applied")
+        void trueWhenAllApplied() {
+            assertThat(FlywayMigrator.isUpToDate(Set.of("V1__a.sql", "V2__b.sql"), Set.of("V1__a.sql", "V2__b.sql")))
+                    .isTrue();
+        }
+
+        @Test
+        @DisplayName("is false with a pending migration")
+        void falseWhenPending() {
+            assertThat(FlywayMigrator.isUpToDate(Set.of("V1__a.sql", "V2__b.sql"), Set.of("V1__a.sql"))).isFalse();
+        }
+
+        @Test
+        @DisplayName("is false when the history has migrations unknown to this build")
+        void falseWhenUnknownApplied() {
+            assertThat(FlywayMigrator.isUpToDate(Set.of("V1__a.sql"), Set.of("V1__a.sql", "V2__b.sql"))).isFalse();
+        }
+
+        @Test
+        @DisplayName("is false for a fresh database or unreadable local migrations")
+        void falseWhenUnknown() {
+            assertThat(FlywayMigrator.isUpToDate(Set.of("V1__a.sql"), Set.of())).isFalse();
+            assertThat(FlywayMigrator.isUpToDate(null, Set.of("V1__a.sql"))).isFalse();
+            assertThat(FlywayMigrator.isUpToDate(Set.of(), Set.of())).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("validate")
+    class Validate {
+
+        @Test
+        @DisplayName("passes when Flyway validates")
+        void passes() {
+            Flyway flyway = mock(Flyway.class);
+
+            assertThat(FlywayMigrator.validate(flyway)).isTrue();
+            verify(flyway).validate();
+        }
+
+        @Test
+        @DisplayName("fails without throwing when a checksum does not match")
+        void fails() {
+            Flyway flyway = mock(Flyway.class);
+            doThrow(new FlywayException("Migration checksum mismatch")).when(flyway).validate();
+
+            assertThat(FlywayMigrator.validate(flyway)).isFalse();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package me.adilfulara.autoledger.config;
+
+import me.adilfulara.autoledger.api.dto.BatchFillupRequest;
+import me.adilfulara.autoledger.api.dto.ChangeNotification;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.ChangeType;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("NativeRuntimeHints")
+class NativeRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("includes the Flyway migrations")
+    void includesMigrations() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/migration/V1__create_user_table.sql"))
+                .accepts(hints);
+    }
+
+    @Test
+    @DisplayName("registers entities for reflective mapping")
+    void registersEntities() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(Car.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(Fillup.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ChangeType.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(Car.class, "getDeletingSince")).accepts(hints);
+    }
+
+    @Test
+    @DisplayName("registers DTOs for Jackson binding")
+    void registersDtos() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(FillupResponse.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ChangeNotification.class)).accepts(hints);
+    }
+
+    @Test
+    @DisplayName("registers the JDBC proxies used to count SQL statements")
+    void registersJdbcProxies() {
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(Connection.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(Statement.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(PreparedStatement.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(CallableStatement.class)).accepts(hints);
+    }
+
+    @Test
+    @DisplayName("finds nested types but not interfaces")
+    void scansPackage() {
+        assertThat(NativeRuntimeHints.typesIn(NativeRuntimeHints.DTO_PACKAGE, getClass().getClassLoader()))
+                .contains(FillupResponse.class, BatchFillupRequest.Update.class)
+                .allMatch(type -> !type.isInterface());
+    }
+}
@@ -0,0 +1,138 @@
+package me.adilfulara.autoledger.deletion;
+
+import me.adilfulara.autoledger.PostgreSQLTestContainer;
+import me.adilfulara.autoledger.api.dto.CarDeletionResponse;
+import me.adilfulara.autoledger.api.dto.CreateCarRequest;
+import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.DistanceUnit;
+import me.adilfulara.autoledger.domain.model.FuelUnit;
+import me.adilfulara.autoledger.domain.model.User;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import me.adilfulara.autoledger.service.CarService;
+import me.adilfulara.autoledger.service.FillupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Integration tests for asynchronous car deletion using real PostgreSQL via Testcontainers.
+ * The scheduled job is disabled in tests; a {@link CarDeletionJob} is driven by hand instead.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DisplayName("Car Deletion Integration Tests")
+class CarDeletionIT {
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLTestContainer.configureDataSource(registry);
+    }
+
+    @Autowired
+    private CarDeletionService deletionService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private FillupService fillupService;
+
+    @Autowired
+    private FillupRepository fillupRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User testUser;
+    private Car testCar;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM app.outbox_events");
+        jdbcTemplate.update("DELETE FROM app.sync_tombstones");
+        fillupRepository.deleteAll();
+        carRepository.deleteAll();
+        userRepository.deleteAll();
+
+        testUser = userRepository.save(new User("user_deletion_test", "deletion@test.com"));
+        testCar = carService.createCar(testUser.getId(), new CreateCarRequest(
+                "Toyota", "Camry", 2022, null, "Doomed Car", FuelUnit.GALLONS, DistanceUnit.MILES));
+        for (int i = 0; i < 7; i++) {
+            fillupService.createFillup(new CreateFillupRequest(testCar.getId(),
+                    Instant.now().minus(30 - i, ChronoUnit.DAYS), 10000L + i * 300L, new BigDecimal("10.0"),
+                    new BigDecimal("3.50"), new BigDecimal("35.00"), false, false));
+        }
+    }
+
+    private CarDeletionJob job(int chunkSize) {
+        CarDeletionProperties properties = new CarDeletionProperties();
+        properties.setChunkSize(chunkSize);
+        properties.setPause(Duration.ZERO);
+        return new CarDeletionJob(deletionService, properties);
+    }
+
+    @Test
+    @DisplayName("hides the car as soon as deletion is requested")
+    void hidesCarImmediately() {
+        CarDeletionResponse response = deletionService.requestDeletion(testCar.getId());
+
+        assertThat(response.status()).isEqualTo(CarDeletionResponse.DELETING);
+        assertThat(carService.getCarsByUserId(testUser.getId())).isEmpty();
+        assertThatThrownBy(() -> carService.getCarById(testCar.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(fillupRepository.countByCarId(testCar.getId())).isEqualTo(7L);
+        assertThat(deletionService.getStatus(testUser.getId(), testCar.getId()).status())
+                .isEqualTo(CarDeletionResponse.DELETING);
+    }
+
+    @Test
+    @DisplayName("job deletes the history in chunks, then the car")
+    void jobDeletesInChunks() throws InterruptedException {
+        deletionService.requestDeletion(testCar.getId());
+
+        long deleted = job(3).deleteCar(testCar.getId());
+
+        assertThat(deleted).isEqualTo(7L);
+        assertThat(fillupRepository.countByCarId(testCar.getId())).isZero();
+        assertThat(carRepository.findById(testCar.getId())).isEmpty();
+        assertThat(deletionService.findPending()).isEmpty();
+        assertThat(deletionService.getStatus(testUser.getId(), testCar.getId()))
+                .isEqualTo(CarDeletionResponse.deleted(testCar.getId()));
+    }
+
+    @Test
+    @DisplayName("repeated requests keep the first request time and record one deletion")
+    void repeatedRequestIsIdempotent() {
+        CarDeletionResponse first = deletionService.requestDeletion(testCar.getId());
+        CarDeletionResponse second = deletionService.requestDeletion(testCar.getId());
+
+        // Stored with microsecond precision
+        assertThat(second.requestedAt()).isCloseTo(first.requestedAt(), within(1, ChronoUnit.MILLIS));
+        Integer tombstones = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM app.sync_tombstones WHERE change_type = 'CAR_DELETED'", Integer.class);
+        assertThat(tombstones).isEqualTo(1);
+    }
+}
@@ -0,0 +1,69 @@
+package me.adilfulara.autoledger.deletion;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CarDeletionJob")
+class CarDeletionJobTest {
+
+    @Mock
+    private CarDeletionService deletionService;
+
+    private final List<Runnable> handedOff = new ArrayList<>();
+    private CarDeletionJob job;
+
+    @BeforeEach
+    void setUp() {
+        CarDeletionProperties properties = new CarDeletionProperties();
+        properties.setPause(Duration.ZERO);
+        job = new CarDeletionJob(deletionService, properties, handedOff::add);
+    }
+
+    @Test
+    @DisplayName("hands the deletion off instead of running it on the scheduler thread")
+    void handsOff() {
+        UUID carId = UUID.randomUUID();
+        when(deletionService.findPending()).thenReturn(List.of(carId));
+        when(deletionService.deleteChunk(eq(carId), anyInt())).thenReturn(2, 0);
+
+        job.run();
+
+        verifyNoInteractions(deletionService);
+        assertThat(handedOff).hasSize(1);
+
+        handedOff.getFirst().run();
+
+        verify(deletionService).finishDeletion(carId);
+    }
+
+    @Test
+    @DisplayName("starts no second run while one is still deleting")
+    void skipsOverlappingRuns() {
+        when(deletionService.findPending()).thenReturn(List.of());
+
+        job.run();
+        job.run();
+        assertThat(handedOff).hasSize(1);
+
+        handedOff.getFirst().run();
+        job.run();
+        assertThat(handedOff).hasSize(2);
+    }
+}
@@ -0,0 +1,210 @@
+package me.adilfulara.autoledger.deletion;
+
+import me.adilfulara.autoledger.api.dto.CarDeletionResponse;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.ChangeType;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupArchiveRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.SyncTombstoneRepository;
+import me.adilfulara.autoledger.outbox.OutboxRecorder;
+import me.adilfulara.autoledger.service.CarNameIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CarDeletionService")
+class CarDeletionServiceTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private FillupRepository fillupRepository;
+
+    @Mock
+    private FillupArchiveRepository archiveRepository;
+
+    @Mock
+    private SyncTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private OutboxRecorder outboxRecorder;
+
+    @Mock
+    private CarNameIndex carNameIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CarDeletionService service;
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID CAR_ID = UUID.randomUUID();
+    private static final Instant REQUESTED_AT = Instant.parse("2024-06-01T12:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        service = new CarDeletionService(carRepository, fillupRepository, archiveRepository, tombstoneRepository,
+                outboxRecorder, carNameIndex, transactionManager);
+    }
+
+    private Car car(Instant deletingSince) {
+        Car car = new Car();
+        car.setId(CAR_ID);
+        car.setUserId(USER_ID);
+        car.setDeletingSince(deletingSince);
+        return car;
+    }
+
+    @Nested
+    @DisplayName("requestDeletion")
+    class RequestDeletion {
+
+        private SimpleTransactionStatus status;
+
+        @BeforeEach
+        void setUp() {
+            status = new SimpleTransactionStatus();
+            when(transactionManager.getTransaction(any())).thenReturn(status);
+        }
+
+        @Test
+        @DisplayName("records the deletion, hides the car and drops it from the name index")
+        void marksCar() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(null)));
+            when(outboxRecorder.record(ChangeType.CAR_DELETED, CAR_ID, CAR_ID)).thenReturn(car(null));
+
+            CarDeletionResponse response = service.requestDeletion(CAR_ID);
+
+            assertThat(response.status()).isEqualTo(CarDeletionResponse.DELETING);
+            assertThat(response.requestedAt()).isNotNull();
+            verify(carRepository).markDeleting(any(), any());
+            verify(carNameIndex).carDeleted(USER_ID, CAR_ID);
+            verify(carRepository, never()).deleteById(any());
+            assertThat(status.isRollbackOnly()).isFalse();
+        }
+
+        @Test
+        @DisplayName("returns the pending deletion without recording it again")
+        void returnsPendingDeletion() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(REQUESTED_AT)));
+
+            CarDeletionResponse response = service.requestDeletion(CAR_ID);
+
+            assertThat(response.requestedAt()).isEqualTo(REQUESTED_AT);
+            verifyNoInteractions(outboxRecorder);
+            verify(carRepository, never()).markDeleting(any(), any());
+        }
+
+        @Test
+        @DisplayName("rolls back its change when a concurrent request marked the car first")
+        void rollsBackConcurrentDuplicate() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(null)));
+            when(outboxRecorder.record(ChangeType.CAR_DELETED, CAR_ID, CAR_ID)).thenReturn(car(REQUESTED_AT));
+
+            CarDeletionResponse response = service.requestDeletion(CAR_ID);
+
+            assertThat(response.requestedAt()).isEqualTo(REQUESTED_AT);
+            assertThat(status.isRollbackOnly()).isTrue();
+            verify(carRepository, never()).markDeleting(any(), any());
+        }
+
+        @Test
+        @DisplayName("throws ResourceNotFoundException when the car does not exist")
+        void throwsWhenMissing() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> service.requestDeletion(CAR_ID))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            verifyNoInteractions(outboxRecorder);
+        }
+    }
+
+    @Nested
+    @DisplayName("getStatus")
+    class GetStatus {
+
+        @Test
+        @DisplayName("reports a pending deletion")
+        void reportsDeleting() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(REQUESTED_AT)));
+
+            CarDeletionResponse response = service.getStatus(USER_ID, CAR_ID);
+
+            assertThat(response).isEqualTo(CarDeletionResponse.deleting(CAR_ID, REQUESTED_AT));
+        }
+
+        @Test
+        @DisplayName("reports a finished deletion from its tombstone")
+        void reportsDeleted() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.empty());
+            when(tombstoneRepository.existsCarDeletion(USER_ID, CAR_ID)).thenReturn(true);
+
+            assertThat(service.getStatus(USER_ID, CAR_ID)).isEqualTo(CarDeletionResponse.deleted(CAR_ID));
+        }
+
+        @Test
+        @DisplayName("throws ResourceNotFoundException for a car that is not being deleted")
+        void throwsForLiveCar() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(null)));
+
+            assertThatThrownBy(() -> service.getStatus(USER_ID, CAR_ID))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("throws ResourceNotFoundException for an unknown car")
+        void throwsForUnknownCar() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.empty());
+            when(tombstoneRepository.existsCarDeletion(USER_ID, CAR_ID)).thenReturn(false);
+
+            assertThatThrownBy(() -> service.getStatus(USER_ID, CAR_ID))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("deleteChunk")
+    class DeleteChunk {
+
+        @Test
+        @DisplayName("deletes fillups before archived fillups")
+        void deletesFillupsFirst() {
+            when(fillupRepository.deleteChunkByCarId(CAR_ID, 500)).thenReturn(500);
+
+            assertThat(service.deleteChunk(CAR_ID, 500)).isEqualTo(500);
+            verify(archiveRepository, never()).deleteChunkByCarId(any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("moves on to archived fillups once the fillups are gone")
+        void thenDeletesArchive() {
+            when(fillupRepository.deleteChunkByCarId(CAR_ID, 500)).thenReturn(0);
+            when(archiveRepository.deleteChunkByCarId(CAR_ID, 500)).thenReturn(120);
+
+            assertThat(service.deleteChunk(CAR_ID, 500)).isEqualTo(120);
+        }
+    }
+}
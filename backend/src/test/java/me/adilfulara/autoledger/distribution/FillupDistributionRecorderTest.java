@@ -0,0 +1,281 @@
+package me.adilfulara.autoledger.distribution;
+
+import me.adilfulara.autoledger.domain.model.ArchivedFillup;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupDistribution;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupArchiveRepository;
+import me.adilfulara.autoledger.domain.repository.FillupDistributionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FillupDistributionRecorder")
+class FillupDistributionRecorderTest {
+
+    private static final UUID CAR_ID = UUID.randomUUID();
+    private static final LocalDate JANUARY = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FEBRUARY = LocalDate.of(2025, 2, 1);
+
+    @Mock
+    private FillupDistributionRepository distributionRepository;
+
+    @Mock
+    private FillupArchiveRepository archiveRepository;
+
+    @Mock
+    private CarRepository carRepository;
+
+    private FillupDistributionRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new FillupDistributionRecorder(distributionRepository, archiveRepository, carRepository);
+    }
+
+    private static Car car(boolean built, Long archivedThroughOdometer) {
+        Car car = new Car();
+        car.setId(CAR_ID);
+        car.setDistributionsBuilt(built);
+        car.setArchivedThroughOdometer(archivedThroughOdometer);
+        return car;
+    }
+
+    private static Fillup fillup(String date, long odometer, String pricePerUnit) {
+        Fillup fillup = new Fillup(CAR_ID, Instant.parse(date), odometer, new BigDecimal("10.0"),
+                new BigDecimal(pricePerUnit), new BigDecimal("35.00"), false, false);
+        fillup.setId(UUID.randomUUID());
+        return fillup;
+    }
+
+    private static QuantileSketch sketch(double... values) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+
+    private static Supplier<FillupDistributionRecorder.History> noHistory() {
+        return () -> {
+            throw new AssertionError("history should not be read");
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<FillupDistribution> upserted() {
+        ArgumentCaptor<List<FillupDistribution>> rows = ArgumentCaptor.forClass(List.class);
+        verify(distributionRepository).upsertAll(rows.capture());
+        return rows.getValue();
+    }
+
+    @Nested
+    @DisplayName("recordAppended")
+    class RecordAppended {
+
+        @Test
+        @DisplayName("folds appended fillups into their months' stored sketches")
+        void mergesWithStoredMonths() {
+            Fillup january = fillup("2025-01-30T12:00:00Z", 10300, "3.50");
+            Fillup february = fillup("2025-02-02T12:00:00Z", 10600, "3.60");
+            when(distributionRepository.findByCarIdAndPeriodStartIn(CAR_ID, Set.of(JANUARY, FEBRUARY)))
+                    .thenReturn(List.of(new FillupDistribution(UUID.randomUUID(), CAR_ID, JANUARY,
+                            sketch(29.0, 31.0).toBytes(), sketch(3.40, 3.45, 3.55).toBytes(), null)));
+
+            recorder.recordAppended(car(true, null), List.of(january, february),
+                    Map.of(january.getId(), new BigDecimal("30.00"), february.getId(), new BigDecimal("28.50")),
+                    noHistory());
+
+            List<FillupDistribution> rows = upserted();
+            assertThat(rows).extracting(FillupDistribution::getPeriodStart).containsExactly(JANUARY, FEBRUARY);
+            assertThat(QuantileSketch.fromBytes(rows.get(0).getMpgSketch()).count()).isEqualTo(3);
+            assertThat(QuantileSketch.fromBytes(rows.get(0).getPriceSketch()).count()).isEqualTo(4);
+            assertThat(QuantileSketch.fromBytes(rows.get(1).getMpgSketch()).count()).isEqualTo(1);
+            verify(distributionRepository, never()).deleteByCarId(any());
+        }
+
+        @Test
+        @DisplayName("counts the price of a fillup without MPG")
+        void skipsMissingMpg() {
+            Fillup first = fillup("2025-01-05T12:00:00Z", 10000, "3.50");
+            when(distributionRepository.findByCarIdAndPeriodStartIn(CAR_ID, Set.of(JANUARY))).thenReturn(List.of());
+
+            recorder.recordAppended(car(true, null), List.of(first), Map.of(), noHistory());
+
+            FillupDistribution row = upserted().getFirst();
+            assertThat(QuantileSketch.fromBytes(row.getMpgSketch()).isEmpty()).isTrue();
+            assertThat(QuantileSketch.fromBytes(row.getPriceSketch()).count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("builds the sketches from the history of a car that has none yet")
+        void buildsUnbuiltCar() {
+            Fillup first = fillup("2025-01-05T12:00:00Z", 10000, "3.50");
+            Fillup second = fillup("2025-02-05T12:00:00Z", 10300, "3.60");
+
+            recorder.recordAppended(car(false, null), List.of(second), Map.of(),
+                    () -> new FillupDistributionRecorder.History(List.of(first, second),
+                            Map.of(second.getId(), new BigDecimal("30.00"))));
+
+            assertThat(upserted()).extracting(FillupDistribution::getPeriodStart).containsExactly(JANUARY, FEBRUARY);
+            verify(distributionRepository, never()).findByCarIdAndPeriodStartIn(any(), any());
+            verify(carRepository).markDistributionsBuilt(CAR_ID);
+        }
+    }
+
+    @Nested
+    @DisplayName("recordChanged")
+    class RecordChanged {
+
+        private FillupDistributionRecorder.Sample sample(String date, String mpg, String pricePerUnit) {
+            return new FillupDistributionRecorder.Sample(Instant.parse(date),
+                    mpg == null ? null : new BigDecimal(mpg), new BigDecimal(pricePerUnit));
+        }
+
+        @Test
+        @DisplayName("moves changed values between the stored sketches of their months only")
+        void movesChangedValues() {
+            UUID edited = UUID.randomUUID();
+            UUID next = UUID.randomUUID();
+            UUID unchanged = UUID.randomUUID();
+            when(distributionRepository.findByCarIdAndPeriodStartIn(CAR_ID, Set.of(JANUARY, FEBRUARY)))
+                    .thenReturn(List.of(
+                            new FillupDistribution(UUID.randomUUID(), CAR_ID, JANUARY,
+                                    sketch(30.0).toBytes(), sketch(3.50).toBytes(), null),
+                            new FillupDistribution(UUID.randomUUID(), CAR_ID, FEBRUARY,
+                                    sketch(30.0).toBytes(), sketch(3.50).toBytes(), null)));
+
+            // The edit moves a fillup into February and changes the MPG of the fillup after it
+            recorder.recordChanged(car(true, null),
+                    Map.of(edited, sample("2025-01-30T12:00:00Z", "30.00", "3.50"),
+                            next, sample("2025-02-05T12:00:00Z", "30.00", "3.50"),
+                            unchanged, sample("2025-03-05T12:00:00Z", "30.00", "3.50")),
+                    Map.of(edited, sample("2025-02-01T12:00:00Z", "25.00", "3.50"),
+                            next, sample("2025-02-05T12:00:00Z", "36.00", "3.50"),
+                            unchanged, sample("2025-03-05T12:00:00Z", "30.00", "3.50")),
+                    noHistory());
+
+            List<FillupDistribution> rows = upserted();
+            assertThat(rows).extracting(FillupDistribution::getPeriodStart).containsExactly(JANUARY, FEBRUARY);
+            assertThat(QuantileSketch.fromBytes(rows.get(0).getMpgSketch()).isEmpty()).isTrue();
+            assertThat(QuantileSketch.fromBytes(rows.get(0).getPriceSketch()).isEmpty()).isTrue();
+            QuantileSketch february = QuantileSketch.fromBytes(rows.get(1).getMpgSketch());
+            assertThat(february.count()).isEqualTo(2);
+            assertThat(february.toBytes()).isEqualTo(sketch(25.0, 36.0).toBytes());
+            assertThat(QuantileSketch.fromBytes(rows.get(1).getPriceSketch()).count()).isEqualTo(2);
+            verify(distributionRepository, never()).deleteByCarId(any());
+        }
+
+        @Test
+        @DisplayName("writes nothing when no value changed")
+        void skipsUnchanged() {
+            UUID id = UUID.randomUUID();
+            Map<UUID, FillupDistributionRecorder.Sample> samples =
+                    Map.of(id, sample("2025-01-05T12:00:00Z", null, "3.50"));
+
+            recorder.recordChanged(car(true, null), samples, samples, noHistory());
+
+            verifyNoInteractions(distributionRepository);
+        }
+
+        @Test
+        @DisplayName("rebuilds the sketches when they do not hold a removed value")
+        void rebuildsWhenRemovalFails() {
+            UUID id = UUID.randomUUID();
+            when(distributionRepository.findByCarIdAndPeriodStartIn(CAR_ID, Set.of(JANUARY))).thenReturn(List.of());
+            Fillup hot = fillup("2025-01-05T12:00:00Z", 10000, "3.60");
+
+            recorder.recordChanged(car(true, null), Map.of(id, sample("2025-01-05T12:00:00Z", null, "3.50")),
+                    Map.of(id, sample("2025-01-05T12:00:00Z", null, "3.60")),
+                    () -> new FillupDistributionRecorder.History(List.of(hot), Map.of()));
+
+            verify(distributionRepository).deleteByCarId(CAR_ID);
+            FillupDistribution row = upserted().getFirst();
+            assertThat(QuantileSketch.fromBytes(row.getPriceSketch()).toBytes()).isEqualTo(sketch(3.60).toBytes());
+        }
+
+        @Test
+        @DisplayName("builds the sketches from the history of a car that has none yet")
+        void buildsUnbuiltCar() {
+            UUID id = UUID.randomUUID();
+            Fillup hot = fillup("2025-01-05T12:00:00Z", 10000, "3.60");
+
+            recorder.recordChanged(car(false, null), Map.of(id, sample("2025-01-05T12:00:00Z", null, "3.50")),
+                    Map.of(), () -> new FillupDistributionRecorder.History(List.of(hot), Map.of()));
+
+            verify(distributionRepository, never()).findByCarIdAndPeriodStartIn(any(), any());
+            verify(distributionRepository).deleteByCarId(CAR_ID);
+            verify(carRepository).markDistributionsBuilt(CAR_ID);
+        }
+    }
+
+    @Nested
+    @DisplayName("rebuild")
+    class Rebuild {
+
+        @Test
+        @DisplayName("replaces the sketches with ones built from archived and hot fillups")
+        void rebuildsFromArchiveAndHistory() {
+            ArchivedFillup archived = new ArchivedFillup();
+            archived.setDate(Instant.parse("2025-01-02T12:00:00Z"));
+            archived.setPricePerUnit(new BigDecimal("3.40"));
+            archived.setMpg(new BigDecimal("29.00"));
+            when(archiveRepository.findByCarIdOrderByDateDesc(CAR_ID)).thenReturn(List.of(archived));
+            Fillup hot = fillup("2025-01-20T12:00:00Z", 10300, "3.50");
+
+            recorder.rebuild(car(true, 10000L), () -> new FillupDistributionRecorder.History(List.of(hot),
+                    Map.of(hot.getId(), new BigDecimal("30.00"))));
+
+            InOrder order = inOrder(distributionRepository);
+            order.verify(distributionRepository).deleteByCarId(CAR_ID);
+            order.verify(distributionRepository).upsertAll(any());
+            FillupDistribution row = upserted().getFirst();
+            assertThat(row.getPeriodStart()).isEqualTo(JANUARY);
+            assertThat(QuantileSketch.fromBytes(row.getMpgSketch()).count()).isEqualTo(2);
+            verify(carRepository, never()).markDistributionsBuilt(any());
+        }
+
+        @Test
+        @DisplayName("does not read the archive of an uncompacted car")
+        void skipsArchiveWhenUncompacted() {
+            recorder.rebuild(car(true, null), () -> new FillupDistributionRecorder.History(List.of(), Map.of()));
+
+            verify(archiveRepository, never()).findByCarIdOrderByDateDesc(any());
+            verify(distributionRepository).deleteByCarId(eq(CAR_ID));
+            assertThat(upserted()).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("groups fillups by UTC month")
+    void monthOf() {
+        assertThat(FillupDistributionRecorder.monthOf(Instant.parse("2025-01-31T23:59:59Z"))).isEqualTo(JANUARY);
+        assertThat(FillupDistributionRecorder.monthOf(Instant.parse("2025-02-01T00:00:00Z"))).isEqualTo(FEBRUARY);
+    }
+}
@@ -0,0 +1,166 @@
+package me.adilfulara.autoledger.distribution;
+
+import me.adilfulara.autoledger.api.dto.CarDistributionResponse;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.FillupDistribution;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupDistributionRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.service.FillupService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FillupDistributionService")
+class FillupDistributionServiceTest {
+
+    private static final UUID CAR_ID = UUID.randomUUID();
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private FillupRepository fillupRepository;
+
+    @Mock
+    private FillupDistributionRepository distributionRepository;
+
+    @Mock
+    private FillupDistributionRecorder distributionRecorder;
+
+    @Mock
+    private FillupService fillupService;
+
+    @InjectMocks
+    private FillupDistributionService distributionService;
+
+    private static Car car(boolean built) {
+        Car car = new Car();
+        car.setId(CAR_ID);
+        car.setDistributionsBuilt(built);
+        return car;
+    }
+
+    private static FillupDistribution month(LocalDate periodStart, double[] mpgs, double[] prices) {
+        QuantileSketch mpg = new QuantileSketch();
+        QuantileSketch price = new QuantileSketch();
+        for (double value : mpgs) {
+            mpg.add(value);
+        }
+        for (double value : prices) {
+            price.add(value);
+        }
+        return new FillupDistribution(UUID.randomUUID(), CAR_ID, periodStart, mpg.toBytes(), price.toBytes(), null);
+    }
+
+    @Nested
+    @DisplayName("getDistribution")
+    class GetDistribution {
+
+        @Test
+        @DisplayName("merges the sketches of the requested months")
+        void mergesMonths() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(true)));
+            when(distributionRepository.findByCarIdInRange(CAR_ID, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1)))
+                    .thenReturn(List.of(
+                            month(LocalDate.of(2025, 1, 1), new double[]{28, 29, 30}, new double[]{3.4, 3.5}),
+                            month(LocalDate.of(2025, 2, 1), new double[]{31, 32}, new double[]{3.6})));
+
+            CarDistributionResponse response = distributionService.getDistribution(CAR_ID,
+                    YearMonth.of(2025, 1), YearMonth.of(2025, 2), 5);
+
+            assertThat(response.mpg().count()).isEqualTo(5);
+            assertThat(response.mpg().median().doubleValue()).isCloseTo(30.0, within(0.30));
+            assertThat(response.mpg().histogram()).hasSize(5);
+            assertThat(response.pricePerUnit().count()).isEqualTo(3);
+            assertThat(response.pricePerUnit().median().scale()).isEqualTo(3);
+            verify(distributionRecorder, never()).rebuild(any(), any());
+        }
+
+        @Test
+        @DisplayName("returns empty distributions for months without fillups")
+        void emptyRange() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(true)));
+            when(distributionRepository.findByCarIdInRange(any(), any(), any())).thenReturn(List.of());
+
+            CarDistributionResponse response = distributionService.getDistribution(CAR_ID, null, null, 10);
+
+            assertThat(response.mpg().count()).isZero();
+            assertThat(response.mpg().median()).isNull();
+            assertThat(response.pricePerUnit().histogram()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("builds the sketches of a car that has none yet")
+        void buildsUnbuiltCar() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(false)), Optional.of(car(true)));
+            when(carRepository.markDistributionsBuilt(CAR_ID)).thenReturn(1);
+            when(distributionRepository.findByCarIdInRange(any(), any(), any())).thenReturn(List.of());
+
+            distributionService.getDistribution(CAR_ID, null, null, 10);
+
+            verify(distributionRecorder).rebuild(any(), any());
+        }
+
+        @Test
+        @DisplayName("leaves the sketches to a concurrent request that built them first")
+        void skipsBuildWhenAlreadyMarked() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(false)));
+            when(carRepository.markDistributionsBuilt(CAR_ID)).thenReturn(0);
+            when(distributionRepository.findByCarIdInRange(any(), any(), any())).thenReturn(List.of());
+
+            distributionService.getDistribution(CAR_ID, null, null, 10);
+
+            verify(distributionRecorder, never()).rebuild(any(), any());
+        }
+
+        @Test
+        @DisplayName("throws when the car does not exist or is being deleted")
+        void throwsWhenCarMissing() {
+            Car deleting = car(true);
+            deleting.setDeletingSince(Instant.now());
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.empty(), Optional.of(deleting));
+
+            assertThatThrownBy(() -> distributionService.getDistribution(CAR_ID, null, null, 10))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            assertThatThrownBy(() -> distributionService.getDistribution(CAR_ID, null, null, 10))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("rejects inverted ranges and out-of-range bin counts")
+        void rejectsInvalidArguments() {
+            assertThatThrownBy(() -> distributionService.getDistribution(CAR_ID,
+                    YearMonth.of(2025, 3), YearMonth.of(2025, 1), 10))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> distributionService.getDistribution(CAR_ID, null, null, 0))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> distributionService.getDistribution(CAR_ID, null, null,
+                    FillupDistributionService.MAX_BINS + 1))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(carRepository);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package me.adilfulara.autoledger.distribution;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+@DisplayName("QuantileSketch")
+class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1};
+
+    private static double[] values(int n) {
+        Random random = new Random(42);
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = 15 * Math.exp(random.nextGaussian() / 4) + (i % 7 == 0 ? 20 : 0);
+        }
+        return values;
+    }
+
+    private static QuantileSketch of(double... values) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+
+    @Nested
+    @DisplayName("quantile")
+    class Quantile {
+
+        @Test
+        @DisplayName("is within the relative accuracy of the exact quantile")
+        void withinRelativeAccuracy() {
+            double[] values = values(10_000);
+            QuantileSketch sketch = of(values);
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+
+            assertThat(sketch.count()).isEqualTo(values.length);
+            for (double q : QUANTILES) {
+                double exact = sorted[(int) Math.floor(q * (sorted.length - 1))];
+                assertThat(sketch.quantile(q)).as("q=%s", q).isCloseTo(exact, withinPercentage(1.01));
+            }
+        }
+
+        @Test
+        @DisplayName("rejects quantiles outside [0, 1] and empty sketches")
+        void rejectsInvalid() {
+            assertThatThrownBy(() -> of(1.0).quantile(1.5)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> new QuantileSketch().quantile(0.5)).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("add")
+    class Add {
+
+        @Test
+        @DisplayName("rejects values a log scale cannot hold")
+        void rejectsNonPositive() {
+            QuantileSketch sketch = new QuantileSketch();
+
+            assertThatThrownBy(() -> sketch.add(0)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> sketch.add(-3.5)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> sketch.add(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> sketch.add(Double.POSITIVE_INFINITY)).isInstanceOf(IllegalArgumentException.class);
+            assertThat(sketch.isEmpty()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("remove")
+    class Remove {
+
+        @Test
+        @DisplayName("undoes adding the value")
+        void undoesAdd() {
+            double[] values = values(1_000);
+            QuantileSketch sketch = of(values);
+            QuantileSketch before = of(values);
+
+            sketch.add(27.3);
+            sketch.add(1.2);
+
+            assertThat(sketch.remove(27.3)).isTrue();
+            assertThat(sketch.remove(1.2)).isTrue();
+            assertThat(sketch.count()).isEqualTo(before.count());
+            assertThat(sketch.toBytes()).isEqualTo(before.toBytes());
+        }
+
+        @Test
+        @DisplayName("leaves the sketch unchanged for a value it does not hold")
+        void rejectsAbsentValue() {
+            QuantileSketch sketch = of(30.0);
+            byte[] before = sketch.toBytes();
+
+            assertThat(sketch.remove(12.0)).isFalse();
+            assertThat(sketch.toBytes()).isEqualTo(before);
+            assertThat(sketch.remove(30.0)).isTrue();
+            assertThat(sketch.isEmpty()).isTrue();
+            assertThat(sketch.remove(30.0)).isFalse();
+            assertThatThrownBy(() -> sketch.remove(0)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("merge")
+    class Merge {
+
+        @Test
+        @DisplayName("equals adding every value to one sketch")
+        void equalsSequentialAdds() {
+            double[] values = values(1_000);
+            QuantileSketch merged = of(Arrays.copyOfRange(values, 0, 300));
+            merged.merge(of(Arrays.copyOfRange(values, 300, values.length)));
+            QuantileSketch sequential = of(values);
+
+            assertThat(merged.count()).isEqualTo(sequential.count());
+            assertThat(merged.toBytes()).isEqualTo(sequential.toBytes());
+        }
+    }
+
+    @Nested
+    @DisplayName("histogram")
+    class Histogram {
+
+        @Test
+        @DisplayName("spans every value in ascending bins whose counts add up to the total")
+        void countsEveryValue() {
+            double[] values = values(1_000);
+            List<QuantileSketch.Bin> bins = of(values).histogram(10);
+
+            assertThat(bins).hasSize(10);
+            assertThat(bins.stream().mapToLong(QuantileSketch.Bin::count).sum()).isEqualTo(values.length);
+            assertThat(bins.getFirst().lower()).isLessThanOrEqualTo(Arrays.stream(values).min().orElseThrow());
+            assertThat(bins.getLast().upper()).isGreaterThanOrEqualTo(Arrays.stream(values).max().orElseThrow());
+            for (int i = 1; i < bins.size(); i++) {
+                assertThat(bins.get(i).lower()).isEqualTo(bins.get(i - 1).upper());
+            }
+        }
+
+        @Test
+        @DisplayName("is empty for an empty sketch and rejects non-positive bin counts")
+        void emptyAndInvalid() {
+            assertThat(new QuantileSketch().histogram(5)).isEmpty();
+            assertThatThrownBy(() -> of(1.0).histogram(0)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("serialization")
+    class Serialization {
+
+        @Test
+        @DisplayName("round-trips values above and below one")
+        void roundTrips() {
+            QuantileSketch sketch = of(0.02, 0.5, 0.5, 1.0, 3.459, 29.7, 31.2, 4_000);
+
+            QuantileSketch restored = QuantileSketch.fromBytes(sketch.toBytes());
+
+            assertThat(restored.count()).isEqualTo(sketch.count());
+            assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+            for (double q : QUANTILES) {
+                assertThat(restored.quantile(q)).isEqualTo(sketch.quantile(q));
+            }
+        }
+
+        @Test
+        @DisplayName("reads null and empty input as an empty sketch")
+        void readsEmpty() {
+            assertThat(QuantileSketch.fromBytes(null).isEmpty()).isTrue();
+            assertThat(QuantileSketch.fromBytes(new byte[0]).isEmpty()).isTrue();
+            assertThat(QuantileSketch.fromBytes(new QuantileSketch().toBytes()).isEmpty()).isTrue();
+        }
+
+        @Test
+        @DisplayName("rejects unknown versions and truncated input")
+        void rejectsMalformed() {
+            byte[] bytes = of(12.5, 30.0).toBytes();
+
+            assertThatThrownBy(() -> QuantileSketch.fromBytes(new byte[]{2, 0}))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("version");
+            assertThatThrownBy(() -> QuantileSketch.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
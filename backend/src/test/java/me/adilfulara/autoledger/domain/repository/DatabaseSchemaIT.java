@@ -109,6 +109,23 @@ class DatabaseSchemaIT {
         assertThat(foundByVin).isPresent();
     }
 
+    @Test
+    void testCarNameTrigramSearch() {
+        for (String name : List.of("Daily Camry", "Weekend Civic", "Civic Type R", "Work Van")) {
+            carRepository.save(new Car(testUser.getId(), "Make", "Model", 2020, null, name,
+                    FuelUnit.GALLONS, DistanceUnit.MILES));
+        }
+
+        // Misspelled and partial names match through pg_trgm word similarity
+        assertThat(carRepository.findByUserIdAndNameSimilarTo(testUser.getId(), "camri", 5))
+                .extracting(Car::getName)
+                .containsExactly("Daily Camry");
+        assertThat(carRepository.findByUserIdAndNameSimilarTo(testUser.getId(), "civic", 5))
+                .extracting(Car::getName)
+                .containsExactlyInAnyOrder("Weekend Civic", "Civic Type R");
+        assertThat(carRepository.findByUserIdAndNameSimilarTo(testUser.getId(), "tesla", 5)).isEmpty();
+    }
+
     @Test
     void testFillupCRUDOperations() {
         // Create car
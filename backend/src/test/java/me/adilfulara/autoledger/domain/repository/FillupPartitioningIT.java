@@ -0,0 +1,125 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.PostgreSQLTestContainer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the hash-partitioned fillups table (V4 migration).
+ * Verifies the partition layout and that every car-scoped repository query prunes to one partition.
+ */
+@DataJdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Fillup partitioning")
+class FillupPartitioningIT {
+
+    private static final Pattern PARTITION = Pattern.compile("fillups_p\\d+");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLTestContainer.configureDataSource(registry);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Test
+    @DisplayName("fillups is hash-partitioned on car_id with the default partition count")
+    void tableIsHashPartitioned() {
+        String strategy = jdbcTemplate.queryForObject(
+                "SELECT pt.partstrat FROM pg_partitioned_table pt "
+                        + "JOIN pg_class c ON c.oid = pt.partrelid "
+                        + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+                        + "WHERE n.nspname = 'app' AND c.relname = 'fillups'",
+                String.class);
+        Integer partitions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'app.fillups'::regclass", Integer.class);
+
+        assertThat(strategy).isEqualTo("h");
+        assertThat(partitions).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("primary key includes the partition key")
+    void primaryKeyIncludesCarId() {
+        List<String> columns = jdbcTemplate.queryForList(
+                "SELECT a.attname FROM pg_index i "
+                        + "JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = ANY(i.indkey) "
+                        + "WHERE i.indrelid = 'app.fillups'::regclass AND i.indisprimary",
+                String.class);
+
+        assertThat(columns).containsExactlyInAnyOrder("id", "car_id");
+    }
+
+    @Test
+    @DisplayName("every car-scoped @Query on FillupRepository scans a single partition")
+    void repositoryQueriesPruneToOnePartition() {
+        // User-scoped queries read each of the user's cars, so they may touch several partitions
+        List<Method> queryMethods = Arrays.stream(FillupRepository.class.getDeclaredMethods())
+                .filter(method -> method.isAnnotationPresent(Query.class))
+                .filter(method -> !method.getAnnotation(Query.class).value().contains(":userId"))
+                .toList();
+        assertThat(queryMethods).isNotEmpty();
+
+        for (Method method : queryMethods) {
+            String sql = method.getAnnotation(Query.class).value();
+            assertThat(partitionsScanned(sql)).as(method.getName()).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("derived countByCarId scans a single partition")
+    void countByCarIdPrunes() {
+        assertThat(partitionsScanned("SELECT COUNT(*) FROM fillups WHERE car_id = :carId")).hasSize(1);
+    }
+
+    private Set<String> partitionsScanned(String sql) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("carId", UUID.randomUUID());
+        params.put("limit", 10);
+        params.put("offset", 20);
+        params.put("currentOdometer", 50_000L);
+        params.put("anchorOdometer", 40_000L);
+        params.put("throughOdometer", 30_000L);
+        params.put("fromOdometer", 35_000L);
+        params.put("toOdometer", 45_000L);
+        params.put("id", UUID.randomUUID());
+        params.put("changeSeq", 7L);
+        params.put("anomaly", "MPG");
+        params.put("carIds", List.of(params.get("carId")));
+        params.put("from", Timestamp.from(Instant.parse("2024-07-01T00:00:00Z")));
+        params.put("to", Timestamp.from(Instant.parse("2024-10-01T00:00:00Z")));
+
+        // Plain EXPLAIN plans @Modifying statements without running them
+        String plan = namedJdbcTemplate.queryForList("EXPLAIN " + sql, params, String.class).stream()
+                .collect(Collectors.joining("\n"));
+        Matcher matcher = PARTITION.matcher(plan);
+        return matcher.results().map(result -> result.group()).collect(Collectors.toSet());
+    }
+}
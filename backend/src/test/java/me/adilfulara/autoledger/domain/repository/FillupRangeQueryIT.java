@@ -0,0 +1,212 @@
+package me.adilfulara.autoledger.domain.repository;
+
+import me.adilfulara.autoledger.PostgreSQLTestContainer;
+import me.adilfulara.autoledger.domain.model.ArchivedFillup;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.DistanceUnit;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FuelUnit;
+import me.adilfulara.autoledger.domain.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the date-range fillup queries and their indexes (V12 migration).
+ * Plans are checked with sequential scans disabled, since the planner rightly prefers them on
+ * near-empty test tables; the tests verify which index a query can use, not the cost model.
+ */
+@DataJdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("Fillup date-range queries")
+class FillupRangeQueryIT {
+
+    private static final Instant FROM = Instant.parse("2024-07-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2024-10-01T00:00:00Z");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLTestContainer.configureDataSource(registry);
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private FillupRepository fillupRepository;
+
+    @Autowired
+    private FillupArchiveRepository archiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private User user;
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("user_range", "range@example.com"));
+        car = carRepository.save(new Car(user.getId(), "Honda", "Civic", 2020, null, "Civic",
+                FuelUnit.GALLONS, DistanceUnit.MILES));
+    }
+
+    private Fillup fillup(Car owner, Instant date, long odometer) {
+        return fillupRepository.save(new Fillup(owner.getId(), date, odometer, new BigDecimal("10.000"),
+                new BigDecimal("3.500"), new BigDecimal("35.00"), false, false));
+    }
+
+    @Test
+    @DisplayName("car range includes from and excludes to")
+    void carRangeBounds() {
+        fillup(car, FROM.minus(1, ChronoUnit.SECONDS), 10_000L);
+        Fillup first = fillup(car, FROM, 10_300L);
+        Fillup last = fillup(car, TO.minus(1, ChronoUnit.SECONDS), 10_600L);
+        fillup(car, TO, 10_900L);
+
+        assertThat(fillupRepository.findByCarIdAndDateRange(car.getId(), FROM, TO))
+                .extracting(Fillup::getId)
+                .containsExactly(last.getId(), first.getId());
+    }
+
+    @Test
+    @DisplayName("user range spans the user's cars and skips cars being deleted")
+    void userRangeSpansCars() {
+        Car other = carRepository.save(new Car(user.getId(), "Ford", "F-150", 2018, null, "Truck",
+                FuelUnit.GALLONS, DistanceUnit.MILES));
+        Car deleting = carRepository.save(new Car(user.getId(), "Mazda", "3", 2015, null, "Old",
+                FuelUnit.GALLONS, DistanceUnit.MILES));
+        Fillup mine = fillup(car, FROM.plus(1, ChronoUnit.DAYS), 10_000L);
+        Fillup theirs = fillup(other, FROM.plus(2, ChronoUnit.DAYS), 50_000L);
+        fillup(deleting, FROM.plus(3, ChronoUnit.DAYS), 90_000L);
+        carRepository.markDeleting(deleting.getId(), Instant.now());
+
+        assertThat(fillupRepository.findByUserIdAndDateRange(user.getId(), FROM, TO))
+                .extracting(Fillup::getId)
+                .containsExactly(theirs.getId(), mine.getId());
+    }
+
+    @Test
+    @DisplayName("archive range only reads compacted cars")
+    void archiveRange() {
+        Fillup old = new Fillup(car.getId(), FROM.plus(1, ChronoUnit.DAYS), 10_000L, new BigDecimal("10.000"),
+                new BigDecimal("3.500"), new BigDecimal("35.00"), false, false);
+        old.setId(UUID.randomUUID());
+        old.setCreatedAt(FROM);
+        old.setUpdatedAt(FROM);
+        archiveRepository.save(ArchivedFillup.from(old, null, Instant.now()));
+
+        assertThat(archiveRepository.findByUserIdAndDateRange(user.getId(), FROM, TO)).isEmpty();
+
+        carRepository.markArchivedThrough(car.getId(), 10_000L);
+
+        assertThat(archiveRepository.findByUserIdAndDateRange(user.getId(), FROM, TO))
+                .extracting(ArchivedFillup::getId)
+                .containsExactly(old.getId());
+        assertThat(archiveRepository.findByCarIdAndDateRange(car.getId(), FROM, TO)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("date is indexed with BRIN instead of a B-tree")
+    void dateIndexIsBrin() {
+        String method = jdbcTemplate.queryForObject(
+                "SELECT am.amname FROM pg_class c JOIN pg_am am ON am.oid = c.relam "
+                        + "WHERE c.oid = 'app.idx_fillups_date_brin'::regclass",
+                String.class);
+        Integer btrees = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_class WHERE relname = 'idx_fillups_date'", Integer.class);
+
+        assertThat(method).isEqualTo("brin");
+        assertThat(btrees).isZero();
+    }
+
+    @Test
+    @DisplayName("car range uses the (car_id, date) index of one partition")
+    void carRangePlan() throws NoSuchMethodException {
+        String plan = plan(querySql(FillupRepository.class, "findByCarIdAndDateRange",
+                UUID.class, Instant.class, Instant.class));
+
+        assertThat(plan).containsAnyOf(partitionIndexes("idx_fillups_car_date"));
+        assertThat(plan).doesNotContain("Seq Scan");
+    }
+
+    @Test
+    @DisplayName("user range probes the (car_id, date) index per car")
+    void userRangePlan() throws NoSuchMethodException {
+        String plan = plan(querySql(FillupRepository.class, "findByUserIdAndDateRange",
+                UUID.class, Instant.class, Instant.class));
+
+        assertThat(plan).containsAnyOf(partitionIndexes("idx_fillups_car_date"));
+        assertThat(plan).doesNotContain("Seq Scan on fillups");
+    }
+
+    @Test
+    @DisplayName("archive range uses the archive's (car_id, date) index")
+    void archiveRangePlan() throws NoSuchMethodException {
+        String plan = plan(querySql(FillupArchiveRepository.class, "findByCarIdAndDateRange",
+                UUID.class, Instant.class, Instant.class));
+
+        assertThat(plan).contains("idx_fillups_archive_car_date");
+    }
+
+    @Test
+    @DisplayName("a date predicate across all cars is served by the BRIN index")
+    void crossCarDatePlan() {
+        String plan = plan("SELECT id FROM fillups WHERE date < :to");
+
+        assertThat(plan).contains("Bitmap Index Scan");
+        assertThat(plan).containsAnyOf(partitionIndexes("idx_fillups_date_brin"));
+    }
+
+    private static String querySql(Class<?> repository, String method, Class<?>... parameterTypes)
+            throws NoSuchMethodException {
+        return repository.getMethod(method, parameterTypes).getAnnotation(Query.class).value();
+    }
+
+    /**
+     * Names of the per-partition indexes created from an index on the partitioned parent.
+     */
+    private String[] partitionIndexes(String parentIndex) {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = ('app.' || ?)::regclass",
+                String.class, parentIndex).toArray(String[]::new);
+    }
+
+    private String plan(String sql) {
+        // Scoped to the test transaction
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        Map<String, Object> params = Map.of(
+                "carId", car.getId(),
+                "userId", user.getId(),
+                "from", Timestamp.from(FROM),
+                "to", Timestamp.from(TO));
+        return namedJdbcTemplate.queryForList("EXPLAIN " + sql, params, String.class).stream()
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,139 @@
+package me.adilfulara.autoledger.events;
+
+import me.adilfulara.autoledger.PostgreSQLTestContainer;
+import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.DistanceUnit;
+import me.adilfulara.autoledger.domain.model.FuelUnit;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end test of the change stream: a fillup written over HTTP reaches an open
+ * {@code /api/events} connection through the outbox worker.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"outbox.worker.enabled=true", "outbox.worker.poll-interval=100ms"})
+@DisplayName("Change stream Integration Tests")
+class ChangeStreamIT {
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLTestContainer.configureDataSource(registry);
+    }
+
+    // Use same UUID as JwtAuthFilter injects when auth is disabled
+    private static final UUID TEST_USER_UUID =
+        UUID.fromString("a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private FillupRepository fillupRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Car testCar;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM app.outbox_events");
+        fillupRepository.deleteAll();
+        carRepository.deleteAll();
+        userRepository.deleteAll();
+
+        jdbcTemplate.update(
+            "INSERT INTO app.users (id, auth_provider_id, email, created_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)",
+            TEST_USER_UUID, "test_user_dev", "dev@test.com"
+        );
+        testCar = carRepository.save(new Car(TEST_USER_UUID, "Toyota", "Camry", 2022, null, "Stream Car",
+                FuelUnit.GALLONS, DistanceUnit.MILES));
+    }
+
+    @Test
+    @DisplayName("pushes fillup_added and stats_updated after a fillup is created")
+    void pushesFillupAdded() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<InputStream> stream = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/events"))
+                        .header("Accept", "text/event-stream")
+                        .build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(stream.statusCode()).isEqualTo(200);
+        assertThat(stream.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith("text/event-stream"));
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream.body(), StandardCharsets.UTF_8));
+        CompletableFuture<List<String>> events = CompletableFuture.supplyAsync(() -> {
+            List<String> names = new ArrayList<>();
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("event:")) {
+                        names.add(line.substring("event:".length()).trim());
+                        if (names.contains("stats_updated")) {
+                            return names;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return names;
+        });
+
+        ResponseEntity<FillupResponse> created = restTemplate.postForEntity("/api/fillups",
+                new CreateFillupRequest(testCar.getId(), Instant.now(), 10000L, new BigDecimal("10.0"),
+                        new BigDecimal("3.50"), new BigDecimal("35.00"), false, false),
+                FillupResponse.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        List<String> received = events.get(10, TimeUnit.SECONDS);
+        assertThat(received).containsSubsequence("fillup_added", "stats_updated");
+        stream.body().close();
+    }
+}
@@ -0,0 +1,254 @@
+package me.adilfulara.autoledger.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.adilfulara.autoledger.api.dto.ChangeNotification;
+import me.adilfulara.autoledger.domain.model.ChangeType;
+import me.adilfulara.autoledger.outbox.CarDataChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ChangeStreamService")
+class ChangeStreamServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID OTHER_USER_ID = UUID.randomUUID();
+    private static final UUID CAR_ID = UUID.randomUUID();
+
+    private ChangeStreamProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private List<RecordingEmitter> emitters;
+    private ChangeStreamService service;
+
+    /**
+     * Emitter that records what the writer thread sends, optionally blocking like a slow client.
+     */
+    static class RecordingEmitter extends SseEmitter {
+
+        final BlockingQueue<Object> sent = new LinkedBlockingQueue<>();
+        final CountDownLatch unblocked;
+        volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch unblocked) {
+            this.unblocked = unblocked;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                unblocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof ChangeNotification notification) {
+                    sent.add(notification);
+                } else if (data.getData().toString().startsWith(":")) {
+                    sent.add(data.getData().toString().trim());
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        ChangeNotification nextNotification() throws InterruptedException {
+            while (true) {
+                Object next = sent.poll(5, TimeUnit.SECONDS);
+                assertThat(next).as("notification").isNotNull();
+                if (next instanceof ChangeNotification notification) {
+                    return notification;
+                }
+            }
+        }
+    }
+
+    private CountDownLatch clientLatch = new CountDownLatch(0);
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChangeStreamProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        emitters = new ArrayList<>();
+        service = new ChangeStreamService(properties, meterRegistry) {
+            @Override
+            SseEmitter createEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter(clientLatch);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private CarDataChangedEvent fillupAdded(UUID userId, long dataVersion) {
+        return new CarDataChangedEvent(userId, CAR_ID, dataVersion,
+                List.of(new CarDataChangedEvent.Change(ChangeType.FILLUP_ADDED, UUID.randomUUID())));
+    }
+
+    @Nested
+    @DisplayName("onCarDataChanged")
+    class OnCarDataChanged {
+
+        @Test
+        @DisplayName("pushes the change and a stats notification to the owner's streams")
+        void pushesToOwner() throws Exception {
+            service.subscribe(USER_ID);
+            RecordingEmitter emitter = emitters.getFirst();
+
+            service.onCarDataChanged(fillupAdded(USER_ID, 4));
+
+            ChangeNotification first = emitter.nextNotification();
+            assertThat(first.type()).isEqualTo("fillup_added");
+            assertThat(first.carId()).isEqualTo(CAR_ID);
+            assertThat(first.dataVersion()).isEqualTo(4L);
+            assertThat(emitter.nextNotification().type()).isEqualTo(ChangeNotification.STATS_UPDATED);
+        }
+
+        @Test
+        @DisplayName("does not push to other users")
+        void isolatesUsers() throws Exception {
+            service.subscribe(USER_ID);
+            service.subscribe(OTHER_USER_ID);
+
+            service.onCarDataChanged(fillupAdded(USER_ID, 2));
+
+            assertThat(emitters.get(0).nextNotification().type()).isEqualTo("fillup_added");
+            assertThat(emitters.get(1).sent.poll(200, TimeUnit.MILLISECONDS)).isEqualTo(":connected");
+            assertThat(emitters.get(1).sent.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        }
+
+        @Test
+        @DisplayName("replaces the backlog of a slow subscriber with a resync")
+        void resyncsSlowSubscriber() throws Exception {
+            clientLatch = new CountDownLatch(1);
+            properties.setQueueCapacity(4);
+            service.subscribe(USER_ID);
+            RecordingEmitter emitter = emitters.getFirst();
+
+            for (int i = 1; i <= 10; i++) {
+                service.onCarDataChanged(fillupAdded(USER_ID, i));
+            }
+            clientLatch.countDown();
+
+            List<ChangeNotification> received = new ArrayList<>();
+            ChangeNotification next;
+            while ((next = pollNotification(emitter)) != null) {
+                received.add(next);
+            }
+            assertThat(received).hasSizeLessThanOrEqualTo(4);
+            assertThat(received).extracting(ChangeNotification::type).contains(ChangeNotification.RESYNC);
+            assertThat(meterRegistry.counter("autoledger.events.resyncs").count()).isPositive();
+        }
+
+        @Test
+        @DisplayName("always queues a resync after dropping a backlog, whatever thread publishes")
+        void resyncsUnderConcurrentPublishers() throws Exception {
+            clientLatch = new CountDownLatch(1);
+            properties.setQueueCapacity(2);
+            service.subscribe(USER_ID);
+            RecordingEmitter emitter = emitters.getFirst();
+
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> publishers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                publishers.add(Thread.ofVirtual().start(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 200; i++) {
+                        service.onCarDataChanged(fillupAdded(USER_ID, i));
+                    }
+                }));
+            }
+            start.countDown();
+            for (Thread publisher : publishers) {
+                publisher.join();
+            }
+            clientLatch.countDown();
+
+            List<ChangeNotification> received = new ArrayList<>();
+            ChangeNotification next;
+            while ((next = pollNotification(emitter)) != null) {
+                received.add(next);
+            }
+            assertThat(received).extracting(ChangeNotification::type).contains(ChangeNotification.RESYNC);
+        }
+
+        private ChangeNotification pollNotification(RecordingEmitter emitter) throws InterruptedException {
+            Object next;
+            while ((next = emitter.sent.poll(300, TimeUnit.MILLISECONDS)) != null) {
+                if (next instanceof ChangeNotification notification) {
+                    return notification;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Nested
+    @DisplayName("subscribe")
+    class Subscribe {
+
+        @Test
+        @DisplayName("sends heartbeats while idle")
+        void sendsHeartbeats() throws Exception {
+            properties.setHeartbeatInterval(Duration.ofMillis(50));
+            service.subscribe(USER_ID);
+            RecordingEmitter emitter = emitters.getFirst();
+
+            assertThat(emitter.sent.poll(5, TimeUnit.SECONDS)).isEqualTo(":connected");
+            assertThat(emitter.sent.poll(5, TimeUnit.SECONDS)).isEqualTo(":heartbeat");
+        }
+
+        @Test
+        @DisplayName("closes the oldest stream beyond the per-user limit")
+        void evictsOldest() {
+            properties.setMaxSubscribersPerUser(2);
+
+            service.subscribe(USER_ID);
+            service.subscribe(USER_ID);
+            service.subscribe(USER_ID);
+
+            assertThat(emitters.get(0).completed).isTrue();
+            assertThat(emitters.get(2).completed).isFalse();
+            assertThat(service.subscriberCount()).isEqualTo(2);
+            assertThat(meterRegistry.get("autoledger.events.subscribers").gauge().value()).isEqualTo(2.0);
+        }
+    }
+
+    @Nested
+    @DisplayName("toNotifications")
+    class ToNotifications {
+
+        @Test
+        @DisplayName("omits stats_updated for deleted cars")
+        void omitsStatsForDeletedCar() {
+            CarDataChangedEvent event = new CarDataChangedEvent(USER_ID, CAR_ID, 9,
+                    List.of(new CarDataChangedEvent.Change(ChangeType.CAR_DELETED, CAR_ID)));
+
+            assertThat(ChangeStreamService.toNotifications(event))
+                    .extracting(ChangeNotification::type)
+                    .containsExactly("car_deleted");
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package me.adilfulara.autoledger.fleet;
+
+import me.adilfulara.autoledger.api.dto.CarStatsResponse;
+import me.adilfulara.autoledger.api.dto.FleetSummaryResponse;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.DistanceUnit;
+import me.adilfulara.autoledger.domain.model.FuelUnit;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.service.CarService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FleetService")
+class FleetServiceTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private CarService carService;
+
+    private FleetProperties properties;
+    private FleetService fleetService;
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        properties = new FleetProperties();
+        properties.setConcurrency(2);
+        fleetService = new FleetService(carRepository, carService, properties);
+    }
+
+    private static Car car(String name, DistanceUnit distanceUnit, FuelUnit fuelUnit) {
+        Car car = new Car(USER_ID, "Make", "Model", 2020, null, name, fuelUnit, distanceUnit);
+        car.setId(UUID.randomUUID());
+        return car;
+    }
+
+    private static CarStatsResponse stats(Car car, long distance, String fuel, String spent, String mpg) {
+        return new CarStatsResponse(car.getId(), car.getName(), 10L, distance, new BigDecimal(fuel),
+                new BigDecimal(spent), mpg == null ? null : new BigDecimal(mpg), null, null, null);
+    }
+
+    @Test
+    @DisplayName("uses current snapshots without computing")
+    void usesSnapshots() {
+        Car car = car("Civic", DistanceUnit.MILES, FuelUnit.GALLONS);
+        when(carRepository.findByUserId(USER_ID)).thenReturn(List.of(car));
+        when(carService.getCurrentSnapshotStats(List.of(car)))
+                .thenReturn(Map.of(car.getId(), stats(car, 1000, "33.333", "100.00", "30.00")));
+
+        FleetSummaryResponse summary = fleetService.getFleetSummary(USER_ID, FleetUnits.US);
+
+        assertThat(summary.vehicles()).hasSize(1);
+        verify(carService, never()).getCarStats(any());
+    }
+
+    @Nested
+    @DisplayName("stale cars")
+    class StaleCars {
+
+        @Test
+        @DisplayName("are computed in parallel within the concurrency budget")
+        void computedWithinBudget() {
+            List<Car> cars = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                cars.add(car("Car " + i, DistanceUnit.MILES, FuelUnit.GALLONS));
+            }
+            Map<UUID, Car> byId = cars.stream().collect(Collectors.toMap(Car::getId, Function.identity()));
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger maxInFlight = new AtomicInteger();
+            when(carRepository.findByUserId(USER_ID)).thenReturn(cars);
+            when(carService.getCurrentSnapshotStats(cars)).thenReturn(Map.of());
+            when(carService.getCarStats(any())).thenAnswer(invocation -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                inFlight.decrementAndGet();
+                return stats(byId.get(invocation.<UUID>getArgument(0)), 1000, "33.333", "100.00", "30.00");
+            });
+
+            FleetSummaryResponse summary = fleetService.getFleetSummary(USER_ID, FleetUnits.US);
+
+            assertThat(summary.totals().carCount()).isEqualTo(10);
+            assertThat(maxInFlight.get()).isBetween(1, 2);
+        }
+
+        @Test
+        @DisplayName("are left out when deleted in the meantime")
+        void deletedCarsLeftOut() {
+            Car kept = car("Kept", DistanceUnit.MILES, FuelUnit.GALLONS);
+            Car deleted = car("Deleted", DistanceUnit.MILES, FuelUnit.GALLONS);
+            when(carRepository.findByUserId(USER_ID)).thenReturn(List.of(kept, deleted));
+            when(carService.getCurrentSnapshotStats(anyCollection()))
+                    .thenReturn(Map.of(kept.getId(), stats(kept, 1000, "33.333", "100.00", "30.00")));
+            when(carService.getCarStats(deleted.getId())).thenThrow(new ResourceNotFoundException("Car", deleted.getId()));
+
+            FleetSummaryResponse summary = fleetService.getFleetSummary(USER_ID, FleetUnits.US);
+
+            assertThat(summary.vehicles()).extracting(FleetSummaryResponse.Vehicle::carId)
+                    .containsExactly(kept.getId());
+        }
+
+        @Test
+        @DisplayName("propagate other failures")
+        void propagateFailures() {
+            Car car = car("Broken", DistanceUnit.MILES, FuelUnit.GALLONS);
+            when(carRepository.findByUserId(USER_ID)).thenReturn(List.of(car));
+            when(carService.getCurrentSnapshotStats(anyCollection())).thenReturn(Map.of());
+            when(carService.getCarStats(car.getId())).thenThrow(new IllegalStateException("boom"));
+
+            assertThatThrownBy(() -> fleetService.getFleetSummary(USER_ID, FleetUnits.US))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("boom");
+        }
+    }
+
+    @Nested
+    @DisplayName("summarize")
+    class Summarize {
+
+        private final Car imperial = car("Imperial", DistanceUnit.MILES, FuelUnit.GALLONS);
+        private final Car metric = car("Metric", DistanceUnit.KILOMETERS, FuelUnit.LITERS);
+        private final Map<UUID, CarStatsResponse> stats = Map.of(
+                imperial.getId(), stats(imperial, 1000, "33.333", "100.00", "30.00"),
+                metric.getId(), stats(metric, 2000, "133.333", "100.00", "15.00"));
+
+        @Test
+        @DisplayName("ranks cars on figures converted to one unit system")
+        void ranksAcrossUnits() {
+            FleetSummaryResponse summary = FleetService.summarize(List.of(imperial, metric), stats, FleetUnits.US);
+
+            FleetSummaryResponse.Vehicle first = summary.vehicles().getFirst();
+            assertThat(first.carId()).isEqualTo(metric.getId());
+            // 15 km/L = 35.28 mpg; 2000 km = 1242.7 mi
+            assertThat(first.averageEfficiency()).isEqualByComparingTo("35.28");
+            assertThat(first.totalDistance()).isEqualByComparingTo("1242.7");
+            assertThat(first.totalFuel()).isEqualByComparingTo("35.223");
+            assertThat(first.costPerDistance()).isEqualByComparingTo("0.0805");
+            assertThat(first.efficiencyRank()).isEqualTo(1);
+            assertThat(first.costPerDistanceRank()).isEqualTo(1);
+
+            FleetSummaryResponse.Vehicle second = summary.vehicles().get(1);
+            assertThat(second.averageEfficiency()).isEqualByComparingTo("30.00");
+            assertThat(second.costPerDistance()).isEqualByComparingTo("0.1000");
+            assertThat(second.efficiencyRank()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("totals the fleet in the requested units")
+        void totals() {
+            FleetSummaryResponse summary = FleetService.summarize(List.of(imperial, metric), stats, FleetUnits.METRIC);
+
+            assertThat(summary.distanceUnit()).isEqualTo(DistanceUnit.KILOMETERS);
+            assertThat(summary.fuelUnit()).isEqualTo(FuelUnit.LITERS);
+            FleetSummaryResponse.Totals totals = summary.totals();
+            assertThat(totals.carCount()).isEqualTo(2);
+            assertThat(totals.totalFillups()).isEqualTo(20);
+            // 1000 mi = 1609.3 km
+            assertThat(totals.totalDistance()).isEqualByComparingTo("3609.3");
+            assertThat(totals.totalSpent()).isEqualByComparingTo("200.00");
+            // 30 mpg = 12.75 km/L
+            assertThat(totals.averageEfficiency()).isEqualByComparingTo("13.88");
+            assertThat(totals.costPerDistance()).isEqualByComparingTo("0.0554");
+        }
+
+        @Test
+        @DisplayName("leaves cars without MPG or distance unranked and last")
+        void unrankedLast() {
+            Car empty = car("Empty", DistanceUnit.MILES, FuelUnit.GALLONS);
+            Map<UUID, CarStatsResponse> withEmpty = Map.of(
+                    imperial.getId(), stats.get(imperial.getId()),
+                    empty.getId(), stats(empty, 0, "0", "0", null));
+
+            FleetSummaryResponse summary = FleetService.summarize(List.of(empty, imperial), withEmpty, FleetUnits.US);
+
+            FleetSummaryResponse.Vehicle last = summary.vehicles().getLast();
+            assertThat(last.carId()).isEqualTo(empty.getId());
+            assertThat(last.efficiencyRank()).isNull();
+            assertThat(last.costPerDistanceRank()).isNull();
+        }
+
+        @Test
+        @DisplayName("gives equal values the same rank")
+        void tiesShareRank() {
+            Car twin = car("Twin", DistanceUnit.MILES, FuelUnit.GALLONS);
+            Car third = car("Third", DistanceUnit.MILES, FuelUnit.GALLONS);
+            Map<UUID, CarStatsResponse> tied = Map.of(
+                    imperial.getId(), stats.get(imperial.getId()),
+                    twin.getId(), stats(twin, 1000, "33.333", "100.00", "30.00"),
+                    third.getId(), stats(third, 1000, "40.000", "120.00", "25.00"));
+
+            FleetSummaryResponse summary = FleetService.summarize(List.of(third, twin, imperial), tied, FleetUnits.US);
+
+            assertThat(summary.vehicles()).extracting(FleetSummaryResponse.Vehicle::efficiencyRank)
+                    .containsExactly(1, 1, 3);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package me.adilfulara.autoledger.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.adilfulara.autoledger.api.exception.IdempotencyKeyReusedException;
+import me.adilfulara.autoledger.domain.model.IdempotencyKey;
+import me.adilfulara.autoledger.domain.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyService")
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyKeyRepository keyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService service;
+    private SimpleMeterRegistry meterRegistry;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    record Echo(String value) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setTtl(Duration.ofHours(1));
+        meterRegistry = new SimpleMeterRegistry();
+        service = new IdempotencyService(keyRepository, new ObjectMapper(), transactionManager, properties,
+                meterRegistry);
+    }
+
+    private IdempotencyService.Result<Echo> execute(String key, Echo request) {
+        return service.execute(USER_ID, key, request, Echo.class, () -> {
+            executions.incrementAndGet();
+            return new Echo("created " + request.value());
+        });
+    }
+
+    /**
+     * Capture the request hash of a first execution, so a stored row can be faked.
+     */
+    private String hashOf(Echo request) {
+        when(keyRepository.claim(eq(USER_ID), eq("probe"), anyString(), any(), any())).thenReturn(Optional.of(9L));
+        execute("probe", request);
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(keyRepository).claim(eq(USER_ID), eq("probe"), hash.capture(), any(), any());
+        executions.set(0);
+        return hash.getValue();
+    }
+
+    @Test
+    @DisplayName("runs the action and stores its response when the key is claimed")
+    void runsAndStoresWhenClaimed() {
+        when(keyRepository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(Optional.of(1L));
+
+        IdempotencyService.Result<Echo> result = execute("k1", new Echo("a"));
+
+        assertThat(result.replayed()).isFalse();
+        assertThat(result.body()).isEqualTo(new Echo("created a"));
+        assertThat(executions).hasValue(1);
+        verify(keyRepository).complete(1L, "{\"value\":\"created a\"}");
+    }
+
+    @Test
+    @DisplayName("claims the key until now + ttl")
+    void claimsUntilTtl() {
+        when(keyRepository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(Optional.of(1L));
+
+        execute("k1", new Echo("a"));
+
+        ArgumentCaptor<Instant> now = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> expiresAt = ArgumentCaptor.forClass(Instant.class);
+        verify(keyRepository).claim(eq(USER_ID), eq("k1"), anyString(), now.capture(), expiresAt.capture());
+        assertThat(Duration.between(now.getValue(), expiresAt.getValue())).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("replays the stored response without running the action")
+    void replaysStoredResponse() {
+        Echo request = new Echo("a");
+        String hash = hashOf(request);
+        when(keyRepository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(Optional.empty());
+        when(keyRepository.findByUserIdAndKey(USER_ID, "k1")).thenReturn(Optional.of(new IdempotencyKey(
+                1L, USER_ID, "k1", hash, "{\"value\":\"created earlier\"}", Instant.now(), Instant.now())));
+
+        IdempotencyService.Result<Echo> result = execute("k1", request);
+
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.body()).isEqualTo(new Echo("created earlier"));
+        assertThat(executions).hasValue(0);
+        verify(keyRepository, never()).complete(eq(1L), any());
+        assertThat(meterRegistry.counter("autoledger.idempotency.replays").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("rejects a key reused with a different request")
+    void rejectsReusedKey() {
+        String hash = hashOf(new Echo("a"));
+        when(keyRepository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(Optional.empty());
+        when(keyRepository.findByUserIdAndKey(USER_ID, "k1")).thenReturn(Optional.of(new IdempotencyKey(
+                1L, USER_ID, "k1", hash, "{\"value\":\"created a\"}", Instant.now(), Instant.now())));
+
+        assertThatThrownBy(() -> execute("k1", new Echo("b")))
+                .isInstanceOf(IdempotencyKeyReusedException.class)
+                .hasMessageContaining("k1");
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("does not store anything when the action fails")
+    void storesNothingOnFailure() {
+        when(keyRepository.claim(eq(USER_ID), eq("k1"), anyString(), any(), any())).thenReturn(Optional.of(1L));
+
+        assertThatThrownBy(() -> service.execute(USER_ID, "k1", new Echo("a"), Echo.class, () -> {
+            throw new IllegalArgumentException("invalid");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        verify(keyRepository, never()).complete(any(), any());
+    }
+
+    @Test
+    @DisplayName("rejects blank and oversized keys")
+    void rejectsInvalidKeys() {
+        assertThatThrownBy(() -> execute(" ", new Echo("a")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> execute("k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1), new Echo("a")))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(keyRepository);
+    }
+}
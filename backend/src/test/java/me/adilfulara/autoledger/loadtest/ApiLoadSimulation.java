@@ -0,0 +1,312 @@
+package me.adilfulara.autoledger.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.adilfulara.autoledger.PostgreSQLTestContainer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Closed-loop HTTP load simulation against a fully booted application.
+ *
+ * <p>The app runs on a random port against the shared Testcontainers PostgreSQL instance with JWT
+ * authentication enabled against {@link LocalJwksIssuer}, so every request pays the real cost of
+ * token validation and JIT user lookup. Each simulated user owns one car seeded with history and
+ * loops over a weighted mix of car list, stats, fillup list and fillup create calls.
+ *
+ * <p>Not part of the regular test run (the class name matches neither surefire nor failsafe
+ * patterns). Run with {@code make load-test} or {@code ./mvnw -Ploadtest test}; tune with:
+ * <ul>
+ *   <li>{@code loadtest.users} - concurrent simulated users (default 50)</li>
+ *   <li>{@code loadtest.duration} - measurement window, ISO-8601 or seconds (default 30s)</li>
+ *   <li>{@code loadtest.warmup} - unmeasured warmup window (default 10s)</li>
+ *   <li>{@code loadtest.seed-fillups} - fillups seeded per car (default 200)</li>
+ *   <li>{@code loadtest.virtual-threads} - run the server on virtual threads (default false)</li>
+ *   <li>{@code loadtest.build} - build label written to the report (default "local")</li>
+ *   <li>{@code loadtest.baseline} - report to compare against; regressions fail the run</li>
+ *   <li>{@code loadtest.tolerance} - allowed throughput drop / p99 rise vs baseline (default 0.20)</li>
+ *   <li>{@code loadtest.max-error-rate} - highest acceptable error rate (default 0.01)</li>
+ * </ul>
+ *
+ * <p>The report is written to {@code target/loadtest/load-report.json}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("API load simulation")
+class ApiLoadSimulation {
+
+    private static final String AUDIENCE = "auto-ledger-loadtest";
+    private static final Path REPORT_FILE = Path.of("target", "loadtest", "load-report.json");
+    private static final LocalJwksIssuer ISSUER = LocalJwksIssuer.start();
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 50);
+    private static final Duration DURATION = duration("loadtest.duration", Duration.ofSeconds(30));
+    private static final Duration WARMUP = duration("loadtest.warmup", Duration.ofSeconds(10));
+    private static final int SEED_FILLUPS = Integer.getInteger("loadtest.seed-fillups", 200);
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("loadtest.virtual-threads");
+
+    /**
+     * Weighted request mix; weights are relative.
+     */
+    private enum Operation {
+        LIST_CARS(30),
+        CAR_STATS(25),
+        LIST_FILLUPS(30),
+        CREATE_FILLUP(15);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLTestContainer.configureDataSource(registry);
+        registry.add("auth.jwt.enabled", () -> "true");
+        registry.add("auth.jwt.issuer-uri", ISSUER::issuerUri);
+        registry.add("auth.jwt.audience", () -> AUDIENCE);
+        registry.add("spring.threads.virtual.enabled", () -> String.valueOf(VIRTUAL_THREADS));
+        registry.add("observability.sql.header-enabled", () -> "false");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @AfterAll
+    static void stopIssuer() {
+        ISSUER.close();
+    }
+
+    @Test
+    @DisplayName("drives the cars / stats / fillups mix and writes a report")
+    void runMix() throws Exception {
+        List<SimulatedUser> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(provision(i));
+        }
+
+        // Warmup: same traffic, separate recorders that are thrown away
+        runPhase(users, WARMUP, newRecorders());
+
+        Map<Operation, EndpointRecorder> recorders = newRecorders();
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        runPhase(users, DURATION, recorders);
+        double windowSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, LoadReport.EndpointSummary> summaries = new LinkedHashMap<>();
+        recorders.values().forEach(recorder -> summaries.put(recorder.name(), recorder.summarize(windowSeconds)));
+        LoadReport report = new LoadReport(
+                System.getProperty("loadtest.build", "local"),
+                startedAt, windowSeconds, USERS, VIRTUAL_THREADS, summaries);
+        report.write(REPORT_FILE);
+
+        LoadReport baseline = null;
+        String baselinePath = System.getProperty("loadtest.baseline");
+        if (baselinePath != null && Files.exists(Path.of(baselinePath))) {
+            baseline = LoadReport.read(Path.of(baselinePath));
+        }
+        List<String> regressions = report.regressionsAgainst(
+                baseline,
+                Double.parseDouble(System.getProperty("loadtest.tolerance", "0.20")),
+                Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")));
+
+        assertThat(ISSUER.jwksRequests()).as("JWKS should be fetched once and cached").isEqualTo(1);
+        assertThat(regressions).as("capacity regressions (report: %s)", REPORT_FILE.toAbsolutePath()).isEmpty();
+    }
+
+    /**
+     * Provision a user through the API (JIT), create their car over HTTP and bulk-load history.
+     */
+    private SimulatedUser provision(int index) throws IOException, InterruptedException {
+        String subject = "loadtest_user_" + index;
+        String token = ISSUER.mintToken(subject, subject + "@loadtest.local", AUDIENCE,
+                WARMUP.plus(DURATION).plusMinutes(10));
+
+        HttpResponse<String> carResponse = send(token, HttpRequest.newBuilder(uri("/api/cars"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("""
+                        {"make":"Toyota","model":"Camry","year":2022,"name":"Load %d",
+                         "fuelUnit":"GALLONS","distanceUnit":"MILES"}""".formatted(index))));
+        if (carResponse.statusCode() != 201) {
+            throw new IllegalStateException("Failed to create car: " + carResponse.statusCode() + " " + carResponse.body());
+        }
+        JsonNode car = objectMapper.readTree(carResponse.body());
+        UUID carId = UUID.fromString(car.get("id").asText());
+
+        long odometer = 10_000;
+        Instant date = Instant.now().minus(SEED_FILLUPS, ChronoUnit.DAYS);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < SEED_FILLUPS; i++) {
+            odometer += 300;
+            rows.add(new Object[]{
+                    UUID.randomUUID(), carId, Timestamp.from(date.plus(i, ChronoUnit.DAYS)), odometer,
+                    new BigDecimal("10.000"), new BigDecimal("3.500"), new BigDecimal("35.00"), i % 7 == 0});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO app.fillups (id, car_id, date, odometer, fuel_volume, price_per_unit, total_cost, "
+                        + "is_partial, is_missed, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+                rows);
+
+        return new SimulatedUser(token, carId, odometer);
+    }
+
+    private void runPhase(List<SimulatedUser> users, Duration length, Map<Operation, EndpointRecorder> recorders)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + length.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (SimulatedUser user : users) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = pick();
+                        long begin = System.nanoTime();
+                        boolean success;
+                        try {
+                            success = execute(user, operation);
+                        } catch (IOException e) {
+                            success = false;
+                        }
+                        recorders.get(operation).record(System.nanoTime() - begin, success);
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private boolean execute(SimulatedUser user, Operation operation) throws IOException, InterruptedException {
+        return switch (operation) {
+            case LIST_CARS -> isOk(send(user.token(), HttpRequest.newBuilder(uri("/api/cars")).GET()));
+            case CAR_STATS -> isOk(send(user.token(),
+                    HttpRequest.newBuilder(uri("/api/cars/" + user.carId() + "/stats")).GET()));
+            case LIST_FILLUPS -> isOk(send(user.token(),
+                    HttpRequest.newBuilder(uri("/api/cars/" + user.carId() + "/fillups")).GET()));
+            case CREATE_FILLUP -> {
+                long odometer = user.nextOdometer();
+                yield isOk(send(user.token(), HttpRequest.newBuilder(uri("/api/fillups"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("""
+                                {"carId":"%s","date":"%s","odometer":%d,"fuelVolume":10.5,
+                                 "pricePerUnit":3.45,"totalCost":36.23,"isPartial":false,"isMissed":false}"""
+                                .formatted(user.carId(), Instant.now(), odometer)))));
+            }
+        };
+    }
+
+    private HttpResponse<String> send(String token, HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(
+                request.header("Authorization", "Bearer " + token).timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static boolean isOk(HttpResponse<String> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static Operation pick() {
+        int total = 0;
+        for (Operation operation : Operation.values()) {
+            total += operation.weight;
+        }
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Operation operation : Operation.values()) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private static Map<Operation, EndpointRecorder> newRecorders() {
+        Map<Operation, EndpointRecorder> recorders = new LinkedHashMap<>();
+        recorders.put(Operation.LIST_CARS, new EndpointRecorder("GET /api/cars"));
+        recorders.put(Operation.CAR_STATS, new EndpointRecorder("GET /api/cars/{id}/stats"));
+        recorders.put(Operation.LIST_FILLUPS, new EndpointRecorder("GET /api/cars/{carId}/fillups"));
+        recorders.put(Operation.CREATE_FILLUP, new EndpointRecorder("POST /api/fillups"));
+        return recorders;
+    }
+
+    private static Duration duration(String property, Duration defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    /**
+     * One simulated user: a token, the car they own and the next odometer reading to log.
+     * Each user is driven by a single virtual thread, so the odometer needs no synchronization.
+     */
+    private static final class SimulatedUser {
+        private final String token;
+        private final UUID carId;
+        private long odometer;
+
+        SimulatedUser(String token, UUID carId, long odometer) {
+            this.token = token;
+            this.carId = carId;
+            this.odometer = odometer;
+        }
+
+        String token() {
+            return token;
+        }
+
+        UUID carId() {
+            return carId;
+        }
+
+        long nextOdometer() {
+            odometer += 250;
+            return odometer;
+        }
+    }
+}
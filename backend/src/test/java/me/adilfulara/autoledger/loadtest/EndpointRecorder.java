@@ -0,0 +1,70 @@
+package me.adilfulara.autoledger.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects latencies and errors for one endpoint across all simulated users.
+ */
+final class EndpointRecorder {
+
+    private final String name;
+    private final ConcurrentLinkedQueue<Long> latenciesNanos = new ConcurrentLinkedQueue<>();
+    private final LongAdder errors = new LongAdder();
+
+    EndpointRecorder(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void record(long latencyNanos, boolean success) {
+        latenciesNanos.add(latencyNanos);
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Summarize everything recorded so far over a measurement window.
+     *
+     * @param windowSeconds length of the measurement window, used for throughput
+     */
+    LoadReport.EndpointSummary summarize(double windowSeconds) {
+        long[] sorted = latenciesNanos.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        long requests = sorted.length;
+        long errorCount = errors.sum();
+        double mean = requests == 0 ? 0 : Arrays.stream(sorted).average().orElse(0);
+
+        return new LoadReport.EndpointSummary(
+                requests,
+                errorCount,
+                requests == 0 ? 0 : (double) errorCount / requests,
+                windowSeconds > 0 ? requests / windowSeconds : 0,
+                new LoadReport.Latency(
+                        toMillis(percentile(sorted, 0.50)),
+                        toMillis(percentile(sorted, 0.99)),
+                        toMillis(percentile(sorted, 0.999)),
+                        toMillis(requests == 0 ? 0 : sorted[sorted.length - 1]),
+                        toMillis(mean)));
+    }
+
+    /**
+     * Nearest-rank percentile of an ascending array.
+     */
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    private static double toMillis(double nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
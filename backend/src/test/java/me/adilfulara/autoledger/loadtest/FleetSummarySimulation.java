@@ -0,0 +1,189 @@
+package me.adilfulara.autoledger.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import me.adilfulara.autoledger.PostgreSQLTestContainer;
+import me.adilfulara.autoledger.api.dto.FleetSummaryResponse;
+import me.adilfulara.autoledger.fleet.FleetService;
+import me.adilfulara.autoledger.fleet.FleetUnits;
+import me.adilfulara.autoledger.service.CarService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmarks the fleet summary against the one-car-at-a-time baseline for large accounts.
+ *
+ * <p>For each fleet size, one user is seeded with that many cars (half logged in miles/gallons, half
+ * in kilometers/liters) and then timed in three modes:
+ * <ul>
+ *   <li>{@code sequential} - {@code CarService.getCarStats} for each car in turn, as a client
+ *       assembling a dashboard from the per-car endpoint would</li>
+ *   <li>{@code fleetCold} - {@code FleetService.getFleetSummary} with every snapshot stale, so all
+ *       cars are computed in parallel within {@code fleet.concurrency}</li>
+ *   <li>{@code fleetWarm} - the same call after every snapshot has been refreshed</li>
+ * </ul>
+ * Each mode runs once unmeasured and is then reported as the median of the measured runs.
+ *
+ * <p>Not part of the regular test run. Run with {@code make load-test} or
+ * {@code ./mvnw -Ploadtest test -Dtest=FleetSummarySimulation}; tune with:
+ * <ul>
+ *   <li>{@code loadtest.fleet-sizes} - comma-separated car counts (default 100,1000,5000)</li>
+ *   <li>{@code loadtest.fleet-fillups} - fillups seeded per car (default 20)</li>
+ *   <li>{@code loadtest.fleet-runs} - measured runs per mode (default 5)</li>
+ *   <li>{@code loadtest.fleet-concurrency} - {@code fleet.concurrency} for the run (default 4)</li>
+ * </ul>
+ *
+ * <p>The report is written to {@code target/loadtest/fleet-report.json}.
+ */
+@SpringBootTest
+@DisplayName("Fleet summary benchmark")
+class FleetSummarySimulation {
+
+    private static final Path REPORT_FILE = Path.of("target", "loadtest", "fleet-report.json");
+
+    private static final List<Integer> SIZES = Arrays.stream(
+                    System.getProperty("loadtest.fleet-sizes", "100,1000,5000").split(","))
+            .map(String::trim)
+            .map(Integer::parseInt)
+            .toList();
+    private static final int FILLUPS_PER_CAR = Integer.getInteger("loadtest.fleet-fillups", 20);
+    private static final int RUNS = Integer.getInteger("loadtest.fleet-runs", 5);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.fleet-concurrency", 4);
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLTestContainer.configureDataSource(registry);
+        registry.add("fleet.concurrency", () -> String.valueOf(CONCURRENCY));
+        registry.add("observability.sql.header-enabled", () -> "false");
+    }
+
+    @Autowired
+    private FleetService fleetService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("times sequential per-car stats against the fleet summary and writes a report")
+    void runSizes() throws IOException {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int size : SIZES) {
+            UUID userId = seedFleet(size);
+            List<UUID> carIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM app.cars WHERE user_id = ?", UUID.class, userId);
+
+            double sequential = medianMillis(() -> {
+                carIds.forEach(carService::getCarStats);
+                return carIds.size();
+            });
+            double fleetCold = medianMillis(() -> summarize(userId, size));
+
+            carIds.forEach(carService::refreshStatsSnapshot);
+            double fleetWarm = medianMillis(() -> summarize(userId, size));
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("cars", size);
+            result.put("sequentialMillis", sequential);
+            result.put("fleetColdMillis", fleetCold);
+            result.put("fleetWarmMillis", fleetWarm);
+            results.add(result);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("build", System.getProperty("loadtest.build", "local"));
+        report.put("startedAt", Instant.now().toString());
+        report.put("fillupsPerCar", FILLUPS_PER_CAR);
+        report.put("concurrency", CONCURRENCY);
+        report.put("runs", RUNS);
+        report.put("results", results);
+        Files.createDirectories(REPORT_FILE.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORT_FILE.toFile(), report);
+    }
+
+    private int summarize(UUID userId, int expectedCars) {
+        FleetSummaryResponse summary = fleetService.getFleetSummary(userId, FleetUnits.US);
+        assertThat(summary.totals().carCount()).isEqualTo(expectedCars);
+        return summary.totals().carCount();
+    }
+
+    /**
+     * Median wall-clock time of {@code RUNS} measured runs, after one unmeasured run.
+     */
+    private static double medianMillis(Supplier<Integer> run) {
+        run.get();
+        double[] millis = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            run.get();
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        return RUNS % 2 == 1
+                ? millis[RUNS / 2]
+                : (millis[RUNS / 2 - 1] + millis[RUNS / 2]) / 2;
+    }
+
+    /**
+     * Bulk-load a user owning {@code size} cars, each with {@code FILLUPS_PER_CAR} fillups.
+     */
+    private UUID seedFleet(int size) {
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO app.users (id, auth_provider_id, email) VALUES (?, ?, ?)",
+                userId, "fleet_" + size + "_" + userId, "fleet-" + userId + "@loadtest.local");
+
+        List<Object[]> cars = new ArrayList<>(size);
+        List<Object[]> fillups = new ArrayList<>(size * FILLUPS_PER_CAR);
+        Instant firstDate = Instant.now().minus(FILLUPS_PER_CAR, ChronoUnit.DAYS);
+        for (int i = 0; i < size; i++) {
+            UUID carId = UUID.randomUUID();
+            boolean metric = i % 2 == 1;
+            cars.add(new Object[]{carId, userId, "Fleet " + i,
+                    metric ? "LITERS" : "GALLONS", metric ? "KILOMETERS" : "MILES"});
+
+            long odometer = 10_000;
+            for (int j = 0; j < FILLUPS_PER_CAR; j++) {
+                odometer += metric ? 480 + (i % 40) : 300 + (i % 25);
+                BigDecimal volume = metric ? new BigDecimal("38.000") : new BigDecimal("10.000");
+                BigDecimal price = metric ? new BigDecimal("0.925") : new BigDecimal("3.500");
+                fillups.add(new Object[]{UUID.randomUUID(), carId, Timestamp.from(firstDate.plus(j, ChronoUnit.DAYS)),
+                        odometer, volume, price, volume.multiply(price).setScale(2, RoundingMode.HALF_UP)});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO app.cars (id, user_id, make, model, year, name, fuel_unit, distance_unit) "
+                        + "VALUES (?, ?, 'Ford', 'Transit', 2022, ?, ?, ?)",
+                cars);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO app.fillups (id, car_id, date, odometer, fuel_volume, price_per_unit, total_cost, "
+                        + "is_partial, is_missed, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, false, false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+                fillups);
+        return userId;
+    }
+}
@@ -0,0 +1,96 @@
+package me.adilfulara.autoledger.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable result of a load simulation.
+ *
+ * <p>Written as JSON so runs from different builds can be diffed or compared with
+ * {@link #regressionsAgainst(LoadReport, double, double)}.
+ *
+ * @param build           build identifier (commit hash or CI build number)
+ * @param startedAt       when the measurement window started
+ * @param durationSeconds length of the measurement window
+ * @param users           number of concurrent simulated users
+ * @param virtualThreads  whether the server ran request handling on virtual threads
+ * @param endpoints       per-endpoint summaries keyed by endpoint name
+ */
+public record LoadReport(
+        String build,
+        Instant startedAt,
+        double durationSeconds,
+        int users,
+        boolean virtualThreads,
+        Map<String, EndpointSummary> endpoints
+) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * Per-endpoint results.
+     */
+    public record EndpointSummary(
+            long requests,
+            long errors,
+            double errorRate,
+            double throughputPerSecond,
+            Latency latencyMs
+    ) {}
+
+    /**
+     * Latency distribution in milliseconds.
+     */
+    public record Latency(double p50, double p99, double p999, double max, double mean) {}
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), this);
+    }
+
+    public static LoadReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadReport.class);
+    }
+
+    /**
+     * Compare against a baseline run.
+     *
+     * @param baseline     the earlier report to compare with
+     * @param tolerance    allowed relative drop in throughput or rise in p99 (0.2 = 20%)
+     * @param maxErrorRate highest acceptable error rate for any endpoint
+     * @return human-readable regressions, empty if none
+     */
+    public List<String> regressionsAgainst(LoadReport baseline, double tolerance, double maxErrorRate) {
+        List<String> regressions = new ArrayList<>();
+        endpoints.forEach((name, current) -> {
+            if (current.errorRate() > maxErrorRate) {
+                regressions.add("%s: error rate %.4f exceeds %.4f".formatted(name, current.errorRate(), maxErrorRate));
+            }
+            EndpointSummary previous = baseline == null ? null : baseline.endpoints().get(name);
+            if (previous == null) {
+                return;
+            }
+            if (current.throughputPerSecond() < previous.throughputPerSecond() * (1 - tolerance)) {
+                regressions.add("%s: throughput %.1f/s vs baseline %.1f/s".formatted(
+                        name, current.throughputPerSecond(), previous.throughputPerSecond()));
+            }
+            if (current.latencyMs().p99() > previous.latencyMs().p99() * (1 + tolerance)) {
+                regressions.add("%s: p99 %.1f ms vs baseline %.1f ms".formatted(
+                        name, current.latencyMs().p99(), previous.latencyMs().p99()));
+            }
+        });
+        return regressions;
+    }
+}
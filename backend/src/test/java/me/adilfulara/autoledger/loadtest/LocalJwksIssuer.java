@@ -0,0 +1,121 @@
+package me.adilfulara.autoledger.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stand-in OIDC issuer for load tests.
+ *
+ * <p>Serves the public half of a freshly generated RSA key at {@code /.well-known/jwks.json} and
+ * mints tokens signed with the private half, so requests go through the real {@code JwtService}
+ * path (JWKS fetch, signature verification, claim checks) without an external auth provider.
+ */
+public final class LocalJwksIssuer implements AutoCloseable {
+
+    private static final String KEY_ID = "loadtest-key";
+
+    private final RSAKey rsaKey;
+    private final JWSSigner signer;
+    private final HttpServer server;
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+
+    private LocalJwksIssuer(RSAKey rsaKey, HttpServer server) throws JOSEException {
+        this.rsaKey = rsaKey;
+        this.signer = new RSASSASigner(rsaKey);
+        this.server = server;
+    }
+
+    /**
+     * Generate a signing key and start serving its JWKS on an ephemeral loopback port.
+     */
+    public static LocalJwksIssuer start() {
+        try {
+            RSAKey rsaKey = new RSAKeyGenerator(2048).keyID(KEY_ID).generate();
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            LocalJwksIssuer issuer = new LocalJwksIssuer(rsaKey, server);
+
+            byte[] jwks = new JWKSet(rsaKey.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+            server.createContext("/.well-known/jwks.json", exchange -> {
+                issuer.jwksRequests.incrementAndGet();
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, jwks.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(jwks);
+                }
+            });
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.start();
+            return issuer;
+        } catch (IOException | JOSEException e) {
+            throw new IllegalStateException("Failed to start local JWKS issuer", e);
+        }
+    }
+
+    /**
+     * Issuer URI to configure as {@code auth.jwt.issuer-uri}.
+     */
+    public String issuerUri() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    /**
+     * Mint a signed token for the given subject.
+     *
+     * @param subject  the {@code sub} claim (auth provider user ID)
+     * @param email    the {@code email} claim
+     * @param audience the {@code aud} claim
+     * @param validFor how long the token stays valid
+     * @return the serialized JWT
+     */
+    public String mintToken(String subject, String email, String audience, Duration validFor) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuerUri())
+                .subject(subject)
+                .audience(audience)
+                .claim("email", email)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(validFor)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(), claims);
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to sign load test token", e);
+        }
+        return jwt.serialize();
+    }
+
+    /**
+     * Number of times the JWKS document has been fetched (should stay at 1 while the app's cache works).
+     */
+    public int jwksRequests() {
+        return jwksRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
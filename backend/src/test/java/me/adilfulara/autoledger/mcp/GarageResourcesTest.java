@@ -0,0 +1,220 @@
+package me.adilfulara.autoledger.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.DistanceUnit;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FuelUnit;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import me.adilfulara.autoledger.service.FillupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GarageResources")
+class GarageResourcesTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID CAR_ID = UUID.randomUUID();
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private FillupRepository fillupRepository;
+
+    @Mock
+    private FillupService fillupService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private SimpleMeterRegistry meterRegistry;
+    private GarageResources resources;
+
+    @BeforeEach
+    void setUp() {
+        McpProperties properties = new McpProperties();
+        properties.setHistoryPageSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        resources = new GarageResources(userRepository, carRepository, fillupRepository, fillupService,
+                objectMapper, properties, meterRegistry);
+    }
+
+    private Car car() {
+        Car car = new Car(USER_ID, "Toyota", "Camry", 2020, null, "Daily Driver",
+                FuelUnit.GALLONS, DistanceUnit.MILES);
+        car.setId(CAR_ID);
+        return car;
+    }
+
+    private Fillup fillup(long odometer) {
+        Fillup fillup = new Fillup(CAR_ID, Instant.parse("2024-01-01T00:00:00Z").plusSeconds(odometer),
+                odometer, new BigDecimal("10.000"), new BigDecimal("3.500"), new BigDecimal("35.00"),
+                false, false);
+        fillup.setId(UUID.randomUUID());
+        return fillup;
+    }
+
+    private double snapshots(String result) {
+        return meterRegistry.get("autoledger.mcp.snapshots").tag("result", result).counter().count();
+    }
+
+    @Nested
+    @DisplayName("Garage")
+    class Garage {
+
+        @Test
+        @DisplayName("Should render the user's cars")
+        void rendersCars() throws Exception {
+            when(userRepository.findDataVersionById(USER_ID)).thenReturn(Optional.of(3L));
+            when(carRepository.findByUserId(USER_ID)).thenReturn(List.of(car()));
+
+            JsonNode garage = objectMapper.readTree(resources.read(USER_ID, GarageResources.GARAGE_URI));
+
+            assertThat(garage.path("cars")).hasSize(1);
+            assertThat(garage.path("cars").get(0).path("name").asText()).isEqualTo("Daily Driver");
+        }
+
+        @Test
+        @DisplayName("Should serve repeated reads from the snapshot while the version is unchanged")
+        void cachesWhileVersionUnchanged() {
+            when(userRepository.findDataVersionById(USER_ID)).thenReturn(Optional.of(3L));
+            when(carRepository.findByUserId(USER_ID)).thenReturn(List.of(car()));
+
+            String first = resources.readGarage(USER_ID);
+            String second = resources.readGarage(USER_ID);
+
+            assertThat(second).isEqualTo(first);
+            verify(carRepository, times(1)).findByUserId(USER_ID);
+            assertThat(snapshots("hit")).isEqualTo(1);
+            assertThat(snapshots("miss")).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should re-render after a write bumps the user's version")
+        void rerendersAfterVersionChange() {
+            when(userRepository.findDataVersionById(USER_ID)).thenReturn(Optional.of(3L), Optional.of(4L));
+            when(carRepository.findByUserId(USER_ID)).thenReturn(List.of(), List.of(car()));
+
+            String before = resources.readGarage(USER_ID);
+            String after = resources.readGarage(USER_ID);
+
+            assertThat(before).doesNotContain("Daily Driver");
+            assertThat(after).contains("Daily Driver");
+            verify(carRepository, times(2)).findByUserId(USER_ID);
+        }
+    }
+
+    @Nested
+    @DisplayName("History")
+    class History {
+
+        @Test
+        @DisplayName("Should render a page with MPG and a cursor to the next page")
+        void rendersPageWithCursor() throws Exception {
+            Fillup newest = fillup(1300);
+            Fillup middle = fillup(1000);
+            Fillup oldest = fillup(700);
+            when(carRepository.findDataVersionByIdAndUserId(CAR_ID, USER_ID)).thenReturn(Optional.of(7L));
+            when(fillupRepository.findPageByCarId(CAR_ID, 3, 0))
+                    .thenReturn(new ArrayList<>(List.of(newest, middle, oldest)));
+            when(fillupService.calculateMPGs(List.of(newest, middle)))
+                    .thenReturn(Map.of(newest.getId(), new BigDecimal("30.00")));
+
+            JsonNode page = objectMapper.readTree(resources.read(USER_ID, GarageResources.historyUri(CAR_ID)));
+
+            assertThat(page.path("fillups")).hasSize(2);
+            assertThat(page.path("fillups").get(0).path("mpg").decimalValue()).isEqualByComparingTo("30.00");
+            assertThat(page.path("fillups").get(1).path("mpg").isNull()).isTrue();
+            assertThat(page.path("nextCursor").asText())
+                    .isEqualTo(GarageResources.historyUri(CAR_ID) + "?page=2");
+        }
+
+        @Test
+        @DisplayName("Should omit the cursor on the last page")
+        void lastPageHasNoCursor() throws Exception {
+            Fillup oldest = fillup(700);
+            when(carRepository.findDataVersionByIdAndUserId(CAR_ID, USER_ID)).thenReturn(Optional.of(7L));
+            when(fillupRepository.findPageByCarId(CAR_ID, 3, 2)).thenReturn(List.of(oldest));
+            when(fillupService.calculateMPGs(anyList())).thenReturn(Map.of());
+
+            JsonNode page = objectMapper.readTree(
+                    resources.read(USER_ID, GarageResources.historyUri(CAR_ID) + "?page=2"));
+
+            assertThat(page.path("page").asInt()).isEqualTo(2);
+            assertThat(page.path("fillups")).hasSize(1);
+            assertThat(page.path("nextCursor").isNull()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should not recompute MPG for a cached page while the car's version is unchanged")
+        void cachesPage() {
+            when(carRepository.findDataVersionByIdAndUserId(CAR_ID, USER_ID)).thenReturn(Optional.of(7L));
+            when(fillupRepository.findPageByCarId(CAR_ID, 3, 0)).thenReturn(List.of(fillup(700)));
+            when(fillupService.calculateMPGs(anyList())).thenReturn(Map.of());
+
+            resources.readHistory(USER_ID, CAR_ID, 1);
+            resources.readHistory(USER_ID, CAR_ID, 1);
+
+            verify(fillupRepository, times(1)).findPageByCarId(CAR_ID, 3, 0);
+            verify(fillupService, times(1)).calculateMPGs(anyList());
+            assertThat(resources.cachedSnapshots()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should recompute after a write bumps the car's version")
+        void recomputesAfterVersionChange() {
+            when(carRepository.findDataVersionByIdAndUserId(CAR_ID, USER_ID))
+                    .thenReturn(Optional.of(7L), Optional.of(8L));
+            when(fillupRepository.findPageByCarId(CAR_ID, 3, 0)).thenReturn(List.of(fillup(700)));
+            when(fillupService.calculateMPGs(anyList())).thenReturn(Map.of());
+
+            resources.readHistory(USER_ID, CAR_ID, 1);
+            resources.readHistory(USER_ID, CAR_ID, 1);
+
+            verify(fillupService, times(2)).calculateMPGs(anyList());
+        }
+
+        @Test
+        @DisplayName("Should reject a car the user does not own")
+        void rejectsForeignCar() {
+            when(carRepository.findDataVersionByIdAndUserId(CAR_ID, USER_ID)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> resources.readHistory(USER_ID, CAR_ID, 1))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            verifyNoInteractions(fillupRepository, fillupService);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject unknown resource URIs")
+    void rejectsUnknownUri() {
+        assertThatThrownBy(() -> resources.read(USER_ID, "autoledger://cars"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
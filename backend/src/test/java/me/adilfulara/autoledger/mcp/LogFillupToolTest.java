@@ -0,0 +1,198 @@
+package me.adilfulara.autoledger.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.exception.InvalidOdometerException;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.service.CarNameIndex;
+import me.adilfulara.autoledger.service.CarNameMatch;
+import me.adilfulara.autoledger.service.FillupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LogFillupTool")
+class LogFillupToolTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Mock
+    private CarNameIndex carNameIndex;
+
+    @Mock
+    private FillupService fillupService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private LogFillupTool tool;
+
+    private final CarNameMatch camry = new CarNameMatch(UUID.randomUUID(), "Daily Camry", 1.0);
+
+    @BeforeEach
+    void setUp() {
+        tool = new LogFillupTool(carNameIndex, fillupService, objectMapper);
+    }
+
+    private CarNameMatch match(String name, double score) {
+        return new CarNameMatch(UUID.randomUUID(), name, score);
+    }
+
+    private ObjectNode arguments(String carName, long odometer, String gallons, String price) {
+        ObjectNode arguments = objectMapper.createObjectNode();
+        arguments.put("car_name", carName);
+        arguments.put("odometer", odometer);
+        arguments.put("gallons", new BigDecimal(gallons));
+        arguments.put("price", new BigDecimal(price));
+        return arguments;
+    }
+
+    @Nested
+    @DisplayName("Call")
+    class Call {
+
+        @Test
+        @DisplayName("Should create a full fillup with the total cost derived from gallons and price")
+        void createsFillup() throws Exception {
+            when(carNameIndex.search(USER_ID, "camry")).thenReturn(List.of(match("Daily Camry", 0.7)));
+            when(fillupService.createFillup(any(CreateFillupRequest.class))).thenAnswer(invocation -> {
+                CreateFillupRequest request = invocation.getArgument(0);
+                Fillup fillup = new Fillup(request.carId(), request.date(), request.odometer(),
+                        request.fuelVolume(), request.pricePerUnit(), request.totalCost(),
+                        request.isPartial(), request.isMissed());
+                fillup.setId(UUID.randomUUID());
+                return fillup;
+            });
+            when(fillupService.calculateMPG(any(Fillup.class))).thenReturn(Optional.of(new BigDecimal("31.25")));
+
+            ToolResult result = tool.call(USER_ID, arguments("camry", 45000, "10.5", "3.459"));
+
+            assertThat(result.isError()).isFalse();
+            ArgumentCaptor<CreateFillupRequest> captor = ArgumentCaptor.forClass(CreateFillupRequest.class);
+            verify(fillupService).createFillup(captor.capture());
+            CreateFillupRequest request = captor.getValue();
+            assertThat(request.carId()).isNotNull();
+            assertThat(request.odometer()).isEqualTo(45000L);
+            assertThat(request.totalCost()).isEqualByComparingTo("36.32");
+            assertThat(request.isPartial()).isFalse();
+            assertThat(request.date()).isBeforeOrEqualTo(Instant.now());
+
+            JsonNode body = objectMapper.readTree(result.text());
+            assertThat(body.path("car").asText()).isEqualTo("Daily Camry");
+            assertThat(body.path("fillup").path("mpg").decimalValue()).isEqualByComparingTo("31.25");
+        }
+
+        @Test
+        @DisplayName("Should record a partial fillup when is_full is false")
+        void partialFillup() {
+            when(carNameIndex.search(USER_ID, "Daily Camry")).thenReturn(List.of(camry));
+            when(fillupService.createFillup(any(CreateFillupRequest.class)))
+                    .thenThrow(new InvalidOdometerException(100L, 200L));
+
+            ObjectNode arguments = arguments("Daily Camry", 100, "5", "3");
+            arguments.put("is_full", false);
+            tool.call(USER_ID, arguments);
+
+            ArgumentCaptor<CreateFillupRequest> captor = ArgumentCaptor.forClass(CreateFillupRequest.class);
+            verify(fillupService).createFillup(captor.capture());
+            assertThat(captor.getValue().isPartial()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should report odometer validation failures as tool errors")
+        void reportsInvalidOdometer() {
+            when(carNameIndex.search(USER_ID, "Daily Camry")).thenReturn(List.of(camry));
+            when(fillupService.createFillup(any(CreateFillupRequest.class)))
+                    .thenThrow(new InvalidOdometerException(100L, 200L));
+
+            ToolResult result = tool.call(USER_ID, arguments("Daily Camry", 100, "5", "3"));
+
+            assertThat(result.isError()).isTrue();
+            assertThat(result.text()).contains("must be greater than previous reading 200");
+        }
+
+        @Test
+        @DisplayName("Should report missing arguments without touching the database")
+        void reportsMissingArguments() {
+            ObjectNode arguments = objectMapper.createObjectNode();
+            arguments.put("car_name", "camry");
+
+            ToolResult result = tool.call(USER_ID, arguments);
+
+            assertThat(result.isError()).isTrue();
+            verifyNoInteractions(carNameIndex, fillupService);
+        }
+
+        @Test
+        @DisplayName("Should reject non-positive values")
+        void rejectsNonPositiveValues() {
+            ToolResult result = tool.call(USER_ID, arguments("camry", 100, "0", "3"));
+
+            assertThat(result.isError()).isTrue();
+            verifyNoInteractions(carNameIndex, fillupService);
+        }
+    }
+
+    @Nested
+    @DisplayName("Car name resolution")
+    class ResolveCar {
+
+        @Test
+        @DisplayName("Should take an exact match even when other names score close")
+        void exactMatchWins() {
+            when(carNameIndex.search(USER_ID, "daily camry"))
+                    .thenReturn(List.of(camry, match("Daily Camry 2", 0.95)));
+
+            assertThat(tool.resolveCar(USER_ID, "daily camry")).isSameAs(camry);
+        }
+
+        @Test
+        @DisplayName("Should take the best fuzzy match when it clearly outranks the runner-up")
+        void clearFuzzyMatch() {
+            CarNameMatch civic = match("Weekend Civic", 0.72);
+            when(carNameIndex.search(USER_ID, "civc")).thenReturn(List.of(civic, match("Work Van", 0.4)));
+
+            assertThat(tool.resolveCar(USER_ID, "civc")).isSameAs(civic);
+        }
+
+        @Test
+        @DisplayName("Should reject ambiguous names, listing the candidates")
+        void rejectsAmbiguousName() {
+            when(carNameIndex.search(USER_ID, "civic"))
+                    .thenReturn(List.of(match("Weekend Civic", 0.72), match("Civic Type R", 0.7)));
+
+            assertThatThrownBy(() -> tool.resolveCar(USER_ID, "civic"))
+                    .hasMessageContaining("ambiguous")
+                    .hasMessageContaining("Civic Type R");
+        }
+
+        @Test
+        @DisplayName("Should report unknown names as a tool error")
+        void unknownName() {
+            when(carNameIndex.search(USER_ID, "tesla")).thenReturn(List.of());
+
+            ToolResult result = tool.call(USER_ID, arguments("tesla", 100, "5", "3"));
+
+            assertThat(result.isError()).isTrue();
+            assertThat(result.text()).contains("tesla");
+            verifyNoInteractions(fillupService);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package me.adilfulara.autoledger.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.DistanceUnit;
+import me.adilfulara.autoledger.domain.model.FuelUnit;
+import me.adilfulara.autoledger.service.CarService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("McpServer")
+class McpServerTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Mock
+    private GarageResources garageResources;
+
+    @Mock
+    private LogFillupTool logFillupTool;
+
+    @Mock
+    private CarService carService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private McpServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = new McpServer(garageResources, logFillupTool, carService, objectMapper);
+    }
+
+    private ObjectNode request(String method) {
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("jsonrpc", "2.0");
+        request.put("id", 1);
+        request.put("method", method);
+        return request;
+    }
+
+    private JsonNode handle(ObjectNode request) {
+        Optional<ObjectNode> response = server.handle(USER_ID, request);
+        assertThat(response).isPresent();
+        assertThat(response.get().path("id").asInt()).isEqualTo(1);
+        return response.get();
+    }
+
+    @Test
+    @DisplayName("Should answer initialize with the protocol version and capabilities")
+    void initialize() {
+        JsonNode result = handle(request("initialize")).path("result");
+
+        assertThat(result.path("protocolVersion").asText()).isEqualTo(McpServer.PROTOCOL_VERSION);
+        assertThat(result.path("capabilities").has("resources")).isTrue();
+        assertThat(result.path("capabilities").has("tools")).isTrue();
+        assertThat(result.path("serverInfo").path("name").asText()).isEqualTo("auto-ledger");
+    }
+
+    @Test
+    @DisplayName("Should not answer notifications")
+    void ignoresNotifications() {
+        ObjectNode notification = objectMapper.createObjectNode();
+        notification.put("jsonrpc", "2.0");
+        notification.put("method", "notifications/initialized");
+
+        assertThat(server.handle(USER_ID, notification)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should list the garage and one history resource per car")
+    void listsResources() {
+        Car car = new Car(USER_ID, "Toyota", "Camry", 2020, null, "Daily Driver",
+                FuelUnit.GALLONS, DistanceUnit.MILES);
+        car.setId(UUID.randomUUID());
+        when(carService.getCarsByUserId(USER_ID)).thenReturn(List.of(car));
+
+        JsonNode resources = handle(request("resources/list")).path("result").path("resources");
+
+        assertThat(resources).hasSize(2);
+        assertThat(resources.get(0).path("uri").asText()).isEqualTo(GarageResources.GARAGE_URI);
+        assertThat(resources.get(1).path("uri").asText()).isEqualTo(GarageResources.historyUri(car.getId()));
+    }
+
+    @Test
+    @DisplayName("Should read a resource as JSON text content")
+    void readsResource() {
+        when(garageResources.read(USER_ID, GarageResources.GARAGE_URI)).thenReturn("{\"cars\":[]}");
+        ObjectNode request = request("resources/read");
+        request.putObject("params").put("uri", GarageResources.GARAGE_URI);
+
+        JsonNode content = handle(request).path("result").path("contents").get(0);
+
+        assertThat(content.path("uri").asText()).isEqualTo(GarageResources.GARAGE_URI);
+        assertThat(content.path("mimeType").asText()).isEqualTo("application/json");
+        assertThat(content.path("text").asText()).isEqualTo("{\"cars\":[]}");
+    }
+
+    @Test
+    @DisplayName("Should map unknown resources to the resource-not-found error")
+    void unknownResource() {
+        when(garageResources.read(USER_ID, "autoledger://nope"))
+                .thenThrow(new ResourceNotFoundException("Unknown resource: autoledger://nope"));
+        ObjectNode request = request("resources/read");
+        request.putObject("params").put("uri", "autoledger://nope");
+
+        JsonNode error = handle(request).path("error");
+
+        assertThat(error.path("code").asInt()).isEqualTo(McpException.RESOURCE_NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("Should reject resources/read without a uri")
+    void readWithoutUri() {
+        JsonNode error = handle(request("resources/read")).path("error");
+
+        assertThat(error.path("code").asInt()).isEqualTo(McpException.INVALID_PARAMS);
+        verifyNoInteractions(garageResources);
+    }
+
+    @Test
+    @DisplayName("Should call log_fillup and wrap its result as text content")
+    void callsTool() {
+        when(logFillupTool.call(eq(USER_ID), any(JsonNode.class))).thenReturn(ToolResult.error("No car matches"));
+        ObjectNode request = request("tools/call");
+        ObjectNode params = request.putObject("params");
+        params.put("name", LogFillupTool.NAME);
+        params.putObject("arguments").put("car_name", "tesla");
+
+        JsonNode result = handle(request).path("result");
+
+        assertThat(result.path("isError").asBoolean()).isTrue();
+        assertThat(result.path("content").get(0).path("text").asText()).isEqualTo("No car matches");
+    }
+
+    @Test
+    @DisplayName("Should reject unknown tools")
+    void unknownTool() {
+        ObjectNode request = request("tools/call");
+        request.putObject("params").put("name", "calculate_trip_cost");
+
+        JsonNode error = handle(request).path("error");
+
+        assertThat(error.path("code").asInt()).isEqualTo(McpException.INVALID_PARAMS);
+        verifyNoInteractions(logFillupTool);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown methods")
+    void unknownMethod() {
+        JsonNode error = handle(request("prompts/list")).path("error");
+
+        assertThat(error.path("code").asInt()).isEqualTo(McpException.METHOD_NOT_FOUND);
+    }
+}
@@ -0,0 +1,63 @@
+package me.adilfulara.autoledger.observability;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SqlStatementCounter}.
+ */
+@DisplayName("SqlStatementCounter")
+class SqlStatementCounterTest {
+
+    @Test
+    @DisplayName("ignores statements when no scope is open")
+    void ignoresStatementsWithoutScope() {
+        SqlStatementCounter.record("SELECT 1");
+
+        assertThat(SqlStatementCounter.currentCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("counts statements against all nested scopes")
+    void countsAgainstNestedScopes() {
+        try (SqlStatementCounter.Scope request = SqlStatementCounter.open("request")) {
+            SqlStatementCounter.record("SELECT 1");
+
+            try (SqlStatementCounter.Scope service = SqlStatementCounter.open("service")) {
+                SqlStatementCounter.record("SELECT 2");
+                SqlStatementCounter.record("SELECT 3");
+
+                assertThat(SqlStatementCounter.currentCount()).isEqualTo(2);
+                assertThat(service.getCount()).isEqualTo(2);
+            }
+
+            assertThat(SqlStatementCounter.currentCount()).isEqualTo(3);
+            assertThat(request.getCount()).isEqualTo(3);
+        }
+
+        assertThat(SqlStatementCounter.currentCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("reports statements repeated at least the threshold in the outermost scope")
+    void reportsRepeatedStatements() {
+        try (SqlStatementCounter.Scope request = SqlStatementCounter.open("request")) {
+            try (SqlStatementCounter.Scope service = SqlStatementCounter.open("service")) {
+                for (int i = 0; i < 5; i++) {
+                    SqlStatementCounter.record("SELECT * FROM fillups WHERE id = ?");
+                }
+                SqlStatementCounter.record("SELECT * FROM cars WHERE id = ?");
+
+                assertThat(service.repeatedStatements(1)).isEmpty();
+            }
+
+            assertThat(request.repeatedStatements(5))
+                    .containsOnlyKeys("SELECT * FROM fillups WHERE id = ?")
+                    .containsEntry("SELECT * FROM fillups WHERE id = ?", 5);
+            assertThat(request.repeatedStatements(1).keySet())
+                    .containsExactly("SELECT * FROM fillups WHERE id = ?", "SELECT * FROM cars WHERE id = ?");
+        }
+    }
+}
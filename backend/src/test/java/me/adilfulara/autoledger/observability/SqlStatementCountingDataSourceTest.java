@@ -0,0 +1,102 @@
+package me.adilfulara.autoledger.observability;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SqlStatementCountingDataSource}.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SqlStatementCountingDataSource")
+class SqlStatementCountingDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    @Mock
+    private Statement statement;
+
+    @Test
+    @DisplayName("counts prepared statement executions with their SQL")
+    void countsPreparedStatementExecutions() throws SQLException {
+        String sql = "SELECT * FROM fillups WHERE car_id = ?";
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+
+        SqlStatementCountingDataSource dataSource = new SqlStatementCountingDataSource(targetDataSource);
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("request")) {
+            Connection wrapped = dataSource.getConnection();
+            PreparedStatement ps = wrapped.prepareStatement(sql);
+            ps.setString(1, "abc");
+            ps.executeQuery();
+            ps.executeQuery();
+
+            assertThat(scope.getCount()).isEqualTo(2);
+            assertThat(scope.repeatedStatements(2)).containsEntry(sql, 2);
+            verify(preparedStatement).setString(1, "abc");
+        }
+    }
+
+    @Test
+    @DisplayName("counts plain statement executions using the executed SQL")
+    void countsPlainStatementExecutions() throws SQLException {
+        when(targetDataSource.getConnection("user", "secret")).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+
+        SqlStatementCountingDataSource dataSource = new SqlStatementCountingDataSource(targetDataSource);
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("request")) {
+            Statement wrapped = dataSource.getConnection("user", "secret").createStatement();
+            wrapped.execute("SET search_path TO app");
+
+            assertThat(scope.getCount()).isEqualTo(1);
+            assertThat(scope.repeatedStatements(1)).containsKey("SET search_path TO app");
+        }
+    }
+
+    @Test
+    @DisplayName("propagates the original SQLException from the target")
+    void propagatesTargetExceptions() throws SQLException {
+        when(targetDataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenThrow(new SQLException("connection closed"));
+
+        Connection wrapped = new SqlStatementCountingDataSource(targetDataSource).getConnection();
+
+        assertThatThrownBy(wrapped::createStatement)
+                .isInstanceOf(SQLException.class)
+                .hasMessage("connection closed");
+    }
+
+    @Test
+    @DisplayName("uses identity semantics for proxied connections")
+    void usesIdentitySemantics() throws SQLException {
+        when(targetDataSource.getConnection()).thenReturn(connection);
+
+        Connection wrapped = new SqlStatementCountingDataSource(targetDataSource).getConnection();
+
+        assertThat(wrapped).isEqualTo(wrapped);
+        assertThat(wrapped.hashCode()).isEqualTo(System.identityHashCode(wrapped));
+        assertThat(wrapped.toString()).startsWith("Counting proxy for");
+    }
+}
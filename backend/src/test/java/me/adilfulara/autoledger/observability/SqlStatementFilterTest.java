@@ -0,0 +1,92 @@
+package me.adilfulara.autoledger.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link SqlStatementFilter} and {@link SqlStatementHeaderAdvice}.
+ */
+@DisplayName("SqlStatementFilter")
+class SqlStatementFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SqlStatementProperties properties;
+    private SqlStatementFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new SqlStatementProperties();
+        properties.setRepeatedStatementThreshold(2);
+        filter = new SqlStatementFilter(meterRegistry, properties);
+    }
+
+    @Test
+    @DisplayName("records statements executed during the request as a metric")
+    void recordsStatementMetric() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cars/123/fillups");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/cars/{carId}/fillups");
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                SqlStatementCounter.record("SELECT * FROM fillups WHERE id = ?");
+                SqlStatementCounter.record("SELECT * FROM fillups WHERE id = ?");
+                SqlStatementCounter.record("SELECT * FROM cars WHERE id = ?");
+            }
+        });
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        DistributionSummary summary = meterRegistry.find(SqlStatementFilter.METRIC_NAME)
+                .tag("uri", "/api/cars/{carId}/fillups")
+                .tag("method", "GET")
+                .summary();
+        assertThat(summary).isNotNull();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(3.0);
+        assertThat(SqlStatementCounter.currentCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("tags unmatched requests as UNKNOWN")
+    void tagsUnmatchedRequests() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/nowhere"),
+                new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(meterRegistry.find(SqlStatementFilter.METRIC_NAME).tag("uri", "UNKNOWN").summary())
+                .isNotNull();
+    }
+
+    @Test
+    @DisplayName("header advice writes the current count only when enabled")
+    void headerAdviceWritesCount() {
+        SqlStatementHeaderAdvice advice = new SqlStatementHeaderAdvice(properties);
+        assertThat(advice.supports(null, null)).isFalse();
+
+        properties.setHeaderEnabled(true);
+        assertThat(advice.supports(null, null)).isTrue();
+
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        ServletServerHttpResponse response = new ServletServerHttpResponse(servletResponse);
+        try (SqlStatementCounter.Scope ignored = SqlStatementCounter.open("request")) {
+            SqlStatementCounter.record("SELECT 1");
+            Object body = advice.beforeBodyWrite("body", null, null, null, null, response);
+            assertThat(body).isEqualTo("body");
+        }
+
+        assertThat(response.getHeaders().getFirst(SqlStatementHeaderAdvice.HEADER_NAME)).isEqualTo("1");
+    }
+}
@@ -0,0 +1,96 @@
+package me.adilfulara.autoledger.observability;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link VirtualThreadPinningMonitor}.
+ */
+@DisplayName("VirtualThreadPinningMonitor")
+class VirtualThreadPinningMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(meterRegistry, new VirtualThreadProperties());
+    }
+
+    @Test
+    @DisplayName("counts pinning events by the first non-JDK frame")
+    void countsPinningBySite() {
+        RecordedEvent event = pinnedEvent(
+                frame("java.lang.Object", "wait"),
+                frame("org.postgresql.core.QueryExecutorImpl", "execute"),
+                frame("me.adilfulara.autoledger.service.FillupService", "getFillupsByCarId"));
+
+        monitor.onPinned(event);
+        monitor.onPinned(event);
+
+        assertThat(meterRegistry.get(VirtualThreadPinningMonitor.METRIC_NAME)
+                .tag("site", "org.postgresql.core.QueryExecutorImpl.execute")
+                .counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("reports unknown site when no stack trace was recorded")
+    void unknownSiteWithoutStackTrace() {
+        RecordedEvent event = mock(RecordedEvent.class);
+        when(event.getStackTrace()).thenReturn(null);
+        when(event.getDuration()).thenReturn(Duration.ofMillis(50));
+
+        monitor.onPinned(event);
+
+        assertThat(meterRegistry.get(VirtualThreadPinningMonitor.METRIC_NAME)
+                .tag("site", "unknown")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("starts and stops the JFR recording stream")
+    void lifecycle() {
+        monitor.start();
+        assertThat(monitor.isRunning()).isTrue();
+
+        monitor.stop();
+        assertThat(monitor.isRunning()).isFalse();
+    }
+
+    private static RecordedEvent pinnedEvent(RecordedFrame... frames) {
+        RecordedStackTrace stackTrace = mock(RecordedStackTrace.class);
+        when(stackTrace.getFrames()).thenReturn(List.of(frames));
+        RecordedEvent event = mock(RecordedEvent.class);
+        when(event.getStackTrace()).thenReturn(stackTrace);
+        when(event.getDuration()).thenReturn(Duration.ofMillis(50));
+        return event;
+    }
+
+    private static RecordedFrame frame(String type, String method) {
+        RecordedClass recordedClass = mock(RecordedClass.class);
+        when(recordedClass.getName()).thenReturn(type);
+        RecordedMethod recordedMethod = mock(RecordedMethod.class);
+        when(recordedMethod.getType()).thenReturn(recordedClass);
+        when(recordedMethod.getName()).thenReturn(method);
+        RecordedFrame frame = mock(RecordedFrame.class);
+        when(frame.isJavaFrame()).thenReturn(true);
+        when(frame.getMethod()).thenReturn(recordedMethod);
+        when(frame.getLineNumber()).thenReturn(1);
+        return frame;
+    }
+}
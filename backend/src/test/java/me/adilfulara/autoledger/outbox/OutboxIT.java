@@ -0,0 +1,197 @@
+package me.adilfulara.autoledger.outbox;
+
+import me.adilfulara.autoledger.PostgreSQLTestContainer;
+import me.adilfulara.autoledger.api.dto.CarStatsResponse;
+import me.adilfulara.autoledger.api.dto.CreateCarRequest;
+import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.exception.InvalidOdometerException;
+import me.adilfulara.autoledger.domain.model.*;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.CarStatsSnapshotRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import me.adilfulara.autoledger.service.CarService;
+import me.adilfulara.autoledger.service.FillupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for the transactional outbox using real PostgreSQL via Testcontainers.
+ * Verifies that events commit with their writes and that the worker coalesces them per car.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"outbox.worker.enabled=true", "outbox.worker.poll-interval=1h"})
+@DisplayName("Outbox Integration Tests")
+class OutboxIT {
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLTestContainer.configureDataSource(registry);
+    }
+
+    @TestConfiguration
+    static class EventCaptureConfig {
+
+        @Bean
+        EventCapture eventCapture() {
+            return new EventCapture();
+        }
+    }
+
+    static class EventCapture {
+
+        final Queue<CarDataChangedEvent> events = new ConcurrentLinkedQueue<>();
+
+        @EventListener
+        void on(CarDataChangedEvent event) {
+            events.add(event);
+        }
+    }
+
+    @Autowired
+    private OutboxWorker worker;
+
+    @Autowired
+    private EventCapture eventCapture;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private FillupService fillupService;
+
+    @Autowired
+    private CarStatsSnapshotRepository statsRepository;
+
+    @Autowired
+    private FillupRepository fillupRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User testUser;
+    private Car testCar;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM app.outbox_events");
+        fillupRepository.deleteAll();
+        carRepository.deleteAll();
+        userRepository.deleteAll();
+        eventCapture.events.clear();
+
+        testUser = userRepository.save(new User("user_outbox_test", "outbox@test.com"));
+        testCar = carService.createCar(testUser.getId(), new CreateCarRequest(
+                "Toyota", "Camry", 2022, null, "Outbox Car", FuelUnit.GALLONS, DistanceUnit.MILES));
+    }
+
+    private CreateFillupRequest fillup(long odometer, int daysOffset) {
+        return new CreateFillupRequest(testCar.getId(), Instant.now().minus(30 - daysOffset, ChronoUnit.DAYS),
+                odometer, new BigDecimal("10.0"), new BigDecimal("3.50"), new BigDecimal("35.00"), false, false);
+    }
+
+    private List<String> pendingEventTypes() {
+        return jdbcTemplate.queryForList("SELECT event_type FROM app.outbox_events ORDER BY id", String.class);
+    }
+
+    @Test
+    @DisplayName("records one event per write and bumps the car's data version")
+    void recordsEventPerWrite() {
+        fillupService.createFillup(fillup(10000L, 0));
+        fillupService.createFillup(fillup(10300L, 7));
+
+        assertThat(pendingEventTypes()).containsExactly("CAR_CREATED", "FILLUP_ADDED", "FILLUP_ADDED");
+        assertThat(carService.getCarById(testCar.getId()).getDataVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("rolls the event back with a rejected write")
+    void rollsBackEventWithWrite() {
+        fillupService.createFillup(fillup(10000L, 0));
+
+        assertThatThrownBy(() -> fillupService.createFillup(fillup(9000L, 7)))
+                .isInstanceOf(InvalidOdometerException.class);
+
+        assertThat(pendingEventTypes()).hasSize(2);
+        assertThat(carService.getCarById(testCar.getId()).getDataVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("worker coalesces events per car into one snapshot and one notification")
+    void workerCoalescesPerCar() {
+        fillupService.createFillup(fillup(10000L, 0));
+        fillupService.createFillup(fillup(10300L, 7));
+        fillupService.createFillup(fillup(10600L, 14));
+        CarStatsResponse computed = carService.getCarStats(testCar.getId());
+
+        worker.drainBatch();
+
+        assertThat(pendingEventTypes()).isEmpty();
+        CarStatsSnapshot snapshot = statsRepository.findById(testCar.getId()).orElseThrow();
+        assertThat(snapshot.getDataVersion()).isEqualTo(4L);
+        assertThat(carService.getCarStats(testCar.getId())).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(computed);
+
+        assertThat(eventCapture.events).hasSize(1);
+        CarDataChangedEvent event = eventCapture.events.peek();
+        assertThat(event.userId()).isEqualTo(testUser.getId());
+        assertThat(event.dataVersion()).isEqualTo(4L);
+        assertThat(event.changes()).extracting(CarDataChangedEvent.Change::type)
+                .containsExactly(ChangeType.CAR_CREATED, ChangeType.FILLUP_ADDED,
+                        ChangeType.FILLUP_ADDED, ChangeType.FILLUP_ADDED);
+    }
+
+    @Test
+    @DisplayName("a write after the snapshot makes stats fall back to computation")
+    void staleSnapshotIsNotServed() {
+        fillupService.createFillup(fillup(10000L, 0));
+        fillupService.createFillup(fillup(10300L, 7));
+        worker.drainBatch();
+
+        fillupService.createFillup(fillup(10550L, 14));
+
+        CarStatsResponse stats = carService.getCarStats(testCar.getId());
+        assertThat(stats.totalFillups()).isEqualTo(3);
+        assertThat(stats.averageMpg()).isEqualByComparingTo(new BigDecimal("27.50"));
+    }
+
+    @Test
+    @DisplayName("car deletion is still announced after the car is gone")
+    void announcesCarDeletion() {
+        worker.drainBatch();
+        eventCapture.events.clear();
+
+        carService.deleteCar(testCar.getId());
+        worker.drainBatch();
+
+        assertThat(pendingEventTypes()).isEmpty();
+        assertThat(eventCapture.events).singleElement()
+                .satisfies(e -> assertThat(e.carDeleted()).isTrue());
+    }
+}
@@ -0,0 +1,144 @@
+package me.adilfulara.autoledger.outbox;
+
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.ChangeType;
+import me.adilfulara.autoledger.domain.model.OutboxEvent;
+import me.adilfulara.autoledger.domain.model.SyncTombstone;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.OutboxEventRepository;
+import me.adilfulara.autoledger.domain.repository.SyncTombstoneRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxRecorder")
+class OutboxRecorderTest {
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private FillupRepository fillupRepository;
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    @Mock
+    private SyncTombstoneRepository tombstoneRepository;
+
+    @InjectMocks
+    private OutboxRecorder outboxRecorder;
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID CAR_ID = UUID.randomUUID();
+
+    private Car car(long dataVersion) {
+        Car car = new Car();
+        car.setId(CAR_ID);
+        car.setUserId(USER_ID);
+        car.setDataVersion(dataVersion);
+        return car;
+    }
+
+    @Test
+    @DisplayName("bumps the data version and stores an event carrying it")
+    void recordsEventAtNewVersion() {
+        Car car = car(5L);
+        when(userRepository.nextChangeSeqForCar(CAR_ID, false)).thenReturn(Optional.of(42L));
+        when(carRepository.recordChange(CAR_ID, 42L)).thenReturn(Optional.of(car));
+        UUID fillupId = UUID.randomUUID();
+
+        Car result = outboxRecorder.record(ChangeType.FILLUP_ADDED, CAR_ID, fillupId);
+
+        assertThat(result).isSameAs(car);
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).save(captor.capture());
+        OutboxEvent event = captor.getValue();
+        assertThat(event.getId()).isNull();
+        assertThat(event.getEventType()).isEqualTo(ChangeType.FILLUP_ADDED);
+        assertThat(event.getUserId()).isEqualTo(USER_ID);
+        assertThat(event.getCarId()).isEqualTo(CAR_ID);
+        assertThat(event.getEntityId()).isEqualTo(fillupId);
+        assertThat(event.getDataVersion()).isEqualTo(5L);
+        assertThat(event.getAttempts()).isZero();
+    }
+
+    @Test
+    @DisplayName("also bumps the owner's data version for car-level changes")
+    void bumpsUserVersionForCarChanges() {
+        when(userRepository.nextChangeSeqForCar(CAR_ID, true)).thenReturn(Optional.of(1L));
+        when(carRepository.recordChange(CAR_ID, 1L)).thenReturn(Optional.of(car(1L)));
+
+        outboxRecorder.record(ChangeType.CAR_UPDATED, CAR_ID, CAR_ID);
+
+        verify(userRepository).nextChangeSeqForCar(CAR_ID, true);
+        verifyNoInteractions(fillupRepository, tombstoneRepository);
+    }
+
+    @Test
+    @DisplayName("stamps a saved fillup with the change sequence number")
+    void stampsChangedFillup() {
+        UUID fillupId = UUID.randomUUID();
+        when(userRepository.nextChangeSeqForCar(CAR_ID, false)).thenReturn(Optional.of(7L));
+        when(carRepository.recordChange(CAR_ID, 7L)).thenReturn(Optional.of(car(3L)));
+
+        outboxRecorder.record(ChangeType.FILLUP_UPDATED, CAR_ID, fillupId);
+
+        verify(fillupRepository).markChanged(fillupId, CAR_ID, 7L);
+        verifyNoInteractions(tombstoneRepository);
+    }
+
+    @Test
+    @DisplayName("records a tombstone for deletions")
+    void recordsTombstoneForDeletes() {
+        UUID fillupId = UUID.randomUUID();
+        when(userRepository.nextChangeSeqForCar(CAR_ID, false)).thenReturn(Optional.of(9L));
+        when(carRepository.recordChange(CAR_ID, 9L)).thenReturn(Optional.of(car(4L)));
+
+        outboxRecorder.record(ChangeType.FILLUP_DELETED, CAR_ID, fillupId);
+
+        ArgumentCaptor<SyncTombstone> captor = ArgumentCaptor.forClass(SyncTombstone.class);
+        verify(tombstoneRepository).save(captor.capture());
+        SyncTombstone tombstone = captor.getValue();
+        assertThat(tombstone.getUserId()).isEqualTo(USER_ID);
+        assertThat(tombstone.getChangeSeq()).isEqualTo(9L);
+        assertThat(tombstone.getChangeType()).isEqualTo(ChangeType.FILLUP_DELETED);
+        assertThat(tombstone.getEntityId()).isEqualTo(fillupId);
+        assertThat(tombstone.getCarId()).isEqualTo(CAR_ID);
+        verify(fillupRepository, never()).markChanged(any(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("throws when car not found")
+    void throwsWhenCarNotFound() {
+        when(userRepository.nextChangeSeqForCar(CAR_ID, false)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> outboxRecorder.record(ChangeType.FILLUP_ADDED, CAR_ID, UUID.randomUUID()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(carRepository, never()).recordChange(any(), anyLong());
+        verifyNoInteractions(outboxRepository);
+    }
+}
@@ -0,0 +1,194 @@
+package me.adilfulara.autoledger.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.adilfulara.autoledger.domain.model.ChangeType;
+import me.adilfulara.autoledger.domain.model.OutboxEvent;
+import me.adilfulara.autoledger.domain.repository.OutboxEventRepository;
+import me.adilfulara.autoledger.service.CarService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxWorker")
+class OutboxWorkerTest {
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    @Mock
+    private CarService carService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxWorker worker;
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID CAR_A = UUID.randomUUID();
+    private static final UUID CAR_B = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        properties = new OutboxProperties();
+        properties.setBatchSize(3);
+        meterRegistry = new SimpleMeterRegistry();
+        worker = new OutboxWorker(outboxRepository, carService, eventPublisher, transactionManager, properties,
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.destroy();
+    }
+
+    private OutboxEvent event(long id, UUID carId, ChangeType type) {
+        OutboxEvent event = new OutboxEvent(type, USER_ID, carId, UUID.randomUUID(), id, Instant.now());
+        event.setId(id);
+        return event;
+    }
+
+    @Nested
+    @DisplayName("drainBatch")
+    class DrainBatch {
+
+        @Test
+        @DisplayName("refreshes each car once and deletes the processed events")
+        void coalescesPerCar() {
+            when(outboxRepository.claimBatch(any(), anyInt(), eq(3))).thenReturn(List.of(
+                    event(1, CAR_A, ChangeType.FILLUP_ADDED),
+                    event(2, CAR_B, ChangeType.CAR_UPDATED),
+                    event(3, CAR_A, ChangeType.FILLUP_UPDATED)));
+
+            int claimed = worker.drainBatch();
+
+            assertThat(claimed).isEqualTo(3);
+            verify(carService, times(1)).refreshStatsSnapshot(CAR_A);
+            verify(carService, times(1)).refreshStatsSnapshot(CAR_B);
+            verify(outboxRepository).deleteByIdIn(List.of(1L, 3L, 2L));
+            verify(outboxRepository, never()).markFailed(any(), any());
+        }
+
+        @Test
+        @DisplayName("publishes one notification per car with the newest data version")
+        void publishesCoalescedNotification() {
+            when(outboxRepository.claimBatch(any(), anyInt(), anyInt())).thenReturn(List.of(
+                    event(4, CAR_A, ChangeType.FILLUP_ADDED),
+                    event(5, CAR_A, ChangeType.FILLUP_DELETED)));
+
+            worker.drainBatch();
+
+            ArgumentCaptor<CarDataChangedEvent> captor = ArgumentCaptor.forClass(CarDataChangedEvent.class);
+            verify(eventPublisher).publishEvent(captor.capture());
+            CarDataChangedEvent published = captor.getValue();
+            assertThat(published.userId()).isEqualTo(USER_ID);
+            assertThat(published.carId()).isEqualTo(CAR_A);
+            assertThat(published.dataVersion()).isEqualTo(5L);
+            assertThat(published.changes()).extracting(CarDataChangedEvent.Change::type)
+                    .containsExactly(ChangeType.FILLUP_ADDED, ChangeType.FILLUP_DELETED);
+            assertThat(published.carDeleted()).isFalse();
+        }
+
+        @Test
+        @DisplayName("postpones events of a car whose refresh failed")
+        void postponesFailedCar() {
+            when(outboxRepository.claimBatch(any(), anyInt(), anyInt())).thenReturn(List.of(
+                    event(1, CAR_A, ChangeType.FILLUP_ADDED),
+                    event(2, CAR_B, ChangeType.FILLUP_ADDED)));
+            when(carService.refreshStatsSnapshot(CAR_A)).thenThrow(new IllegalStateException("boom"));
+            when(carService.refreshStatsSnapshot(CAR_B)).thenReturn(Optional.empty());
+
+            worker.drainBatch();
+
+            verify(outboxRepository).deleteByIdIn(List.of(2L));
+            verify(outboxRepository).markFailed(eq(List.of(1L)), any());
+            assertThat(meterRegistry.get(OutboxWorker.ABANDONED_METRIC).counter().count()).isZero();
+        }
+
+        @Test
+        @DisplayName("deletes and counts events whose last attempt failed")
+        void abandonsExhaustedEvents() {
+            properties.setMaxAttempts(3);
+            OutboxEvent exhausted = event(1, CAR_A, ChangeType.FILLUP_ADDED);
+            exhausted.setAttempts(2);
+            OutboxEvent retried = event(2, CAR_A, ChangeType.FILLUP_UPDATED);
+            retried.setAttempts(1);
+            when(outboxRepository.claimBatch(any(), eq(3), anyInt())).thenReturn(List.of(exhausted, retried));
+            when(carService.refreshStatsSnapshot(CAR_A)).thenThrow(new IllegalStateException("boom"));
+
+            worker.drainBatch();
+
+            verify(outboxRepository).deleteByIdIn(List.of(1L));
+            verify(outboxRepository).markFailed(eq(List.of(2L)), any());
+            assertThat(meterRegistry.get(OutboxWorker.ABANDONED_METRIC).counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("does nothing when the outbox is empty")
+        void emptyOutbox() {
+            when(outboxRepository.claimBatch(any(), anyInt(), anyInt())).thenReturn(List.of());
+
+            assertThat(worker.drainBatch()).isZero();
+            verifyNoInteractions(carService, eventPublisher);
+        }
+    }
+
+    @Nested
+    @DisplayName("poll")
+    class Poll {
+
+        @Test
+        @DisplayName("keeps draining while batches come back full")
+        void drainsBacklog() {
+            when(outboxRepository.claimBatch(any(), anyInt(), anyInt()))
+                    .thenReturn(List.of(
+                            event(1, CAR_A, ChangeType.FILLUP_ADDED),
+                            event(2, CAR_A, ChangeType.FILLUP_ADDED),
+                            event(3, CAR_A, ChangeType.FILLUP_ADDED)))
+                    .thenReturn(List.of(event(4, CAR_A, ChangeType.FILLUP_ADDED)));
+
+            worker.poll();
+
+            verify(outboxRepository, times(2)).claimBatch(any(), anyInt(), anyInt());
+        }
+
+        @Test
+        @DisplayName("survives a failing claim")
+        void survivesClaimFailure() {
+            when(outboxRepository.claimBatch(any(), anyInt(), anyInt()))
+                    .thenThrow(new IllegalStateException("database down"));
+
+            worker.poll();
+
+            verifyNoInteractions(carService);
+        }
+    }
+}
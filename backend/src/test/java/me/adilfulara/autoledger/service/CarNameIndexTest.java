@@ -0,0 +1,275 @@
+package me.adilfulara.autoledger.service;
+
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.DistanceUnit;
+import me.adilfulara.autoledger.domain.model.FuelUnit;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CarNameIndex")
+class CarNameIndexTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Mock
+    private CarRepository carRepository;
+
+    private CarNameIndexProperties properties;
+    private MutableClock clock;
+    private List<Runnable> pendingLoads;
+    private CarNameIndex index;
+
+    private final Car camry = car("Daily Camry");
+    private final Car civic = car("Weekend Civic");
+    private final Car typeR = car("Civic Type R");
+    private final Car van = car("Work Van");
+
+    /**
+     * Clock that tests can move forward.
+     */
+    static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-06-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        properties = new CarNameIndexProperties();
+        clock = new MutableClock();
+        pendingLoads = new ArrayList<>();
+        index = new CarNameIndex(carRepository, properties, pendingLoads::add, clock);
+    }
+
+    private static Car car(String name) {
+        Car car = new Car(USER_ID, "Make", "Model", 2020, null, name, FuelUnit.GALLONS, DistanceUnit.MILES);
+        car.setId(UUID.randomUUID());
+        return car;
+    }
+
+    private void loadResident(Car... cars) {
+        when(carRepository.findByUserIdAndNameSimilarTo(eq(USER_ID), anyString(), anyInt())).thenReturn(List.of());
+        when(carRepository.findByUserId(USER_ID)).thenReturn(List.of(cars));
+        index.search(USER_ID, "warmup");
+        runPendingLoads();
+        clearInvocations(carRepository);
+    }
+
+    private void runPendingLoads() {
+        List<Runnable> loads = List.copyOf(pendingLoads);
+        pendingLoads.clear();
+        loads.forEach(Runnable::run);
+    }
+
+    private List<String> names(List<CarNameMatch> matches) {
+        return matches.stream().map(CarNameMatch::name).toList();
+    }
+
+    @Test
+    @DisplayName("Should split names into pg_trgm-style padded word trigrams")
+    void trigramsMatchPgTrgm() {
+        assertThat(CarNameIndex.trigrams("Cat")).containsExactlyInAnyOrder("  c", " ca", "cat", "at ");
+        assertThat(CarNameIndex.trigrams("a-b")).containsExactlyInAnyOrder("  a", " a ", "  b", " b ");
+    }
+
+    @Nested
+    @DisplayName("Cold lookups")
+    class ColdLookups {
+
+        @Test
+        @DisplayName("Should answer from the trigram query and load the user's names in the background")
+        void answersFromDatabaseAndLoads() {
+            when(carRepository.findByUserIdAndNameSimilarTo(USER_ID, "camry", 5)).thenReturn(List.of(camry));
+            when(carRepository.findByUserId(USER_ID)).thenReturn(List.of(camry, civic));
+
+            List<CarNameMatch> first = index.search(USER_ID, "camry");
+            runPendingLoads();
+            List<CarNameMatch> second = index.search(USER_ID, "civic");
+
+            assertThat(names(first)).containsExactly("Daily Camry");
+            assertThat(names(second)).containsExactly("Weekend Civic");
+            verify(carRepository, times(1)).findByUserIdAndNameSimilarTo(eq(USER_ID), anyString(), anyInt());
+            assertThat(index.residentUsers()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should start only one background load per user")
+        void loadsOnce() {
+            when(carRepository.findByUserIdAndNameSimilarTo(eq(USER_ID), anyString(), anyInt())).thenReturn(List.of());
+
+            index.search(USER_ID, "camry");
+            index.search(USER_ID, "civic");
+
+            assertThat(pendingLoads).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Should discard a load that raced with a write")
+        void discardsStaleLoad() {
+            when(carRepository.findByUserIdAndNameSimilarTo(eq(USER_ID), anyString(), anyInt())).thenReturn(List.of());
+            when(carRepository.findByUserId(USER_ID)).thenReturn(List.of(camry));
+
+            index.search(USER_ID, "camry");
+            index.carSaved(civic);
+            runPendingLoads();
+
+            assertThat(index.residentUsers()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should reload after the TTL expires")
+        void expires() {
+            loadResident(camry);
+
+            clock.advance(properties.getTtl().plusSeconds(1));
+            when(carRepository.findByUserIdAndNameSimilarTo(USER_ID, "camry", 5)).thenReturn(List.of(camry));
+            index.search(USER_ID, "camry");
+
+            verify(carRepository).findByUserIdAndNameSimilarTo(USER_ID, "camry", 5);
+            assertThat(pendingLoads).hasSize(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Ranking")
+    class Ranking {
+
+        @BeforeEach
+        void load() {
+            loadResident(camry, civic, typeR, van);
+        }
+
+        @Test
+        @DisplayName("Should rank an exact case-insensitive match first with score 1")
+        void exactFirst() {
+            List<CarNameMatch> matches = index.search(USER_ID, "  weekend CIVIC ");
+
+            assertThat(matches.getFirst().name()).isEqualTo("Weekend Civic");
+            assertThat(matches.getFirst().isExact()).isTrue();
+            verifyNoInteractions(carRepository);
+        }
+
+        @Test
+        @DisplayName("Should match misspelled names")
+        void misspelled() {
+            assertThat(names(index.search(USER_ID, "camri"))).containsExactly("Daily Camry");
+        }
+
+        @Test
+        @DisplayName("Should return every car containing a partial name, ranked")
+        void partialName() {
+            List<CarNameMatch> matches = index.search(USER_ID, "civic");
+
+            assertThat(names(matches)).containsExactlyInAnyOrder("Weekend Civic", "Civic Type R");
+            assertThat(matches).allSatisfy(m -> assertThat(m.score()).isBetween(0.0, 0.99));
+        }
+
+        @Test
+        @DisplayName("Should return nothing for unrelated names")
+        void unrelated() {
+            assertThat(index.search(USER_ID, "tesla")).isEmpty();
+            assertThat(index.search(USER_ID, "!!")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should cap the number of candidates")
+        void capsCandidates() {
+            properties.setMaxCandidates(1);
+
+            assertThat(index.search(USER_ID, "civic")).hasSize(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Writes")
+    class Writes {
+
+        @Test
+        @DisplayName("Should index saved cars and reflect renames")
+        void savedCars() {
+            loadResident(camry);
+
+            Car truck = car("Farm Truck");
+            index.carSaved(truck);
+            camry.setName("Commuter");
+            index.carSaved(camry);
+
+            assertThat(names(index.search(USER_ID, "truck"))).containsExactly("Farm Truck");
+            assertThat(names(index.search(USER_ID, "commuter"))).containsExactly("Commuter");
+            assertThat(index.search(USER_ID, "camry")).isEmpty();
+            verifyNoInteractions(carRepository);
+        }
+
+        @Test
+        @DisplayName("Should forget deleted cars")
+        void deletedCars() {
+            loadResident(camry, civic);
+
+            index.carDeleted(USER_ID, civic.getId());
+
+            assertThat(index.search(USER_ID, "civic")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should ignore writes for users that are not resident")
+        void ignoresColdUsers() {
+            index.carSaved(camry);
+
+            assertThat(index.residentUsers()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep at most max-users users resident")
+    void boundsResidentUsers() {
+        properties.setMaxUsers(1);
+        loadResident(camry);
+
+        UUID otherUser = UUID.randomUUID();
+        when(carRepository.findByUserIdAndNameSimilarTo(eq(otherUser), anyString(), anyInt())).thenReturn(List.of());
+        when(carRepository.findByUserId(otherUser)).thenReturn(List.of());
+        index.search(otherUser, "anything");
+        runPendingLoads();
+
+        assertThat(index.residentUsers()).isEqualTo(1);
+    }
+}
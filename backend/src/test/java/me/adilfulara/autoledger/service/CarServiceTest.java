@@ -1,15 +1,24 @@
 package me.adilfulara.autoledger.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.adilfulara.autoledger.anomaly.AnomalyProperties;
 import me.adilfulara.autoledger.api.dto.CarStatsResponse;
 import me.adilfulara.autoledger.api.dto.CreateCarRequest;
 import me.adilfulara.autoledger.api.dto.UpdateCarRequest;
 import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
 import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.CarStatsSnapshot;
+import me.adilfulara.autoledger.domain.model.ChangeType;
 import me.adilfulara.autoledger.domain.model.DistanceUnit;
 import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupAnomaly;
+import me.adilfulara.autoledger.domain.model.FillupSegment;
 import me.adilfulara.autoledger.domain.model.FuelUnit;
 import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.CarStatsSnapshotRepository;
 import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.FillupSegmentRepository;
+import me.adilfulara.autoledger.outbox.OutboxRecorder;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -17,11 +26,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -39,9 +51,27 @@ class CarServiceTest {
     @Mock
     private FillupRepository fillupRepository;
 
+    @Mock
+    private FillupSegmentRepository segmentRepository;
+
+    @Mock
+    private CarStatsSnapshotRepository statsRepository;
+
     @Mock
     private FillupService fillupService;
 
+    @Mock
+    private OutboxRecorder outboxRecorder;
+
+    @Mock
+    private CarNameIndex carNameIndex;
+
+    @Spy
+    private CarStatsCoalescer statsCoalescer = new CarStatsCoalescer(new SimpleMeterRegistry());
+
+    @Spy
+    private AnomalyProperties anomalyProperties = new AnomalyProperties();
+
     @InjectMocks
     private CarService carService;
 
@@ -107,6 +137,17 @@ class CarServiceTest {
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("Car");
         }
+
+        @Test
+        @DisplayName("throws ResourceNotFoundException while the car is being deleted")
+        void throwsWhenDeleting() {
+            Car car = createTestCar();
+            car.setDeletingSince(Instant.now());
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car));
+
+            assertThatThrownBy(() -> carService.getCarById(CAR_ID))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
     }
 
     @Nested
@@ -136,6 +177,8 @@ class CarServiceTest {
             Car captured = captor.getValue();
             assertThat(captured.getUserId()).isEqualTo(USER_ID);
             assertThat(captured.getFuelUnit()).isEqualTo(FuelUnit.LITERS);
+            verify(outboxRecorder).record(ChangeType.CAR_CREATED, CAR_ID, CAR_ID);
+            verify(carNameIndex).carSaved(savedCar);
         }
     }
 
@@ -160,6 +203,8 @@ class CarServiceTest {
             assertThat(result.getYear()).isEqualTo(2024);
             assertThat(result.getVin()).isEqualTo("NEW_VIN");
             assertThat(result.getName()).isEqualTo("Updated Name");
+            verify(outboxRecorder).record(ChangeType.CAR_UPDATED, CAR_ID, CAR_ID);
+            verify(carNameIndex).carSaved(existingCar);
         }
 
         @Test
@@ -196,20 +241,23 @@ class CarServiceTest {
         @Test
         @DisplayName("deletes existing car")
         void deletesExistingCar() {
-            when(carRepository.existsById(CAR_ID)).thenReturn(true);
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(outboxRecorder.record(ChangeType.CAR_DELETED, CAR_ID, CAR_ID)).thenReturn(createTestCar());
 
             carService.deleteCar(CAR_ID);
 
             verify(carRepository).deleteById(CAR_ID);
+            verify(carNameIndex).carDeleted(USER_ID, CAR_ID);
         }
 
         @Test
         @DisplayName("throws when car not found")
         void throwsWhenNotFound() {
-            when(carRepository.existsById(CAR_ID)).thenReturn(false);
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(false);
 
             assertThatThrownBy(() -> carService.deleteCar(CAR_ID))
                     .isInstanceOf(ResourceNotFoundException.class);
+            verifyNoInteractions(outboxRecorder, carNameIndex);
         }
     }
 
@@ -250,8 +298,8 @@ class CarServiceTest {
 
             when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car));
             when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of(fillup1, fillup2));
-            when(fillupService.calculateMPG(fillup1)).thenReturn(Optional.empty());
-            when(fillupService.calculateMPG(fillup2)).thenReturn(Optional.of(new BigDecimal("20.00")));
+            when(fillupService.calculateMPGs(List.of(fillup1, fillup2), true))
+                    .thenReturn(Map.of(fillup2.getId(), new BigDecimal("20.00")));
 
             CarStatsResponse stats = carService.getCarStats(CAR_ID);
 
@@ -285,9 +333,10 @@ class CarServiceTest {
 
             when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car));
             when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of(fillup1, fillup2, fillup3));
-            when(fillupService.calculateMPG(fillup1)).thenReturn(Optional.empty()); // First fillup has no MPG
-            when(fillupService.calculateMPG(fillup2)).thenReturn(Optional.of(new BigDecimal("20.00")));
-            when(fillupService.calculateMPG(fillup3)).thenReturn(Optional.of(new BigDecimal("25.00")));
+            // First fillup has no MPG
+            when(fillupService.calculateMPGs(List.of(fillup1, fillup2, fillup3), true))
+                    .thenReturn(Map.of(fillup2.getId(), new BigDecimal("20.00"),
+                            fillup3.getId(), new BigDecimal("25.00")));
 
             CarStatsResponse stats = carService.getCarStats(CAR_ID);
 
@@ -295,5 +344,233 @@ class CarServiceTest {
             assertThat(stats.bestMpg()).isEqualByComparingTo(new BigDecimal("25.00"));
             assertThat(stats.worstMpg()).isEqualByComparingTo(new BigDecimal("20.00"));
         }
+
+        @Test
+        @DisplayName("leaves flagged fillups out of the MPG figures when configured to")
+        void excludesFlaggedFillupsFromAverages() {
+            anomalyProperties.setExcludeFromAverages(true);
+            Car car = createTestCar();
+            Fillup fillup1 = new Fillup(CAR_ID, Instant.now(), 10000L,
+                    new BigDecimal("10.0"), new BigDecimal("3.50"),
+                    new BigDecimal("35.00"), false, false);
+            fillup1.setId(UUID.randomUUID());
+
+            Fillup fillup2 = new Fillup(CAR_ID, Instant.now(), 10300L,
+                    new BigDecimal("15.0"), new BigDecimal("3.50"),
+                    new BigDecimal("52.50"), false, false);
+            fillup2.setId(UUID.randomUUID());
+
+            Fillup fillup3 = new Fillup(CAR_ID, Instant.now(), 10600L,
+                    new BigDecimal("3.0"), new BigDecimal("3.50"),
+                    new BigDecimal("10.50"), false, false);
+            fillup3.setId(UUID.randomUUID());
+            fillup3.setAnomaly(FillupAnomaly.FUEL_VOLUME);
+
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car));
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of(fillup1, fillup2, fillup3));
+            when(fillupService.calculateMPGs(List.of(fillup1, fillup2, fillup3), true))
+                    .thenReturn(Map.of(fillup2.getId(), new BigDecimal("20.00"),
+                            fillup3.getId(), new BigDecimal("100.00")));
+
+            CarStatsResponse stats = carService.getCarStats(CAR_ID);
+
+            assertThat(stats.totalFillups()).isEqualTo(3);
+            assertThat(stats.totalFuelUsed()).isEqualByComparingTo(new BigDecimal("28.0"));
+            assertThat(stats.averageMpg()).isEqualByComparingTo(new BigDecimal("20.00"));
+            assertThat(stats.bestMpg()).isEqualByComparingTo(new BigDecimal("20.00"));
+            assertThat(stats.worstMpg()).isEqualByComparingTo(new BigDecimal("20.00"));
+        }
+
+        @Test
+        @DisplayName("does not read segments for cars that were never compacted")
+        void skipsSegmentsWhenNotCompacted() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(createTestCar()));
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of());
+
+            carService.getCarStats(CAR_ID);
+
+            verifyNoInteractions(segmentRepository);
+        }
+
+        @Test
+        @DisplayName("adds compacted segments into totals and MPG")
+        void includesCompactedSegments() {
+            Car car = createTestCar();
+            car.setArchivedThroughOdometer(9700L);
+            Fillup fillup = new Fillup(CAR_ID, Instant.now(), 10000L,
+                    new BigDecimal("10.0"), new BigDecimal("3.50"),
+                    new BigDecimal("35.00"), false, false);
+            fillup.setId(UUID.randomUUID());
+
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car));
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of(fillup));
+            when(segmentRepository.findByCarId(CAR_ID)).thenReturn(List.of(segment(9000L, 9700L)));
+            when(fillupService.calculateMPGs(List.of(fillup), false))
+                    .thenReturn(Map.of(fillup.getId(), new BigDecimal("30.00")));
+
+            CarStatsResponse stats = carService.getCarStats(CAR_ID);
+
+            assertThat(stats.totalFillups()).isEqualTo(4);
+            assertThat(stats.totalDistance()).isEqualTo(1000L);
+            assertThat(stats.totalFuelUsed()).isEqualByComparingTo(new BigDecimal("40.0"));
+            assertThat(stats.totalSpent()).isEqualByComparingTo(new BigDecimal("140.00"));
+            assertThat(stats.averagePricePerUnit()).isEqualByComparingTo(new BigDecimal("3.500"));
+            // (30.00 + 20.00 + 25.00) / 3
+            assertThat(stats.averageMpg()).isEqualByComparingTo(new BigDecimal("25.00"));
+            assertThat(stats.bestMpg()).isEqualByComparingTo(new BigDecimal("30.00"));
+            assertThat(stats.worstMpg()).isEqualByComparingTo(new BigDecimal("20.00"));
+        }
+
+        @Test
+        @DisplayName("leaves flagged MPG of compacted segments out only when configured to")
+        void excludesFlaggedSegmentMpg() {
+            Car car = createTestCar();
+            car.setArchivedThroughOdometer(9700L);
+            FillupSegment segment = segment(9000L, 9700L);
+            segment.setFlaggedMpgCount(1);
+            segment.setFlaggedMpgSum(new BigDecimal("90.00"));
+            segment.setFlaggedBestMpg(new BigDecimal("90.00"));
+            segment.setFlaggedWorstMpg(new BigDecimal("90.00"));
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car));
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of());
+            when(segmentRepository.findByCarId(CAR_ID)).thenReturn(List.of(segment));
+
+            CarStatsResponse included = carService.getCarStats(CAR_ID);
+            anomalyProperties.setExcludeFromAverages(true);
+            CarStatsResponse excluded = carService.getCarStats(CAR_ID);
+
+            // (45.00 + 90.00) / 3
+            assertThat(included.averageMpg()).isEqualByComparingTo(new BigDecimal("45.00"));
+            assertThat(included.bestMpg()).isEqualByComparingTo(new BigDecimal("90.00"));
+            assertThat(excluded.averageMpg()).isEqualByComparingTo(new BigDecimal("22.50"));
+            assertThat(excluded.bestMpg()).isEqualByComparingTo(new BigDecimal("25.00"));
+            assertThat(excluded.worstMpg()).isEqualByComparingTo(new BigDecimal("20.00"));
+        }
+
+        @Test
+        @DisplayName("reports segment totals when no hot fillups remain")
+        void segmentsOnly() {
+            Car car = createTestCar();
+            car.setArchivedThroughOdometer(9700L);
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car));
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of());
+            when(segmentRepository.findByCarId(CAR_ID)).thenReturn(List.of(segment(9000L, 9700L)));
+
+            CarStatsResponse stats = carService.getCarStats(CAR_ID);
+
+            assertThat(stats.totalFillups()).isEqualTo(3);
+            assertThat(stats.totalDistance()).isEqualTo(700L);
+            assertThat(stats.averageMpg()).isEqualByComparingTo(new BigDecimal("22.50"));
+        }
+
+        @Test
+        @DisplayName("serves the stored snapshot when it matches the car's data version")
+        void servesCurrentSnapshot() {
+            Car car = createTestCar();
+            car.setDataVersion(7L);
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car));
+            when(statsRepository.findById(CAR_ID)).thenReturn(Optional.of(snapshot(7L)));
+
+            CarStatsResponse stats = carService.getCarStats(CAR_ID);
+
+            assertThat(stats.carName()).isEqualTo("My Car");
+            assertThat(stats.totalFillups()).isEqualTo(12);
+            assertThat(stats.averageMpg()).isEqualByComparingTo(new BigDecimal("31.00"));
+            verifyNoInteractions(fillupRepository, fillupService);
+        }
+
+        @Test
+        @DisplayName("recomputes when the snapshot is stale")
+        void recomputesWhenSnapshotStale() {
+            Car car = createTestCar();
+            car.setDataVersion(8L);
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car));
+            when(statsRepository.findById(CAR_ID)).thenReturn(Optional.of(snapshot(7L)));
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of());
+
+            CarStatsResponse stats = carService.getCarStats(CAR_ID);
+
+            assertThat(stats.totalFillups()).isZero();
+        }
+
+        private CarStatsSnapshot snapshot(long dataVersion) {
+            return new CarStatsSnapshot(CAR_ID, dataVersion, 12L, 3300L,
+                    new BigDecimal("110.000"), new BigDecimal("385.00"),
+                    new BigDecimal("31.00"), new BigDecimal("34.00"), new BigDecimal("28.00"),
+                    new BigDecimal("3.500"), Instant.now());
+        }
+
+        private FillupSegment segment(long firstOdometer, long lastOdometer) {
+            return new FillupSegment(UUID.randomUUID(), CAR_ID, LocalDate.of(2020, 1, 1), 3,
+                    Instant.parse("2020-01-02T00:00:00Z"), Instant.parse("2020-01-30T00:00:00Z"),
+                    firstOdometer, lastOdometer,
+                    new BigDecimal("30.0"), new BigDecimal("105.00"), new BigDecimal("10.50"),
+                    2, new BigDecimal("45.00"), new BigDecimal("25.00"), new BigDecimal("20.00"),
+                    0, BigDecimal.ZERO, null, null,
+                    Instant.now());
+        }
+    }
+
+    @Nested
+    @DisplayName("getCurrentSnapshotStats")
+    class GetCurrentSnapshotStats {
+
+        @Test
+        @DisplayName("returns only snapshots matching their car's data version")
+        void keepsCurrentSnapshots() {
+            Car current = createTestCar();
+            current.setDataVersion(4L);
+            Car stale = new Car(USER_ID, "Ford", "F-150", 2018, null, "Truck",
+                    FuelUnit.GALLONS, DistanceUnit.MILES);
+            stale.setId(UUID.randomUUID());
+            stale.setDataVersion(9L);
+            when(statsRepository.findAllById(any())).thenReturn(List.of(
+                    new CarStatsSnapshot(CAR_ID, 4L, 12L, 3300L, new BigDecimal("110.000"),
+                            new BigDecimal("385.00"), new BigDecimal("31.00"), null, null, null, Instant.now()),
+                    new CarStatsSnapshot(stale.getId(), 8L, 5L, 1000L, new BigDecimal("40.000"),
+                            new BigDecimal("140.00"), new BigDecimal("25.00"), null, null, null, Instant.now())));
+
+            Map<UUID, CarStatsResponse> stats = carService.getCurrentSnapshotStats(List.of(current, stale));
+
+            assertThat(stats).containsOnlyKeys(CAR_ID);
+            assertThat(stats.get(CAR_ID).carName()).isEqualTo("My Car");
+            verifyNoInteractions(fillupRepository);
+        }
+
+        @Test
+        @DisplayName("skips the query for no cars")
+        void noCars() {
+            assertThat(carService.getCurrentSnapshotStats(List.of())).isEmpty();
+            verifyNoInteractions(statsRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("refreshStatsSnapshot")
+    class RefreshStatsSnapshot {
+
+        @Test
+        @DisplayName("stores stats computed at the car's data version")
+        void storesSnapshot() {
+            Car car = createTestCar();
+            car.setDataVersion(3L);
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car));
+            when(fillupRepository.findByCarIdOrderByOdometerAsc(CAR_ID)).thenReturn(List.of());
+
+            Optional<Car> result = carService.refreshStatsSnapshot(CAR_ID);
+
+            assertThat(result).contains(car);
+            verify(statsRepository).upsert(CAR_ID, 3L, 0L, 0L, BigDecimal.ZERO, BigDecimal.ZERO,
+                    null, null, null, null);
+        }
+
+        @Test
+        @DisplayName("does nothing for a deleted car")
+        void skipsDeletedCar() {
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.empty());
+
+            assertThat(carService.refreshStatsSnapshot(CAR_ID)).isEmpty();
+            verifyNoInteractions(statsRepository);
+        }
     }
 }
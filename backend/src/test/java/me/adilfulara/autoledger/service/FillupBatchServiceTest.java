@@ -0,0 +1,290 @@
+package me.adilfulara.autoledger.service;
+
+import me.adilfulara.autoledger.anomaly.FillupAnomalyDetector;
+import me.adilfulara.autoledger.api.dto.BatchFillupRequest;
+import me.adilfulara.autoledger.api.dto.BatchFillupResponse;
+import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.dto.UpdateFillupRequest;
+import me.adilfulara.autoledger.api.exception.InvalidOdometerException;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.distribution.FillupDistributionRecorder;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.ChangeType;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupAnomaly;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.outbox.CarDataChangedEvent;
+import me.adilfulara.autoledger.outbox.OutboxRecorder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FillupBatchService")
+class FillupBatchServiceTest {
+
+    @Mock
+    private FillupRepository fillupRepository;
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private FillupService fillupService;
+
+    @Mock
+    private OutboxRecorder outboxRecorder;
+
+    @Mock
+    private FillupAnomalyDetector anomalyDetector;
+
+    @Mock
+    private FillupDistributionRecorder distributionRecorder;
+
+    @InjectMocks
+    private FillupBatchService batchService;
+
+    private static final UUID CAR_ID = UUID.randomUUID();
+    private static final Instant BASE = Instant.parse("2025-01-01T00:00:00Z");
+
+    private Car car() {
+        Car car = new Car();
+        car.setId(CAR_ID);
+        return car;
+    }
+
+    private Fillup fillup(long odometer, int day) {
+        Fillup fillup = new Fillup(CAR_ID, BASE.plus(day, ChronoUnit.DAYS), odometer, new BigDecimal("10.0"),
+                new BigDecimal("3.50"), new BigDecimal("35.00"), false, false);
+        fillup.setId(UUID.randomUUID());
+        fillup.setCreatedAt(BASE);
+        fillup.setUpdatedAt(BASE);
+        return fillup;
+    }
+
+    private CreateFillupRequest create(long odometer, int day) {
+        return new CreateFillupRequest(CAR_ID, BASE.plus(day, ChronoUnit.DAYS), odometer, new BigDecimal("10.0"),
+                new BigDecimal("3.50"), new BigDecimal("35.00"), false, false);
+    }
+
+    private void givenHistory(Fillup... fillups) {
+        when(carRepository.findAllById(Set.of(CAR_ID))).thenReturn(List.of(car()));
+        when(fillupRepository.findByCarIdIn(Set.of(CAR_ID))).thenReturn(List.of(fillups));
+    }
+
+    @Nested
+    @DisplayName("apply")
+    class Apply {
+
+        @Test
+        @DisplayName("writes creates, updates and deletes as batches stamped with change numbers")
+        void appliesBatch() {
+            Fillup first = fillup(10000, 0);
+            Fillup second = fillup(10300, 7);
+            Fillup third = fillup(10600, 14);
+            when(fillupRepository.findAllById(List.of(third.getId(), second.getId())))
+                    .thenReturn(List.of(second, third));
+            givenHistory(first, second, third);
+            when(outboxRecorder.recordAll(eq(CAR_ID), anyList())).thenReturn(41L);
+            when(fillupService.calculateMPGs(anyList(), anyBoolean())).thenReturn(Map.of());
+
+            BatchFillupResponse response = batchService.apply(new BatchFillupRequest(
+                    List.of(create(10900, 21), create(11200, 28)),
+                    List.of(new BatchFillupRequest.Update(second.getId(),
+                            new UpdateFillupRequest(null, 10350L, null, null, null, null, null))),
+                    List.of(third.getId())));
+
+            assertThat(response.created()).extracting(r -> r.odometer()).containsExactly(10900L, 11200L);
+            assertThat(response.updated()).extracting(r -> r.odometer()).containsExactly(10350L);
+            assertThat(response.deleted()).containsExactly(third.getId());
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<CarDataChangedEvent.Change>> changes = ArgumentCaptor.forClass(List.class);
+            verify(outboxRecorder).recordAll(eq(CAR_ID), changes.capture());
+            assertThat(changes.getValue()).extracting(CarDataChangedEvent.Change::type).containsExactly(
+                    ChangeType.FILLUP_DELETED, ChangeType.FILLUP_UPDATED,
+                    ChangeType.FILLUP_ADDED, ChangeType.FILLUP_ADDED);
+
+            verify(fillupRepository).batchDelete(List.of(third));
+            verify(fillupRepository).batchUpdate(eq(List.of(second)), eq(Map.of(
+                    third.getId(), 41L,
+                    second.getId(), 42L,
+                    changes.getValue().get(2).entityId(), 43L,
+                    changes.getValue().get(3).entityId(), 44L)));
+            verify(fillupRepository).batchInsert(anyList(), any());
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Map<UUID, FillupDistributionRecorder.Sample>> before = ArgumentCaptor.forClass(Map.class);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Map<UUID, FillupDistributionRecorder.Sample>> after = ArgumentCaptor.forClass(Map.class);
+            verify(distributionRecorder).recordChanged(any(), before.capture(), after.capture(), any());
+            assertThat(before.getValue()).containsOnlyKeys(first.getId(), second.getId(), third.getId());
+            assertThat(after.getValue()).containsKeys(first.getId(), second.getId())
+                    .doesNotContainKey(third.getId())
+                    .hasSize(4);
+            verify(distributionRecorder, never()).rebuild(any(), any());
+            verify(distributionRecorder, never()).recordAppended(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("folds fillups appended after the car's history into its distribution sketches")
+        void recordsAppendedDistributions() {
+            Fillup existing = fillup(10000, 0);
+            givenHistory(existing);
+            when(outboxRecorder.recordAll(eq(CAR_ID), anyList())).thenReturn(1L);
+            when(fillupService.calculateMPGs(anyList(), anyBoolean())).thenReturn(Map.of());
+
+            BatchFillupResponse response = batchService.apply(new BatchFillupRequest(
+                    List.of(create(10600, 14), create(10300, 7)), null, null));
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Fillup>> appended = ArgumentCaptor.forClass(List.class);
+            verify(distributionRecorder).recordAppended(any(), appended.capture(), any(), any());
+            assertThat(appended.getValue()).extracting(Fillup::getOdometer).containsExactly(10300L, 10600L);
+            assertThat(response.created()).hasSize(2);
+            verify(distributionRecorder, never()).rebuild(any(), any());
+        }
+
+        @Test
+        @DisplayName("compares the car's values before and after when a create lands before existing fillups")
+        void recordsChangedForBackfill() {
+            Fillup existing = fillup(10600, 14);
+            givenHistory(existing);
+            when(outboxRecorder.recordAll(eq(CAR_ID), anyList())).thenReturn(1L);
+            when(fillupService.calculateMPGs(anyList(), anyBoolean()))
+                    .thenReturn(Map.of(existing.getId(), new BigDecimal("30.00")), Map.of());
+
+            batchService.apply(new BatchFillupRequest(List.of(create(10300, 7)), null, null));
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Map<UUID, FillupDistributionRecorder.Sample>> after = ArgumentCaptor.forClass(Map.class);
+            verify(distributionRecorder).recordChanged(any(),
+                    eq(Map.of(existing.getId(), new FillupDistributionRecorder.Sample(existing.getDate(),
+                            new BigDecimal("30.00"), existing.getPricePerUnit()))),
+                    after.capture(), any());
+            assertThat(after.getValue()).hasSize(2);
+            assertThat(after.getValue().get(existing.getId()).mpg()).isNull();
+            verify(distributionRecorder, never()).rebuild(any(), any());
+            verify(distributionRecorder, never()).recordAppended(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("flags outliers once per car and writes only the flags that changed")
+        void flagsOutliers() {
+            Fillup flaggedBefore = fillup(10000, 0);
+            flaggedBefore.setAnomaly(FillupAnomaly.MPG);
+            when(fillupRepository.findAllById(List.of(flaggedBefore.getId()))).thenReturn(List.of(flaggedBefore));
+            givenHistory(flaggedBefore);
+            when(outboxRecorder.recordAll(eq(CAR_ID), anyList())).thenReturn(1L);
+            when(fillupService.calculateMPGs(anyList(), anyBoolean())).thenReturn(Map.of());
+            when(anomalyDetector.isEnabled()).thenReturn(true);
+            when(anomalyDetector.detect(eq(CAR_ID), anyList(), anyList(), any())).thenAnswer(invocation -> {
+                List<FillupAnomalyDetector.Sample> created = invocation.getArgument(1);
+                return Map.of(created.getLast().fillupId(), FillupAnomaly.FUEL_VOLUME);
+            });
+
+            BatchFillupResponse response = batchService.apply(new BatchFillupRequest(
+                    List.of(create(10300, 7), create(10600, 14)),
+                    List.of(new BatchFillupRequest.Update(flaggedBefore.getId(),
+                            new UpdateFillupRequest(null, null, new BigDecimal("9.5"), null, null, null, null))),
+                    null));
+
+            assertThat(response.created()).extracting(r -> r.anomaly()).containsExactly(null, FillupAnomaly.FUEL_VOLUME);
+            assertThat(response.updated()).extracting(r -> r.anomaly()).containsExactly((FillupAnomaly) null);
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Fillup>> marked = ArgumentCaptor.forClass(List.class);
+            verify(fillupRepository).batchMarkAnomalies(marked.capture());
+            assertThat(marked.getValue()).extracting(Fillup::getOdometer).containsExactlyInAnyOrder(10600L, 10000L);
+            verify(anomalyDetector, times(1)).detect(any(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("rejects a create that breaks odometer order within the batch")
+        void rejectsNonMonotonicBatch() {
+            givenHistory(fillup(10000, 0));
+
+            assertThatThrownBy(() -> batchService.apply(new BatchFillupRequest(
+                    List.of(create(10600, 14), create(10300, 21)), null, null)))
+                    .isInstanceOf(InvalidOdometerException.class)
+                    .hasMessageContaining("10300");
+            verifyNoInteractions(outboxRecorder);
+        }
+
+        @Test
+        @DisplayName("rejects an update that moves a fillup past its successor")
+        void rejectsUpdatePastSuccessor() {
+            Fillup first = fillup(10000, 0);
+            Fillup second = fillup(10300, 7);
+            when(fillupRepository.findAllById(List.of(first.getId()))).thenReturn(List.of(first));
+            givenHistory(first, second);
+
+            assertThatThrownBy(() -> batchService.apply(new BatchFillupRequest(null,
+                    List.of(new BatchFillupRequest.Update(first.getId(),
+                            new UpdateFillupRequest(null, 10500L, null, null, null, null, null))),
+                    null)))
+                    .isInstanceOf(InvalidOdometerException.class);
+        }
+
+        @Test
+        @DisplayName("throws when a car does not exist")
+        void throwsWhenCarMissing() {
+            when(carRepository.findAllById(Set.of(CAR_ID))).thenReturn(List.of());
+
+            assertThatThrownBy(() -> batchService.apply(new BatchFillupRequest(
+                    List.of(create(10000, 0)), null, null)))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("throws when a fillup does not exist")
+        void throwsWhenFillupMissing() {
+            UUID missing = UUID.randomUUID();
+            when(fillupRepository.findAllById(List.of(missing))).thenReturn(List.of());
+
+            assertThatThrownBy(() -> batchService.apply(new BatchFillupRequest(null, null, List.of(missing))))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+
+        @Test
+        @DisplayName("rejects empty batches and repeated fillups")
+        void rejectsMalformedBatches() {
+            UUID id = UUID.randomUUID();
+
+            assertThatThrownBy(() -> batchService.apply(new BatchFillupRequest(null, null, null)))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> batchService.apply(new BatchFillupRequest(null,
+                    List.of(new BatchFillupRequest.Update(id,
+                            new UpdateFillupRequest(null, null, null, null, null, true, null))),
+                    List.of(id))))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("more than once");
+            verifyNoInteractions(fillupRepository);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package me.adilfulara.autoledger.service;
+
+import me.adilfulara.autoledger.api.dto.FillupRangeResponse;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.ArchivedFillup;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupArchiveRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FillupRangeService")
+class FillupRangeServiceTest {
+
+    @Mock
+    private FillupRepository fillupRepository;
+
+    @Mock
+    private FillupArchiveRepository archiveRepository;
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private FillupService fillupService;
+
+    @InjectMocks
+    private FillupRangeService rangeService;
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID CAR_ID = UUID.randomUUID();
+    private static final UUID OTHER_CAR_ID = UUID.randomUUID();
+    private static final Instant FROM = Instant.parse("2024-07-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2024-10-01T00:00:00Z");
+
+    private static FillupRangeService.Filter range() {
+        return new FillupRangeService.Filter(FROM, TO, null, null, null, null);
+    }
+
+    private static Car car(Long archivedThroughOdometer) {
+        Car car = new Car();
+        car.setId(CAR_ID);
+        car.setUserId(USER_ID);
+        car.setArchivedThroughOdometer(archivedThroughOdometer);
+        return car;
+    }
+
+    private static Fillup fillup(UUID carId, long odometer, int day, String price, boolean partial) {
+        BigDecimal pricePerUnit = new BigDecimal(price);
+        Fillup fillup = new Fillup(carId, FROM.plus(day, ChronoUnit.DAYS), odometer, new BigDecimal("10.000"),
+                pricePerUnit, pricePerUnit.multiply(BigDecimal.TEN), partial, false);
+        fillup.setId(UUID.randomUUID());
+        return fillup;
+    }
+
+    @Nested
+    @DisplayName("getCarFillups")
+    class GetCarFillups {
+
+        @Test
+        @DisplayName("computes MPG over the whole range before filtering")
+        void computesMpgBeforeFiltering() {
+            Fillup full = fillup(CAR_ID, 10_000L, 1, "3.50", false);
+            Fillup partial = fillup(CAR_ID, 10_150L, 5, "3.60", true);
+            Fillup next = fillup(CAR_ID, 10_600L, 9, "3.70", false);
+            List<Fillup> hot = List.of(next, partial, full);
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(null)));
+            when(fillupRepository.findByCarIdAndDateRange(CAR_ID, FROM, TO)).thenReturn(hot);
+            when(fillupService.calculateMPGs(hot)).thenReturn(Map.of(next.getId(), new BigDecimal("30.00")));
+
+            FillupRangeResponse response = rangeService.getCarFillups(CAR_ID,
+                    new FillupRangeService.Filter(FROM, TO, false, null, null, null));
+
+            assertThat(response.fillups()).extracting(FillupResponse::id)
+                    .containsExactly(next.getId(), full.getId());
+            assertThat(response.fillups().getFirst().mpg()).isEqualByComparingTo("30.00");
+            assertThat(response.fillupCount()).isEqualTo(2);
+            assertThat(response.totalCost()).isEqualByComparingTo("72.00");
+
+            FillupRangeResponse.CarTotals totals = response.cars().getFirst();
+            assertThat(totals.carId()).isEqualTo(CAR_ID);
+            assertThat(totals.totalFuel()).isEqualByComparingTo("20.000");
+            assertThat(totals.averagePricePerUnit()).isEqualByComparingTo("3.600");
+            assertThat(totals.minPricePerUnit()).isEqualByComparingTo("3.50");
+            assertThat(totals.maxPricePerUnit()).isEqualByComparingTo("3.70");
+            assertThat(totals.averageMpg()).isEqualByComparingTo("30.00");
+            verifyNoInteractions(archiveRepository);
+        }
+
+        @Test
+        @DisplayName("includes archived fillups of a compacted car")
+        void includesArchivedFillups() {
+            Fillup hot = fillup(CAR_ID, 10_600L, 9, "3.70", false);
+            ArchivedFillup archived = ArchivedFillup.from(fillup(CAR_ID, 10_000L, 1, "3.50", false),
+                    new BigDecimal("28.00"), TO);
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(10_000L)));
+            when(fillupRepository.findByCarIdAndDateRange(CAR_ID, FROM, TO)).thenReturn(List.of(hot));
+            when(archiveRepository.findByCarIdAndDateRange(CAR_ID, FROM, TO)).thenReturn(List.of(archived));
+            when(fillupService.calculateMPGs(List.of(hot))).thenReturn(Map.of(hot.getId(), new BigDecimal("30.00")));
+
+            FillupRangeResponse response = rangeService.getCarFillups(CAR_ID, range());
+
+            assertThat(response.fillups()).extracting(FillupResponse::id)
+                    .containsExactly(hot.getId(), archived.getId());
+            assertThat(response.cars().getFirst().averageMpg()).isEqualByComparingTo("29.00");
+        }
+
+        @Test
+        @DisplayName("applies price bounds inclusively and leaves no totals when nothing matches")
+        void appliesPriceBounds() {
+            Fillup cheap = fillup(CAR_ID, 10_000L, 1, "3.50", false);
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car(null)));
+            when(fillupRepository.findByCarIdAndDateRange(CAR_ID, FROM, TO)).thenReturn(List.of(cheap));
+
+            FillupRangeResponse atBound = rangeService.getCarFillups(CAR_ID,
+                    new FillupRangeService.Filter(FROM, TO, null, null, new BigDecimal("3.5"), null));
+            FillupRangeResponse above = rangeService.getCarFillups(CAR_ID,
+                    new FillupRangeService.Filter(FROM, TO, null, null, new BigDecimal("3.51"), null));
+
+            assertThat(atBound.fillupCount()).isEqualTo(1);
+            assertThat(atBound.cars().getFirst().averageMpg()).isNull();
+            assertThat(above.fillupCount()).isZero();
+            assertThat(above.totalCost()).isEqualByComparingTo("0");
+            assertThat(above.cars()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("throws when the car is being deleted")
+        void throwsWhenDeleting() {
+            Car car = car(null);
+            car.setDeletingSince(FROM);
+            when(carRepository.findById(CAR_ID)).thenReturn(Optional.of(car));
+
+            assertThatThrownBy(() -> rangeService.getCarFillups(CAR_ID, range()))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            verifyNoInteractions(fillupRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("getUserFillups")
+    class GetUserFillups {
+
+        @Test
+        @DisplayName("merges cars newest first with per-car totals")
+        void mergesCars() {
+            Fillup first = fillup(CAR_ID, 10_000L, 1, "3.50", false);
+            Fillup other = fillup(OTHER_CAR_ID, 50_000L, 3, "1.80", false);
+            Fillup last = fillup(CAR_ID, 10_400L, 7, "3.70", false);
+            when(fillupRepository.findByUserIdAndDateRange(USER_ID, FROM, TO)).thenReturn(List.of(last, other, first));
+            when(archiveRepository.findByUserIdAndDateRange(USER_ID, FROM, TO)).thenReturn(List.of());
+            when(fillupService.calculateMPGs(any())).thenReturn(Map.of());
+
+            FillupRangeResponse response = rangeService.getUserFillups(USER_ID, range());
+
+            assertThat(response.fillups()).extracting(FillupResponse::id)
+                    .containsExactly(last.getId(), other.getId(), first.getId());
+            assertThat(response.cars()).extracting(FillupRangeResponse.CarTotals::carId)
+                    .containsExactly(CAR_ID, OTHER_CAR_ID);
+            assertThat(response.cars().getFirst().fillupCount()).isEqualTo(2);
+            assertThat(response.totalCost()).isEqualByComparingTo("90.00");
+        }
+    }
+
+    @Nested
+    @DisplayName("Filter")
+    class FilterValidation {
+
+        @Test
+        @DisplayName("rejects an empty range")
+        void rejectsEmptyRange() {
+            assertThatThrownBy(() -> new FillupRangeService.Filter(TO, TO, null, null, null, null))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("rejects inverted price bounds")
+        void rejectsInvertedPriceBounds() {
+            assertThatThrownBy(() -> new FillupRangeService.Filter(FROM, TO, null, null,
+                    new BigDecimal("4.00"), new BigDecimal("3.00")))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -1,7 +1,18 @@
 package me.adilfulara.autoledger.service;
 
+import me.adilfulara.autoledger.anomaly.FillupAnomalyDetector;
+import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.dto.UpdateFillupRequest;
+import me.adilfulara.autoledger.api.exception.InvalidOdometerException;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.distribution.FillupDistributionRecorder;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.ChangeType;
 import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FillupAnomaly;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
 import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.outbox.OutboxRecorder;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -14,11 +25,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -32,6 +52,18 @@ class FillupServiceTest {
     @Mock
     private FillupRepository fillupRepository;
 
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private OutboxRecorder outboxRecorder;
+
+    @Mock
+    private FillupAnomalyDetector anomalyDetector;
+
+    @Mock
+    private FillupDistributionRecorder distributionRecorder;
+
     @InjectMocks
     private FillupService fillupService;
 
@@ -292,4 +324,369 @@ class FillupServiceTest {
             }
         }
     }
+
+    @Nested
+    @DisplayName("calculateMPGs")
+    class CalculateMPGs {
+
+        @Test
+        @DisplayName("computes MPG for full history with a single anchor lookup")
+        void computesMpgForFullHistory() {
+            // Arrange
+            Fillup first = createNormalFillup(UUID.randomUUID(), 10000L, new BigDecimal("10.0"));
+            Fillup second = createNormalFillup(UUID.randomUUID(), 10300L, new BigDecimal("10.0"));
+            Fillup third = createNormalFillup(UUID.randomUUID(), 10550L, new BigDecimal("10.0"));
+            when(fillupRepository.findLastFullFillupBefore(CAR_ID, 10000L))
+                    .thenReturn(Optional.empty());
+
+            // Act - input order does not matter
+            Map<UUID, BigDecimal> result = fillupService.calculateMPGs(List.of(third, first, second));
+
+            // Assert
+            assertThat(result).hasSize(2);
+            assertThat(result.get(second.getId())).isEqualByComparingTo(new BigDecimal("30.00"));
+            assertThat(result.get(third.getId())).isEqualByComparingTo(new BigDecimal("25.00"));
+            verify(fillupRepository, times(1)).findLastFullFillupBefore(any(), any());
+        }
+
+        @Test
+        @DisplayName("accumulates fuel over partial fillups like calculateMPG")
+        void accumulatesFuelOverPartials() {
+            // Arrange
+            Fillup anchor = createNormalFillup(UUID.randomUUID(), 10000L, new BigDecimal("10.0"));
+            Fillup partial = createFillup(UUID.randomUUID(), 10150L, new BigDecimal("5.0"), true, false);
+            Fillup current = createNormalFillup(UUID.randomUUID(), 10300L, new BigDecimal("10.0"));
+            when(fillupRepository.findLastFullFillupBefore(CAR_ID, 10000L))
+                    .thenReturn(Optional.empty());
+
+            // Act
+            Map<UUID, BigDecimal> result = fillupService.calculateMPGs(List.of(anchor, partial, current));
+
+            // Assert - (10300 - 10000) / (5 + 10) = 20
+            assertThat(result).containsOnlyKeys(current.getId());
+            assertThat(result.get(current.getId())).isEqualByComparingTo(new BigDecimal("20.00"));
+        }
+
+        @Test
+        @DisplayName("skips missed fillups but keeps them as anchors")
+        void skipsMissedFillupsButUsesThemAsAnchors() {
+            // Arrange
+            Fillup missed = createFillup(UUID.randomUUID(), 10000L, new BigDecimal("10.0"), false, true);
+            Fillup current = createNormalFillup(UUID.randomUUID(), 10300L, new BigDecimal("12.0"));
+
+            // Act
+            Map<UUID, BigDecimal> result = fillupService.calculateMPGs(List.of(missed, current));
+
+            // Assert - 300 / 12 = 25
+            assertThat(result).containsOnlyKeys(current.getId());
+            assertThat(result.get(current.getId())).isEqualByComparingTo(new BigDecimal("25.00"));
+            verifyNoInteractions(fillupRepository);
+        }
+
+        @Test
+        @DisplayName("falls back to repository for the first fillup of a recent window")
+        void fallsBackForWindowStart() {
+            // Arrange - anchor at 9700 lies outside the window
+            Fillup outsideAnchor = createNormalFillup(UUID.randomUUID(), 9700L, new BigDecimal("10.0"));
+            Fillup first = createNormalFillup(UUID.randomUUID(), 10000L, new BigDecimal("10.0"));
+            Fillup second = createNormalFillup(UUID.randomUUID(), 10300L, new BigDecimal("10.0"));
+            when(fillupRepository.findLastFullFillupBefore(CAR_ID, 10000L))
+                    .thenReturn(Optional.of(outsideAnchor));
+            when(fillupRepository.sumFuelBetween(CAR_ID, 9700L, 10000L))
+                    .thenReturn(new BigDecimal("10.0"));
+
+            // Act
+            Map<UUID, BigDecimal> result = fillupService.calculateMPGs(List.of(second, first));
+
+            // Assert
+            assertThat(result.get(first.getId())).isEqualByComparingTo(new BigDecimal("30.00"));
+            assertThat(result.get(second.getId())).isEqualByComparingTo(new BigDecimal("30.00"));
+        }
+
+        @Test
+        @DisplayName("skips the anchor lookup when given the complete history")
+        void skipsAnchorLookupForCompleteHistory() {
+            // Arrange
+            Fillup first = createNormalFillup(UUID.randomUUID(), 10000L, new BigDecimal("10.0"));
+            Fillup second = createNormalFillup(UUID.randomUUID(), 10300L, new BigDecimal("10.0"));
+
+            // Act
+            Map<UUID, BigDecimal> result = fillupService.calculateMPGs(List.of(first, second), true);
+
+            // Assert
+            assertThat(result).containsOnlyKeys(second.getId());
+            assertThat(result.get(second.getId())).isEqualByComparingTo(new BigDecimal("30.00"));
+            verifyNoInteractions(fillupRepository);
+        }
+
+        @Test
+        @DisplayName("returns empty map for empty input")
+        void returnsEmptyForEmptyInput() {
+            assertThat(fillupService.calculateMPGs(List.of())).isEmpty();
+        }
+
+        @Test
+        @DisplayName("throws exception when any fuel volume is invalid")
+        void throwsForInvalidFuelVolume() {
+            Fillup invalid = createNormalFillup(UUID.randomUUID(), 10000L, BigDecimal.ZERO);
+
+            assertThatThrownBy(() -> fillupService.calculateMPGs(List.of(invalid)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("fuel volume");
+        }
+    }
+
+    @Nested
+    @DisplayName("createFillup")
+    class CreateFillup {
+
+        private final CreateFillupRequest request = new CreateFillupRequest(
+                CAR_ID, Instant.now(), 10300L,
+                new BigDecimal("10.0"), new BigDecimal("3.50"),
+                new BigDecimal("35.00"), false, false);
+
+        @Test
+        @DisplayName("saves the fillup and records an outbox event")
+        void savesAndRecordsEvent() {
+            Fillup saved = createNormalFillup(UUID.randomUUID(), 10300L, new BigDecimal("10.0"));
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.findMostRecentByCarId(CAR_ID))
+                    .thenReturn(Optional.of(createNormalFillup(UUID.randomUUID(), 10000L, new BigDecimal("10.0"))));
+            when(fillupRepository.save(any(Fillup.class))).thenReturn(saved);
+
+            Fillup result = fillupService.createFillup(request);
+
+            assertThat(result).isSameAs(saved);
+            verify(outboxRecorder).record(ChangeType.FILLUP_ADDED, CAR_ID, saved.getId());
+        }
+
+        @Test
+        @DisplayName("folds the new fillup and its MPG into the distribution sketches")
+        void recordsDistribution() {
+            Fillup saved = createNormalFillup(UUID.randomUUID(), 10300L, new BigDecimal("10.0"));
+            Car car = new Car();
+            car.setId(CAR_ID);
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.findMostRecentByCarId(CAR_ID)).thenReturn(Optional.empty());
+            when(fillupRepository.save(any(Fillup.class))).thenReturn(saved);
+            when(fillupRepository.findLastFullFillupBefore(CAR_ID, 10300L))
+                    .thenReturn(Optional.of(createNormalFillup(UUID.randomUUID(), 10000L, new BigDecimal("10.0"))));
+            when(fillupRepository.sumFuelBetween(CAR_ID, 10000L, 10300L)).thenReturn(new BigDecimal("10.0"));
+            when(outboxRecorder.record(ChangeType.FILLUP_ADDED, CAR_ID, saved.getId())).thenReturn(car);
+
+            fillupService.createFillup(request);
+
+            verify(distributionRecorder).recordAppended(eq(car), eq(List.of(saved)),
+                    eq(Map.of(saved.getId(), new BigDecimal("30.00"))), any());
+        }
+
+        @Test
+        @DisplayName("stores the flag of an outlier")
+        void storesOutlierFlag() {
+            Fillup saved = createNormalFillup(UUID.randomUUID(), 10300L, new BigDecimal("10.0"));
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.findMostRecentByCarId(CAR_ID)).thenReturn(Optional.empty());
+            when(fillupRepository.save(any(Fillup.class))).thenReturn(saved);
+            when(fillupRepository.findLastFullFillupBefore(CAR_ID, 10300L)).thenReturn(Optional.empty());
+            when(anomalyDetector.isEnabled()).thenReturn(true);
+            when(anomalyDetector.detect(eq(CAR_ID), anyList(), eq(List.of()), any()))
+                    .thenReturn(Map.of(saved.getId(), FillupAnomaly.FUEL_VOLUME));
+
+            Fillup result = fillupService.createFillup(request);
+
+            assertThat(result.getAnomaly()).isEqualTo(FillupAnomaly.FUEL_VOLUME);
+            verify(fillupRepository).markAnomaly(saved.getId(), CAR_ID, "FUEL_VOLUME");
+        }
+
+        @Test
+        @DisplayName("writes no flag for an ordinary fillup")
+        void noFlagForOrdinaryFillup() {
+            Fillup saved = createNormalFillup(UUID.randomUUID(), 10300L, new BigDecimal("10.0"));
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.findMostRecentByCarId(CAR_ID)).thenReturn(Optional.empty());
+            when(fillupRepository.save(any(Fillup.class))).thenReturn(saved);
+            when(fillupRepository.findLastFullFillupBefore(CAR_ID, 10300L)).thenReturn(Optional.empty());
+            when(anomalyDetector.isEnabled()).thenReturn(true);
+            when(anomalyDetector.detect(eq(CAR_ID), anyList(), eq(List.of()), any())).thenReturn(Map.of());
+
+            fillupService.createFillup(request);
+
+            verify(fillupRepository, never()).markAnomaly(any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("throws when car not found")
+        void throwsWhenCarNotFound() {
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(false);
+
+            assertThatThrownBy(() -> fillupService.createFillup(request))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            verify(fillupRepository, never()).save(any());
+            verifyNoInteractions(outboxRecorder);
+        }
+
+        @Test
+        @DisplayName("throws when odometer is not greater than previous")
+        void throwsWhenOdometerInvalid() {
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.findMostRecentByCarId(CAR_ID))
+                    .thenReturn(Optional.of(createNormalFillup(UUID.randomUUID(), 15000L, new BigDecimal("10.0"))));
+
+            assertThatThrownBy(() -> fillupService.createFillup(request))
+                    .isInstanceOf(InvalidOdometerException.class);
+            verify(fillupRepository, never()).save(any());
+            verifyNoInteractions(outboxRecorder);
+        }
+    }
+
+    @Nested
+    @DisplayName("updateFillup")
+    class UpdateFillup {
+
+        @Test
+        @DisplayName("applies provided fields and records an outbox event")
+        void appliesFieldsAndRecordsEvent() {
+            UUID id = UUID.randomUUID();
+            Fillup existing = createNormalFillup(id, 10000L, new BigDecimal("10.0"));
+            when(fillupRepository.findById(id)).thenReturn(Optional.of(existing));
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.save(existing)).thenReturn(existing);
+
+            Fillup result = fillupService.updateFillup(id, new UpdateFillupRequest(
+                    null, 10500L, new BigDecimal("12.5"), null, null, true, null));
+
+            assertThat(result.getOdometer()).isEqualTo(10500L);
+            assertThat(result.getFuelVolume()).isEqualByComparingTo(new BigDecimal("12.5"));
+            assertThat(result.getIsPartial()).isTrue();
+            assertThat(result.getIsMissed()).isFalse();
+            assertThat(result.getPricePerUnit()).isEqualByComparingTo(new BigDecimal("3.50"));
+            verify(outboxRecorder).record(ChangeType.FILLUP_UPDATED, CAR_ID, id);
+            // Old and new odometer bound the fillups whose sketched values the edit can move
+            verify(fillupRepository, times(2)).findAffectedByOdometerRange(CAR_ID, 10000L, 10500L);
+            verify(distributionRecorder).recordChanged(any(), any(), any(), any());
+            verify(distributionRecorder, never()).rebuild(any(), any());
+        }
+
+        @Test
+        @DisplayName("clears a flag the edit resolved, without learning the fillup again")
+        void clearsResolvedFlag() {
+            UUID id = UUID.randomUUID();
+            Fillup existing = createNormalFillup(id, 10000L, new BigDecimal("100.0"));
+            existing.setAnomaly(FillupAnomaly.FUEL_VOLUME);
+            when(fillupRepository.findById(id)).thenReturn(Optional.of(existing));
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.save(existing)).thenReturn(existing);
+            when(fillupRepository.findLastFullFillupBefore(CAR_ID, 10000L)).thenReturn(Optional.empty());
+            when(anomalyDetector.isEnabled()).thenReturn(true);
+            when(anomalyDetector.detect(eq(CAR_ID), eq(List.of()), anyList(), any())).thenReturn(Map.of());
+
+            Fillup result = fillupService.updateFillup(id, new UpdateFillupRequest(
+                    null, null, new BigDecimal("10.0"), null, null, null, null));
+
+            assertThat(result.getAnomaly()).isNull();
+            verify(fillupRepository).markAnomaly(id, CAR_ID, null);
+        }
+
+        @Test
+        @DisplayName("throws when fillup not found")
+        void throwsWhenNotFound() {
+            UUID id = UUID.randomUUID();
+            when(fillupRepository.findById(id)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> fillupService.updateFillup(id, new UpdateFillupRequest(
+                    null, 10500L, null, null, null, null, null)))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            verifyNoInteractions(outboxRecorder);
+        }
+
+        @Test
+        @DisplayName("throws when the fillup's car is being deleted")
+        void throwsWhenCarDeleting() {
+            UUID id = UUID.randomUUID();
+            when(fillupRepository.findById(id))
+                    .thenReturn(Optional.of(createNormalFillup(id, 10000L, new BigDecimal("10.0"))));
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(false);
+
+            assertThatThrownBy(() -> fillupService.updateFillup(id, new UpdateFillupRequest(
+                    null, 10500L, null, null, null, null, null)))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            verify(fillupRepository, never()).save(any());
+            verifyNoInteractions(outboxRecorder);
+        }
+    }
+
+    @Nested
+    @DisplayName("deleteFillup")
+    class DeleteFillup {
+
+        @Test
+        @DisplayName("deletes the fillup and records an outbox event")
+        void deletesAndRecordsEvent() {
+            UUID id = UUID.randomUUID();
+            when(fillupRepository.findById(id))
+                    .thenReturn(Optional.of(createNormalFillup(id, 10000L, new BigDecimal("10.0"))));
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+
+            fillupService.deleteFillup(id);
+
+            verify(fillupRepository).deleteById(id);
+            verify(outboxRecorder).record(ChangeType.FILLUP_DELETED, CAR_ID, id);
+            verify(distributionRecorder, never()).rebuild(any(), any());
+        }
+
+        @Test
+        @DisplayName("moves the deleted fillup's values and the next fillup's MPG out of the sketches")
+        void recordsChangedSamples() {
+            UUID id = UUID.randomUUID();
+            Fillup deleted = createNormalFillup(id, 10000L, new BigDecimal("10.0"));
+            Fillup next = createNormalFillup(UUID.randomUUID(), 10300L, new BigDecimal("10.0"));
+            Fillup anchor = createNormalFillup(UUID.randomUUID(), 9700L, new BigDecimal("10.0"));
+            Car car = new Car();
+            when(fillupRepository.findById(id)).thenReturn(Optional.of(deleted));
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(true);
+            when(fillupRepository.findAffectedByOdometerRange(CAR_ID, 10000L, 10000L))
+                    .thenReturn(List.of(deleted, next), List.of(next));
+            when(fillupRepository.findLastFullFillupBefore(eq(CAR_ID), any())).thenReturn(Optional.of(anchor));
+            when(fillupRepository.sumFuelBetween(eq(CAR_ID), eq(9700L), any())).thenReturn(new BigDecimal("10.0"));
+            when(outboxRecorder.record(ChangeType.FILLUP_DELETED, CAR_ID, id)).thenReturn(car);
+
+            fillupService.deleteFillup(id);
+
+            verify(distributionRecorder).recordChanged(eq(car),
+                    eq(Map.of(
+                            id, new FillupDistributionRecorder.Sample(deleted.getDate(), new BigDecimal("30.00"),
+                                    deleted.getPricePerUnit()),
+                            next.getId(), new FillupDistributionRecorder.Sample(next.getDate(),
+                                    new BigDecimal("30.00"), next.getPricePerUnit()))),
+                    eq(Map.of(next.getId(), new FillupDistributionRecorder.Sample(next.getDate(),
+                            new BigDecimal("60.00"), next.getPricePerUnit()))),
+                    any());
+        }
+
+        @Test
+        @DisplayName("throws when fillup not found")
+        void throwsWhenNotFound() {
+            UUID id = UUID.randomUUID();
+            when(fillupRepository.findById(id)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> fillupService.deleteFillup(id))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            verify(fillupRepository, never()).deleteById(any());
+            verifyNoInteractions(outboxRecorder);
+        }
+
+        @Test
+        @DisplayName("throws when the fillup's car is being deleted")
+        void throwsWhenCarDeleting() {
+            UUID id = UUID.randomUUID();
+            when(fillupRepository.findById(id))
+                    .thenReturn(Optional.of(createNormalFillup(id, 10000L, new BigDecimal("10.0"))));
+            when(carRepository.existsActiveById(CAR_ID)).thenReturn(false);
+
+            assertThatThrownBy(() -> fillupService.deleteFillup(id))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            verify(fillupRepository, never()).deleteById(any());
+            verifyNoInteractions(outboxRecorder);
+        }
+    }
 }
@@ -0,0 +1,205 @@
+package me.adilfulara.autoledger.sync;
+
+import me.adilfulara.autoledger.PostgreSQLTestContainer;
+import me.adilfulara.autoledger.api.dto.CarResponse;
+import me.adilfulara.autoledger.api.dto.CreateCarRequest;
+import me.adilfulara.autoledger.api.dto.CreateFillupRequest;
+import me.adilfulara.autoledger.api.dto.FillupResponse;
+import me.adilfulara.autoledger.api.dto.SyncResponse;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.DistanceUnit;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.model.FuelUnit;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.SyncTombstoneRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static me.adilfulara.autoledger.SqlStatementBudget.assertWithinBudget;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for delta sync using real PostgreSQL via Testcontainers.
+ * Writes go through the REST API so change sequence numbers and tombstones are recorded for real.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("Sync Integration Tests")
+class SyncIT {
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        PostgreSQLTestContainer.configureDataSource(registry);
+    }
+
+    // Same UUID as JwtAuthFilter injects when auth is disabled
+    private static final UUID TEST_USER_UUID = UUID.fromString("a0eebc99-9c0b-4ef8-bb6d-6bb9bd380a11");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private FillupRepository fillupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SyncTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private TombstonePruneJob pruneJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Instant baseTime = Instant.now().minus(365, ChronoUnit.DAYS);
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM app.outbox_events");
+        tombstoneRepository.deleteAll();
+        fillupRepository.deleteAll();
+        carRepository.deleteAll();
+        userRepository.deleteAll();
+        jdbcTemplate.update(
+                "INSERT INTO app.users (id, auth_provider_id, email, created_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)",
+                TEST_USER_UUID, "test_user_dev", "dev@test.com");
+    }
+
+    private CarResponse createCar(String name) {
+        return restTemplate.postForEntity("/api/cars", new CreateCarRequest(
+                "Toyota", "Camry", 2022, null, name, FuelUnit.GALLONS, DistanceUnit.MILES), CarResponse.class)
+                .getBody();
+    }
+
+    private FillupResponse createFillup(UUID carId, long odometer) {
+        return restTemplate.postForEntity("/api/fillups", new CreateFillupRequest(carId,
+                baseTime.plus(odometer / 300, ChronoUnit.DAYS), odometer, new BigDecimal("10.0"),
+                new BigDecimal("3.50"), new BigDecimal("35.00"), false, false), FillupResponse.class)
+                .getBody();
+    }
+
+    private ResponseEntity<SyncResponse> sync(String token) {
+        return restTemplate.getForEntity(token == null ? "/api/sync" : "/api/sync?token=" + token,
+                SyncResponse.class);
+    }
+
+    @Test
+    @DisplayName("full sync returns everything, including rows that predate change tracking")
+    void fullSync() {
+        CarResponse car = createCar("Synced Car");
+        createFillup(car.id(), 10000);
+        // Saved directly: change_seq stays 0, like rows written before the migration
+        Car legacy = carRepository.save(new Car(TEST_USER_UUID, "Honda", "Civic", 2019, null, "Legacy",
+                FuelUnit.GALLONS, DistanceUnit.MILES));
+        fillupRepository.save(new Fillup(legacy.getId(), baseTime, 5000L, new BigDecimal("9.0"),
+                new BigDecimal("3.00"), new BigDecimal("27.00"), false, false));
+
+        ResponseEntity<SyncResponse> response = sync(null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        SyncResponse body = response.getBody();
+        assertThat(body.reset()).isTrue();
+        assertThat(body.cars()).extracting(CarResponse::name).containsExactlyInAnyOrder("Synced Car", "Legacy");
+        assertThat(body.fillups()).extracting(FillupResponse::odometer).containsExactlyInAnyOrder(10000L, 5000L);
+        assertThat(body.deleted()).isEmpty();
+        assertThat(body.token()).isNotBlank();
+    }
+
+    @Test
+    @DisplayName("delta sync returns only what changed, with tombstones for deletions")
+    void deltaSync() {
+        CarResponse kept = createCar("Kept");
+        CarResponse removed = createCar("Removed");
+        FillupResponse first = createFillup(kept.id(), 10000);
+        createFillup(removed.id(), 20000);
+        String token = sync(null).getBody().token();
+
+        FillupResponse added = createFillup(kept.id(), 10300);
+        restTemplate.delete("/api/fillups/" + first.id());
+        restTemplate.delete("/api/cars/" + removed.id());
+
+        ResponseEntity<SyncResponse> response = sync(token);
+
+        SyncResponse body = response.getBody();
+        assertThat(body.reset()).isFalse();
+        assertThat(body.cars()).extracting(CarResponse::id).containsExactly(kept.id());
+        assertThat(body.fillups()).extracting(FillupResponse::id).containsExactly(added.id());
+        assertThat(body.deleted()).containsExactly(
+                new SyncResponse.Deletion("fillup", first.id(), kept.id()),
+                new SyncResponse.Deletion("car", removed.id(), removed.id()));
+
+        SyncResponse next = sync(body.token()).getBody();
+        assertThat(next.cars()).isEmpty();
+        assertThat(next.fillups()).isEmpty();
+        assertThat(next.deleted()).isEmpty();
+        assertThat(next.token()).isEqualTo(body.token());
+    }
+
+    @Test
+    @DisplayName("delta sync cost does not grow with the account")
+    void deltaSyncStaysWithinBudget() {
+        List<UUID> carIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            carIds.add(createCar("Car " + i).id());
+        }
+        for (UUID carId : carIds) {
+            createFillup(carId, 10000);
+        }
+        String token = sync(null).getBody().token();
+        createFillup(carIds.getFirst(), 10300);
+
+        ResponseEntity<SyncResponse> response = sync(token);
+
+        assertThat(response.getBody().fillups()).hasSize(1);
+        // Sequence, floor, cars, fillups, tombstones
+        assertWithinBudget(response, 5);
+    }
+
+    @Test
+    @DisplayName("tokens older than pruned tombstones get a full snapshot")
+    void prunedTombstonesForceReset() {
+        CarResponse car = createCar("Car");
+        FillupResponse fillup = createFillup(car.id(), 10000);
+        String token = sync(null).getBody().token();
+        restTemplate.delete("/api/fillups/" + fillup.id());
+        jdbcTemplate.update("UPDATE app.sync_tombstones SET deleted_at = deleted_at - INTERVAL '365 days'");
+
+        pruneJob.run();
+        SyncResponse body = sync(token).getBody();
+
+        assertThat(tombstoneRepository.count()).isZero();
+        assertThat(body.reset()).isTrue();
+        assertThat(body.cars()).extracting(CarResponse::id).containsExactly(car.id());
+        assertThat(body.fillups()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("rejects a malformed token")
+    void rejectsMalformedToken() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/sync?token=not-a-token", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,155 @@
+package me.adilfulara.autoledger.sync;
+
+import me.adilfulara.autoledger.api.dto.SyncResponse;
+import me.adilfulara.autoledger.api.exception.ResourceNotFoundException;
+import me.adilfulara.autoledger.domain.model.Car;
+import me.adilfulara.autoledger.domain.model.ChangeType;
+import me.adilfulara.autoledger.domain.model.SyncTombstone;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.domain.repository.FillupRepository;
+import me.adilfulara.autoledger.domain.repository.SyncTombstoneRepository;
+import me.adilfulara.autoledger.domain.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SyncService")
+class SyncServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private FillupRepository fillupRepository;
+
+    @Mock
+    private SyncTombstoneRepository tombstoneRepository;
+
+    @InjectMocks
+    private SyncService syncService;
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID CAR_ID = UUID.randomUUID();
+
+    private Car car() {
+        Car car = new Car();
+        car.setId(CAR_ID);
+        car.setUserId(USER_ID);
+        car.setName("Daily");
+        return car;
+    }
+
+    @Nested
+    @DisplayName("tokens")
+    class Tokens {
+
+        @Test
+        @DisplayName("round-trip the change sequence number")
+        void roundTrip() {
+            assertThat(SyncToken.decode(SyncToken.encode(0))).isZero();
+            assertThat(SyncToken.decode(SyncToken.encode(123456789L))).isEqualTo(123456789L);
+        }
+
+        @Test
+        @DisplayName("reject anything else")
+        void rejectMalformed() {
+            for (String token : List.of("garbage!", "djE6", "djE6LTE", "MTIz")) {
+                assertThatThrownBy(() -> SyncToken.decode(token))
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessage("Invalid sync token");
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("changesSince")
+    class ChangesSince {
+
+        @Test
+        @DisplayName("returns a full snapshot without a token")
+        void fullSnapshotWithoutToken() {
+            when(userRepository.findChangeSeqById(USER_ID)).thenReturn(Optional.of(10L));
+            when(carRepository.findChangedByUserIdSince(USER_ID, -1)).thenReturn(List.of(car()));
+            when(fillupRepository.findChangedByUserIdSince(USER_ID, -1)).thenReturn(List.of());
+
+            SyncResponse response = syncService.changesSince(USER_ID, null);
+
+            assertThat(response.reset()).isTrue();
+            assertThat(response.cars()).hasSize(1);
+            assertThat(response.deleted()).isEmpty();
+            assertThat(SyncToken.decode(response.token())).isEqualTo(10L);
+            verify(tombstoneRepository, never()).findByUserIdSince(eq(USER_ID), anyLong());
+        }
+
+        @Test
+        @DisplayName("returns changes and deletions after the token")
+        void deltaAfterToken() {
+            UUID fillupId = UUID.randomUUID();
+            when(userRepository.findChangeSeqById(USER_ID)).thenReturn(Optional.of(12L));
+            when(userRepository.findSyncFloorById(USER_ID)).thenReturn(Optional.of(0L));
+            when(carRepository.findChangedByUserIdSince(USER_ID, 10)).thenReturn(List.of(car()));
+            when(fillupRepository.findChangedByUserIdSince(USER_ID, 10)).thenReturn(List.of());
+            when(tombstoneRepository.findByUserIdSince(USER_ID, 10)).thenReturn(List.of(
+                    new SyncTombstone(USER_ID, 11L, ChangeType.FILLUP_DELETED, fillupId, CAR_ID, Instant.now())));
+
+            SyncResponse response = syncService.changesSince(USER_ID, SyncToken.encode(10));
+
+            assertThat(response.reset()).isFalse();
+            assertThat(response.deleted()).containsExactly(new SyncResponse.Deletion("fillup", fillupId, CAR_ID));
+            assertThat(SyncToken.decode(response.token())).isEqualTo(12L);
+        }
+
+        @Test
+        @DisplayName("resets when the token predates pruned tombstones")
+        void resetsBelowFloor() {
+            when(userRepository.findChangeSeqById(USER_ID)).thenReturn(Optional.of(50L));
+            when(userRepository.findSyncFloorById(USER_ID)).thenReturn(Optional.of(20L));
+
+            SyncResponse response = syncService.changesSince(USER_ID, SyncToken.encode(10));
+
+            assertThat(response.reset()).isTrue();
+            verify(carRepository).findChangedByUserIdSince(USER_ID, -1);
+        }
+
+        @Test
+        @DisplayName("resets when the token is ahead of the user's changes")
+        void resetsAheadOfUser() {
+            when(userRepository.findChangeSeqById(USER_ID)).thenReturn(Optional.of(5L));
+
+            SyncResponse response = syncService.changesSince(USER_ID, SyncToken.encode(99));
+
+            assertThat(response.reset()).isTrue();
+            verify(userRepository, never()).findSyncFloorById(USER_ID);
+        }
+
+        @Test
+        @DisplayName("throws when user not found")
+        void throwsWhenUserNotFound() {
+            when(userRepository.findChangeSeqById(USER_ID)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> syncService.changesSince(USER_ID, null))
+                    .isInstanceOf(ResourceNotFoundException.class);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package me.adilfulara.autoledger.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zaxxer.hikari.HikariDataSource;
+import me.adilfulara.autoledger.auth.JwtService;
+import me.adilfulara.autoledger.auth.JwtValidationException;
+import me.adilfulara.autoledger.domain.model.Fillup;
+import me.adilfulara.autoledger.domain.repository.CarRepository;
+import me.adilfulara.autoledger.service.CarService;
+import me.adilfulara.autoledger.service.FillupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WarmupRunner")
+class WarmupRunnerTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private CarRepository carRepository;
+
+    @Mock
+    private CarService carService;
+
+    @Mock
+    private FillupService fillupService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WarmupProperties properties;
+    private WarmupRunner runner;
+
+    private static final UUID CAR_ID = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        properties = new WarmupProperties();
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        runner = new WarmupRunner(properties, dataSource, jwtService, carRepository, carService, fillupService,
+                objectMapper, transactionManager, ApplicationStartup.DEFAULT);
+    }
+
+    @Test
+    @DisplayName("does nothing when disabled")
+    void doesNothingWhenDisabled() {
+        properties.setEnabled(false);
+
+        runner.run(null);
+
+        verifyNoInteractions(dataSource, jwtService, carRepository, carService, fillupService, transactionManager);
+    }
+
+    @Test
+    @DisplayName("continues when a step fails")
+    void continuesWhenStepFails() throws SQLException {
+        properties.setIterations(1);
+        when(dataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(jwtService.prefetchJwks()).thenThrow(new JwtValidationException("Failed to fetch JWKS"));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(carRepository.findWarmupSampleId()).thenReturn(Optional.empty());
+
+        runner.run(null);
+
+        verify(fillupService).calculateMPGs(anyList(), eq(true));
+    }
+
+    @Nested
+    @DisplayName("fillPool")
+    class FillPool {
+
+        @Test
+        @DisplayName("opens the configured connections at once and closes them")
+        void opensAndClosesConnections() throws SQLException {
+            properties.setConnections(3);
+            Connection connection = mock(Connection.class);
+            when(dataSource.getConnection()).thenReturn(connection);
+
+            assertThat(runner.fillPool()).isEqualTo(3);
+
+            verify(dataSource, times(3)).getConnection();
+            verify(connection, times(3)).close();
+        }
+
+        @Test
+        @DisplayName("caps the connections at the pool's maximum size")
+        void capsAtPoolSize() throws SQLException {
+            properties.setConnections(10);
+            HikariDataSource hikari = mock(HikariDataSource.class);
+            when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+            when(dataSource.unwrap(HikariDataSource.class)).thenReturn(hikari);
+            when(hikari.getMaximumPoolSize()).thenReturn(2);
+            when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+
+            assertThat(runner.fillPool()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    @DisplayName("exerciseCodePaths")
+    class ExerciseCodePaths {
+
+        private SimpleTransactionStatus status;
+
+        @BeforeEach
+        void setUp() {
+            status = new SimpleTransactionStatus();
+            when(transactionManager.getTransaction(any())).thenReturn(status);
+        }
+
+        @Test
+        @DisplayName("runs MPG and stats in a read-only transaction that is rolled back")
+        void runsInReadOnlyRolledBackTransaction() {
+            properties.setIterations(3);
+            when(carRepository.findWarmupSampleId()).thenReturn(Optional.of(CAR_ID));
+
+            int iterations = runner.exerciseCodePaths(Instant.now().plusSeconds(60));
+
+            assertThat(iterations).isEqualTo(3);
+            verify(fillupService, times(3)).calculateMPGs(anyList(), eq(true));
+            verify(carService, times(3)).computeCarStats(CAR_ID);
+            ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+            verify(transactionManager).getTransaction(definition.capture());
+            assertThat(definition.getValue().isReadOnly()).isTrue();
+            assertThat(status.isRollbackOnly()).isTrue();
+        }
+
+        @Test
+        @DisplayName("skips the stats when there is no car")
+        void skipsStatsWithoutCar() {
+            properties.setIterations(2);
+            when(carRepository.findWarmupSampleId()).thenReturn(Optional.empty());
+
+            assertThat(runner.exerciseCodePaths(Instant.now().plusSeconds(60))).isEqualTo(2);
+
+            verify(carService, never()).computeCarStats(any());
+        }
+
+        @Test
+        @DisplayName("stops at the deadline")
+        void stopsAtDeadline() {
+            when(carRepository.findWarmupSampleId()).thenReturn(Optional.of(CAR_ID));
+
+            assertThat(runner.exerciseCodePaths(Instant.now().minusSeconds(1))).isZero();
+
+            verifyNoInteractions(fillupService, carService);
+        }
+    }
+
+    @Test
+    @DisplayName("synthetic history has increasing odometers and partial fillups")
+    void syntheticHistory() {
+        List<Fillup> history = WarmupRunner.syntheticHistory();
+
+        assertThat(history).hasSize(WarmupRunner.SYNTHETIC_FILLUPS);
+        assertThat(history).extracting(Fillup::getOdometer).isSorted();
+        assertThat(history).anyMatch(Fillup::getIsPartial);
+        assertThat(history).extracting(Fillup::getId).doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,174 @@
+#!/usr/bin/env bash
+#
+# Benchmark: unpartitioned vs hash-partitioned fillups
+#
+# Loads the same synthetic dataset into two layouts in a scratch database and reports:
+#   - table + index size per layout
+#   - insert latency (pgbench, single-row INSERTs for random cars)
+#   - query latency for the repository's hot queries (history page, MPG anchor, fuel sum)
+#
+# Usage:
+#   ./scripts/db/benchmarks/fillup-partitioning.sh <scratch-database-url> [options]
+#
+# Options:
+#   --rows N          Total fillups to generate (default: 100000000)
+#   --cars N          Distinct cars (default: 1000000)
+#   --partitions N    Hash partitions (default: 8)
+#   --clients N       pgbench clients (default: 16)
+#   --duration SECS   pgbench duration per workload (default: 60)
+#   --keep            Keep the bench_* schemas afterwards
+#
+# Never point this at a real environment: it creates and drops schemas bench_heap and bench_hash.
+# 100M rows needs roughly 25 GB of free disk and takes a while to load.
+
+set -euo pipefail
+
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m'
+
+DB_URL="${1:-}"
+ROWS=100000000
+CARS=1000000
+PARTITIONS=8
+CLIENTS=16
+DURATION=60
+KEEP=false
+
+if [[ -z "$DB_URL" ]]; then
+    echo -e "${RED}Usage: $0 <scratch-database-url> [--rows N] [--cars N] [--partitions N] [--clients N] [--duration SECS] [--keep]${NC}"
+    exit 1
+fi
+shift
+
+while [[ $# -gt 0 ]]; do
+    case "$1" in
+        --rows) ROWS="$2"; shift 2 ;;
+        --cars) CARS="$2"; shift 2 ;;
+        --partitions) PARTITIONS="$2"; shift 2 ;;
+        --clients) CLIENTS="$2"; shift 2 ;;
+        --duration) DURATION="$2"; shift 2 ;;
+        --keep) KEEP=true; shift ;;
+        *) echo -e "${RED}Unknown option: $1${NC}"; exit 1 ;;
+    esac
+done
+
+for tool in psql pgbench; do
+    command -v "$tool" > /dev/null || { echo -e "${RED}$tool is required${NC}"; exit 1; }
+done
+
+WORKDIR="$(mktemp -d)"
+RESULTS="fillup-partitioning-$(date +%Y%m%d-%H%M%S).txt"
+trap 'rm -rf "$WORKDIR"' EXIT
+
+psql_run() {
+    psql "$DB_URL" -v ON_ERROR_STOP=1 -q "$@"
+}
+
+echo -e "${YELLOW}Loading $ROWS rows for $CARS cars into bench_heap and bench_hash ($PARTITIONS partitions)...${NC}"
+
+psql_run <<SQL
+DROP SCHEMA IF EXISTS bench_heap CASCADE;
+DROP SCHEMA IF EXISTS bench_hash CASCADE;
+CREATE SCHEMA bench_heap;
+CREATE SCHEMA bench_hash;
+
+-- Car ids are derived from an integer so pgbench can address them without a lookup table
+CREATE FUNCTION bench_heap.car_uuid(n BIGINT) RETURNS UUID IMMUTABLE LANGUAGE sql
+    AS \$\$ SELECT md5('car-' || n)::uuid \$\$;
+
+CREATE TABLE bench_heap.fillups (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    car_id UUID NOT NULL,
+    date TIMESTAMP NOT NULL,
+    odometer BIGINT NOT NULL,
+    fuel_volume NUMERIC(10, 3) NOT NULL,
+    price_per_unit NUMERIC(10, 3) NOT NULL,
+    total_cost NUMERIC(10, 2) NOT NULL,
+    is_partial BOOLEAN NOT NULL DEFAULT FALSE,
+    is_missed BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE bench_hash.fillups (LIKE bench_heap.fillups INCLUDING DEFAULTS) PARTITION BY HASH (car_id);
+ALTER TABLE bench_hash.fillups ADD PRIMARY KEY (id, car_id);
+SELECT format('CREATE TABLE bench_hash.fillups_p%s PARTITION OF bench_hash.fillups FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+              i, $PARTITIONS, i)
+FROM generate_series(0, $PARTITIONS - 1) i
+\gexec
+
+INSERT INTO bench_heap.fillups (car_id, date, odometer, fuel_volume, price_per_unit, total_cost, is_partial)
+SELECT bench_heap.car_uuid(g % $CARS),
+       TIMESTAMP '2015-01-01' + (g / $CARS) * INTERVAL '7 days',
+       10000 + (g / $CARS) * 300,
+       10 + (g % 7), 3.5, 35 + (g % 7) * 3.5,
+       g % 11 = 0
+FROM generate_series(0, $ROWS - 1) g;
+
+INSERT INTO bench_hash.fillups SELECT * FROM bench_heap.fillups;
+
+-- Same secondary indexes as the application schema
+CREATE INDEX ON bench_heap.fillups (car_id, date DESC);
+CREATE INDEX ON bench_heap.fillups (car_id, odometer);
+CREATE INDEX ON bench_heap.fillups (date);
+CREATE INDEX ON bench_hash.fillups (car_id, date DESC);
+CREATE INDEX ON bench_hash.fillups (car_id, odometer);
+CREATE INDEX ON bench_hash.fillups (date);
+
+VACUUM ANALYZE bench_heap.fillups;
+VACUUM ANALYZE bench_hash.fillups;
+SQL
+
+{
+    echo "# Fillup partitioning benchmark"
+    echo "date: $(date -u +%Y-%m-%dT%H:%M:%SZ)"
+    echo "rows: $ROWS  cars: $CARS  partitions: $PARTITIONS  clients: $CLIENTS  duration: ${DURATION}s"
+    echo "server: $(psql "$DB_URL" -Atc 'SELECT version()')"
+    echo
+    echo "## Sizes"
+    psql "$DB_URL" -c "
+        SELECT 'heap' AS layout,
+               pg_size_pretty(pg_table_size('bench_heap.fillups')) AS table_size,
+               pg_size_pretty(pg_indexes_size('bench_heap.fillups')) AS index_size,
+               NULL AS largest_partition_index
+        UNION ALL
+        SELECT 'hash',
+               pg_size_pretty(SUM(pg_table_size(inhrelid))),
+               pg_size_pretty(SUM(pg_indexes_size(inhrelid))),
+               pg_size_pretty(MAX(pg_indexes_size(inhrelid)))
+        FROM pg_inherits WHERE inhparent = 'bench_hash.fillups'::regclass"
+} | tee "$RESULTS"
+
+for layout in heap hash; do
+    cat > "$WORKDIR/insert_$layout.sql" <<SQL
+\set car random(0, $CARS - 1)
+INSERT INTO bench_$layout.fillups (car_id, date, odometer, fuel_volume, price_per_unit, total_cost)
+VALUES (bench_heap.car_uuid(:car), now(), 99000000 + :car, 10, 3.5, 35);
+SQL
+    cat > "$WORKDIR/query_$layout.sql" <<SQL
+\set car random(0, $CARS - 1)
+SELECT * FROM bench_$layout.fillups WHERE car_id = bench_heap.car_uuid(:car) ORDER BY date DESC LIMIT 50;
+SELECT * FROM bench_$layout.fillups WHERE car_id = bench_heap.car_uuid(:car) AND odometer < 20000 AND is_partial = false ORDER BY odometer DESC LIMIT 1;
+SELECT SUM(fuel_volume) FROM bench_$layout.fillups WHERE car_id = bench_heap.car_uuid(:car) AND odometer > 10000 AND odometer <= 20000;
+SQL
+done
+
+for workload in insert query; do
+    for layout in heap hash; do
+        echo -e "${YELLOW}pgbench $workload / $layout...${NC}"
+        {
+            echo
+            echo "## $workload / $layout"
+            pgbench "$DB_URL" -n -M prepared -c "$CLIENTS" -j "$CLIENTS" -T "$DURATION" -r \
+                -f "$WORKDIR/${workload}_$layout.sql" 2>&1 | grep -E "tps|latency|^ +[0-9]"
+        } | tee -a "$RESULTS"
+    done
+done
+
+if [[ "$KEEP" == false ]]; then
+    psql_run -c "DROP SCHEMA bench_heap CASCADE; DROP SCHEMA bench_hash CASCADE;"
+fi
+
+echo -e "${GREEN}✅ Results written to $RESULTS${NC}"
@@ -0,0 +1,171 @@
+-- Online conversion of app.fillups to the hash-partitioned layout (matches V4 migration).
+--
+-- Use this for large tables BEFORE deploying the release that contains V4. Writes keep flowing
+-- during the backfill; only the final swap takes a short ACCESS EXCLUSIVE lock. Once the swap is
+-- done, V4 sees a partitioned app.fillups and skips itself.
+--
+-- Usage (run each phase separately, checking the output in between):
+--   psql "$DATABASE_URL" -v partitions=8 -v phase=prepare  -f partition-fillups-online.sql
+--   psql "$DATABASE_URL" -v batch_size=50000 -v phase=backfill -f partition-fillups-online.sql
+--   psql "$DATABASE_URL" -v phase=verify   -f partition-fillups-online.sql
+--   psql "$DATABASE_URL" -v phase=swap     -f partition-fillups-online.sql
+--   psql "$DATABASE_URL" -v phase=cleanup  -f partition-fillups-online.sql   (after a soak period)
+--
+-- Phases:
+--   prepare  - create app.fillups_new (partitioned) and a trigger on app.fillups that mirrors
+--              every INSERT/UPDATE/DELETE into it
+--   backfill - copy existing rows in primary-key order, one committed batch at a time.
+--              Re-runnable; conflicting rows are skipped because the trigger already copied them
+--   verify   - compare row counts and a checksum between the two tables
+--   swap     - rename tables in one short transaction; the old table is kept as app.fillups_old
+--   cleanup  - drop app.fillups_old
+
+\set ON_ERROR_STOP on
+\if :{?partitions}
+\else
+    \set partitions 8
+\endif
+\if :{?batch_size}
+\else
+    \set batch_size 50000
+\endif
+
+SELECT :'phase' = 'prepare'  AS is_prepare,
+       :'phase' = 'backfill' AS is_backfill,
+       :'phase' = 'verify'   AS is_verify,
+       :'phase' = 'swap'     AS is_swap,
+       :'phase' = 'cleanup'  AS is_cleanup
+\gset
+
+-- ---------------------------------------------------------------------------
+\if :is_prepare
+BEGIN;
+
+CREATE TABLE app.fillups_new (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    car_id UUID NOT NULL,
+    date TIMESTAMP NOT NULL,
+    odometer BIGINT NOT NULL CHECK (odometer >= 0),
+    fuel_volume NUMERIC(10, 3) NOT NULL CHECK (fuel_volume > 0),
+    price_per_unit NUMERIC(10, 3) NOT NULL CHECK (price_per_unit >= 0),
+    total_cost NUMERIC(10, 2) NOT NULL CHECK (total_cost >= 0),
+    is_partial BOOLEAN NOT NULL DEFAULT FALSE,
+    is_missed BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fillups_new_pkey PRIMARY KEY (id, car_id),
+    CONSTRAINT fk_fillups_car_id FOREIGN KEY (car_id)
+        REFERENCES app.cars(id)
+        ON DELETE CASCADE
+) PARTITION BY HASH (car_id);
+
+SELECT format(
+    'CREATE TABLE app.fillups_p%s PARTITION OF app.fillups_new FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+    i, :partitions, i)
+FROM generate_series(0, :partitions - 1) AS i
+\gexec
+
+-- Build indexes while the table is empty; backfill maintains them incrementally
+CREATE INDEX idx_fillups_new_car_date ON app.fillups_new(car_id, date DESC);
+CREATE INDEX idx_fillups_new_car_odometer ON app.fillups_new(car_id, odometer);
+CREATE INDEX idx_fillups_new_date ON app.fillups_new(date);
+
+CREATE FUNCTION app.fillups_mirror() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM app.fillups_new WHERE id = OLD.id AND car_id = OLD.car_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO app.fillups_new
+            (id, car_id, date, odometer, fuel_volume, price_per_unit, total_cost,
+             is_partial, is_missed, created_at, updated_at)
+        VALUES (NEW.id, NEW.car_id, NEW.date, NEW.odometer, NEW.fuel_volume, NEW.price_per_unit,
+                NEW.total_cost, NEW.is_partial, NEW.is_missed, NEW.created_at, NEW.updated_at)
+        ON CONFLICT (id, car_id) DO NOTHING;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_fillups_mirror
+    AFTER INSERT OR UPDATE OR DELETE ON app.fillups
+    FOR EACH ROW EXECUTE FUNCTION app.fillups_mirror();
+
+COMMIT;
+\echo 'Prepared app.fillups_new with' :partitions 'partitions; mirror trigger installed.'
+\endif
+
+-- ---------------------------------------------------------------------------
+\if :is_backfill
+CREATE TEMP TABLE backfill_cursor (last_id UUID);
+INSERT INTO backfill_cursor VALUES ('00000000-0000-0000-0000-000000000000');
+
+-- Each batch is its own transaction (psql autocommit), so locks and WAL stay bounded and
+-- the job can be interrupted and restarted at any point.
+\set more 1
+\while :more
+    WITH batch AS (
+        SELECT * FROM app.fillups
+        WHERE id > (SELECT last_id FROM backfill_cursor)
+        ORDER BY id
+        LIMIT :batch_size
+    ), copied AS (
+        INSERT INTO app.fillups_new
+            (id, car_id, date, odometer, fuel_volume, price_per_unit, total_cost,
+             is_partial, is_missed, created_at, updated_at)
+        SELECT id, car_id, date, odometer, fuel_volume, price_per_unit, total_cost,
+               is_partial, is_missed, created_at, updated_at
+        FROM batch
+        ON CONFLICT (id, car_id) DO NOTHING
+    )
+    UPDATE backfill_cursor SET last_id = COALESCE((SELECT MAX(id) FROM batch), last_id)
+    RETURNING (SELECT COUNT(*) FROM batch) = :batch_size AS more, last_id
+    \gset
+    \echo 'copied through' :last_id
+\endwhile
+\echo 'Backfill complete.'
+\endif
+
+-- ---------------------------------------------------------------------------
+\if :is_verify
+SELECT
+    (SELECT COUNT(*) FROM app.fillups)     AS old_rows,
+    (SELECT COUNT(*) FROM app.fillups_new) AS new_rows,
+    (SELECT md5(string_agg(id::text || odometer::text || updated_at::text, ',' ORDER BY id)) FROM app.fillups)
+        = (SELECT md5(string_agg(id::text || odometer::text || updated_at::text, ',' ORDER BY id)) FROM app.fillups_new)
+        AS checksum_matches;
+\endif
+
+-- ---------------------------------------------------------------------------
+\if :is_swap
+BEGIN;
+SET LOCAL lock_timeout = '5s';
+LOCK TABLE app.fillups IN ACCESS EXCLUSIVE MODE;
+
+DROP TRIGGER trg_fillups_mirror ON app.fillups;
+DROP FUNCTION app.fillups_mirror();
+
+ALTER TABLE app.fillups RENAME TO fillups_old;
+ALTER INDEX app.fillups_pkey RENAME TO fillups_old_pkey;
+ALTER INDEX app.idx_fillups_car_date RENAME TO idx_fillups_old_car_date;
+ALTER INDEX app.idx_fillups_date RENAME TO idx_fillups_old_date;
+ALTER TABLE app.fillups_old DROP CONSTRAINT fk_fillups_car_id;
+
+ALTER TABLE app.fillups_new RENAME TO fillups;
+ALTER INDEX app.fillups_new_pkey RENAME TO fillups_pkey;
+ALTER INDEX app.idx_fillups_new_car_date RENAME TO idx_fillups_car_date;
+ALTER INDEX app.idx_fillups_new_car_odometer RENAME TO idx_fillups_car_odometer;
+ALTER INDEX app.idx_fillups_new_date RENAME TO idx_fillups_date;
+
+COMMENT ON TABLE app.fillups IS 'Fuel fill-up records for MPG calculation (hash-partitioned on car_id)';
+COMMIT;
+\echo 'Swapped. Old table kept as app.fillups_old.'
+\endif
+
+-- ---------------------------------------------------------------------------
+\if :is_cleanup
+DROP TABLE app.fillups_old;
+\echo 'Dropped app.fillups_old.'
+\endif
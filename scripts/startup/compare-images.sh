@@ -0,0 +1,155 @@
+#!/usr/bin/env bash
+#
+# Benchmark: standard JVM image vs AOT + AppCDS image vs native image
+#
+# Builds backend/Dockerfile, backend/Dockerfile.cds and backend/Dockerfile.native, then cold-starts
+# each image several times against a running PostgreSQL and reports, per image:
+#   - time to first served request: ms from `docker run` until GET /api/cars first returns 200
+#   - resident memory right after that first request, and after the throughput run
+#   - steady-state throughput of GET /api/cars (requires `hey`; skipped otherwise)
+#
+# Usage:
+#   ./scripts/startup/compare-images.sh [options]
+#
+# Options:
+#   --runs N          Cold starts per image (default: 5)
+#   --images LIST     Comma-separated subset of standard,cds,native (default: all three)
+#   --database URL    JDBC URL as seen from the container
+#                     (default: jdbc:postgresql://host.docker.internal:5432/autoledger_dev, i.e. make dev-db-start)
+#   --cpus N          CPU limit per container, to mimic the Fly VM (default: 1)
+#   --memory SIZE     Memory limit per container (default: 512m)
+#   --duration SECS   Throughput measurement window, after a 30s warmup (default: 30)
+#   --skip-build      Reuse existing auto-ledger:<image> images
+#
+# Auth is disabled in the containers, so GET /api/cars is served for the default user.
+
+set -euo pipefail
+
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+NC='\033[0m'
+
+RUNS=5
+IMAGES="standard,cds,native"
+DATABASE_URL="jdbc:postgresql://host.docker.internal:5432/autoledger_dev"
+CPUS=1
+MEMORY=512m
+DURATION=30
+BUILD=true
+PORT=18080
+CONTAINER="auto-ledger-startup-$$"
+
+while [[ $# -gt 0 ]]; do
+    case "$1" in
+        --runs) RUNS="$2"; shift 2 ;;
+        --images) IMAGES="$2"; shift 2 ;;
+        --database) DATABASE_URL="$2"; shift 2 ;;
+        --cpus) CPUS="$2"; shift 2 ;;
+        --memory) MEMORY="$2"; shift 2 ;;
+        --duration) DURATION="$2"; shift 2 ;;
+        --skip-build) BUILD=false; shift ;;
+        *) echo -e "${RED}Unknown option: $1${NC}"; exit 1 ;;
+    esac
+done
+
+for tool in docker curl; do
+    command -v "$tool" > /dev/null || { echo -e "${RED}$tool is required${NC}"; exit 1; }
+done
+HAS_HEY=false
+command -v hey > /dev/null && HAS_HEY=true || echo -e "${YELLOW}hey not installed: skipping throughput${NC}"
+
+REPO_ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+IFS=',' read -r -a IMAGE_LIST <<< "$IMAGES"
+
+dockerfile() {
+    case "$1" in
+        standard) echo "$REPO_ROOT/backend/Dockerfile" ;;
+        *) echo "$REPO_ROOT/backend/Dockerfile.$1" ;;
+    esac
+}
+
+if [[ "$BUILD" == true ]]; then
+    for image in "${IMAGE_LIST[@]}"; do
+        echo -e "${YELLOW}Building auto-ledger:$image...${NC}"
+        docker build -q -f "$(dockerfile "$image")" -t "auto-ledger:$image" "$REPO_ROOT/backend" > /dev/null
+    done
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+start_container() {
+    docker run -d --rm --name "$CONTAINER" \
+        --add-host=host.docker.internal:host-gateway \
+        --cpus="$CPUS" --memory="$MEMORY" \
+        -p "$PORT:8080" \
+        -e DATABASE_URL="$DATABASE_URL" \
+        -e AUTH_ENABLED=false \
+        "$1" > /dev/null
+}
+
+stop_container() {
+    docker stop "$CONTAINER" > /dev/null 2>&1 || true
+}
+trap stop_container EXIT
+
+# Wait for the first 200 from GET /api/cars; print the milliseconds since $1
+await_first_request() {
+    local start="$1" status
+    for _ in $(seq 1 1200); do
+        status=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/api/cars" || true)
+        if [[ "$status" == "200" ]]; then
+            echo $(( $(now_ms) - start ))
+            return 0
+        fi
+        sleep 0.05
+    done
+    docker logs "$CONTAINER" >&2 || true
+    echo -e "${RED}did not serve GET /api/cars within 60s${NC}" >&2
+    return 1
+}
+
+# Container memory usage as reported by docker stats, e.g. "187.3MiB"
+rss() {
+    docker stats --no-stream --format '{{.MemUsage}}' "$CONTAINER" | cut -d/ -f1 | tr -d ' '
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+declare -A STARTUP RSS_START RSS_STEADY THROUGHPUT
+for image in "${IMAGE_LIST[@]}"; do
+    tag="auto-ledger:$image"
+    echo -e "${YELLOW}$tag${NC}"
+    results=()
+    for run in $(seq 1 "$RUNS"); do
+        start=$(now_ms)
+        start_container "$tag"
+        ms=$(await_first_request "$start")
+        results+=("$ms")
+        RSS_START[$image]=$(rss)
+        echo "  run $run: ${ms} ms to first request, ${RSS_START[$image]} resident"
+
+        # Throughput on the last cold start only
+        if [[ "$run" == "$RUNS" && "$HAS_HEY" == true ]]; then
+            hey -z 30s -c 16 "http://localhost:$PORT/api/cars" > /dev/null
+            THROUGHPUT[$image]=$(hey -z "${DURATION}s" -c 16 "http://localhost:$PORT/api/cars" \
+                | awk '/Requests\/sec/ { print int($2) }')
+            RSS_STEADY[$image]=$(rss)
+            echo "  steady state: ${THROUGHPUT[$image]} req/s, ${RSS_STEADY[$image]} resident"
+        fi
+        stop_container
+    done
+    STARTUP[$image]=$(printf '%s\n' "${results[@]}" | median)
+done
+
+echo
+echo -e "${GREEN}GET /api/cars, ${CPUS} CPU, ${MEMORY} limit (first request: median of $RUNS cold starts)${NC}"
+printf '  %-10s %18s %14s %14s %14s\n' "image" "first request ms" "RSS at start" "RSS steady" "req/s"
+for image in "${IMAGE_LIST[@]}"; do
+    printf '  %-10s %18s %14s %14s %14s\n' "$image" "${STARTUP[$image]}" "${RSS_START[$image]}" \
+        "${RSS_STEADY[$image]:--}" "${THROUGHPUT[$image]:--}"
+done